@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.oracle.truffle.api.source.Source;
+
+/**
+ * Interpreter paths: calls of closures, S3 and S4 dispatch and {@code .Call} round-trips. The
+ * latter use {@code grDevices::hcl}, whose native routine has no Java substitute in FastR and
+ * therefore really crosses the FFI.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CallsBenchmark extends RBenchmarkBase {
+    private static final Source LAPPLY = source("lapply", "lapply(1:1e5, function(x) x * 2 + 1)");
+    private static final Source S3_DISPATCH = source("s3Dispatch", "vapply(shapes, area, 1)");
+    private static final Source S4_DISPATCH = source("s4Dispatch", "vapply(rects, perimeter, 1)");
+    private static final Source DOT_CALL = source("dotCall", "for (i in 1:1e4) hcl(120, 50, 70)");
+
+    @Override
+    protected String getSetupCode() {
+        return "area <- function(s) UseMethod('area'); area.square <- function(s) s$side^2; area.circle <- function(s) pi * s$r^2\n" +
+                        "shapes <- lapply(1:1e4, function(i) if (i %% 2) structure(list(side = i), class = 'square') else structure(list(r = i), class = 'circle'))\n" +
+                        "setClass('Rect', representation(w = 'numeric', h = 'numeric'))\n" +
+                        "setGeneric('perimeter', function(s) standardGeneric('perimeter'))\n" +
+                        "setMethod('perimeter', 'Rect', function(s) 2 * (s@w + s@h))\n" +
+                        "rects <- lapply(1:1e3, function(i) new('Rect', w = i, h = i))\n" +
+                        "hcl <- grDevices::hcl\n";
+    }
+
+    @Benchmark
+    public Object lapplyClosures() {
+        return eval(LAPPLY);
+    }
+
+    @Benchmark
+    public Object s3Dispatch() {
+        return eval(S3_DISPATCH);
+    }
+
+    @Benchmark
+    public Object s4Dispatch() {
+        return eval(S4_DISPATCH);
+    }
+
+    @Benchmark
+    public Object dotCall() {
+        return eval(DOT_CALL);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.vm.PolyglotEngine;
+import com.oracle.truffle.r.launcher.RCmdOptions.Client;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.context.ChildContextInfo;
+import com.oracle.truffle.r.runtime.context.RContext.ContextKind;
+
+/**
+ * Common infrastructure of the FastR benchmarks. Each benchmark class gets its own FastR engine,
+ * which is created before and disposed after all the iterations of the benchmarks in that class.
+ * The benchmark methods evaluate {@link Source}s created up-front, so that only the evaluation
+ * itself is measured.
+ */
+@State(Scope.Benchmark)
+public abstract class RBenchmarkBase {
+    private PolyglotEngine engine;
+
+    @Setup(Level.Trial)
+    public void createEngine() {
+        ChildContextInfo info = ChildContextInfo.createNoRestore(Client.R, null, ContextKind.SHARE_NOTHING, null, System.in, System.out, System.err);
+        engine = info.createVM(PolyglotEngine.newBuilder().setOut(System.out).setErr(System.err));
+        engine.eval(source("setup", getSetupCode()));
+    }
+
+    @TearDown(Level.Trial)
+    public void disposeEngine() {
+        engine.dispose();
+        engine = null;
+    }
+
+    /**
+     * R code that prepares the data used by the benchmark methods, it is evaluated once in the
+     * global environment.
+     */
+    protected abstract String getSetupCode();
+
+    protected static Source source(String name, String code) {
+        return Source.newBuilder(code).name(name).mimeType(RRuntime.R_APP_MIME).build();
+    }
+
+    protected final Object eval(Source source) {
+        return engine.eval(source).get();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.oracle.truffle.api.source.Source;
+
+/**
+ * Character vectors, connections and serialization.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StringsAndIOBenchmark extends RBenchmarkBase {
+    private static final Source GREPL = source("grepl", "grepl('7[ab]$', words)");
+    private static final Source READ_LINES = source("readLines", "readLines(file)");
+    private static final Source SERIALIZE = source("serialize", "unserialize(serialize(obj, NULL))");
+
+    @Override
+    protected String getSetupCode() {
+        return "words <- paste0('item', 1:1e5, c('a', 'b', 'c')); file <- tempfile(); writeLines(words, file); " +
+                        "obj <- list(ints = 1:1e5, words = words, doubles = runif(1e4), nested = rep(list(list(a = 1, b = 'x')), 1e3))";
+    }
+
+    @Benchmark
+    public Object grepl() {
+        return eval(GREPL);
+    }
+
+    @Benchmark
+    public Object readLines() {
+        return eval(READ_LINES);
+    }
+
+    @Benchmark
+    public Object serialize() {
+        return eval(SERIALIZE);
+    }
+}
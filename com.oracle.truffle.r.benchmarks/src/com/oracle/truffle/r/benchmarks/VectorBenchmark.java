@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.oracle.truffle.api.source.Source;
+
+/**
+ * Vectorized builtins working on long numeric vectors.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@Fork(1)
+public class VectorBenchmark extends RBenchmarkBase {
+    private static final Source ARITHMETIC = source("arithmetic", "x * 2 + y / 3 - 1");
+    private static final Source ORDER = source("order", "order(x)");
+    private static final Source MATCH = source("match", "match(ints, table)");
+
+    @Override
+    protected String getSetupCode() {
+        return "set.seed(1); x <- runif(1e6); y <- runif(1e6); table <- sample.int(1e5); ints <- sample.int(1e5, 1e6, replace = TRUE)";
+    }
+
+    @Benchmark
+    public Object arithmetic() {
+        return eval(ARITHMETIC);
+    }
+
+    @Benchmark
+    public Object order() {
+        return eval(ORDER);
+    }
+
+    @Benchmark
+    public Object match() {
+        return eval(MATCH);
+    }
+}
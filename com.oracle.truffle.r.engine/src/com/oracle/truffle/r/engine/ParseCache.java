@@ -0,0 +1,568 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.r.nodes.RASTBuilder;
+import com.oracle.truffle.r.nodes.function.FunctionDefinitionNode;
+import com.oracle.truffle.r.nodes.function.FunctionExpressionNode;
+import com.oracle.truffle.r.runtime.ArgumentsSignature;
+import com.oracle.truffle.r.runtime.FastROptions;
+import com.oracle.truffle.r.runtime.RParserFactory;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.context.Engine.ParseException;
+import com.oracle.truffle.r.runtime.context.TruffleRLanguage;
+import com.oracle.truffle.r.runtime.data.RComplex;
+import com.oracle.truffle.r.runtime.data.REmpty;
+import com.oracle.truffle.r.runtime.data.RMissing;
+import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.nodes.RCodeBuilder;
+import com.oracle.truffle.r.runtime.nodes.RCodeBuilder.Argument;
+import com.oracle.truffle.r.runtime.nodes.RSyntaxCall;
+import com.oracle.truffle.r.runtime.nodes.RSyntaxConstant;
+import com.oracle.truffle.r.runtime.nodes.RSyntaxElement;
+import com.oracle.truffle.r.runtime.nodes.RSyntaxFunction;
+import com.oracle.truffle.r.runtime.nodes.RSyntaxLookup;
+import com.oracle.truffle.r.runtime.nodes.RSyntaxNode;
+import com.oracle.truffle.r.runtime.nodes.RSyntaxVisitor;
+
+/**
+ * Cache of parsed internal and file-based sources, such as the base package overrides that every
+ * context evaluates on startup. The syntax trees produced by the parser are stored in a compact
+ * binary form keyed by the SHA-256 hash of the source text and of a fingerprint of the parser and
+ * AST builder classes, so that entries persisted by a different build are never used. On a hit, a fresh AST is created from
+ * this form through an {@link RASTBuilder}, with all source sections bound to the {@link Source}
+ * being parsed, so that neither lexing nor parsing is necessary.
+ *
+ * The in-memory cache is shared by all contexts in the VM and its size is controlled by
+ * {@link FastROptions#ParseCacheSize}. If {@link FastROptions#ParseCacheDir} is set, the entries
+ * are also persisted in that directory and reused by subsequent runs. Note that warnings reported
+ * by the parser (e.g., about integer literals) are not repeated when a source is served from the
+ * cache.
+ */
+final class ParseCache {
+
+    private static final int MAGIC = 0x52415354;
+    private static final int VERSION = 2;
+    private static final String FILE_SUFFIX = ".rast";
+
+    private static final byte CALL = 1;
+    private static final byte CONSTANT = 2;
+    private static final byte LOOKUP = 3;
+    private static final byte FUNCTION = 4;
+
+    private static final byte LOGICAL_VALUE = 1;
+    private static final byte INTEGER_VALUE = 2;
+    private static final byte DOUBLE_VALUE = 3;
+    private static final byte COMPLEX_VALUE = 4;
+    private static final byte STRING_VALUE = 5;
+    private static final byte NA_STRING_VALUE = 6;
+    private static final byte NULL_VALUE = 7;
+    private static final byte EMPTY_VALUE = 8;
+    private static final byte MISSING_VALUE = 9;
+
+    private static final int NO_SECTION = -1;
+    private static final int UNAVAILABLE_SECTION = -2;
+    private static final int INTERNAL_SECTION = -3;
+    private static final int LAZY_DEPARSE_SECTION = -4;
+    private static final int SOURCE_UNAVAILABLE_SECTION = -5;
+
+    private static EntryCache cache;
+    private static String fingerprint;
+
+    private ParseCache() {
+        // no instances
+    }
+
+    /**
+     * Thrown when a syntax tree contains elements that cannot be represented in the cache.
+     */
+    @SuppressWarnings("serial")
+    private static final class NotCacheableException extends RuntimeException {
+        private NotCacheableException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * LRU cache of encoded syntax trees, bounded by the total number of bytes.
+     */
+    private static final class EntryCache {
+        private final long capacity;
+        private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long size;
+
+        private EntryCache(long capacity) {
+            this.capacity = capacity;
+        }
+
+        private synchronized byte[] get(String key) {
+            return entries.get(key);
+        }
+
+        private synchronized void put(String key, byte[] data) {
+            if (data.length > capacity) {
+                return;
+            }
+            byte[] old = entries.put(key, data);
+            size += data.length - (old == null ? 0 : old.length);
+            Iterator<byte[]> iter = entries.values().iterator();
+            while (size > capacity) {
+                size -= iter.next().length;
+                iter.remove();
+            }
+        }
+    }
+
+    private static synchronized EntryCache getCache() {
+        if (cache == null) {
+            cache = new EntryCache(FastROptions.ParseCacheSize.getNonNegativeIntValue() * 1024L * 1024L);
+        }
+        return cache;
+    }
+
+    /**
+     * Parses the given source, reusing a previous parse of the same text if possible.
+     */
+    @TruffleBoundary
+    static List<RSyntaxNode> parse(Source source, TruffleRLanguage language) throws ParseException {
+        RParserFactory.Parser<RSyntaxNode> parser = RParserFactory.getParser();
+        if (!source.isInternal() && source.getPath() == null) {
+            return parser.script(source, new RASTBuilder(), language);
+        }
+        EntryCache entryCache = getCache();
+        String dir = FastROptions.ParseCacheDir.getStringValue();
+        if (entryCache.capacity == 0 && dir == null) {
+            return parser.script(source, new RASTBuilder(), language);
+        }
+        String code = source.getCode();
+        String key = hash(getFingerprint(parser), code);
+        byte[] data = entryCache.get(key);
+        if (data == null && dir != null) {
+            data = readFile(dir, key);
+        }
+        if (data != null) {
+            List<RSyntaxNode> result = decode(data, code, source, language);
+            if (result != null) {
+                entryCache.put(key, data);
+                return result;
+            }
+        }
+        List<RSyntaxNode> result = parser.script(source, new RASTBuilder(), language);
+        data = encode(result, code, source);
+        if (data != null) {
+            entryCache.put(key, data);
+            if (dir != null) {
+                writeFile(dir, key, data);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Identifies the build that produced the encoded syntax trees: the format version together with
+     * the size and modification time of the class files (or the archives containing them) of the
+     * parser, the AST builder and this class.
+     */
+    private static synchronized String getFingerprint(RParserFactory.Parser<RSyntaxNode> parser) {
+        if (fingerprint == null) {
+            StringBuilder str = new StringBuilder().append(VERSION);
+            for (Class<?> clazz : new Class<?>[]{parser.getClass(), RASTBuilder.class, ParseCache.class}) {
+                str.append(';').append(clazz.getName());
+                URL url = clazz.getResource(clazz.getName().substring(clazz.getName().lastIndexOf('.') + 1) + ".class");
+                if (url != null) {
+                    try {
+                        URLConnection connection = url.openConnection();
+                        str.append(':').append(connection.getContentLengthLong()).append(':').append(connection.getLastModified());
+                    } catch (IOException e) {
+                        // the class name and format version still distinguish incompatible builds
+                    }
+                }
+            }
+            fingerprint = str.toString();
+        }
+        return fingerprint;
+    }
+
+    private static String hash(String fingerprintValue, String code) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update(fingerprintValue.getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+            byte[] digest = md.digest(code.getBytes(StandardCharsets.UTF_8));
+            StringBuilder str = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                str.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return str.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static byte[] readFile(String dir, String key) {
+        Path path = Paths.get(dir, key + FILE_SUFFIX);
+        try {
+            return Files.isRegularFile(path) ? Files.readAllBytes(path) : null;
+        } catch (IOException e) {
+            // a missing or unreadable entry is treated as a cache miss
+            return null;
+        }
+    }
+
+    private static void writeFile(String dir, String key, byte[] data) {
+        try {
+            Path dirPath = Paths.get(dir);
+            Files.createDirectories(dirPath);
+            // write to a temporary file first so that concurrent runs never see partial entries
+            Path tmp = Files.createTempFile(dirPath, key, ".tmp");
+            try {
+                Files.write(tmp, data);
+                Files.move(tmp, dirPath.resolve(key + FILE_SUFFIX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            // persisting the entry is optional
+        }
+    }
+
+    private static byte[] encode(List<RSyntaxNode> nodes, String code, Source source) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(code.length());
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(code.length());
+            out.writeInt(nodes.size());
+            Encoder encoder = new Encoder(out, source);
+            for (RSyntaxNode node : nodes) {
+                encoder.accept(node);
+            }
+            out.flush();
+        } catch (NotCacheableException e) {
+            return null;
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<RSyntaxNode> decode(byte[] data, String code, Source source, TruffleRLanguage language) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != code.length()) {
+                return null;
+            }
+            int count = in.readInt();
+            Decoder decoder = new Decoder(in, source, language);
+            ArrayList<RSyntaxNode> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add(decoder.readNode());
+            }
+            return result;
+        } catch (IOException | IllegalArgumentException e) {
+            // corrupt or incompatible entry, fall back to parsing
+            return null;
+        }
+    }
+
+    private static final class Encoder extends RSyntaxVisitor<Void> {
+        private final DataOutputStream out;
+        private final Source source;
+
+        private Encoder(DataOutputStream out, Source source) {
+            this.out = out;
+            this.source = source;
+        }
+
+        @Override
+        protected Void visit(RSyntaxCall element) {
+            try {
+                out.writeByte(CALL);
+                writeSection(element.getLazySourceSection());
+                accept(element.getSyntaxLHS());
+                RSyntaxElement[] arguments = element.getSyntaxArguments();
+                SourceSection[] sections = new SourceSection[arguments.length];
+                for (int i = 0; i < arguments.length; i++) {
+                    sections[i] = arguments[i] == null ? null : arguments[i].getLazySourceSection();
+                }
+                writeArguments(element.getSyntaxSignature(), arguments, sections);
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+            return null;
+        }
+
+        @Override
+        protected Void visit(RSyntaxConstant element) {
+            try {
+                out.writeByte(CONSTANT);
+                writeSection(element.getLazySourceSection());
+                writeValue(element.getValue());
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+            return null;
+        }
+
+        @Override
+        protected Void visit(RSyntaxLookup element) {
+            try {
+                out.writeByte(LOOKUP);
+                writeSection(element.getLazySourceSection());
+                writeString(element.getIdentifier());
+                out.writeBoolean(element.isFunctionLookup());
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+            return null;
+        }
+
+        @Override
+        protected Void visit(RSyntaxFunction element) {
+            try {
+                out.writeByte(FUNCTION);
+                writeSection(element.getLazySourceSection());
+                if (!(element instanceof FunctionExpressionNode)) {
+                    throw new NotCacheableException("function of type " + element.getClass().getSimpleName());
+                }
+                FunctionDefinitionNode root = (FunctionDefinitionNode) ((FunctionExpressionNode) element).getCallTarget().getRootNode();
+                ArgumentsSignature signature = element.getSyntaxSignature();
+                RSyntaxElement[] defaults = element.getSyntaxArgumentDefaults();
+                SourceSection[] sections = new SourceSection[defaults.length];
+                for (int i = 0; i < defaults.length; i++) {
+                    // the formal's section covers "name=value", not just the default value
+                    sections[i] = root.getArgumentSourceSection(i);
+                }
+                writeArguments(signature, defaults, sections);
+                accept(element.getSyntaxBody());
+                writeString(element.getSyntaxDebugName());
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+            return null;
+        }
+
+        /**
+         * Writes the arguments together with the source sections of the
+         * {@link RCodeBuilder.Argument}s, which are encoded separately from the sections of the
+         * values.
+         */
+        private void writeArguments(ArgumentsSignature signature, RSyntaxElement[] arguments, SourceSection[] sections) throws IOException {
+            out.writeInt(arguments.length);
+            for (int i = 0; i < arguments.length; i++) {
+                writeString(signature.getName(i));
+                writeSection(sections[i]);
+                out.writeBoolean(arguments[i] != null);
+                if (arguments[i] != null) {
+                    accept(arguments[i]);
+                }
+            }
+        }
+
+        private void writeSection(SourceSection section) throws IOException {
+            if (section == null) {
+                out.writeInt(NO_SECTION);
+            } else if (section == RSyntaxNode.SOURCE_UNAVAILABLE) {
+                out.writeInt(SOURCE_UNAVAILABLE_SECTION);
+            } else if (section == RSyntaxNode.INTERNAL) {
+                out.writeInt(INTERNAL_SECTION);
+            } else if (section == RSyntaxNode.LAZY_DEPARSE) {
+                out.writeInt(LAZY_DEPARSE_SECTION);
+            } else if (section.getSource() != source) {
+                throw new NotCacheableException("section of another source");
+            } else if (!section.isAvailable()) {
+                out.writeInt(UNAVAILABLE_SECTION);
+            } else {
+                out.writeInt(section.getCharIndex());
+                out.writeInt(section.getCharLength());
+            }
+        }
+
+        private void writeValue(Object value) throws IOException {
+            if (value instanceof Byte) {
+                out.writeByte(LOGICAL_VALUE);
+                out.writeByte((byte) value);
+            } else if (value instanceof Integer) {
+                out.writeByte(INTEGER_VALUE);
+                out.writeInt((int) value);
+            } else if (value instanceof Double) {
+                out.writeByte(DOUBLE_VALUE);
+                // raw bits preserve the NA payload
+                out.writeLong(Double.doubleToRawLongBits((double) value));
+            } else if (value instanceof RComplex) {
+                out.writeByte(COMPLEX_VALUE);
+                out.writeLong(Double.doubleToRawLongBits(((RComplex) value).getRealPart()));
+                out.writeLong(Double.doubleToRawLongBits(((RComplex) value).getImaginaryPart()));
+            } else if (value instanceof String) {
+                if (RRuntime.isNA((String) value)) {
+                    out.writeByte(NA_STRING_VALUE);
+                } else {
+                    out.writeByte(STRING_VALUE);
+                    writeString((String) value);
+                }
+            } else if (value == RNull.instance) {
+                out.writeByte(NULL_VALUE);
+            } else if (value == REmpty.instance) {
+                out.writeByte(EMPTY_VALUE);
+            } else if (value == RMissing.instance) {
+                out.writeByte(MISSING_VALUE);
+            } else {
+                throw new NotCacheableException("constant of type " + value.getClass().getSimpleName());
+            }
+        }
+
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static final class Decoder {
+        private final DataInputStream in;
+        private final Source source;
+        private final TruffleRLanguage language;
+        private final RCodeBuilder<RSyntaxNode> builder = new RASTBuilder();
+
+        private Decoder(DataInputStream in, Source source, TruffleRLanguage language) {
+            this.in = in;
+            this.source = source;
+            this.language = language;
+        }
+
+        private RSyntaxNode readNode() throws IOException {
+            byte kind = in.readByte();
+            SourceSection section = readSection();
+            switch (kind) {
+                case CALL:
+                    RSyntaxNode lhs = readNode();
+                    return builder.call(section, lhs, readArguments());
+                case CONSTANT:
+                    return builder.constant(section, readValue());
+                case LOOKUP:
+                    String identifier = readString();
+                    return builder.lookup(section, identifier == null ? null : identifier.intern(), in.readBoolean());
+                case FUNCTION:
+                    List<Argument<RSyntaxNode>> params = readArguments();
+                    RSyntaxNode body = readNode();
+                    return builder.function(language, section, params, body, readString());
+                default:
+                    throw new IOException("unexpected element kind " + kind);
+            }
+        }
+
+        private List<Argument<RSyntaxNode>> readArguments() throws IOException {
+            int count = in.readInt();
+            ArrayList<Argument<RSyntaxNode>> args = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String name = readString();
+                SourceSection section = readSection();
+                RSyntaxNode value = in.readBoolean() ? readNode() : null;
+                args.add(RCodeBuilder.argument(section, name == null ? null : name.intern(), value));
+            }
+            return args;
+        }
+
+        private SourceSection readSection() throws IOException {
+            int index = in.readInt();
+            switch (index) {
+                case NO_SECTION:
+                    return null;
+                case SOURCE_UNAVAILABLE_SECTION:
+                    return RSyntaxNode.SOURCE_UNAVAILABLE;
+                case INTERNAL_SECTION:
+                    return RSyntaxNode.INTERNAL;
+                case LAZY_DEPARSE_SECTION:
+                    return RSyntaxNode.LAZY_DEPARSE;
+                case UNAVAILABLE_SECTION:
+                    return source.createUnavailableSection();
+                default:
+                    return source.createSection(index, in.readInt());
+            }
+        }
+
+        private Object readValue() throws IOException {
+            byte type = in.readByte();
+            switch (type) {
+                case LOGICAL_VALUE:
+                    return in.readByte();
+                case INTEGER_VALUE:
+                    return in.readInt();
+                case DOUBLE_VALUE:
+                    return Double.longBitsToDouble(in.readLong());
+                case COMPLEX_VALUE:
+                    double re = Double.longBitsToDouble(in.readLong());
+                    return RComplex.valueOf(re, Double.longBitsToDouble(in.readLong()));
+                case STRING_VALUE:
+                    return readString();
+                case NA_STRING_VALUE:
+                    return RRuntime.STRING_NA;
+                case NULL_VALUE:
+                    return RNull.instance;
+                case EMPTY_VALUE:
+                    return REmpty.instance;
+                case MISSING_VALUE:
+                    return RMissing.instance;
+                default:
+                    throw new IOException("unexpected constant type " + type);
+            }
+        }
+
+        private String readString() throws IOException {
+            int length = in.readInt();
+            if (length == -1) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
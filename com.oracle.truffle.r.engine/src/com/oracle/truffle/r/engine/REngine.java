@@ -23,7 +23,10 @@
 package com.oracle.truffle.r.engine;
 
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.stream.Collectors;
 
 import com.oracle.truffle.api.CallTarget;
@@ -36,6 +39,7 @@ import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleLanguage.ContextReference;
 import com.oracle.truffle.api.dsl.UnsupportedSpecializationException;
 import com.oracle.truffle.api.frame.Frame;
+import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.interop.TruffleObject;
@@ -49,7 +53,6 @@ import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.api.source.SourceSection;
 import com.oracle.truffle.r.launcher.StartupTiming;
 import com.oracle.truffle.r.library.graphics.RGraphics;
-import com.oracle.truffle.r.nodes.RASTBuilder;
 import com.oracle.truffle.r.nodes.RASTUtils;
 import com.oracle.truffle.r.nodes.access.ConstantNode;
 import com.oracle.truffle.r.nodes.access.variables.ReadVariableNode;
@@ -72,7 +75,6 @@ import com.oracle.truffle.r.runtime.RCaller;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RErrorHandling;
 import com.oracle.truffle.r.runtime.RInternalError;
-import com.oracle.truffle.r.runtime.RParserFactory;
 import com.oracle.truffle.r.runtime.RProfile;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RSource;
@@ -135,6 +137,55 @@ final class REngine implements Engine, Engine.Timings {
      */
     private boolean suppressWarnings;
 
+    /**
+     * Limits the number of different frame descriptors (i.e., environments of different shape) for
+     * which the call target of one language object is cached in {@link #evalCallTargets}.
+     */
+    private static final int MAX_EVAL_CALL_TARGETS = 8;
+
+    /**
+     * Call targets created by {@link #evalNode}, keyed by the AST of the evaluated language object,
+     * so that repeated {@code eval} of the same language object reuses the profiled (and possibly
+     * compiled) code. The call targets execute copies of the AST, so the entries go away together
+     * with the language object.
+     */
+    private final WeakHashMap<RSyntaxElement, EvalCallTargets> evalCallTargets = new WeakHashMap<>();
+
+    /**
+     * The call targets of one language object, one per frame descriptor of the environments it is
+     * evaluated in. A call target specializes to its frame descriptor and keeps it alive, so a
+     * descriptor is only admitted when it is seen for the second time: the environments that
+     * {@code eval} creates for a single call, e.g. from a list, are only referenced weakly and
+     * never fill the cache. At most {@link #MAX_EVAL_CALL_TARGETS} descriptors are kept, the least
+     * recently used one is dropped first.
+     */
+    private static final class EvalCallTargets {
+        private final WeakHashMap<FrameDescriptor, Boolean> seen = new WeakHashMap<>();
+        private final LinkedHashMap<FrameDescriptor, RootCallTarget> callTargets;
+
+        @SuppressWarnings("serial")
+        private EvalCallTargets() {
+            this.callTargets = new LinkedHashMap<FrameDescriptor, RootCallTarget>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<FrameDescriptor, RootCallTarget> eldest) {
+                    return size() > MAX_EVAL_CALL_TARGETS;
+                }
+            };
+        }
+
+        private RootCallTarget get(FrameDescriptor descriptor) {
+            return callTargets.get(descriptor);
+        }
+
+        private void put(FrameDescriptor descriptor, RootCallTarget callTarget) {
+            if (seen.remove(descriptor) != null) {
+                callTargets.put(descriptor, callTarget);
+            } else {
+                seen.put(descriptor, Boolean.TRUE);
+            }
+        }
+    }
+
     private REngine(RContext context) {
         this.context = context;
         this.childTimes = new long[]{0, 0};
@@ -285,8 +336,7 @@ final class REngine implements Engine, Engine.Timings {
     }
 
     private List<RSyntaxNode> parseImpl(Source source) throws ParseException {
-        RParserFactory.Parser<RSyntaxNode> parser = RParserFactory.getParser();
-        return parser.script(source, new RASTBuilder(), context.getLanguage());
+        return ParseCache.parse(source, context.getLanguage());
     }
 
     @Override
@@ -446,7 +496,13 @@ final class REngine implements Engine, Engine.Timings {
         if (n instanceof ConstantNode) {
             return ((ConstantNode) n).getValue();
         }
-        RootCallTarget callTarget = doMakeCallTarget(n, RSource.Internal.EVAL_WRAPPER.string, false, false);
+        RootCallTarget callTarget;
+        if (n.getParent() instanceof AnonymousRootNode && ((AnonymousRootNode) n.getParent()).isEvalWrapperOf(n)) {
+            // this AST was evaluated before and is still the body of the root created back then
+            callTarget = ((AnonymousRootNode) n.getParent()).getCallTarget();
+        } else {
+            callTarget = doMakeCallTarget(n, RSource.Internal.EVAL_WRAPPER.string, false, false);
+        }
         return callTarget.call(frame);
     }
 
@@ -479,10 +535,20 @@ final class REngine implements Engine, Engine.Timings {
     }
 
     private Object evalNode(RSyntaxElement exprRep, REnvironment envir, RCaller caller) {
-        // we need to copy the node, otherwise it (and its children) will specialized to a specific
-        // frame descriptor and will fail on subsequent re-executions
-        RSyntaxNode n = RContext.getASTBuilder().process(exprRep);
-        RootCallTarget callTarget = doMakeCallTarget(n.asRNode(), RSource.Internal.EVAL_WRAPPER.string, false, false);
+        FrameDescriptor descriptor = envir.getFrame().getFrameDescriptor();
+        EvalCallTargets callTargets = evalCallTargets.get(exprRep);
+        RootCallTarget callTarget = callTargets == null ? null : callTargets.get(descriptor);
+        if (callTarget == null) {
+            // we need to copy the node, otherwise it (and its children) will specialized to a
+            // specific frame descriptor and will fail on subsequent re-executions
+            RSyntaxNode n = RContext.getASTBuilder().process(exprRep);
+            callTarget = doMakeCallTarget(n.asRNode(), RSource.Internal.EVAL_WRAPPER.string, false, false);
+            if (callTargets == null) {
+                callTargets = new EvalCallTargets();
+                evalCallTargets.put(exprRep, callTargets);
+            }
+            callTargets.put(descriptor, callTarget);
+        }
         return evalTarget(callTarget, caller, envir);
     }
 
@@ -552,6 +618,10 @@ final class REngine implements Engine, Engine.Timings {
             return body.getSourceSection();
         }
 
+        boolean isEvalWrapperOf(RNode node) {
+            return body == node && !printResult && !topLevel && RSource.Internal.EVAL_WRAPPER.string.equals(description);
+        }
+
         @Override
         public boolean isInternal() {
             return RSyntaxNode.isInternal(body.asRSyntaxNode().getLazySourceSection());
@@ -76,6 +76,10 @@ import com.oracle.truffle.r.runtime.data.RDoubleSequence;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RExpression;
 import com.oracle.truffle.r.runtime.data.RExternalPtr;
+import com.oracle.truffle.r.runtime.data.RForeignArrayWrapper;
+import com.oracle.truffle.r.runtime.data.RForeignBooleanArrayWrapper;
+import com.oracle.truffle.r.runtime.data.RForeignDoubleArrayWrapper;
+import com.oracle.truffle.r.runtime.data.RForeignIntArrayWrapper;
 import com.oracle.truffle.r.runtime.data.RFunction;
 import com.oracle.truffle.r.runtime.data.RIntSequence;
 import com.oracle.truffle.r.runtime.data.RIntVector;
@@ -94,6 +98,7 @@ import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RSymbol;
 import com.oracle.truffle.r.runtime.data.RTypedValue;
 import com.oracle.truffle.r.runtime.data.RUnboundValue;
+import com.oracle.truffle.r.runtime.data.closures.RDeferredArithmeticVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractComplexVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractContainer;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
@@ -527,6 +532,8 @@ public abstract class JavaUpCallsRFFIImpl implements UpCallsRFFI {
     public Object LOGICAL(Object x) {
         if (x instanceof RLogicalVector) {
             return ((RLogicalVector) x).getDataWithoutCopying();
+        } else if (x instanceof RForeignBooleanArrayWrapper) {
+            return ((RForeignBooleanArrayWrapper) x).materialize().getDataWithoutCopying();
         } else if (x instanceof Byte) {
             return new byte[]{(Byte) x};
         } else {
@@ -537,13 +544,17 @@ public abstract class JavaUpCallsRFFIImpl implements UpCallsRFFI {
     @Override
     public Object INTEGER(Object x) {
         if (x instanceof RIntVector) {
+            // native code may keep the pointer and modify the data later
+            ((RIntVector) x).disableHashIndex();
             return ((RIntVector) x).getDataWithoutCopying();
         } else if (x instanceof RIntSequence) {
             return ((RIntSequence) x).materialize().getDataWithoutCopying();
+        } else if (x instanceof RForeignIntArrayWrapper) {
+            return ((RForeignIntArrayWrapper) x).materialize().getDataWithoutCopying();
         } else if (x instanceof Integer) {
             return new int[]{(Integer) x};
-        } else if (x instanceof RLogicalVector) {
-            RLogicalVector vec = (RLogicalVector) x;
+        } else if (x instanceof RLogicalVector || x instanceof RForeignBooleanArrayWrapper) {
+            RAbstractLogicalVector vec = (RAbstractLogicalVector) x;
             int[] result = new int[vec.getLength()];
             for (int i = 0; i < result.length; i++) {
                 result[i] = vec.getDataAt(i);
@@ -558,9 +569,15 @@ public abstract class JavaUpCallsRFFIImpl implements UpCallsRFFI {
     @Override
     public Object REAL(Object x) {
         if (x instanceof RDoubleVector) {
+            // native code may keep the pointer and modify the data later
+            ((RDoubleVector) x).disableHashIndex();
             return ((RDoubleVector) x).getDataWithoutCopying();
         } else if (x instanceof RDoubleSequence) {
             return ((RDoubleSequence) x).materialize().getDataWithoutCopying();
+        } else if (x instanceof RDeferredArithmeticVector) {
+            return ((RDeferredArithmeticVector) x).materialize().getDataWithoutCopying();
+        } else if (x instanceof RForeignDoubleArrayWrapper) {
+            return ((RForeignDoubleArrayWrapper) x).materialize().getDataWithoutCopying();
         } else {
             guaranteeInstanceOf(x, Double.class);
             return new double[]{(Double) x};
@@ -655,12 +672,16 @@ public abstract class JavaUpCallsRFFIImpl implements UpCallsRFFI {
     @Override
     public Object Rf_duplicate(Object x, int deep) {
         guarantee(x != null, "unexpected type: null instead of " + x.getClass().getSimpleName());
-        guarantee(x instanceof RShareable || x instanceof RSequence || x instanceof RExternalPtr,
+        guarantee(x instanceof RShareable || x instanceof RSequence || x instanceof RDeferredArithmeticVector || x instanceof RForeignArrayWrapper || x instanceof RExternalPtr,
                         "unexpected type: " + x + " is " + x.getClass().getSimpleName() + " instead of RShareable or RExternalPtr");
         if (x instanceof RShareable) {
             return deep == 1 ? ((RShareable) x).deepCopy() : ((RShareable) x).copy();
         } else if (x instanceof RSequence) {
             return ((RSequence) x).materialize();
+        } else if (x instanceof RDeferredArithmeticVector) {
+            return ((RDeferredArithmeticVector) x).materialize();
+        } else if (x instanceof RForeignArrayWrapper) {
+            return ((RForeignArrayWrapper) x).materialize();
         } else {
             return ((RExternalPtr) x).copy();
         }
@@ -1421,7 +1442,7 @@ public abstract class JavaUpCallsRFFIImpl implements UpCallsRFFI {
     public REnvironment R_NewHashedEnv(Object parent, Object initialSize) {
         // We know this is an RIntVector from use site in gramRd.c
         REnvironment env = RDataFactory.createNewEnv(REnvironment.UNNAMED, true, ((RIntVector) initialSize).getDataAt(0));
-        RArguments.initializeEnclosingFrame(env.getFrame(), guaranteeInstanceOf(parent, REnvironment.class).getFrame());
+        env.initializeParent(guaranteeInstanceOf(parent, REnvironment.class));
         return env;
     }
 
@@ -63,9 +63,9 @@ public class RFFIUtils {
     private static final String TRACEFILE = "fastr_trace_nativecalls.log";
     private static FileOutputStream traceStream;
     /**
-     * Records the call depth. TBD: make context specific
+     * Records the call depth of the current thread, native calls may run concurrently.
      */
-    private static int depth;
+    private static final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
 
     /**
      * Handles the initialization of the RFFI downcalls/upcall implementation.
@@ -130,19 +130,19 @@ public class RFFIUtils {
     }
 
     public static void traceUpCall(String name, Object... args) {
-        traceCall(CallMode.UP, name, depth, args);
+        traceCall(CallMode.UP, name, depth.get()[0], args);
     }
 
     public static void traceUpCallReturn(String name, Object result) {
-        traceCall(CallMode.UP_RETURN, name, depth, result);
+        traceCall(CallMode.UP_RETURN, name, depth.get()[0], result);
     }
 
     public static void traceDownCall(String name, Object... args) {
-        traceCall(CallMode.DOWN, name, ++depth, args);
+        traceCall(CallMode.DOWN, name, ++depth.get()[0], args);
     }
 
     public static void traceDownCallReturn(String name, Object result) {
-        traceCall(CallMode.DOWN_RETURN, name, depth--, result);
+        traceCall(CallMode.DOWN_RETURN, name, depth.get()[0]--, result);
     }
 
     public static boolean traceEnabled() {
@@ -56,13 +56,18 @@ public final class NativeDoubleArray extends NativeNACheck<double[]> implements
             UNSAFE.putDouble(nativeAddress + index * Unsafe.ARRAY_DOUBLE_INDEX_SCALE, nv);
         } else {
             value[index] = nv;
+            javaDataChanged();
         }
     }
 
+    @Override
+    protected long getNativeSize() {
+        return (long) value.length * Unsafe.ARRAY_DOUBLE_INDEX_SCALE;
+    }
+
     @Override
     @TruffleBoundary
-    protected void allocateNative() {
-        nativeAddress = UNSAFE.allocateMemory(value.length * Unsafe.ARRAY_DOUBLE_INDEX_SCALE);
+    protected void copyToNative() {
         UNSAFE.copyMemory(value, Unsafe.ARRAY_DOUBLE_BASE_OFFSET, null, nativeAddress, value.length * Unsafe.ARRAY_DOUBLE_INDEX_SCALE);
     }
 
@@ -56,13 +56,18 @@ public final class NativeIntegerArray extends NativeNACheck<int[]> implements RT
             UNSAFE.putInt(nativeAddress + index * Unsafe.ARRAY_INT_INDEX_SCALE, nv);
         } else {
             value[index] = nv;
+            javaDataChanged();
         }
     }
 
+    @Override
+    protected long getNativeSize() {
+        return (long) value.length * Unsafe.ARRAY_INT_INDEX_SCALE;
+    }
+
     @Override
     @TruffleBoundary
-    protected void allocateNative() {
-        nativeAddress = UNSAFE.allocateMemory(value.length * Unsafe.ARRAY_INT_INDEX_SCALE);
+    protected void copyToNative() {
         UNSAFE.copyMemory(value, Unsafe.ARRAY_INT_BASE_OFFSET, null, nativeAddress, value.length * Unsafe.ARRAY_INT_INDEX_SCALE);
     }
 
@@ -61,9 +61,14 @@ public final class NativeLogicalArray extends NativeNACheck<byte[]> implements R
         return NativeLogicalArrayMRForeign.ACCESS;
     }
 
+    @Override
+    protected long getNativeSize() {
+        throw RInternalError.shouldNotReachHere();
+    }
+
     @Override
     @TruffleBoundary
-    protected void allocateNative() {
+    protected void copyToNative() {
         throw RInternalError.shouldNotReachHere();
     }
 
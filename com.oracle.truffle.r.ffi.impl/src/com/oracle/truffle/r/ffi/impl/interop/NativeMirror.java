@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.ffi.impl.interop;
+
+import static com.oracle.truffle.r.ffi.impl.interop.UnsafeAdapter.UNSAFE;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.HashSet;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.FastROptions;
+import com.oracle.truffle.r.runtime.data.RVector;
+
+/**
+ * A native copy of the data of an {@link RVector} that outlives a single native call, so that
+ * repeated calls on the same vector do not have to allocate and fill a fresh native array each
+ * time. The Java data is only copied to the mirror if the vector reports a modification (see
+ * {@link RVector#checkAndResetNativeMirrorStale()}), and the data is only copied back if the native
+ * address actually escaped in the call (see {@link NativeNACheck#close()}).
+ *
+ * The native memory is released once the owning vector has been garbage collected; the queue of
+ * dead vectors is polled whenever a new mirror is created.
+ */
+final class NativeMirror {
+
+    private static final ReferenceQueue<RVector<?>> refQueue = new ReferenceQueue<>();
+
+    /**
+     * Keeps the phantom references reachable until they are enqueued.
+     */
+    private static final HashSet<MirrorReference> liveMirrors = new HashSet<>();
+
+    private static final class MirrorReference extends PhantomReference<RVector<?>> {
+        private final long address;
+
+        MirrorReference(RVector<?> vector, long address) {
+            super(vector, refQueue);
+            this.address = address;
+        }
+    }
+
+    final long address;
+
+    private NativeMirror(long address) {
+        this.address = address;
+    }
+
+    static boolean isEnabled() {
+        return FastROptions.NativeMirrors.getBooleanValue();
+    }
+
+    /**
+     * Returns the mirror of {@code vector}, allocating one of {@code size} bytes if necessary. A new
+     * mirror is always stale, i.e., the caller has to fill it.
+     */
+    @TruffleBoundary
+    static NativeMirror get(RVector<?> vector, long size) {
+        synchronized (liveMirrors) {
+            Object existing = vector.getNativeMirror();
+            if (existing instanceof NativeMirror) {
+                return (NativeMirror) existing;
+            }
+            releaseCollected();
+            NativeMirror mirror = new NativeMirror(UNSAFE.allocateMemory(size));
+            liveMirrors.add(new MirrorReference(vector, mirror.address));
+            vector.setNativeMirror(mirror);
+            return mirror;
+        }
+    }
+
+    private static void releaseCollected() {
+        while (true) {
+            Reference<? extends RVector<?>> ref = refQueue.poll();
+            if (ref == null) {
+                return;
+            }
+            MirrorReference mirrorRef = (MirrorReference) ref;
+            liveMirrors.remove(mirrorRef);
+            UNSAFE.freeMemory(mirrorRef.address);
+        }
+    }
+}
@@ -40,6 +40,12 @@ public abstract class NativeNACheck<T> implements AutoCloseable {
      */
     protected long nativeAddress;
 
+    /**
+     * The persistent native copy of {@link #vec} that {@link #nativeAddress} points into, or
+     * {@code null} if the native array is private to this call.
+     */
+    private NativeMirror mirror;
+
     protected NativeNACheck(Object x) {
         if (x instanceof RVector<?>) {
             vec = (RVector<?>) x;
@@ -55,13 +61,36 @@ public abstract class NativeNACheck<T> implements AutoCloseable {
         }
     }
 
-    protected abstract void allocateNative();
+    /**
+     * The size of the native array in bytes.
+     */
+    protected abstract long getNativeSize();
+
+    protected abstract void copyToNative();
 
     protected abstract void copyBackFromNative();
 
+    /**
+     * Marks that the Java array has been modified directly, i.e., not through the owning vector.
+     */
+    protected final void javaDataChanged() {
+        if (vec != null) {
+            vec.setNativeMirrorStale();
+        }
+    }
+
     final long convertToNative() {
         if (nativeAddress == 0) {
-            allocateNative();
+            if (vec != null && NativeMirror.isEnabled()) {
+                mirror = NativeMirror.get(vec, getNativeSize());
+                nativeAddress = mirror.address;
+                if (vec.checkAndResetNativeMirrorStale()) {
+                    copyToNative();
+                }
+            } else {
+                nativeAddress = UNSAFE.allocateMemory(getNativeSize());
+                copyToNative();
+            }
         }
         return nativeAddress;
     }
@@ -69,8 +98,11 @@ public abstract class NativeNACheck<T> implements AutoCloseable {
     @Override
     public final void close() {
         if (nativeAddress != 0) {
+            // the address escaped, so the native code may have modified the data
             copyBackFromNative();
-            UNSAFE.freeMemory(nativeAddress);
+            if (mirror == null) {
+                UNSAFE.freeMemory(nativeAddress);
+            }
         }
     }
 }
@@ -41,13 +41,22 @@ public class JNI_C implements CRFFI {
         @Override
         @TruffleBoundary
         public void execute(NativeCallInfo nativeCallInfo, Object[] args, boolean hasStrings) {
-            synchronized (JNI_C.class) {
-                if (traceEnabled()) {
-                    traceDownCall(nativeCallInfo.name, args);
+            Object lock = JNI_Call.getCallLock(nativeCallInfo);
+            if (lock == null) {
+                doCall(nativeCallInfo, args, hasStrings);
+            } else {
+                synchronized (lock) {
+                    doCall(nativeCallInfo, args, hasStrings);
                 }
-                c(nativeCallInfo.address.asAddress(), args, hasStrings);
             }
         }
+
+        private static void doCall(NativeCallInfo nativeCallInfo, Object[] args, boolean hasStrings) {
+            if (traceEnabled()) {
+                traceDownCall(nativeCallInfo.name, args);
+            }
+            c(nativeCallInfo.address.asAddress(), args, hasStrings);
+        }
     }
 
     private static native void c(long address, Object[] args, boolean hasStrings);
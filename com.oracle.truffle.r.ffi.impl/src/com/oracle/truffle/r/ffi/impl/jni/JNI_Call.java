@@ -32,6 +32,7 @@ import com.oracle.truffle.r.ffi.impl.common.RFFIUtils;
 import com.oracle.truffle.r.ffi.impl.upcalls.UpCallsRFFI;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.ffi.CallRFFI;
+import com.oracle.truffle.r.runtime.ffi.DLL.DLLInfo;
 import com.oracle.truffle.r.runtime.ffi.NativeCallInfo;
 import com.oracle.truffle.r.runtime.ffi.RFFIVariables;
 
@@ -41,9 +42,12 @@ import com.oracle.truffle.r.runtime.ffi.RFFIVariables;
  * they are passed as an array and the JNI code has to call back to get the args (not very
  * efficient).
  *
- * The JNI layer is not (currently) MT safe, so all calls are single threaded. N.B. Since the calls
- * take place from nodes, and these may be duplicated in separate contexts, we must synchronize on
- * the class.
+ * The JNI layer keeps its per-call state in thread local storage, so calls from different threads
+ * may run concurrently. Calls into a DLL that is not declared thread-safe (see
+ * {@link DLLInfo#getCallLock()}) are serialized on a lock keyed by the library path, and calls
+ * whose DLL is not known share a single lock. N.B. Since the calls take place from nodes, and these
+ * may be duplicated in separate contexts, the lock must be shared by all contexts that load the
+ * library.
  */
 public class JNI_Call implements CallRFFI {
 
@@ -52,53 +56,61 @@ public class JNI_Call implements CallRFFI {
         @Override
         @TruffleBoundary
         public Object execute(NativeCallInfo nativeCallInfo, Object[] args) {
-            synchronized (JNI_Call.class) {
-                long address = nativeCallInfo.address.asAddress();
-                Object result = null;
-                if (traceEnabled()) {
-                    traceDownCall(nativeCallInfo.name, args);
+            Object lock = getCallLock(nativeCallInfo);
+            if (lock == null) {
+                return doCall(nativeCallInfo, args);
+            }
+            synchronized (lock) {
+                return doCall(nativeCallInfo, args);
+            }
+        }
+
+        private static Object doCall(NativeCallInfo nativeCallInfo, Object[] args) {
+            long address = nativeCallInfo.address.asAddress();
+            Object result = null;
+            if (traceEnabled()) {
+                traceDownCall(nativeCallInfo.name, args);
+            }
+            try {
+                switch (args.length) {
+                    case 0:
+                        result = call0(address);
+                        break;
+                    case 1:
+                        result = call1(address, args[0]);
+                        break;
+                    case 2:
+                        result = call2(address, args[0], args[1]);
+                        break;
+                    case 3:
+                        result = call3(address, args[0], args[1], args[2]);
+                        break;
+                    case 4:
+                        result = call4(address, args[0], args[1], args[2], args[3]);
+                        break;
+                    case 5:
+                        result = call5(address, args[0], args[1], args[2], args[3], args[4]);
+                        break;
+                    case 6:
+                        result = call6(address, args[0], args[1], args[2], args[3], args[4], args[5]);
+                        break;
+                    case 7:
+                        result = call7(address, args[0], args[1], args[2], args[3], args[4], args[5], args[6]);
+                        break;
+                    case 8:
+                        result = call8(address, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7]);
+                        break;
+                    case 9:
+                        result = call9(address, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8]);
+                        break;
+                    default:
+                        result = call(address, args);
+                        break;
                 }
-                try {
-                    switch (args.length) {
-                        case 0:
-                            result = call0(address);
-                            break;
-                        case 1:
-                            result = call1(address, args[0]);
-                            break;
-                        case 2:
-                            result = call2(address, args[0], args[1]);
-                            break;
-                        case 3:
-                            result = call3(address, args[0], args[1], args[2]);
-                            break;
-                        case 4:
-                            result = call4(address, args[0], args[1], args[2], args[3]);
-                            break;
-                        case 5:
-                            result = call5(address, args[0], args[1], args[2], args[3], args[4]);
-                            break;
-                        case 6:
-                            result = call6(address, args[0], args[1], args[2], args[3], args[4], args[5]);
-                            break;
-                        case 7:
-                            result = call7(address, args[0], args[1], args[2], args[3], args[4], args[5], args[6]);
-                            break;
-                        case 8:
-                            result = call8(address, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7]);
-                            break;
-                        case 9:
-                            result = call9(address, args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8]);
-                            break;
-                        default:
-                            result = call(address, args);
-                            break;
-                    }
-                    return result;
-                } finally {
-                    if (traceEnabled()) {
-                        traceDownCallReturn(nativeCallInfo.name, result);
-                    }
+                return result;
+            } finally {
+                if (traceEnabled()) {
+                    traceDownCallReturn(nativeCallInfo.name, result);
                 }
             }
         }
@@ -109,31 +121,51 @@ public class JNI_Call implements CallRFFI {
         @Override
         @TruffleBoundary
         public void execute(NativeCallInfo nativeCallInfo, Object[] args) {
-            synchronized (JNI_Call.class) {
-                if (traceEnabled()) {
-                    traceDownCall(nativeCallInfo.name, args);
+            Object lock = getCallLock(nativeCallInfo);
+            if (lock == null) {
+                doCall(nativeCallInfo, args);
+            } else {
+                synchronized (lock) {
+                    doCall(nativeCallInfo, args);
                 }
-                long address = nativeCallInfo.address.asAddress();
-                try {
-                    switch (args.length) {
-                        case 0:
-                            callVoid0(address);
-                            break;
-                        case 1:
-                            callVoid1(address, args[0]);
-                            break;
-                        default:
-                            throw RInternalError.shouldNotReachHere();
-                    }
-                } finally {
-                    if (traceEnabled()) {
-                        traceDownCallReturn(nativeCallInfo.name, null);
-                    }
+            }
+        }
+
+        private static void doCall(NativeCallInfo nativeCallInfo, Object[] args) {
+            if (traceEnabled()) {
+                traceDownCall(nativeCallInfo.name, args);
+            }
+            long address = nativeCallInfo.address.asAddress();
+            try {
+                switch (args.length) {
+                    case 0:
+                        callVoid0(address);
+                        break;
+                    case 1:
+                        callVoid1(address, args[0]);
+                        break;
+                    default:
+                        throw RInternalError.shouldNotReachHere();
+                }
+            } finally {
+                if (traceEnabled()) {
+                    traceDownCallReturn(nativeCallInfo.name, null);
                 }
             }
         }
     }
 
+    /**
+     * Serializes the calls to routines that do not belong to a known DLL, as nothing tells whether
+     * they are thread-safe.
+     */
+    private static final Object UNKNOWN_DLL_LOCK = new Object();
+
+    static Object getCallLock(NativeCallInfo nativeCallInfo) {
+        DLLInfo dllInfo = nativeCallInfo.dllInfo;
+        return dllInfo == null ? UNKNOWN_DLL_LOCK : dllInfo.getCallLock();
+    }
+
     public JNI_Call() {
         initialize();
     }
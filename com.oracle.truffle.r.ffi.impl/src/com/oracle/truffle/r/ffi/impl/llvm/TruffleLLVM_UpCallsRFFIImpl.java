@@ -33,6 +33,8 @@ import com.oracle.truffle.r.ffi.impl.upcalls.Callbacks;
 import com.oracle.truffle.r.runtime.REnvVars;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.data.RDouble;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
+import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RInteger;
 import com.oracle.truffle.r.runtime.data.RLogical;
 import com.oracle.truffle.r.runtime.data.RScalar;
@@ -85,18 +87,23 @@ public class TruffleLLVM_UpCallsRFFIImpl extends JavaUpCallsRFFIImpl {
 
     @Override
     public Object INTEGER(Object x) {
-        int[] value = (int[]) super.INTEGER(x);
-
-        // TODO: this will leak memory if the pointer escapes
+        // getInternalStore does not invalidate the native mirror of the vector
+        // TODO: the data is not copied back if the pointer escapes
+        if (x instanceof RIntVector) {
+            ((RIntVector) x).disableHashIndex();
+        }
+        int[] value = x instanceof RIntVector ? ((RIntVector) x).getInternalStore() : (int[]) super.INTEGER(x);
         return new NativeIntegerArray(x, value);
     }
 
     @Override
     public Object REAL(Object x) {
         // Special handling in Truffle variant
-        double[] value = (double[]) super.REAL(x);
-
-        // TODO: this will leak memory if the pointer escapes
+        // TODO: the data is not copied back if the pointer escapes
+        if (x instanceof RDoubleVector) {
+            ((RDoubleVector) x).disableHashIndex();
+        }
+        double[] value = x instanceof RDoubleVector ? ((RDoubleVector) x).getInternalStore() : (double[]) super.REAL(x);
         return new NativeDoubleArray(x, value);
     }
 
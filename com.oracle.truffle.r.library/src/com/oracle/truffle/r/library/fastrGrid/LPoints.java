@@ -14,6 +14,8 @@ package com.oracle.truffle.r.library.fastrGrid;
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.abstractVectorValue;
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.numericValue;
 
+import java.util.Arrays;
+
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.r.library.fastrGrid.Unit.UnitConversionContext;
@@ -70,14 +72,21 @@ public abstract class LPoints extends RExternalBuiltinNode.Arg4 {
         // Note: unlike in other drawing primitives, we only consider length of x
         int length = Unit.getLength(xVec);
         ContextCache contextCache = new ContextCache(null);
+        SymbolBatch batch = new SymbolBatch();
         for (int i = 0; i < length; i++) {
             Point loc = TransformMatrix.transLocation(Point.fromUnits(xVec, yVec, i, conversionCtx), vpTransform.transform);
             double size = Unit.convertWidth(sizeVec, i, conversionCtx);
             if (loc.isFinite() && Double.isFinite(size)) {
                 contextCache = contextCache.from(gpar.getDrawingContext(i));
-                drawSymbol(contextCache, dev, cex, pchVec.getDataAt(i % pchVec.getLength()), size * SIZE_FACTOR, loc.x, loc.y);
+                int pch = pchVec.getDataAt(i % pchVec.getLength());
+                if (!batch.add(contextCache, dev, pch, size * SIZE_FACTOR, loc.x, loc.y)) {
+                    // the symbols must be drawn in the original order
+                    batch.flush(dev);
+                    drawSymbol(contextCache, dev, cex, pch, size * SIZE_FACTOR, loc.x, loc.y);
+                }
             }
         }
+        batch.flush(dev);
         return RNull.instance;
     }
 
@@ -231,6 +240,82 @@ public abstract class LPoints extends RExternalBuiltinNode.Arg4 {
         dev.drawPolyLines(ctx, new double[]{x1, x2}, new double[]{y1, y2}, 0, 2);
     }
 
+    /**
+     * Collects consecutive circle and square symbols with the same drawing context and size, so
+     * that they can be handed over to {@link GridDevice#drawCircles} or
+     * {@link GridDevice#drawPoints} at once. The result is the same as from {@link #drawSymbol}.
+     */
+    private static final class SymbolBatch {
+        private static final int NONE = 0;
+        private static final int CIRCLES = 1;
+        private static final int SQUARES = 2;
+
+        private double[] x = new double[32];
+        private double[] y = new double[32];
+        private int count;
+        private int shape = NONE;
+        private DrawingContext ctx;
+        private double size;
+
+        /**
+         * Returns {@code false} if the symbol cannot be batched, in which case the caller should
+         * {@link #flush(GridDevice)} and draw it directly.
+         */
+        boolean add(ContextCache ctxCache, GridDevice dev, int pch, double halfSize, double newX, double newY) {
+            switch (pch) {
+                case 1:
+                    add(dev, CIRCLES, ctxCache.getTransparentFill(), halfSize, newX, newY);
+                    return true;
+                case 16:
+                case 19:
+                case 21:
+                    add(dev, CIRCLES, ctxCache.getFilled(), halfSize, newX, newY);
+                    return true;
+                case 20:
+                    add(dev, CIRCLES, ctxCache.getFilled(), halfSize * .6, newX, newY);
+                    return true;
+                case 15:
+                case 22:
+                    add(dev, SQUARES, ctxCache.getFilled(), halfSize * 2, newX, newY);
+                    return true;
+                case 46:
+                    add(dev, SQUARES, ctxCache.getFilled(), PIXEL_SIZE, newX, newY);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        private void add(GridDevice dev, int newShape, DrawingContext newCtx, double newSize, double newX, double newY) {
+            if (count > 0 && (shape != newShape || ctx != newCtx || size != newSize)) {
+                flush(dev);
+            }
+            if (count == x.length) {
+                x = Arrays.copyOf(x, count * 2);
+                y = Arrays.copyOf(y, count * 2);
+            }
+            shape = newShape;
+            ctx = newCtx;
+            size = newSize;
+            x[count] = newX;
+            y[count] = newY;
+            count++;
+        }
+
+        void flush(GridDevice dev) {
+            if (count == 0) {
+                return;
+            }
+            if (shape == CIRCLES) {
+                dev.drawCircles(ctx, x, y, 0, count, size);
+            } else {
+                assert shape == SQUARES;
+                dev.drawPoints(ctx, x, y, 0, count, size);
+            }
+            count = 0;
+        }
+    }
+
     private static final class ContextCache {
         public final DrawingContext original;
         private DrawingContext filled;
@@ -94,6 +94,29 @@ public interface GridDevice {
 
     void drawCircle(DrawingContext ctx, double centerX, double centerY, double radius);
 
+    /**
+     * Draws circles with the same radius centered at given points. This should have the same
+     * effect as calling {@link #drawCircle(DrawingContext, double, double, double)} for each of the
+     * points, devices may override it to process the whole batch at once.
+     */
+    default void drawCircles(DrawingContext ctx, double[] centerX, double[] centerY, int startIndex, int length, double radius) {
+        for (int i = startIndex; i < startIndex + length; i++) {
+            drawCircle(ctx, centerX[i], centerY[i], radius);
+        }
+    }
+
+    /**
+     * Draws squares with given size centered at given points, e.g. the "." symbol or filled
+     * squares. This should have the same effect as calling
+     * {@link #drawRect(DrawingContext, double, double, double, double, double)} for each of the
+     * points, devices may override it to process the whole batch at once.
+     */
+    default void drawPoints(DrawingContext ctx, double[] x, double[] y, int startIndex, int length, double size) {
+        for (int i = startIndex; i < startIndex + length; i++) {
+            drawRect(ctx, x[i] - size / 2, y[i] - size / 2, size, size, 0);
+        }
+    }
+
     /**
      * Draws a raster image at specified position. The pixels array shall be treated as by row
      * matrix, the values are values compatible with the internal {@link GridColor} representation,
@@ -26,12 +26,14 @@ import static com.oracle.truffle.r.library.fastrGrid.device.DrawingContext.GRID_
 import static com.oracle.truffle.r.library.fastrGrid.device.DrawingContext.INCH_TO_POINTS_FACTOR;
 
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.text.DecimalFormat;
+import java.nio.file.StandardCopyOption;
 import java.util.Base64;
-import java.util.Collections;
 
 import com.oracle.truffle.r.library.fastrGrid.device.DrawingContext.GridFontStyle;
 import com.oracle.truffle.r.library.fastrGrid.device.DrawingContext.GridLineEnd;
@@ -39,14 +41,29 @@ import com.oracle.truffle.r.library.fastrGrid.device.DrawingContext.GridLineJoin
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.Utils;
 
+/**
+ * Writes the SVG document into a temporary file as the primitives are drawn. The {@code data}
+ * buffer only holds the not yet written part of the document. The temporary file replaces the
+ * target file only when the page is saved, {@link #closeAndGetContents()} leaves the target file
+ * untouched.
+ */
 public class SVGDevice implements GridDevice, FileGridDevice {
-    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("0.000");
+    private static final int FLUSH_THRESHOLD = 64 * 1024;
     private final StringBuilder data = new StringBuilder(1024);
+    private char[] flushBuffer;
     private String filename;
     private final double width;
     private final double height;
 
+    private Writer out;
+    private Path tmpFile;
+    /**
+     * The drawing methods cannot report errors, the first one is reported when the file is closed.
+     */
+    private IOException writeError;
+
     private DrawingContext cachedCtx;
+    private boolean pageOpened;
 
     public SVGDevice(String filename, double width, double height) {
         this.filename = filename;
@@ -54,17 +71,30 @@ public class SVGDevice implements GridDevice, FileGridDevice {
         this.height = height;
     }
 
-    public String closeAndGetContents() {
-        closeSVGDocument();
-        return data.toString();
+    /**
+     * Closes the device and returns the SVG document instead of saving it to the file.
+     */
+    public String closeAndGetContents() throws DeviceCloseException {
+        finishDocument();
+        try {
+            return new String(Files.readAllBytes(tmpFile), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new DeviceCloseException(e);
+        } finally {
+            deleteTmpFile();
+        }
     }
 
     @Override
     public void openNewPage() {
         // We stay compatible with GnuR: opening new page wipes out what has been drawn without
         // saving it anywhere.
+        closeWriter();
+        deleteTmpFile();
         data.setLength(0);
         cachedCtx = null;
+        openWriter();
+        pageOpened = true;
         append("<!DOCTYPE svg PUBLIC \"-//W3C//DTD SVG 1.1//EN\" \"http://www.w3.org/Graphics/SVG/1.1/DTD/svg11.dtd\">");
         // we could use real inches, but that makes the output different to GnuR and other formats
         // (jpg, ...), which use conversion 70px ~ 1in
@@ -85,6 +115,33 @@ public class SVGDevice implements GridDevice, FileGridDevice {
         saveFile();
     }
 
+    @Override
+    public void drawCircles(DrawingContext ctx, double[] centerX, double[] centerY, int startIndex, int length, double radius) {
+        appendStyle(ctx);
+        for (int i = startIndex; i < startIndex + length; i++) {
+            appendCircle(centerX[i], centerY[i], radius);
+            flushIfNeeded();
+        }
+    }
+
+    @Override
+    public void drawPoints(DrawingContext ctx, double[] x, double[] y, int startIndex, int length, double size) {
+        appendStyle(ctx);
+        double halfSize = size / 2;
+        for (int i = startIndex; i < startIndex + length; i++) {
+            data.append("<rect vector-effect='non-scaling-stroke' x='");
+            appendDecimal(x[i] - halfSize);
+            data.append("' y='");
+            appendDecimal(transY(y[i] + halfSize));
+            data.append("' width='");
+            appendDecimal(size);
+            data.append("' height='");
+            appendDecimal(size);
+            data.append("'/>\n");
+            flushIfNeeded();
+        }
+    }
+
     @Override
     public void drawRect(DrawingContext ctx, double leftX, double bottomY, double newWidth, double newHeight, double rotationAnticlockWise) {
         appendStyle(ctx);
@@ -93,6 +150,7 @@ public class SVGDevice implements GridDevice, FileGridDevice {
             append("transform='rotate(%.3f %.3f,%.3f)'", toDegrees(rotationAnticlockWise), (leftX + newWidth / 2.), transY(bottomY + newHeight / 2.));
         }
         data.append("/>"); // end of 'rect' tag
+        flushIfNeeded();
     }
 
     @Override
@@ -108,7 +166,8 @@ public class SVGDevice implements GridDevice, FileGridDevice {
     @Override
     public void drawCircle(DrawingContext ctx, double centerX, double centerY, double radius) {
         appendStyle(ctx);
-        append("<circle vector-effect='non-scaling-stroke' cx='%.3f' cy='%.3f' r='%.3f'/>", centerX, transY(centerY), radius);
+        appendCircle(centerX, centerY, radius);
+        flushIfNeeded();
     }
 
     @Override
@@ -116,6 +175,7 @@ public class SVGDevice implements GridDevice, FileGridDevice {
         byte[] bitmap = Bitmap.create(pixels, pixelsColumnsCount);
         String base64 = Base64.getEncoder().encodeToString(bitmap);
         append("<image x='%.3f' y='%.3f' width='%.3f' height='%.3f' preserveAspectRatio='none' xlink:href='data:image/bmp;base64,%s'/>", leftX, transY(bottomY + height), width, height, base64);
+        flushIfNeeded();
     }
 
     @Override
@@ -128,6 +188,7 @@ public class SVGDevice implements GridDevice, FileGridDevice {
             append(" transform='rotate(%.3f %.3f,%.3f)'", toDegrees(rotationAnticlockWise), leftX, transY(bottomY));
         }
         data.append(">").append(text).append("</text>");
+        flushIfNeeded();
     }
 
     @Override
@@ -175,27 +236,151 @@ public class SVGDevice implements GridDevice, FileGridDevice {
         appendStyle(ctx);
         data.append("<polyline vector-effect='non-scaling-stroke' points='");
         for (int i = 0; i < length; i++) {
-            data.append(DECIMAL_FORMAT.format(x[i + startIndex]));
+            appendDecimal(x[i + startIndex]);
             data.append(',');
-            data.append(DECIMAL_FORMAT.format(transY(y[i + startIndex])));
+            appendDecimal(transY(y[i + startIndex]));
             data.append(' ');
+            flushIfNeeded();
         }
         data.append("' ").append(attributes).append(" />");
+        flushIfNeeded();
+    }
+
+    private void appendCircle(double centerX, double centerY, double radius) {
+        data.append("<circle vector-effect='non-scaling-stroke' cx='");
+        appendDecimal(centerX);
+        data.append("' cy='");
+        appendDecimal(transY(centerY));
+        data.append("' r='");
+        appendDecimal(radius);
+        data.append("'/>\n");
+    }
+
+    /**
+     * Appends the value with three decimal places like the {@code %.3f} format, but without the
+     * overhead of {@link String#format(String, Object...)}. Like {@code %.3f}, halves are rounded
+     * away from zero and the sign is kept for negative values that round to zero. Unlike
+     * {@code %.3f}, which rounds the shortest decimal representation of the value, the rounding is
+     * applied to the binary product {@code value * 1000}, so values whose decimal representation
+     * ends exactly in a 5 at the fourth decimal place (e.g. {@code 1.0005}) may differ in the last
+     * digit.
+     */
+    private void appendDecimal(double value) {
+        if (!Double.isFinite(value) || Math.abs(value) >= 1e15) {
+            data.append(Utils.stringFormat("%.3f", value));
+            return;
+        }
+        if (Double.doubleToRawLongBits(value) < 0) {
+            // also covers -0.0
+            data.append('-');
+        }
+        long scaled = (long) Math.floor(Math.abs(value) * 1000 + 0.5);
+        data.append(scaled / 1000).append('.');
+        int fraction = (int) (scaled % 1000);
+        if (fraction < 100) {
+            data.append('0');
+        }
+        if (fraction < 10) {
+            data.append('0');
+        }
+        data.append(fraction);
+    }
+
+    private void openWriter() {
+        try {
+            tmpFile = Files.createTempFile("fastr-svg", ".svg");
+            out = new OutputStreamWriter(Files.newOutputStream(tmpFile), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            out = null;
+            recordError(e);
+        }
+    }
+
+    private void deleteTmpFile() {
+        if (tmpFile != null) {
+            try {
+                Files.deleteIfExists(tmpFile);
+            } catch (IOException e) {
+                // only a leftover temporary file
+            }
+            tmpFile = null;
+        }
+    }
+
+    private void closeWriter() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                recordError(e);
+            }
+            out = null;
+        }
+    }
+
+    private void recordError(IOException e) {
+        if (writeError == null) {
+            writeError = e;
+        }
+    }
+
+    private void flushIfNeeded() {
+        if (data.length() >= FLUSH_THRESHOLD) {
+            writeData();
+        }
+    }
+
+    private void writeData() {
+        int length = data.length();
+        if (out != null && length > 0) {
+            if (flushBuffer == null || flushBuffer.length < length) {
+                flushBuffer = new char[Math.max(length, FLUSH_THRESHOLD * 2)];
+            }
+            data.getChars(0, length, flushBuffer, 0);
+            try {
+                out.write(flushBuffer, 0, length);
+            } catch (IOException e) {
+                recordError(e);
+            }
+        }
+        data.setLength(0);
     }
 
     private void saveFile() throws DeviceCloseException {
-        closeSVGDocument();
+        finishDocument();
         try {
-            Files.write(Paths.get(filename), Collections.singleton(data.toString()), StandardCharsets.UTF_8);
+            Files.move(tmpFile, Paths.get(filename), StandardCopyOption.REPLACE_EXISTING);
         } catch (IOException e) {
             throw new DeviceCloseException(e);
+        } finally {
+            deleteTmpFile();
+        }
+    }
+
+    /**
+     * Completes the document in the temporary file, which is left for the caller to use and delete.
+     */
+    private void finishDocument() throws DeviceCloseException {
+        if (out == null && writeError == null) {
+            // nothing has been drawn, we still produce the (empty) file
+            openWriter();
+        }
+        closeSVGDocument();
+        writeData();
+        closeWriter();
+        IOException error = writeError;
+        writeError = null;
+        if (error != null) {
+            deleteTmpFile();
+            throw new DeviceCloseException(error);
         }
     }
 
     private void closeSVGDocument() {
-        if (data.length() == 0) {
+        if (!pageOpened) {
             return;
         }
+        pageOpened = false;
         if (cachedCtx != null) {
             // see #appendStyle
             append("</g>");
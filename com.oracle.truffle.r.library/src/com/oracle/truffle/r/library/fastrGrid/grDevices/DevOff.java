@@ -70,7 +70,11 @@ public abstract class DevOff extends RExternalBuiltinNode.Arg1 {
         GridDevice dev = ctx.getDevice(which);
         ctx.removeDevice(which);
         if ((dev instanceof SVGDevice)) {
-            return ((SVGDevice) dev).closeAndGetContents();
+            try {
+                return ((SVGDevice) dev).closeAndGetContents();
+            } catch (DeviceCloseException e) {
+                throw error(Message.GENERIC, "Cannot close the device. Details: " + e.getMessage());
+            }
         } else {
             warning(Message.GENERIC, "The device was not SVG device.");
             return "";
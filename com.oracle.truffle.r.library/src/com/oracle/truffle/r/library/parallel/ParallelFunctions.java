@@ -22,10 +22,18 @@
  */
 package com.oracle.truffle.r.library.parallel;
 
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.integerValue;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.size;
+
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
+import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.rng.lecuyer.LEcuyerCMRG;
 
 /**
  * The .Call support for the parallel package.
@@ -37,4 +45,35 @@ public class ParallelFunctions {
             return RRuntime.asLogical(RContext.getInstance().getParent() != null);
         }
     }
+
+    /**
+     * Implements {@code nextStream} from rngstream.c, the R code checks that the seed belongs to the
+     * "L'Ecuyer-CMRG" generator.
+     */
+    public abstract static class NextStream extends RExternalBuiltinNode.Arg1 {
+        static {
+            Casts casts = new Casts(NextStream.class);
+            casts.arg(0).mustBe(integerValue()).asIntegerVector().mustBe(size(7), RError.Message.SEED_LENGTH);
+        }
+
+        @Specialization
+        protected RIntVector nextStream(RAbstractIntVector seed) {
+            return RDataFactory.createIntVector(LEcuyerCMRG.nextStream(seed.materialize().getDataWithoutCopying()), RDataFactory.INCOMPLETE_VECTOR);
+        }
+    }
+
+    /**
+     * Implements {@code nextSubStream} from rngstream.c.
+     */
+    public abstract static class NextSubStream extends RExternalBuiltinNode.Arg1 {
+        static {
+            Casts casts = new Casts(NextSubStream.class);
+            casts.arg(0).mustBe(integerValue()).asIntegerVector().mustBe(size(7), RError.Message.SEED_LENGTH);
+        }
+
+        @Specialization
+        protected RIntVector nextSubStream(RAbstractIntVector seed) {
+            return RDataFactory.createIntVector(LEcuyerCMRG.nextSubStream(seed.materialize().getDataWithoutCopying()), RDataFactory.INCOMPLETE_VECTOR);
+        }
+    }
 }
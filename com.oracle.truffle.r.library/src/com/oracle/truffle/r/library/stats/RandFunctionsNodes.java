@@ -26,6 +26,7 @@ import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.profiles.LoopConditionProfile;
 import com.oracle.truffle.r.library.stats.RandFunctionsNodesFactory.ConvertToLengthNodeGen;
 import com.oracle.truffle.r.library.stats.RandFunctionsNodesFactory.RandFunction1NodeGen;
@@ -206,6 +207,7 @@ public final class RandFunctionsNodes {
 
     protected abstract static class RandFunctionDoubleExecutorNode extends RandFunctionExecutorBase {
         @Child private RandFunction3_Double function;
+        private final ConditionProfile singleUnifProfile = ConditionProfile.createBinaryProfile();
 
         protected RandFunctionDoubleExecutorNode(RandFunction3_Double function) {
             this.function = function;
@@ -225,6 +227,10 @@ public final class RandFunctionsNodes {
                 return RDataFactory.createDoubleVector(nansResult, false);
             }
 
+            if (singleUnifProfile.profile(aLength == 1 && bLength == 1 && cLength == 1 && function.isSingleUnif(a.getDataAt(0), b.getDataAt(0), c.getDataAt(0)))) {
+                return evaluateFromUnif(length, a.getDataAt(0), b.getDataAt(0), c.getDataAt(0), nodeData, randProvider);
+            }
+
             boolean nans = false;
             double[] result;
             result = new double[length];
@@ -246,6 +252,22 @@ public final class RandFunctionsNodes {
             }
             return RDataFactory.createDoubleVector(result, !nans);
         }
+
+        /**
+         * Scalar parameters for which the function maps one uniform value to the result: the
+         * uniform values are drawn in bulk, which yields the same sequence as drawing them one by
+         * one, and mapped afterwards. The mapping cannot produce NaN for such parameters.
+         */
+        private RAbstractDoubleVector evaluateFromUnif(int length, double a, double b, double c, RandGenerationNodeData nodeData, RandomNumberProvider randProvider) {
+            double[] result = new double[length];
+            randProvider.unifRand(result, 0, length);
+            nodeData.loopConditionProfile.profileCounted(length);
+            for (int i = 0; nodeData.loopConditionProfile.inject(i < length); i++) {
+                result[i] = function.fromUnif(a, b, c, result[i]);
+            }
+            putRNGState();
+            return RDataFactory.createDoubleVector(result, RDataFactory.COMPLETE_VECTOR);
+        }
     }
 
     public abstract static class RandFunction3Node extends RExternalBuiltinNode.Arg4 {
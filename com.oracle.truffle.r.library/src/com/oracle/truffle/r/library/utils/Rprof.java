@@ -27,6 +27,7 @@ import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.singleElemen
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.stringValue;
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
 
+import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
@@ -39,6 +40,7 @@ import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.Frame;
 import com.oracle.truffle.api.frame.FrameInstance.FrameAccess;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.EventBinding;
 import com.oracle.truffle.api.instrumentation.EventContext;
 import com.oracle.truffle.api.instrumentation.ExecutionEventListener;
 import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
@@ -48,6 +50,7 @@ import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
 import com.oracle.truffle.r.nodes.function.FunctionDefinitionNode;
 import com.oracle.truffle.r.nodes.instrumentation.RInstrumentation;
+import com.oracle.truffle.r.runtime.FastROptions;
 import com.oracle.truffle.r.runtime.RArguments;
 import com.oracle.truffle.r.runtime.RCaller;
 import com.oracle.truffle.r.runtime.RError;
@@ -80,6 +83,10 @@ import com.oracle.truffle.r.runtime.nodes.RSyntaxNode;
  * and then the {@code N} is used in line number references of the form {@code N#L},which precede
  * the function name.
  *
+ * Samples are written as they are taken, so memory use does not grow with the length of the run.
+ * They are also folded into a call tree which, with {@code FastROptions.RprofFolded}, is written
+ * as folded stacks to {@code <filename>.folded} when profiling ends, for use with flame graph
+ * tools.
  */
 public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements MemoryCopyTracer.Listener {
 
@@ -109,7 +116,7 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements MemoryC
                 endProfiling();
             }
             try {
-                PrintStream out = new PrintStream(new FileOutputStream(filename, append));
+                PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(filename, append)));
                 if (gcProfiling) {
                     warning(RError.Message.GENERIC, "Rprof: gc profiling not supported");
                 }
@@ -120,10 +127,11 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements MemoryC
                 }
                 // interval is in seconds, we convert to millis
                 long intervalInMillis = (long) (1E3 * intervalD);
+                String foldedFilename = FastROptions.RprofFolded.getBooleanValue() ? filename + ".folded" : null;
                 StatementListener statementListener = new StatementListener();
                 ProfileThread profileThread = new ProfileThread(intervalInMillis, statementListener);
                 profileThread.setDaemon(true);
-                profState.initialize(out, profileThread, statementListener, intervalInMillis, lineProfiling, memProfiling);
+                profState.initialize(out, profileThread, statementListener, intervalInMillis, lineProfiling, memProfiling, foldedFilename);
                 profileThread.start();
             } catch (IOException ex) {
                 throw error(RError.Message.GENERIC, String.format("Rprof: cannot open profile file '%s'", filename));
@@ -157,7 +165,9 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements MemoryC
     @TruffleBoundary
     public void reportCopying(RAbstractVector source, RAbstractVector dest) {
         RprofState profState = RprofState.get();
-        profState.memoryQuad.copied += RObjectSize.getObjectSize(source, Rprofmem.myIgnoreObjectHandler);
+        if (profState.memoryQuad != null) {
+            profState.memoryQuad.copied += RObjectSize.getObjectSize(source, Rprofmem.myIgnoreObjectHandler);
+        }
     }
 
     private static void endProfiling() {
@@ -197,42 +207,52 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements MemoryC
 
     /**
      * Emulates a sampling timer by checking when the sample interval rolls over and at that point
-     * collects the stack of functions.
+     * collects the stack of functions. Between samples the only work done per statement is the read
+     * of {@link #newInterval}; the stack walk and all formatting happen behind a boundary once per
+     * interval, and the sample is handed to {@link RprofState#writeSample} straight away rather than
+     * being kept until profiling ends.
+     *
+     * This version of Truffle has no way for the timer thread to interrupt the R thread at a
+     * safepoint, and attaching a fresh binding for every sample would invalidate the compiled code
+     * of every probed statement twice per interval, so the listener stays attached until
+     * {@link #dispose()}.
      */
     private final class StatementListener implements ExecutionEventListener {
-        private final ArrayList<ArrayList<RSyntaxElement>> intervalStacks = new ArrayList<>();
-        private final ArrayList<RprofState.MemoryQuad> intervalMemory = new ArrayList<>();
+        private final EventBinding<StatementListener> binding;
         private volatile boolean newInterval;
 
         private StatementListener() {
             SourceSectionFilter.Builder builder = SourceSectionFilter.newBuilder();
             builder.tagIs(StandardTags.StatementTag.class);
             SourceSectionFilter filter = builder.build();
-            RInstrumentation.getInstrumenter().attachListener(filter, this);
+            binding = RInstrumentation.getInstrumenter().attachListener(filter, this);
         }
 
         private void intervalElapsed() {
             newInterval = true;
         }
 
+        private void dispose() {
+            binding.dispose();
+        }
+
         @Override
         public void onEnter(EventContext context, VirtualFrame frame) {
             if (newInterval) {
-                /* context tells here we are now, frame provides callers. */
-                final ArrayList<RSyntaxElement> stack = new ArrayList<>();
-                stack.add((RSyntaxElement) context.getInstrumentedNode());
-                collectStack(stack);
-                intervalStacks.add(stack);
-                RprofState profState = RprofState.get();
-                if (profState.memoryProfiling) {
-                    intervalMemory.add(profState.memoryQuad.copyAndClear());
-                }
-
                 newInterval = false;
+                /* context tells here we are now, frame provides callers. */
+                takeSample((RSyntaxElement) context.getInstrumentedNode());
             }
         }
 
         @TruffleBoundary
+        private void takeSample(RSyntaxElement current) {
+            final ArrayList<RSyntaxElement> stack = new ArrayList<>();
+            stack.add(current);
+            collectStack(stack);
+            RprofState.get().writeSample(stack);
+        }
+
         private void collectStack(final ArrayList<RSyntaxElement> stack) {
             Utils.iterateRFrames(FrameAccess.READ_ONLY, new Function<Frame, Object>() {
 
@@ -260,6 +280,55 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements MemoryC
         }
     }
 
+    /**
+     * A node in the call tree into which the samples are folded; the children of a node are the
+     * functions called from it. The size of the tree is bounded by the number of distinct call
+     * paths, not by the number of samples.
+     */
+    private static final class CallTreeNode {
+        private final String name;
+        private long selfSamples;
+        private HashMap<String, CallTreeNode> children;
+
+        private CallTreeNode(String name) {
+            this.name = name;
+        }
+
+        private CallTreeNode child(String childName) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            CallTreeNode result = children.get(childName);
+            if (result == null) {
+                result = new CallTreeNode(childName);
+                children.put(childName, result);
+            }
+            return result;
+        }
+
+        /**
+         * Writes one {@code outer;...;inner count} line per call path that was sampled directly.
+         */
+        private void writeFolded(PrintStream out, StringBuilder path) {
+            int length = path.length();
+            if (name != null) {
+                if (length > 0) {
+                    path.append(';');
+                }
+                path.append(name);
+            }
+            if (selfSamples > 0 && path.length() > 0) {
+                out.printf("%s %d\n", path, selfSamples);
+            }
+            if (children != null) {
+                for (CallTreeNode child : children.values()) {
+                    child.writeFolded(out, path);
+                }
+            }
+            path.setLength(length);
+        }
+    }
+
     /**
      * State used by {@code Rprof}.
      *
@@ -267,10 +336,12 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements MemoryC
     private static final class RprofState extends InstrumentationState.RprofState {
         private ProfileThread profileThread;
         private StatementListener statementListener;
-        private long intervalInMillis;
         private boolean lineProfiling;
         private boolean memoryProfiling;
         private MemoryQuad memoryQuad;
+        private HashMap<String, Integer> fileMap;
+        private CallTreeNode callTree;
+        private String foldedFilename;
 
         public static final class MemoryQuad {
             public long smallV;
@@ -278,17 +349,11 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements MemoryC
             public long nodes;
             public long copied;
 
-            public MemoryQuad copyAndClear() {
-                MemoryQuad result = new MemoryQuad();
-                result.copied = copied;
-                result.largeV = largeV;
-                result.smallV = smallV;
-                result.nodes = nodes;
+            public void clear() {
                 copied = 0;
                 largeV = 0;
                 smallV = 0;
                 nodes = 0;
-                return result;
             }
         }
 
@@ -302,66 +367,92 @@ public abstract class Rprof extends RExternalBuiltinNode.Arg8 implements MemoryC
         }
 
         public void initialize(PrintStream outA, ProfileThread profileThreadA, StatementListener statementListenerA, long intervalInMillisA,
-                        boolean lineProfilingA, boolean memoryProfilingA) {
+                        boolean lineProfilingA, boolean memoryProfilingA, String foldedFilenameA) {
             setOut(outA);
             this.profileThread = profileThreadA;
             this.statementListener = statementListenerA;
-            this.intervalInMillis = intervalInMillisA;
             this.lineProfiling = lineProfilingA;
             this.memoryProfiling = memoryProfilingA;
             this.memoryQuad = memoryProfilingA ? new MemoryQuad() : null;
+            this.fileMap = lineProfilingA ? new HashMap<>() : null;
+            this.callTree = new CallTreeNode(null);
+            this.foldedFilename = foldedFilenameA;
+            if (memoryProfilingA) {
+                outA.print("memory profiling: ");
+            }
+            if (lineProfilingA) {
+                outA.print("line profiling: ");
+            }
+            outA.printf("sample.interval=%d\n", intervalInMillisA * 1000);
         }
 
-        @Override
-        public void cleanup(int status) {
-            profileThread.running = false;
-            HashMap<String, Integer> fileMap = null;
-            PrintStream out = this.out();
-            if (this.memoryProfiling) {
-                out.print("memory profiling: ");
-            }
-            if (this.lineProfiling) {
-                out.print("line profiling: ");
+        /**
+         * Writes one sample to the (buffered) profile file and adds it to the call tree. Source
+         * files are announced with a {@code #File} line the first time they appear in a sample.
+         */
+        private void writeSample(ArrayList<RSyntaxElement> stack) {
+            PrintStream out = out();
+            if (out == null) {
+                // profiling ended while the sample was pending
+                return;
             }
-            out.printf("sample.interval=%d\n", this.intervalInMillis * 1000);
-            if (this.lineProfiling) {
-                // scan stacks to find files
-                fileMap = new HashMap<>();
-                int fileIndex = 0;
-                for (ArrayList<RSyntaxElement> intervalStack : statementListener.intervalStacks) {
-                    for (RSyntaxElement node : intervalStack) {
-                        String path = getPath(node);
-                        if (path != null && fileMap.get(path) == null) {
-                            fileMap.put(path, ++fileIndex);
-                            out.printf("#File %d: %s\n", fileIndex, path);
-                        }
-                    }
-                }
+            StringBuilder line = new StringBuilder();
+            if (memoryProfiling) {
+                MemoryQuad mq = memoryQuad;
+                line.append(':').append(mq.largeV).append(':').append(mq.smallV).append(':').append(mq.nodes).append(':').append(mq.copied).append(':');
+                mq.clear();
             }
-            int index = 0;
-            for (ArrayList<RSyntaxElement> intervalStack : statementListener.intervalStacks) {
-                if (this.memoryProfiling) {
-                    RprofState.MemoryQuad mq = statementListener.intervalMemory.get(index);
-                    out.printf(":%d:%d:%d:%d:", mq.largeV, mq.smallV, mq.nodes, mq.copied);
-                }
-                for (RSyntaxElement node : intervalStack) {
-                    RootNode rootNode = ((RSyntaxNode) node).asRNode().getRootNode();
-                    if (rootNode instanceof FunctionDefinitionNode) {
-                        String name = rootNode.getName();
-                        if (this.lineProfiling) {
-                            Integer fileIndex = fileMap.get(getPath(node));
-                            if (fileIndex != null) {
-                                out.printf("%d#%d ", fileIndex, node.getSourceSection().getStartLine());
+            String[] names = new String[stack.size()];
+            int depth = 0;
+            for (RSyntaxElement node : stack) {
+                RootNode rootNode = ((RSyntaxNode) node).asRNode().getRootNode();
+                if (rootNode instanceof FunctionDefinitionNode) {
+                    String name = rootNode.getName();
+                    if (lineProfiling) {
+                        String filePath = getPath(node);
+                        if (filePath != null) {
+                            Integer fileIndex = fileMap.get(filePath);
+                            if (fileIndex == null) {
+                                fileIndex = fileMap.size() + 1;
+                                fileMap.put(filePath, fileIndex);
+                                out.printf("#File %d: %s\n", fileIndex, filePath);
                             }
+                            line.append(fileIndex).append('#').append(node.getSourceSection().getStartLine()).append(' ');
                         }
-                        out.printf("\"%s\" ", name);
                     }
+                    line.append('"').append(name).append("\" ");
+                    names[depth++] = name;
                 }
-                out.println();
-                index++;
             }
+            out.println(line);
+            // the stack is innermost first, the tree is rooted at the outermost caller
+            CallTreeNode treeNode = callTree;
+            for (int i = depth - 1; i >= 0; i--) {
+                treeNode = treeNode.child(names[i]);
+            }
+            treeNode.selfSamples++;
+        }
+
+        @Override
+        public void cleanup(int status) {
+            PrintStream out = this.out();
+            if (out == null) {
+                return;
+            }
+            profileThread.running = false;
+            profileThread.interrupt();
+            statementListener.dispose();
             out.close();
             this.setOut(null);
+            if (foldedFilename != null) {
+                try (PrintStream folded = new PrintStream(new BufferedOutputStream(new FileOutputStream(foldedFilename)))) {
+                    callTree.writeFolded(folded, new StringBuilder());
+                } catch (IOException ex) {
+                    RError.warning(RError.SHOW_CALLER2, RError.Message.GENERIC, String.format("Rprof: cannot open profile file '%s'", foldedFilename));
+                }
+            }
+            callTree = null;
+            fileMap = null;
             if (this.memoryProfiling) {
                 RDataFactory.removeListener(LISTENER);
                 MemoryCopyTracer.setTracingState(false);
@@ -14,11 +14,11 @@
 #include <string.h>
 
 #define T_MEM_TABLE_INITIAL_SIZE 0
-// The table of transient objects that have been allocated dur the current FFI call
-static void **tMemTable;
+// The table of transient objects that have been allocated dur the current FFI call (per thread)
+static __thread void **tMemTable;
 // hwm of tMemTable
-static int tMemTableIndex;
-static int tMemTableLength;
+static __thread int tMemTableIndex;
+static __thread int tMemTableLength;
 
 void init_memory(JNIEnv *env) {
     tMemTable = malloc(sizeof(void*) * T_MEM_TABLE_INITIAL_SIZE);
@@ -25,19 +25,22 @@
 #include <stdlib.h>
 #include <errno.h>
 #include <assert.h>
+#include <pthread.h>
 
 /*
  * All calls pass through one of the call(N) methods in rfficall.c, which carry the JNIEnv value,
  * that needs to be saved for reuse in the many R functions such as Rf_allocVector.
- * Currently only single threaded access is permitted (via a semaphore in CallRFFIWithJNI)
- * so we are safe to use static variables. TODO Figure out where to store such state
- * (portably) for MT use. JNI provides no help.
+ * Calls may arrive concurrently from several Java threads, so all the state that belongs to a
+ * single down call (the JNIEnv, the native array table, the call depth and the error jmp_buf
+ * stack) is thread local. The only shared mutable state, the global ref cache, is guarded
+ * by cachedGlobalRefsLock. Packages that are not themselves MT safe are serialized on the Java
+ * side by the per-DLL lock in DLLInfo.
  */
 jclass UpCallsRFFIClass;
 jobject UpCallsRFFIObject;
 jclass CharSXPWrapperClass;
 
-static JNIEnv *curenv = NULL;
+static __thread JNIEnv *curenv = NULL;
 
 // default for trace output when enabled
 FILE *traceFile = NULL;
@@ -51,6 +54,7 @@ typedef struct globalRefTable_struct {
 static GlobalRefElem *cachedGlobalRefs;
 static int cachedGlobalRefsHwm;
 static int cachedGlobalRefsLength;
+static pthread_mutex_t cachedGlobalRefsLock = PTHREAD_MUTEX_INITIALIZER;
 
 // Data structure for managing the required copying of
 // Java arrays to return C arrays, e.g, int*.
@@ -66,11 +70,12 @@ typedef struct nativeArrayTable_struct {
 #define NATIVE_ARRAY_TABLE_INITIAL_SIZE 64
 // A table of vectors that have been accessed and whose contents, e.g. the actual data
 // as a primitive array have been copied and handed out to the native code.
-static NativeArrayElem *nativeArrayTable;
+// The table is per thread and allocated lazily on the first access from that thread.
+static __thread NativeArrayElem *nativeArrayTable;
 // hwm of nativeArrayTable
-static int nativeArrayTableHwm;
-static int nativeArrayTableLastIndex;
-static int nativeArrayTableLength;
+static __thread int nativeArrayTableHwm;
+static __thread int nativeArrayTableLastIndex;
+static __thread int nativeArrayTableLength;
 static void releaseNativeArray(JNIEnv *env, int index);
 static NativeArrayElem *findNativeArray(JNIEnv *env, SEXP x);
 static void updateNativeArray(JNIEnv *env, int index);
@@ -126,13 +131,13 @@ static jboolean fast_IsSameObject(jobject a, jobject b) {
 }
 
 // native down call depth, indexes nativeArrayTableHwmStack
-int callDepth = 0;
+__thread int callDepth = 0;
 
 #define CALLDEPTH_STACK_SIZE 16
-static int nativeArrayTableHwmStack[CALLDEPTH_STACK_SIZE];
+static __thread int nativeArrayTableHwmStack[CALLDEPTH_STACK_SIZE];
 
 // stack of jmp_buf ptrs for non-local control transfer on error
-static jmp_buf* callErrorJmpBufTable[CALLDEPTH_STACK_SIZE];
+static __thread jmp_buf* callErrorJmpBufTable[CALLDEPTH_STACK_SIZE];
 
 
 void init_utils(JNIEnv *env, jobject upCallsInstance) {
@@ -162,9 +167,6 @@ void init_utils(JNIEnv *env, jobject upCallsInstance) {
     cachedGlobalRefs = calloc(CACHED_GLOBALREFS_INITIAL_SIZE, sizeof(GlobalRefElem));
     cachedGlobalRefsLength = CACHED_GLOBALREFS_INITIAL_SIZE;
     cachedGlobalRefsHwm = 0;
-    nativeArrayTable = calloc(NATIVE_ARRAY_TABLE_INITIAL_SIZE, sizeof(NativeArrayElem));
-    nativeArrayTableLength = NATIVE_ARRAY_TABLE_INITIAL_SIZE;
-    nativeArrayTableHwm = 0;
 
 	CharSXPWrapperClass = checkFindClass(env, "com/oracle/truffle/r/runtime/ffi/CharSXPWrapper");
 	CharSXPWrapperContentsFieldID = checkGetFieldID(env, CharSXPWrapperClass, "contents", "Ljava/lang/String;", 0);
@@ -308,6 +310,13 @@ static void addNativeArray(JNIEnv *env, SEXP x, SEXPTYPE type, void *jArray, voi
 #if TRACE_NATIVE_ARRAYS
     fprintf(traceFile, "addNativeArray(x=%p, t=%p, ix=%d, type=%d)\n", x, data, nativeArrayTableHwm, type);
 #endif
+    if (nativeArrayTable == NULL) {
+        nativeArrayTable = calloc(NATIVE_ARRAY_TABLE_INITIAL_SIZE, sizeof(NativeArrayElem));
+        if (nativeArrayTable == NULL) {
+            fatalError("FFI copied vectors table allocation failure");
+        }
+        nativeArrayTableLength = NATIVE_ARRAY_TABLE_INITIAL_SIZE;
+    }
     // check for overflow
     if (nativeArrayTableHwm >= nativeArrayTableLength) {
         int newLength = 2 * nativeArrayTableLength;
@@ -544,6 +553,7 @@ static void releaseNativeArray(JNIEnv *env, int i) {
 #endif
 }
 
+// N.B. the caller must hold cachedGlobalRefsLock
 static SEXP findCachedGlobalRef(JNIEnv *env, SEXP obj) {
     // TODO: this assert fails in test RFFI: assert(isValidJNIRef(env, obj));
     for (int i = 0; i < cachedGlobalRefsHwm; i++) {
@@ -561,7 +571,8 @@ static SEXP findCachedGlobalRef(JNIEnv *env, SEXP obj) {
     return NULL;
 }
 
-SEXP addGlobalRef(JNIEnv *env, SEXP obj, int permanent) {
+// N.B. the caller must hold cachedGlobalRefsLock
+static SEXP addGlobalRefLocked(JNIEnv *env, SEXP obj, int permanent) {
     SEXP gref;
     assert(isValidJNIRef(env, obj));
     if (cachedGlobalRefsHwm >= cachedGlobalRefsLength) {
@@ -588,8 +599,17 @@ SEXP addGlobalRef(JNIEnv *env, SEXP obj, int permanent) {
     return gref;
 }
 
+SEXP addGlobalRef(JNIEnv *env, SEXP obj, int permanent) {
+    pthread_mutex_lock(&cachedGlobalRefsLock);
+    SEXP gref = addGlobalRefLocked(env, obj, permanent);
+    pthread_mutex_unlock(&cachedGlobalRefsLock);
+    return gref;
+}
+
 SEXP checkRef(JNIEnv *env, SEXP obj) {
+    pthread_mutex_lock(&cachedGlobalRefsLock);
     SEXP gref = findCachedGlobalRef(env, obj);
+    pthread_mutex_unlock(&cachedGlobalRefsLock);
     TRACE(TARGpp, obj, gref);
     if (gref == NULL) {
         return obj;
@@ -599,14 +619,17 @@ SEXP checkRef(JNIEnv *env, SEXP obj) {
 }
 
 SEXP createGlobalRef(JNIEnv *env, SEXP obj, int permanent) {
+    pthread_mutex_lock(&cachedGlobalRefsLock);
     SEXP gref = findCachedGlobalRef(env, obj);
     if (gref == NULL) {
-        gref = addGlobalRef(env, obj, permanent);
+        gref = addGlobalRefLocked(env, obj, permanent);
     }
+    pthread_mutex_unlock(&cachedGlobalRefsLock);
     return gref;
 }
 
 void releaseGlobalRef(JNIEnv *env, SEXP obj) {
+    pthread_mutex_lock(&cachedGlobalRefsLock);
     for (int i = 0; i < cachedGlobalRefsHwm; i++) {
         GlobalRefElem elem = cachedGlobalRefs[i];
         if (elem.gref == NULL || elem.permanent) {
@@ -620,6 +643,7 @@ void releaseGlobalRef(JNIEnv *env, SEXP obj) {
             cachedGlobalRefs[i].gref = NULL;
         }
     }
+    pthread_mutex_unlock(&cachedGlobalRefsLock);
 }
 
 void validateRef(JNIEnv *env, SEXP x, const char *msg) {
@@ -142,6 +142,6 @@ extern jmethodID REAL_MethodID;
 extern jmethodID RAW_MethodID;
 extern jmethodID setCompleteMethodID;
 
-extern int callDepth;
+extern __thread int callDepth;
 
 #endif /* RFFIUTILS_H */
@@ -108,6 +108,8 @@ import com.oracle.truffle.r.nodes.builtin.fastr.FastRPkgSource;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRPkgSourceNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRRefCountInfo;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRRefCountInfoNodeGen;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRRegExpCacheInfo;
+import com.oracle.truffle.r.nodes.builtin.fastr.FastRRegExpCacheInfoNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRSlotAssign;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRSlotAssignNodeGen;
 import com.oracle.truffle.r.nodes.builtin.fastr.FastRSourceInfo;
@@ -406,8 +408,10 @@ public class BasePackage extends RBuiltinPackage {
         add(FastRContext.GetChannel.class, FastRContextFactory.GetChannelNodeGen::create);
         add(FastRContext.ChannelPoll.class, FastRContextFactory.ChannelPollNodeGen::create);
         add(FastRContext.ChannelReceive.class, FastRContextFactory.ChannelReceiveNodeGen::create);
+        add(FastRContext.ChannelReceiveBatch.class, FastRContextFactory.ChannelReceiveBatchNodeGen::create);
         add(FastRContext.ChannelSelect.class, FastRContextFactory.ChannelSelectNodeGen::create);
         add(FastRContext.ChannelSend.class, FastRContextFactory.ChannelSendNodeGen::create);
+        add(FastRContext.ChannelSendBatch.class, FastRContextFactory.ChannelSendBatchNodeGen::create);
         add(FastRContext.Spawn.class, FastRContextFactory.SpawnNodeGen::create);
         add(FastRContext.Join.class, FastRContextFactory.JoinNodeGen::create);
         add(FastrDqrls.class, FastrDqrlsNodeGen::create);
@@ -438,6 +442,7 @@ public class BasePackage extends RBuiltinPackage {
         add(FastRInterop.ToLong.class, FastRInteropFactory.ToLongNodeGen::create);
         add(FastRInterop.ToShort.class, FastRInteropFactory.ToShortNodeGen::create);
         add(FastRRefCountInfo.class, FastRRefCountInfoNodeGen::create);
+        add(FastRRegExpCacheInfo.class, FastRRegExpCacheInfoNodeGen::create);
         add(FastRPkgSource.class, FastRPkgSourceNodeGen::create);
         add(FastRSourceInfo.class, FastRSourceInfoNodeGen::create);
         add(FastRStackTrace.class, FastRStackTraceNodeGen::create);
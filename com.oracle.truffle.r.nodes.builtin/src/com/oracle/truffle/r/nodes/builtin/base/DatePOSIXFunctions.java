@@ -26,6 +26,7 @@ import java.time.DateTimeException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
@@ -34,8 +35,10 @@ import java.time.format.DateTimeParseException;
 import java.time.format.TextStyle;
 import java.time.temporal.ChronoField;
 import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
@@ -57,7 +60,6 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractListVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
-import java.time.LocalTime;
 
 // from GnuR datatime.c
 
@@ -137,6 +139,262 @@ public class DatePOSIXFunctions {
         }
     }
 
+    private static final int MAX_CACHED_FORMATS = 256;
+
+    /**
+     * Formats compiled by {@link #getCompiledFormats}, shared by all contexts. The key is the
+     * format string prefixed by a character that distinguishes input, output and output with time
+     * zone.
+     */
+    private static final ConcurrentHashMap<String, CompiledFormat> FORMAT_CACHE = new ConcurrentHashMap<>();
+
+    private static final class CompiledFormat {
+        private final DateTimeFormatter formatter;
+        /**
+         * The fast path for this format, or {@code null} if it is not a {@link SimpleFormat}.
+         */
+        private final SimpleFormat simple;
+
+        private CompiledFormat(DateTimeFormatter formatter, SimpleFormat simple) {
+            this.formatter = formatter;
+            this.simple = simple;
+        }
+    }
+
+    /**
+     * Hand-written parser and printer for formats that consist only of the numeric fields
+     * {@code %Y %m %d %H %M %S} (also via {@code %F} and {@code %T}) separated by non-digit
+     * literals, such as the ISO 8601 shapes {@code "%Y-%m-%d %H:%M:%S"} and {@code "%Y-%m-%d"}. For
+     * the values it accepts, the results are identical to those of the corresponding
+     * {@link DateTimeFormatter}, everything else is left to the formatter.
+     */
+    private static final class SimpleFormat {
+        private static final int YEAR = -1;
+        private static final int MONTH = -2;
+        private static final int DAY = -3;
+        private static final int HOUR = -4;
+        private static final int MINUTE = -5;
+        private static final int SECOND = -6;
+
+        /**
+         * Negative values are fields, all others are literal characters.
+         */
+        private final int[] items;
+        /**
+         * Whether the format determines a date (and optionally a time) on input.
+         */
+        private final boolean parseable;
+
+        private SimpleFormat(int[] items, boolean parseable) {
+            this.items = items;
+            this.parseable = parseable;
+        }
+
+        static SimpleFormat compile(String format) {
+            int[] items = new int[format.length() * 3];
+            int count = 0;
+            for (int i = 0; i < format.length(); i++) {
+                char c = format.charAt(i);
+                if (c != '%') {
+                    if (c >= '0' && c <= '9') {
+                        return null;
+                    }
+                    items[count++] = c;
+                    continue;
+                }
+                if (++i == format.length() || (count > 0 && items[count - 1] < 0)) {
+                    // adjacent fields are parsed differently by DateTimeFormatter
+                    return null;
+                }
+                switch (format.charAt(i)) {
+                    case 'Y':
+                        items[count++] = YEAR;
+                        break;
+                    case 'm':
+                        items[count++] = MONTH;
+                        break;
+                    case 'd':
+                        items[count++] = DAY;
+                        break;
+                    case 'H':
+                        items[count++] = HOUR;
+                        break;
+                    case 'M':
+                        items[count++] = MINUTE;
+                        break;
+                    case 'S':
+                        items[count++] = SECOND;
+                        break;
+                    case 'F':
+                        items[count++] = YEAR;
+                        items[count++] = '-';
+                        items[count++] = MONTH;
+                        items[count++] = '-';
+                        items[count++] = DAY;
+                        break;
+                    case 'T':
+                        items[count++] = HOUR;
+                        items[count++] = ':';
+                        items[count++] = MINUTE;
+                        items[count++] = ':';
+                        items[count++] = SECOND;
+                        break;
+                    default:
+                        return null;
+                }
+            }
+            int[] fieldCounts = new int[7];
+            for (int i = 0; i < count; i++) {
+                if (items[i] < 0) {
+                    fieldCounts[-items[i]]++;
+                }
+            }
+            boolean date = fieldCounts[-YEAR] == 1 && fieldCounts[-MONTH] == 1 && fieldCounts[-DAY] == 1;
+            boolean noTime = fieldCounts[-HOUR] == 0 && fieldCounts[-MINUTE] == 0 && fieldCounts[-SECOND] == 0;
+            boolean time = fieldCounts[-HOUR] == 1 && fieldCounts[-MINUTE] == 1 && fieldCounts[-SECOND] <= 1;
+            return new SimpleFormat(Arrays.copyOf(items, count), date && (noTime || time));
+        }
+
+        /**
+         * Parses {@code str} into entry {@code index} of {@code builder}. Returns {@code false},
+         * without modifying the builder, if the string is not handled by the fast path.
+         */
+        boolean parse(String str, POSIXltBuilder builder, int index) {
+            if (!parseable) {
+                return false;
+            }
+            int year = 0;
+            int month = 0;
+            int day = 0;
+            int hour = 0;
+            int minute = 0;
+            int second = 0;
+            int pos = 0;
+            int length = str.length();
+            for (int item : items) {
+                if (item >= 0) {
+                    if (pos == length || str.charAt(pos) != item) {
+                        return false;
+                    }
+                    pos++;
+                    continue;
+                }
+                int maxDigits = item == YEAR ? 4 : 2;
+                int digits = 0;
+                int value = 0;
+                while (pos < length && str.charAt(pos) >= '0' && str.charAt(pos) <= '9') {
+                    if (++digits > maxDigits) {
+                        return false;
+                    }
+                    value = value * 10 + str.charAt(pos++) - '0';
+                }
+                if (digits == 0) {
+                    return false;
+                }
+                switch (item) {
+                    case YEAR:
+                        year = value;
+                        break;
+                    case MONTH:
+                        month = value;
+                        break;
+                    case DAY:
+                        day = value;
+                        break;
+                    case HOUR:
+                        hour = value;
+                        break;
+                    case MINUTE:
+                        minute = value;
+                        break;
+                    default:
+                        second = value;
+                        break;
+                }
+            }
+            // like DateTimeFormatter, trailing characters are ignored
+            if (!isValidDate(year, month, day) || !isValidTime(hour, minute, second)) {
+                return false;
+            }
+            long epochDay = epochDay(year, month, day);
+            builder.setEntry(index, second, minute, hour, day, month - 1, year - 1900, (int) Math.floorMod(epochDay + 3, 7), (int) (epochDay - epochDay(year, 1, 1)) + 1, 0);
+            return true;
+        }
+
+        /**
+         * Formats the given time into {@code out}. Returns {@code false} if the values are not
+         * handled by the fast path.
+         */
+        boolean format(StringBuilder out, double sec, int min, int hour, int mday, int mon, int year) {
+            int second = (int) sec;
+            if (!isValidDate(year, mon, mday) || !isValidTime(hour, min, second)) {
+                return false;
+            }
+            out.setLength(0);
+            for (int item : items) {
+                switch (item) {
+                    case YEAR:
+                        appendPadded(out, year, 4);
+                        break;
+                    case MONTH:
+                        appendPadded(out, mon, 2);
+                        break;
+                    case DAY:
+                        appendPadded(out, mday, 2);
+                        break;
+                    case HOUR:
+                        appendPadded(out, hour, 2);
+                        break;
+                    case MINUTE:
+                        appendPadded(out, min, 2);
+                        break;
+                    case SECOND:
+                        appendPadded(out, second, 2);
+                        break;
+                    default:
+                        out.append((char) item);
+                        break;
+                }
+            }
+            return true;
+        }
+
+        private static void appendPadded(StringBuilder out, int value, int width) {
+            for (int limit = 10, i = 1; i < width; i++, limit *= 10) {
+                if (value < limit) {
+                    out.append('0');
+                }
+            }
+            out.append(value);
+        }
+    }
+
+    /**
+     * Returns the compiled formatters for {@code formats}, creating and caching them if necessary.
+     * If {@code withZone} is set, the output formatters append the time zone abbreviation.
+     */
+    private static CompiledFormat[] getCompiledFormats(RAbstractStringVector formats, boolean forInput, boolean withZone) {
+        CompiledFormat[] result = new CompiledFormat[formats.getLength()];
+        for (int i = 0; i < result.length; i++) {
+            String format = formats.getDataAt(i);
+            String key = (forInput ? 'i' : withZone ? 'z' : 'o') + format;
+            CompiledFormat compiled = FORMAT_CACHE.get(key);
+            if (compiled == null) {
+                DateTimeFormatterBuilder builder = createFormatter(format, forInput);
+                if (withZone) {
+                    builder.appendLiteral(' ').appendZoneText(TextStyle.SHORT);
+                }
+                compiled = new CompiledFormat(builder.toFormatter(), withZone ? null : SimpleFormat.compile(format));
+                if (FORMAT_CACHE.size() >= MAX_CACHED_FORMATS) {
+                    FORMAT_CACHE.clear();
+                }
+                FORMAT_CACHE.put(key, compiled);
+            }
+            result[i] = compiled;
+        }
+        return result;
+    }
+
     @RBuiltin(name = "Date2POSIXlt", kind = INTERNAL, parameterNames = "x", behavior = PURE)
     public abstract static class Date2POSIXlt extends RBuiltinNode.Arg1 {
 
@@ -241,6 +499,9 @@ public class DatePOSIXFunctions {
             }
 
             ZoneId zoneId = zone.toZoneId();
+            // with a fixed offset, the epoch seconds can be computed without java.time
+            boolean fixedOffset = zoneId.getRules().isFixedOffset();
+            int offset = fixedOffset ? zoneId.getRules().getOffset(Instant.EPOCH).getTotalSeconds() : 0;
             int length = max(secVector.getLength(), minVector.getLength(), hourVector.getLength(), mdayVector.getLength(), monVector.getLength(), yearVector.getLength());
             double[] data = new double[length];
             boolean complete = true;
@@ -261,6 +522,11 @@ public class DatePOSIXFunctions {
                         year -= delta;
                         mon += delta * 12;
                     }
+                    if (fixedOffset && mday >= 1 && mday <= 31 && year >= 1 - 1900 && year <= 9999 - 1900 && isValidTime(hour, min, (int) sec)) {
+                        long day = epochDay(year + 1900, mon + 1, 1) + mday - 1;
+                        data[i] = day * 86400L + hour * 3600 + min * 60 + (int) sec - offset + (sec - Math.floor(sec));
+                        continue;
+                    }
                     LocalDateTime time = LocalDateTime.of(year + 1900, mon + 1, 1, hour, min, (int) sec).plusDays(mday - 1);
                     ZonedDateTime zoned = time.atZone(zoneId);
                     data[i] = zoned.toInstant().getEpochSecond() + (sec - Math.floor(sec));
@@ -352,21 +618,18 @@ public class DatePOSIXFunctions {
             RAbstractIntVector monVector = (RAbstractIntVector) RRuntime.convertScalarVectors(x.getDataAt(4));
             RAbstractIntVector yearVector = (RAbstractIntVector) RRuntime.convertScalarVectors(x.getDataAt(5));
             ZoneId zone;
-            DateTimeFormatterBuilder[] builders = createFormatters(format, false);
             String tzone = getTimeZomeFromAttribute(x);
-            if (usetz && !tzone.isEmpty()) {
+            boolean withZone = usetz && !tzone.isEmpty();
+            if (withZone) {
                 zone = ZoneId.of(tzone, TIME_ZONE_MAPPING);
-                for (DateTimeFormatterBuilder builder : builders) {
-                    builder.appendLiteral(' ').appendZoneText(TextStyle.SHORT);
-                }
             } else {
                 zone = RContext.getInstance().getSystemTimeZone().toZoneId();
             }
+            CompiledFormat[] formats = getCompiledFormats(format, false, withZone);
+            // the fields can only be printed as they are if the zone never adjusts them
+            boolean fixedOffset = zone.getRules().isFixedOffset();
+            StringBuilder str = new StringBuilder();
 
-            DateTimeFormatter[] formatters = new DateTimeFormatter[builders.length];
-            for (int i = 0; i < builders.length; i++) {
-                formatters[i] = builders[i].toFormatter();
-            }
             int length = secVector.getLength();
             String[] data = new String[length];
             boolean complete = true;
@@ -378,9 +641,14 @@ public class DatePOSIXFunctions {
                     int mday = mdayVector.getDataAt(i);
                     int mon = monVector.getDataAt(i) + 1;
                     int year = yearVector.getDataAt(i) + 1900;
+                    CompiledFormat compiled = formats[i % formats.length];
+                    if (fixedOffset && compiled.simple != null && compiled.simple.format(str, sec, min, hour, mday, mon, year)) {
+                        data[i] = str.toString();
+                        continue;
+                    }
                     LocalDateTime time = LocalDateTime.of(year, mon, mday, hour, min, (int) sec, (int) ((sec - Math.floor(sec)) * 1000000000L));
                     ZonedDateTime zoned = time.atZone(zone);
-                    data[i] = formatters[i % formatters.length].format(zoned);
+                    data[i] = compiled.formatter.format(zoned);
                 } else {
                     data[i] = RRuntime.STRING_NA;
                     complete = false;
@@ -412,17 +680,17 @@ public class DatePOSIXFunctions {
             }
             int length = x.getLength();
             POSIXltBuilder builder = new POSIXltBuilder(length, zone.getDisplayName(false, TimeZone.SHORT));
-            DateTimeFormatterBuilder[] builders = createFormatters(format, true);
-            DateTimeFormatter[] formatters = new DateTimeFormatter[builders.length];
-            for (int i = 0; i < builders.length; i++) {
-                formatters[i] = builders[i].toFormatter();
-            }
+            CompiledFormat[] formats = getCompiledFormats(format, true, false);
 
             for (int i = 0; i < length; i++) {
                 String str = x.getDataAt(i);
+                CompiledFormat compiled = formats[i % formats.length];
+                if (compiled.simple != null && compiled.simple.parse(str, builder, i)) {
+                    continue;
+                }
                 TemporalAccessor parse;
                 try {
-                    parse = formatters[i % formatters.length].parse(str, new ParsePosition(0));
+                    parse = compiled.formatter.parse(str, new ParsePosition(0));
                 } catch (DateTimeParseException e) {
                     builder.setIncompleteEntry(i);
                     continue;
@@ -453,14 +721,6 @@ public class DatePOSIXFunctions {
         }
     }
 
-    private static DateTimeFormatterBuilder[] createFormatters(RAbstractStringVector formats, boolean forInput) {
-        DateTimeFormatterBuilder[] result = new DateTimeFormatterBuilder[formats.getLength()];
-        for (int i = 0; i < result.length; i++) {
-            result[i] = createFormatter(formats.getDataAt(i), forInput);
-        }
-        return result;
-    }
-
     private static DateTimeFormatterBuilder createFormatter(String format, boolean forInput) {
         DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder();
         if (forInput) {
@@ -714,6 +974,35 @@ public class DatePOSIXFunctions {
         return builder;
     }
 
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static boolean isValidDate(int year, int month, int day) {
+        if (year < 0 || year > 9999 || month < 1 || month > 12 || day < 1) {
+            return false;
+        }
+        int monthLength = month == 2 ? (isLeapYear(year) ? 29 : 28) : (month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31);
+        return day <= monthLength;
+    }
+
+    private static boolean isValidTime(int hour, int minute, int second) {
+        return hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59 && second >= 0 && second <= 59;
+    }
+
+    /**
+     * Same as {@link LocalDate#toEpochDay()}, for years >= 0.
+     */
+    private static long epochDay(int year, int month, int day) {
+        long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12 + day - 1;
+        if (month > 2) {
+            total -= isLeapYear(year) ? 1 : 2;
+        }
+        // days from 0000-01-01 to 1970-01-01
+        return total - 719528;
+    }
+
     private static double getDouble(RAbstractVector v, int index) {
         int i = index % v.getLength();
         if (v instanceof RAbstractDoubleVector) {
@@ -32,6 +32,7 @@ import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RLogicalVector;
 import com.oracle.truffle.r.runtime.data.RTypedValue;
+import com.oracle.truffle.r.runtime.data.VectorHashIndex;
 import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.nodes.DuplicationHelper;
@@ -70,6 +71,12 @@ public class DuplicatedFunctions {
 
         @TruffleBoundary
         protected static RLogicalVector analyzeAndCreateResult(RAbstractVector x, RAbstractVector incomparables, byte fromLast) {
+            if (incomparables == null) {
+                VectorHashIndex index = VectorHashIndex.get(x);
+                if (index != null) {
+                    return RDataFactory.createLogicalVector(index.getDuplicated(RRuntime.fromLogical(fromLast)), RDataFactory.COMPLETE_VECTOR);
+                }
+            }
             DuplicationHelper ds = DuplicationHelper.analyze(x, incomparables, false, RRuntime.fromLogical(fromLast));
             return RDataFactory.createLogicalVector(ds.getDupVec(), RDataFactory.COMPLETE_VECTOR);
         }
@@ -122,6 +129,7 @@ public class DuplicatedFunctions {
         }
 
         private final ConditionProfile incomparable = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile indexedProfile = ConditionProfile.createBinaryProfile();
 
         protected boolean isIncomparable(RAbstractVector incomparables) {
             if (incomparable.profile(incomparables.getLength() == 1 && incomparables instanceof RLogicalVector && ((RAbstractLogicalVector) incomparables).getDataAt(0) == RRuntime.LOGICAL_FALSE)) {
@@ -134,6 +142,10 @@ public class DuplicatedFunctions {
         @SuppressWarnings("unused")
         @Specialization(guards = {"!isIncomparable(incomparables)", "x.getLength() != 0"})
         protected int anyDuplicatedFalseIncomparables(RAbstractVector x, RAbstractVector incomparables, byte fromLast) {
+            VectorHashIndex index = VectorHashIndex.get(x);
+            if (indexedProfile.profile(index != null)) {
+                return index.getAnyDuplicated(RRuntime.fromLogical(fromLast));
+            }
             return DuplicationHelper.analyze(x, null, true, RRuntime.fromLogical(fromLast)).getIndex();
         }
 
@@ -41,8 +41,8 @@ import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
-import com.oracle.truffle.r.runtime.RegExp;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RList;
@@ -204,15 +204,29 @@ public class GrepFunctions {
             return RDataFactory.createIntVector(naData, RDataFactory.INCOMPLETE_VECTOR);
         }
 
+        /**
+         * Returns the compiled PCRE pattern from the context's regular expression cache, compiling
+         * it on a miss.
+         */
         protected PCRERFFI.Result compilePerlPattern(String pattern, boolean ignoreCase) {
             int cflags = ignoreCase ? PCRERFFI.CASELESS : 0;
-            long tables = maketablesNode.execute();
-            PCRERFFI.Result pcre = compileNode.execute(pattern, cflags, tables);
-            if (pcre.result == 0) {
-                // TODO output warning if pcre.errorMessage not NULL
-                throw error(RError.Message.INVALID_REGEXP, pattern);
-            }
-            return pcre;
+            return RContext.getInstance().stateRegExp.getPerlPattern(pattern, cflags, () -> {
+                long tables = maketablesNode.execute();
+                PCRERFFI.Result pcre = compileNode.execute(pattern, cflags, tables);
+                if (pcre.result == 0) {
+                    // TODO output warning if pcre.errorMessage not NULL
+                    throw error(RError.Message.INVALID_REGEXP, pattern);
+                }
+                return pcre;
+            });
+        }
+
+        /**
+         * Returns the compiled Java pattern for the (untranslated) R regular expression
+         * {@code pattern} from the context's regular expression cache.
+         */
+        protected static Pattern compileJavaPattern(String pattern, boolean ignoreCase) {
+            return RContext.getInstance().stateRegExp.getJavaPattern(pattern, ignoreCase ? Pattern.CASE_INSENSITIVE : 0);
         }
     }
 
@@ -234,10 +248,8 @@ public class GrepFunctions {
                 boolean[] matches = new boolean[len];
                 if (!perl) {
                     // TODO case
-                    if (!fixed) {
-                        pattern = RegExp.checkPreDefinedClasses(pattern);
-                    }
-                    findAllMatches(matches, pattern, vector, fixed, ignoreCase);
+                    Pattern compiled = fixed ? null : compileJavaPattern(pattern, ignoreCase);
+                    findAllMatches(matches, pattern, compiled, vector);
                 } else {
                     PCRERFFI.Result pcre = compilePerlPattern(pattern, ignoreCase);
                     // TODO pcre_study for vectors > 10 ? (cf GnuR)
@@ -303,23 +315,22 @@ public class GrepFunctions {
             }
         }
 
-        protected static void findAllMatches(boolean[] result, String pattern, RAbstractStringVector vector, boolean fixed, boolean ignoreCase) {
+        /**
+         * Matches {@code vector} against {@code pattern}, which is treated as a fixed string if
+         * {@code compiled} is {@code null}.
+         */
+        protected static void findAllMatches(boolean[] result, String pattern, Pattern compiled, RAbstractStringVector vector) {
             for (int i = 0; i < result.length; i++) {
                 String text = vector.getDataAt(i);
                 if (!RRuntime.isNA(text)) {
-                    if (fixed) {
+                    if (compiled == null) {
                         result[i] = text.contains(pattern);
                     } else {
-                        result[i] = findMatch(pattern, text, ignoreCase);
+                        result[i] = compiled.matcher(text).find();
                     }
                 }
             }
         }
-
-        protected static boolean findMatch(String pattern, String text, boolean ignoreCase) {
-            Matcher m = Regexpr.getPatternMatcher(pattern, text, ignoreCase);
-            return m.find();
-        }
     }
 
     public static CommonCodeNode createCommon() {
@@ -450,12 +461,13 @@ public class GrepFunctions {
                 }
 
                 PCRERFFI.Result pcre = null;
+                Pattern compiled = null;
                 if (fixed) {
                     // TODO case
                 } else if (perl) {
                     pcre = compilePerlPattern(pattern, ignoreCase);
                 } else {
-                    pattern = RegExp.checkPreDefinedClasses(pattern);
+                    compiled = compileJavaPattern(pattern, ignoreCase);
                 }
                 String[] result = new String[len];
                 for (int i = 0; i < len; i++) {
@@ -536,9 +548,9 @@ public class GrepFunctions {
                         replacement = convertGroups(replacement);
 
                         if (gsub) {
-                            value = input.replaceAll(pattern, replacement);
+                            value = compiled.matcher(input).replaceAll(replacement);
                         } else {
-                            value = input.replaceFirst(pattern, replacement);
+                            value = compiled.matcher(input).replaceFirst(replacement);
                         }
                     }
                     result[i] = value;
@@ -793,9 +805,7 @@ public class GrepFunctions {
                     throw RInternalError.unimplemented("multi-element patterns in regexpr not implemented yet");
                 }
                 String pattern = patternArg.getDataAt(0);
-                if (!perl) {
-                    pattern = RegExp.checkPreDefinedClasses(pattern);
-                }
+                Pattern compiled = perl || fixed || pattern.length() == 0 ? null : CommonCodeNode.compileJavaPattern(pattern, ignoreCase);
                 // TODO: useBytes normally depends on the value of the parameter and (if false) on
                 // whether the string is ASCII
                 boolean useBytes = true;
@@ -810,7 +820,7 @@ public class GrepFunctions {
                     Arrays.fill(result, 1);
                 } else {
                     for (int i = 0; i < vector.getLength(); i++) {
-                        Info res = getInfo(common, pattern, vector.getDataAt(i), ignoreCase, perl, fixed).get(0);
+                        Info res = getInfo(common, pattern, compiled, vector.getDataAt(i), ignoreCase, perl, fixed).get(0);
                         result[i] = res.index;
                         matchLength[i] = res.size;
                         if (res.hasCapture) {
@@ -859,7 +869,7 @@ public class GrepFunctions {
             }
         }
 
-        protected List<Info> getInfo(CommonCodeNode common, String pattern, String text, boolean ignoreCase, boolean perl, boolean fixed) {
+        protected List<Info> getInfo(CommonCodeNode common, String pattern, Pattern compiled, String text, boolean ignoreCase, boolean perl, boolean fixed) {
             List<Info> list = new ArrayList<>();
             if (fixed) {
                 int index = 0;
@@ -910,7 +920,7 @@ public class GrepFunctions {
                     }
                 }
             } else {
-                Matcher m = getPatternMatcher(pattern, text, ignoreCase);
+                Matcher m = compiled.matcher(text);
                 while (m.find()) {
                     // R starts counting at index 1
                     list.add(new Info(m.start() + 1, m.end() - m.start(), null, null, null));
@@ -922,11 +932,6 @@ public class GrepFunctions {
             list.add(new Info(-1, -1, null, null, null));
             return list;
         }
-
-        @TruffleBoundary
-        private static Matcher getPatternMatcher(String pattern, String text, boolean ignoreCase) {
-            return Pattern.compile(pattern, ignoreCase ? Pattern.CASE_INSENSITIVE : 0).matcher(text);
-        }
     }
 
     @ImportStatic(GrepFunctions.class)
@@ -975,7 +980,7 @@ public class GrepFunctions {
                 }
                 RList ret = RDataFactory.createList(vector.getLength());
                 String pattern = patternArg.getDataAt(0);
-                pattern = RegExp.checkPreDefinedClasses(pattern);
+                Pattern compiled = fixed || pattern.length() == 0 ? null : CommonCodeNode.compileJavaPattern(pattern, ignoreCase);
                 // TODO: useBytes normally depends on the value of the parameter and (if false) on
                 // whether the string is ASCII
                 for (int i = 0; i < vector.getLength(); i++) {
@@ -986,7 +991,7 @@ public class GrepFunctions {
                         matchPos = new int[]{1};
                         matchLength = new int[]{0};
                     } else {
-                        List<Info> res = getInfo(pattern, vector.getDataAt(i), ignoreCase, fixed);
+                        List<Info> res = getInfo(pattern, compiled, vector.getDataAt(i), ignoreCase, fixed);
                         matchPos = new int[res.size()];
                         matchLength = new int[res.size()];
                         for (int j = 0; j < res.size(); j++) {
@@ -1007,7 +1012,7 @@ public class GrepFunctions {
             }
         }
 
-        protected List<Info> getInfo(String pattern, String text, boolean ignoreCase, boolean fixed) {
+        protected List<Info> getInfo(String pattern, Pattern compiled, String text, boolean ignoreCase, boolean fixed) {
             List<Info> list = new ArrayList<>();
             if (fixed) {
                 int index;
@@ -1020,7 +1025,7 @@ public class GrepFunctions {
                     list.add(new Info(index + 1, pattern.length(), null, null, null));
                 }
             } else {
-                Matcher m = getPatternMatcher(pattern, text, ignoreCase);
+                Matcher m = compiled.matcher(text);
                 if (m.find()) {
                     for (int i = 0; i <= m.groupCount(); i++) {
                         list.add(new Info(m.start(i) + 1, m.end(i) - m.start(i), null, null, null));
@@ -1033,11 +1038,6 @@ public class GrepFunctions {
             list.add(new Info(-1, -1, null, null, null));
             return list;
         }
-
-        @TruffleBoundary
-        private static Matcher getPatternMatcher(String pattern, String text, boolean ignoreCase) {
-            return Pattern.compile(pattern, ignoreCase ? Pattern.CASE_INSENSITIVE : 0).matcher(text);
-        }
     }
 
     @ImportStatic(GrepFunctions.class)
@@ -1090,9 +1090,7 @@ public class GrepFunctions {
                     throw RInternalError.unimplemented("multi-element patterns in gregexpr not implemented yet");
                 }
                 String pattern = patternArg.getDataAt(0);
-                if (!perl) {
-                    pattern = RegExp.checkPreDefinedClasses(pattern);
-                }
+                Pattern compiled = perl || fixed || pattern.length() == 0 ? null : CommonCodeNode.compileJavaPattern(pattern, ignoreCase);
                 // TODO: useBytes normally depends on the value of the parameter and (if false) on
                 // whether the string is ASCII
                 boolean useBytes = true;
@@ -1112,7 +1110,7 @@ public class GrepFunctions {
                             setUseBytesAttrNode.execute(res, RRuntime.LOGICAL_TRUE);
                         }
                     } else {
-                        List<Info> l = getInfo(common, pattern, vector.getDataAt(i), ignoreCase, perl, fixed);
+                        List<Info> l = getInfo(common, pattern, compiled, vector.getDataAt(i), ignoreCase, perl, fixed);
                         res = toIndexOrSizeVector(l, true);
                         setMatchLengthAttrNode.execute(res, toIndexOrSizeVector(l, false));
                         if (useBytes) {
@@ -1364,20 +1362,17 @@ public class GrepFunctions {
             // treat split = NULL as split = ""
             RAbstractStringVector split = splitArg.getLength() == 0 ? RDataFactory.createStringVectorFromScalar("") : splitArg;
             String[] splits = new String[split.getLength()];
-            long pcreTables = perl ? common.maketablesNode.execute() : 0;
             PCRERFFI.Result[] pcreSplits = perl ? new PCRERFFI.Result[splits.length] : null;
+            // compiled lazily, so that syntax errors are reported for the offending element
+            Pattern[] javaSplits = fixed || perl ? null : new Pattern[splits.length];
 
             na.enable(x);
             for (int i = 0; i < splits.length; i++) {
                 String currentSplit = split.getDataAt(i);
-                splits[i] = fixed || perl ? split.getDataAt(i) : RegExp.checkPreDefinedClasses(split.getDataAt(i));
+                splits[i] = currentSplit;
                 if (perl) {
                     if (!currentSplit.isEmpty()) {
-                        pcreSplits[i] = common.compileNode.execute(currentSplit, 0, pcreTables);
-                        if (pcreSplits[i].result == 0) {
-                            // TODO output warning if pcre.errorMessage not NULL
-                            throw error(RError.Message.INVALID_REGEXP, currentSplit);
-                        }
+                        pcreSplits[i] = common.compilePerlPattern(currentSplit, false);
                         // TODO pcre_study for vectors > 10 ? (cf GnuR)
                     }
                 }
@@ -1403,8 +1398,14 @@ public class GrepFunctions {
                         } else {
                             if (perl) {
                                 resultItem = splitPerl(data, pcreSplits[i % splits.length]);
+                            } else if (fixed) {
+                                resultItem = splitIntl(data, currentSplit, null);
                             } else {
-                                resultItem = splitIntl(data, currentSplit, fixed);
+                                int splitIndex = i % splits.length;
+                                if (javaSplits[splitIndex] == null) {
+                                    javaSplits[splitIndex] = CommonCodeNode.compileJavaPattern(currentSplit, false);
+                                }
+                                resultItem = splitIntl(data, currentSplit, javaSplits[splitIndex]);
                             }
                             if (resultItem.getLength() == 0) {
                                 if (fixed) {
@@ -1438,10 +1439,14 @@ public class GrepFunctions {
             }
         }
 
-        private static RStringVector splitIntl(String input, String separator, boolean fixed) {
+        /**
+         * Splits {@code input} by {@code separator}, which is treated as a fixed string if
+         * {@code compiled} is {@code null}.
+         */
+        private static RStringVector splitIntl(String input, String separator, Pattern compiled) {
             assert !RRuntime.isNA(input);
 
-            if (fixed) {
+            if (compiled == null) {
                 ArrayList<String> matches = new ArrayList<>();
                 int idx = input.indexOf(separator);
                 if (idx < 0) {
@@ -1462,10 +1467,10 @@ public class GrepFunctions {
                 }
                 return RDataFactory.createStringVector(matches.toArray(new String[matches.size()]), false);
             } else {
-                if (input.equals(separator)) {
+                if (input.equals(compiled.pattern())) {
                     return RDataFactory.createStringVector("");
                 } else {
-                    return RDataFactory.createStringVector(input.split(separator), true);
+                    return RDataFactory.createStringVector(compiled.split(input), true);
                 }
             }
         }
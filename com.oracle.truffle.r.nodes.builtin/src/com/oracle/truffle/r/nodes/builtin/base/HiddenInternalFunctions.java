@@ -42,6 +42,7 @@ import com.oracle.truffle.r.nodes.function.PromiseHelperNode;
 import com.oracle.truffle.r.nodes.function.RCallNode;
 import com.oracle.truffle.r.nodes.function.call.CallRFunctionCachedNode;
 import com.oracle.truffle.r.nodes.function.call.CallRFunctionCachedNodeGen;
+import com.oracle.truffle.r.runtime.LazyDBCache;
 import com.oracle.truffle.r.runtime.RCaller;
 import com.oracle.truffle.r.runtime.RCompression;
 import com.oracle.truffle.r.runtime.RError;
@@ -208,46 +209,55 @@ public class HiddenInternalFunctions {
             }
             String dbPath = datafile.getDataAt(0);
             String packageName = new File(dbPath).getName();
-            byte[] dbData = RContext.getInstance().stateLazyDBCache.getData(dbPath);
             int dotIndex;
             if ((dotIndex = packageName.lastIndexOf('.')) > 0) {
                 packageName = packageName.substring(0, dotIndex);
             }
             int offset = key.getDataAt(0);
             int length = key.getDataAt(1);
-            int outlen = getOutlen(dbData, offset); // length of uncompressed data
-            byte[] udata = null;
-            boolean rc = true;
-            /*
-             * compression may have value 0, 1, 2 or 3. Value 1 is gzip and the data starts at
-             * "offset + 4". Values 2 and 3 have a "type" field at "offset + 4
-             * " and the data starts at "offset + 5". The type field is 'Z' for lzma, '2' for bzip,
-             * '1' for zip and '0' for no compression. From GnuR code, the only difference between
-             * compression=2 and compression=3 is that type='Z' is only possible for the latter.
-             */
-            if (compression == 0) {
-                udata = new byte[length];
-                System.arraycopy(dbData, offset, udata, 0, length);
-            } else {
-                udata = new byte[outlen];
-                if (compression == 2 || compression == 3) {
-                    RCompression.Type type = RCompression.Type.fromTypeChar(dbData[4]);
-                    if (type == null) {
-                        warning(RError.Message.GENERIC, "unknown compression type");
-                        return RNull.instance;
-                    }
-                    byte[] data = new byte[length - 5];
-                    System.arraycopy(dbData, offset + 5, data, 0, data.length);
-                    rc = RCompression.uncompress(type, udata, data);
+            LazyDBCache.ContextStateImpl dbCache = RContext.getInstance().stateLazyDBCache;
+            byte[] udata = compression == 0 ? null : dbCache.getPayload(dbPath, offset);
+            if (udata == null) {
+                ByteBuffer dbData = dbCache.getData(dbPath);
+                boolean rc = true;
+                /*
+                 * compression may have value 0, 1, 2 or 3. Value 1 is gzip and the data starts at
+                 * "offset + 4". Values 2 and 3 have a "type" field at "offset + 4 " and the data
+                 * starts at "offset + 5". The type field is 'Z' for lzma, '2' for bzip, '1' for zip
+                 * and '0' for no compression. From GnuR code, the only difference between
+                 * compression=2 and compression=3 is that type='Z' is only possible for the latter.
+                 */
+                if (compression == 0) {
+                    udata = new byte[length];
+                    dbData.position(offset);
+                    dbData.get(udata);
                 } else {
-                    // GnuR treats any other value as 1
-                    byte[] data = new byte[length - 4];
-                    System.arraycopy(dbData, offset + 4, data, 0, data.length);
-                    rc = RCompression.uncompress(RCompression.Type.GZIP, udata, data);
+                    int outlen = dbData.getInt(offset); // length of uncompressed data
+                    udata = new byte[outlen];
+                    if (compression == 2 || compression == 3) {
+                        RCompression.Type type = RCompression.Type.fromTypeChar(dbData.get(offset + 4));
+                        if (type == null) {
+                            warning(RError.Message.GENERIC, "unknown compression type");
+                            return RNull.instance;
+                        }
+                        byte[] data = new byte[length - 5];
+                        dbData.position(offset + 5);
+                        dbData.get(data);
+                        rc = RCompression.uncompress(type, udata, data);
+                    } else {
+                        // GnuR treats any other value as 1
+                        byte[] data = new byte[length - 4];
+                        dbData.position(offset + 4);
+                        dbData.get(data);
+                        rc = RCompression.uncompress(RCompression.Type.GZIP, udata, data);
+                    }
+                    if (rc) {
+                        dbCache.putPayload(dbPath, offset, udata);
+                    }
+                }
+                if (!rc) {
+                    throw error(RError.Message.LAZY_LOAD_DB_CORRUPT, dbPath);
                 }
-            }
-            if (!rc) {
-                throw error(RError.Message.LAZY_LOAD_DB_CORRUPT, dbPath);
             }
             try {
                 RSerialize.CallHook callHook = new RSerialize.CallHook() {
@@ -264,13 +274,6 @@ public class HiddenInternalFunctions {
                 throw RInternalError.shouldNotReachHere(ex);
             }
         }
-
-        private static int getOutlen(byte[] dbData, int offset) {
-            ByteBuffer dataLengthBuf = ByteBuffer.allocate(4);
-            dataLengthBuf.put(dbData, offset, 4);
-            dataLengthBuf.position(0);
-            return dataLengthBuf.getInt();
-        }
     }
 
     @RBuiltin(name = "getRegisteredRoutines", kind = INTERNAL, parameterNames = "info", behavior = COMPLEX)
@@ -408,12 +411,12 @@ public class HiddenInternalFunctions {
                 } else if (compression == 3) {
                     ctype = RCompression.Type.XZ;
                     offset = 5;
-                    outLen = data.length;
-                    cdata = new byte[outLen];
-                    boolean rc = RCompression.compress(ctype, data, cdata);
-                    if (!rc) {
+                    try {
+                        cdata = RCompression.compress(ctype, data);
+                    } catch (IOException ex) {
                         throw error(Message.GENERIC, "lzma compress error");
                     }
+                    outLen = cdata.length;
                 } else {
                     throw RInternalError.shouldNotReachHere();
                 }
@@ -26,6 +26,9 @@ import static com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctions.G
 import static com.oracle.truffle.r.runtime.builtins.RBehavior.PURE;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -41,6 +44,7 @@ import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctions.SetDimAt
 import com.oracle.truffle.r.nodes.attributes.SpecialAttributesFunctions.SetDimNamesAttributeNode;
 import com.oracle.truffle.r.nodes.binary.BinaryMapArithmeticFunctionNode;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.FastROptions;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RType;
@@ -66,6 +70,12 @@ public abstract class MatMult extends RBuiltinNode.Arg2 {
 
     private static final int BLOCK_SIZE = 64;
 
+    /**
+     * Minimal number of multiply-add operations for which a matrix multiplication is distributed
+     * over the {@link ParallelKernel#POOL fork-join pool}.
+     */
+    private static final long PARALLEL_THRESHOLD = 1L << 22;
+
     @Child private BinaryMapArithmeticFunctionNode mult = new BinaryMapArithmeticFunctionNode(BinaryArithmetic.MULTIPLY.createOperation());
     @Child private BinaryMapArithmeticFunctionNode add = new BinaryMapArithmeticFunctionNode(BinaryArithmetic.ADD.createOperation());
     private final boolean promoteDimNames;
@@ -184,7 +194,9 @@ public abstract class MatMult extends RBuiltinNode.Arg2 {
             CompilerDirectives.transferToInterpreterAndInvalidate();
             seenLargeMatrix = true;
         }
-        if (seenLargeMatrix) {
+        if (seenLargeMatrix && isParallel(aRows, aCols, bCols)) {
+            ParallelKernel.multiplyDouble(dataA, dataB, aRows, aCols, bCols, result, aRowStride, aColStride, bRowStride, bColStride, mirrored);
+        } else if (seenLargeMatrix) {
             for (int row = 0; row < aRows; row += BLOCK_SIZE) {
                 for (int col = mirrored ? row : 0; col < bCols; col += BLOCK_SIZE) {
                     for (int k = 0; k < aCols; k += BLOCK_SIZE) {
@@ -278,6 +290,171 @@ public abstract class MatMult extends RBuiltinNode.Arg2 {
         }
     }
 
+    private static boolean isParallel(int aRows, int aCols, int bCols) {
+        return (long) aRows * aCols * bCols >= PARALLEL_THRESHOLD && ParallelKernel.isEnabled();
+    }
+
+    /**
+     * Multi-threaded variants of the double and complex matrix-matrix kernels. The work is split
+     * into independent parts of the result (tiles of {@link #BLOCK_SIZE} for doubles, columns for
+     * complex numbers) and every result element is accumulated in the same order as in the
+     * sequential kernels, so the results are bit-identical regardless of the parallelism.
+     */
+    private static final class ParallelKernel {
+
+        private static final ForkJoinPool POOL = createPool();
+
+        private static ForkJoinPool createPool() {
+            int parallelism = FastROptions.MatMultParallelism.getNonNegativeIntValue();
+            if (parallelism == 0) {
+                parallelism = Runtime.getRuntime().availableProcessors();
+            }
+            return parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        }
+
+        @TruffleBoundary
+        static boolean isEnabled() {
+            return POOL != null;
+        }
+
+        @TruffleBoundary
+        static void multiplyDouble(double[] a, double[] b, int aRows, int aCols, int bCols, double[] result, int aRowStride, int aColStride, int bRowStride, int bColStride,
+                        boolean mirrored) {
+            int rowBlocks = (aRows + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            int colBlocks = (bCols + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            int[] tiles = new int[rowBlocks * colBlocks];
+            int tileCount = 0;
+            for (int rowBlock = 0; rowBlock < rowBlocks; rowBlock++) {
+                for (int colBlock = mirrored ? rowBlock : 0; colBlock < colBlocks; colBlock++) {
+                    tiles[tileCount++] = colBlock * rowBlocks + rowBlock;
+                }
+            }
+            DoubleTiles task = new DoubleTiles(a, b, aRows, aCols, bCols, result, aRowStride, aColStride, bRowStride, bColStride, tiles, rowBlocks, 0, tileCount);
+            POOL.invoke(task);
+        }
+
+        /**
+         * Must only be used for complete operands, see {@link ComplexColumns}.
+         */
+        @TruffleBoundary
+        static void multiplyComplex(double[] a, double[] b, int aRows, int aCols, int bCols, double[] result) {
+            POOL.invoke(new ComplexColumns(a, b, aRows, aCols, bCols, result, 0, bCols));
+        }
+
+        @SuppressWarnings("serial")
+        private static final class DoubleTiles extends RecursiveAction {
+            private final double[] a;
+            private final double[] b;
+            private final int aRows;
+            private final int aCols;
+            private final int bCols;
+            private final double[] result;
+            private final int aRowStride;
+            private final int aColStride;
+            private final int bRowStride;
+            private final int bColStride;
+            private final int[] tiles;
+            private final int rowBlocks;
+            private final int from;
+            private final int to;
+
+            DoubleTiles(double[] a, double[] b, int aRows, int aCols, int bCols, double[] result, int aRowStride, int aColStride, int bRowStride, int bColStride, int[] tiles, int rowBlocks,
+                            int from, int to) {
+                this.a = a;
+                this.b = b;
+                this.aRows = aRows;
+                this.aCols = aCols;
+                this.bCols = bCols;
+                this.result = result;
+                this.aRowStride = aRowStride;
+                this.aColStride = aColStride;
+                this.bRowStride = bRowStride;
+                this.bColStride = bColStride;
+                this.tiles = tiles;
+                this.rowBlocks = rowBlocks;
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from > 1) {
+                    int middle = (from + to) >>> 1;
+                    invokeAll(new DoubleTiles(a, b, aRows, aCols, bCols, result, aRowStride, aColStride, bRowStride, bColStride, tiles, rowBlocks, from, middle),
+                                    new DoubleTiles(a, b, aRows, aCols, bCols, result, aRowStride, aColStride, bRowStride, bColStride, tiles, rowBlocks, middle, to));
+                } else if (to > from) {
+                    int row = (tiles[from] % rowBlocks) * BLOCK_SIZE;
+                    int col = (tiles[from] / rowBlocks) * BLOCK_SIZE;
+                    int remainingCols = Math.min(BLOCK_SIZE, bCols - col);
+                    int remainingRows = Math.min(BLOCK_SIZE, aRows - row);
+                    // the node's profiles must not be updated from the worker threads
+                    LoopConditionProfile loopProfile = LoopConditionProfile.createCountingProfile();
+                    for (int k = 0; k < aCols; k += BLOCK_SIZE) {
+                        int remainingK = Math.min(BLOCK_SIZE, aCols - k);
+                        multiplyBlock(a, b, aRows, result, row, col, k, aRowStride, aColStride, bRowStride, bColStride, remainingCols, remainingRows, remainingK, loopProfile);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Computes the result columns {@code [from, to)}, with the same operations as the
+         * sequential complex kernel. Unlike the sequential kernel, it uses plain IEEE arithmetic
+         * and does not make {@code NA} sticky, so the operands must not contain {@code NA} values
+         * (intermediate results of complete operands are never {@code NA}).
+         */
+        @SuppressWarnings("serial")
+        private static final class ComplexColumns extends RecursiveAction {
+            private final double[] a;
+            private final double[] b;
+            private final int aRows;
+            private final int aCols;
+            private final int bCols;
+            private final double[] result;
+            private final int from;
+            private final int to;
+
+            ComplexColumns(double[] a, double[] b, int aRows, int aCols, int bCols, double[] result, int from, int to) {
+                this.a = a;
+                this.b = b;
+                this.aRows = aRows;
+                this.aCols = aCols;
+                this.bCols = bCols;
+                this.result = result;
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from > 1) {
+                    int middle = (from + to) >>> 1;
+                    invokeAll(new ComplexColumns(a, b, aRows, aCols, bCols, result, from, middle), new ComplexColumns(a, b, aRows, aCols, bCols, result, middle, to));
+                    return;
+                }
+                for (int col = from; col < to; col++) {
+                    for (int row = 0; row < aRows; row++) {
+                        double re = 0.0;
+                        double im = 0.0;
+                        for (int k = 0; k < aCols; k++) {
+                            int aIndex = (k * aRows + row) << 1;
+                            int bIndex = (col * aCols + k) << 1;
+                            double aRe = a[aIndex];
+                            double aIm = a[aIndex + 1];
+                            double bRe = b[bIndex];
+                            double bIm = b[bIndex + 1];
+                            re = re + (aRe * bRe - aIm * bIm);
+                            im = im + (aIm * bRe + aRe * bIm);
+                        }
+                        int index = (col * aRows + row) << 1;
+                        result[index] = re;
+                        result[index + 1] = im;
+                    }
+                }
+            }
+        }
+    }
+
     @Specialization(guards = {"a.getClass() == aClass", "b.getClass() == bClass"})
     protected RDoubleVector multiplyDouble(RAbstractDoubleVector a, RAbstractDoubleVector b,
                     @Cached("a.getClass()") Class<? extends RAbstractDoubleVector> aClass,
@@ -381,6 +558,11 @@ public abstract class MatMult extends RBuiltinNode.Arg2 {
                 final int aRows = aDimensions[0];
                 final int bCols = bDimensions[1];
                 double[] result = new double[(aRows * bCols) << 1];
+                // NA operands need the NA semantics of add and mult, which the parallel kernel lacks
+                if (a.isComplete() && b.isComplete() && isParallel(aRows, aCols, bCols)) {
+                    ParallelKernel.multiplyComplex(a.materialize().getDataWithoutCopying(), b.materialize().getDataWithoutCopying(), aRows, aCols, bCols, result);
+                    return RDataFactory.createComplexVector(result, RDataFactory.COMPLETE_VECTOR, new int[]{aRows, bCols});
+                }
                 na.enable(a);
                 na.enable(b);
                 for (int row = 0; row < aRows; row++) {
@@ -52,6 +52,7 @@ import com.oracle.truffle.r.runtime.data.RComplex;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.data.VectorHashIndex;
 import com.oracle.truffle.r.runtime.data.closures.RClosures;
 import com.oracle.truffle.r.runtime.data.model.RAbstractComplexVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
@@ -197,6 +198,7 @@ public abstract class Match extends RBuiltinNode.Arg4 {
         @Child private MatchInternalNode matchRecursive;
 
         private final ConditionProfile bigTableProfile = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile indexedTableProfile = ConditionProfile.createBinaryProfile();
 
         private RAbstractStringVector castString(RAbstractVector operand) {
             if (castString == null) {
@@ -210,6 +212,18 @@ public abstract class Match extends RBuiltinNode.Arg4 {
         protected RIntVector match(RAbstractIntVector x, RAbstractIntVector table, int nomatch) {
             int[] result = initResult(x.getLength(), nomatch);
             boolean matchAll = true;
+            VectorHashIndex.IntIndex index = VectorHashIndex.getInt(table);
+            if (indexedTableProfile.profile(index != null)) {
+                for (int i = 0; i < result.length; i++) {
+                    int found = index.lookup(x.getDataAt(i));
+                    if (found != -1) {
+                        result[i] = found + 1;
+                    } else {
+                        matchAll = false;
+                    }
+                }
+                return RDataFactory.createIntVector(result, setCompleteState(matchAll, nomatch));
+            }
             NonRecursiveHashMapInt hashTable;
             if (bigTableProfile.profile(table.getLength() > (x.getLength() * TABLE_SIZE_FACTOR))) {
                 hashTable = new NonRecursiveHashMapInt(x.getLength());
@@ -322,6 +336,18 @@ public abstract class Match extends RBuiltinNode.Arg4 {
         protected RIntVector match(RAbstractDoubleVector x, RAbstractDoubleVector table, int nomatch) {
             int[] result = initResult(x.getLength(), nomatch);
             boolean matchAll = true;
+            VectorHashIndex.DoubleIndex index = VectorHashIndex.getDouble(table);
+            if (indexedTableProfile.profile(index != null)) {
+                for (int i = 0; i < result.length; i++) {
+                    int found = index.lookup(x.getDataAt(i));
+                    if (found != -1) {
+                        result[i] = found + 1;
+                    } else {
+                        matchAll = false;
+                    }
+                }
+                return RDataFactory.createIntVector(result, setCompleteState(matchAll, nomatch));
+            }
             NonRecursiveHashMapDouble hashTable;
             if (bigTableProfile.profile(table.getLength() > (x.getLength() * TABLE_SIZE_FACTOR))) {
                 hashTable = new NonRecursiveHashMapDouble(x.getLength());
@@ -414,6 +440,18 @@ public abstract class Match extends RBuiltinNode.Arg4 {
         protected RIntVector match(RAbstractStringVector x, RAbstractStringVector table, int nomatch) {
             int[] result = initResult(x.getLength(), nomatch);
             boolean matchAll = true;
+            VectorHashIndex.StringIndex index = VectorHashIndex.getString(table);
+            if (indexedTableProfile.profile(index != null)) {
+                for (int i = 0; i < result.length; i++) {
+                    int found = index.lookup(x.getDataAt(i));
+                    if (found != -1) {
+                        result[i] = found + 1;
+                    } else {
+                        matchAll = false;
+                    }
+                }
+                return RDataFactory.createIntVector(result, setCompleteState(matchAll, nomatch));
+            }
             NonRecursiveHashMapCharacter hashTable;
             if (bigTableProfile.profile(table.getLength() > (x.getLength() * TABLE_SIZE_FACTOR))) {
                 hashTable = new NonRecursiveHashMapCharacter(x.getLength());
@@ -715,6 +753,13 @@ public abstract class Match extends RBuiltinNode.Arg4 {
                 Arrays.fill(keys, RRuntime.DOUBLE_NA);
             }
 
+            /**
+             * {@code 0} and {@code -0} are equal keys, so they must hash alike.
+             */
+            private static int hash(double key) {
+                return Double.hashCode(key == 0 ? 0 : key);
+            }
+
             public boolean put(double key, int value) {
                 assert value >= 0;
                 if (RRuntime.isNA(key)) {
@@ -726,7 +771,7 @@ public abstract class Match extends RBuiltinNode.Arg4 {
                     nanValue = value + 1;
                     return ret;
                 } else {
-                    int ind = index(Double.hashCode(key));
+                    int ind = index(hash(key));
                     while (true) {
                         if (values[ind] == 0) {
                             keys[ind] = key;
@@ -751,7 +796,7 @@ public abstract class Match extends RBuiltinNode.Arg4 {
                 } else if (Double.isNaN(key)) {
                     return nanValue - 1;
                 } else {
-                    int ind = index(Double.hashCode(key));
+                    int ind = index(hash(key));
                     int firstInd = ind;
                     while (true) {
                         if (key == keys[ind]) {
@@ -289,6 +289,9 @@ public abstract class Order extends RPrecedenceBuiltinNode {
     }
 
     private void orderVector(int[] indx, Object[] vectors, boolean naLast, boolean dec) {
+        if (indx.length > RadixOrder.THRESHOLD && RadixOrder.orderMulti(indx, vectors, naLast, dec)) {
+            return;
+        }
         if (indx.length > 1) {
 
             int t = 0;
@@ -358,7 +361,11 @@ public abstract class Order extends RPrecedenceBuiltinNode {
                 }
             }
 
-            sort(indx, dv, lo, hi, decreasing);
+            if (hi - lo >= RadixOrder.THRESHOLD) {
+                RadixOrder.orderInt(indx, lo, hi, dv, decreasing);
+            } else {
+                sort(indx, dv, lo, hi, decreasing);
+            }
             return indxVec;
         }
 
@@ -395,7 +402,9 @@ public abstract class Order extends RPrecedenceBuiltinNode {
                 }
             }
 
-            sort(indx, dv, lo, hi, decreasing);
+            if (hi - lo < RadixOrder.THRESHOLD || !RadixOrder.orderDouble(indx, lo, hi, dv, decreasing)) {
+                sort(indx, dv, lo, hi, decreasing);
+            }
             return indxVec;
         }
 
@@ -434,7 +443,11 @@ public abstract class Order extends RPrecedenceBuiltinNode {
                 }
             }
 
-            sort(indx, dv, lo, hi, decreasing);
+            if (hi - lo >= RadixOrder.THRESHOLD) {
+                RadixOrder.orderString(indx, lo, hi, dv, decreasing, createCollator());
+            } else {
+                sort(indx, dv, lo, hi, decreasing);
+            }
             return indxVec;
         }
 
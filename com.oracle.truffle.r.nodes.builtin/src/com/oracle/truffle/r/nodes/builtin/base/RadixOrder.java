@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
+
+/**
+ * Sorting engine for {@link Order} (and thus {@link Rank}) on larger inputs. Integer (including
+ * logical and factor) and double keys are sorted with a stable LSD radix sort, strings are sorted
+ * with a stable merge sort on precomputed {@link CollationKey}s.
+ *
+ * All methods sort the positions {@code lo..hi} (inclusive) of {@code indx}, which holds element
+ * indexes in ascending order, and produce the same permutation as the Shell sort in {@link Order}:
+ * the elements are ordered by their keys and equal keys are ordered by their index.
+ */
+final class RadixOrder {
+
+    /**
+     * Inputs with fewer elements are left to the Shell sort.
+     */
+    static final int THRESHOLD = 256;
+
+    private RadixOrder() {
+        // no instances
+    }
+
+    @TruffleBoundary
+    static void orderInt(int[] indx, int lo, int hi, RAbstractIntVector v, boolean dec) {
+        int[] keys = new int[v.getLength()];
+        for (int i = lo; i <= hi; i++) {
+            int index = indx[i];
+            int value = v.getDataAt(index);
+            keys[index] = dec ? ~value : value;
+        }
+        sort(indx, lo, hi, keys);
+    }
+
+    /**
+     * Returns {@code false}, without modifying {@code indx}, if there is a {@code NaN} in the range,
+     * for which there is no consistent order.
+     */
+    @TruffleBoundary
+    static boolean orderDouble(int[] indx, int lo, int hi, RAbstractDoubleVector v, boolean dec) {
+        long[] keys = new long[v.getLength()];
+        for (int i = lo; i <= hi; i++) {
+            int index = indx[i];
+            double value = v.getDataAt(index);
+            if (Double.isNaN(value)) {
+                return false;
+            }
+            long key = doubleKey(value);
+            keys[index] = dec ? ~key : key;
+        }
+        sort(indx, lo, hi, keys);
+        return true;
+    }
+
+    /**
+     * Uses the {@code collator} to create the keys, or {@link String#compareToIgnoreCase} if it is
+     * {@code null}.
+     */
+    @TruffleBoundary
+    static void orderString(int[] indx, int lo, int hi, RAbstractStringVector v, boolean dec, Collator collator) {
+        Comparator<Integer> cmp;
+        if (collator != null) {
+            CollationKey[] keys = new CollationKey[v.getLength()];
+            for (int i = lo; i <= hi; i++) {
+                keys[indx[i]] = collator.getCollationKey(v.getDataAt(indx[i]));
+            }
+            cmp = (a, b) -> keys[a].compareTo(keys[b]);
+        } else {
+            cmp = (a, b) -> v.getDataAt(a).compareToIgnoreCase(v.getDataAt(b));
+        }
+        sort(indx, lo, hi, dec ? cmp.reversed() : cmp);
+    }
+
+    /**
+     * Multi-key variant for {@code order(x, y, ...)}; {@code NA} (and {@code NaN}) values are
+     * placed according to {@code naLast} and {@code dec} as by {@code Order.CmpNode}. Returns
+     * {@code false}, without modifying {@code indx}, if one of the vectors is of an unsupported
+     * type.
+     */
+    @TruffleBoundary
+    static boolean orderMulti(int[] indx, Object[] vectors, boolean naLast, boolean dec) {
+        for (Object v : vectors) {
+            if (!(v instanceof RAbstractIntVector || v instanceof RAbstractLogicalVector || v instanceof RAbstractDoubleVector || v instanceof RAbstractStringVector)) {
+                return false;
+            }
+        }
+        int n = indx.length;
+        int lo = 0;
+        int hi = n - 1;
+        // the NA key sorts the NA elements before or after all others
+        int naKey = naLast ^ dec ? 1 : -1;
+        int[] naKeys = null;
+        // LSD: the least significant key first, each key column is a stable pass
+        for (int k = vectors.length - 1; k >= 0; k--) {
+            Object v = vectors[k];
+            boolean hasNA = false;
+            if (naKeys == null) {
+                naKeys = new int[n];
+            } else {
+                Arrays.fill(naKeys, 0);
+            }
+            if (v instanceof RAbstractDoubleVector) {
+                RAbstractDoubleVector dv = (RAbstractDoubleVector) v;
+                long[] keys = new long[n];
+                for (int i = 0; i < n; i++) {
+                    double value = dv.getDataAt(i);
+                    if (RRuntime.isNAorNaN(value)) {
+                        naKeys[i] = naKey;
+                        hasNA = true;
+                    } else {
+                        long key = doubleKey(value);
+                        keys[i] = dec ? ~key : key;
+                    }
+                }
+                sort(indx, lo, hi, keys);
+            } else {
+                int[] keys;
+                if (v instanceof RAbstractStringVector) {
+                    keys = stringRanks((RAbstractStringVector) v);
+                } else {
+                    keys = new int[n];
+                    if (v instanceof RAbstractLogicalVector) {
+                        RAbstractLogicalVector lv = (RAbstractLogicalVector) v;
+                        for (int i = 0; i < n; i++) {
+                            byte value = lv.getDataAt(i);
+                            keys[i] = RRuntime.isNA(value) ? RRuntime.INT_NA : value;
+                        }
+                    } else {
+                        RAbstractIntVector iv = (RAbstractIntVector) v;
+                        for (int i = 0; i < n; i++) {
+                            keys[i] = iv.getDataAt(i);
+                        }
+                    }
+                }
+                for (int i = 0; i < n; i++) {
+                    if (keys[i] == RRuntime.INT_NA) {
+                        keys[i] = 0;
+                        naKeys[i] = naKey;
+                        hasNA = true;
+                    } else if (dec) {
+                        keys[i] = ~keys[i];
+                    }
+                }
+                sort(indx, lo, hi, keys);
+            }
+            if (hasNA) {
+                sort(indx, lo, hi, naKeys);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Maps the strings to their rank in {@link String#compareTo} order, {@code NA} is mapped to
+     * {@link RRuntime#INT_NA}.
+     */
+    private static int[] stringRanks(RAbstractStringVector v) {
+        int n = v.getLength();
+        Integer[] sorted = new Integer[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (!RRuntime.isNA(v.getDataAt(i))) {
+                sorted[count++] = i;
+            }
+        }
+        Arrays.sort(sorted, 0, count, (a, b) -> v.getDataAt(a).compareTo(v.getDataAt(b)));
+        int[] ranks = new int[n];
+        Arrays.fill(ranks, RRuntime.INT_NA);
+        int rank = 0;
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && !v.getDataAt(sorted[i]).equals(v.getDataAt(sorted[i - 1]))) {
+                rank++;
+            }
+            ranks[sorted[i]] = rank;
+        }
+        return ranks;
+    }
+
+    /**
+     * Maps non-{@code NaN} doubles to longs with the same (signed) order; {@code -0.0} and
+     * {@code 0.0} are equal.
+     */
+    private static long doubleKey(double value) {
+        long bits = Double.doubleToRawLongBits(value == 0.0 ? 0.0 : value);
+        return bits < 0 ? bits ^ Long.MAX_VALUE : bits;
+    }
+
+    private static void sort(int[] indx, int lo, int hi, int[] keys) {
+        int n = hi - lo + 1;
+        int[] buffer = new int[n];
+        int[] count = new int[257];
+        for (int shift = 0; shift < 32; shift += 8) {
+            Arrays.fill(count, 0);
+            for (int i = lo; i <= hi; i++) {
+                count[(((keys[indx[i]] ^ Integer.MIN_VALUE) >>> shift) & 0xFF) + 1]++;
+            }
+            if (toOffsets(count, n)) {
+                for (int i = lo; i <= hi; i++) {
+                    int index = indx[i];
+                    buffer[count[((keys[index] ^ Integer.MIN_VALUE) >>> shift) & 0xFF]++] = index;
+                }
+                System.arraycopy(buffer, 0, indx, lo, n);
+            }
+        }
+    }
+
+    private static void sort(int[] indx, int lo, int hi, long[] keys) {
+        int n = hi - lo + 1;
+        int[] buffer = new int[n];
+        int[] count = new int[257];
+        for (int shift = 0; shift < 64; shift += 8) {
+            Arrays.fill(count, 0);
+            for (int i = lo; i <= hi; i++) {
+                count[(int) (((keys[indx[i]] ^ Long.MIN_VALUE) >>> shift) & 0xFF) + 1]++;
+            }
+            if (toOffsets(count, n)) {
+                for (int i = lo; i <= hi; i++) {
+                    int index = indx[i];
+                    buffer[count[(int) (((keys[index] ^ Long.MIN_VALUE) >>> shift) & 0xFF)]++] = index;
+                }
+                System.arraycopy(buffer, 0, indx, lo, n);
+            }
+        }
+    }
+
+    /**
+     * Turns the histogram in {@code count[1..256]} into bucket start offsets in
+     * {@code count[0..255]}. Returns {@code false} if all elements fall into one bucket, i.e., the
+     * pass can be skipped.
+     */
+    private static boolean toOffsets(int[] count, int n) {
+        for (int b = 1; b <= 256; b++) {
+            if (count[b] == n) {
+                return false;
+            }
+            count[b] += count[b - 1];
+        }
+        return true;
+    }
+
+    private static void sort(int[] indx, int lo, int hi, Comparator<Integer> cmp) {
+        Integer[] boxed = new Integer[hi - lo + 1];
+        for (int i = 0; i < boxed.length; i++) {
+            boxed[i] = indx[lo + i];
+        }
+        // Arrays.sort on objects is a stable merge sort and the input is in index order
+        Arrays.sort(boxed, cmp);
+        for (int i = 0; i < boxed.length; i++) {
+            indx[lo + i] = boxed[i];
+        }
+    }
+}
@@ -28,8 +28,7 @@ import static com.oracle.truffle.r.runtime.builtins.RBehavior.IO;
 import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.INTERNAL;
 
 import java.io.IOException;
-import java.util.LinkedList;
-import java.util.regex.Pattern;
+import java.util.Arrays;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -40,7 +39,6 @@ import com.oracle.truffle.r.nodes.unary.CastToVectorNode;
 import com.oracle.truffle.r.nodes.unary.CastToVectorNodeGen;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
-import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.conn.RConnection;
@@ -54,7 +52,6 @@ import com.oracle.truffle.r.runtime.data.RVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
-import com.oracle.truffle.r.runtime.ops.na.NACheck;
 
 @RBuiltin(name = "scan", kind = INTERNAL, parameterNames = {"file", "what", "nmax", "sep", "dec", "quote", "skip", "nlines", "na.strings", "flush", "fill", "strip.white", "quiet", "blank.lines.skip",
                 "multi.line", "comment.char", "allowEscapes", "encoding", "skipNull"}, behavior = IO)
@@ -63,7 +60,6 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
     private static final int SCAN_BLOCKSIZE = 1000;
     private static final int NO_COMCHAR = 100000; /* won't occur even in Unicode */
 
-    private final NACheck naCheck = NACheck.create();
     @Child private GetNamesAttributeNode getNames = GetNamesAttributeNode.create();
 
     @Child private CastToVectorNode castVector;
@@ -81,13 +77,13 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
         RAbstractStringVector naStrings = null;
         boolean quiet = false;
         String sepchar = null;
-        String sepregex = null;
         char decchar = '.';
         String quoteset = null;
         int comchar = NO_COMCHAR;
         // connection-related (currently not supported)
         // int ttyflag = 0;
         RConnection con = null;
+        ScanTokenizer tokenizer = null;
         // connection-related (currently not supported)
         // boolean wasopen = false;
         boolean escapes = false;
@@ -153,7 +149,6 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
 
         // TODO: some sort of character translation happens here?
         data.sepchar = sep.isEmpty() ? null : sep.substring(0, 1);
-        data.sepregex = sep.isEmpty() ? null : Pattern.quote(sep.substring(0, 1));
 
         // TODO: some sort of character translation happens here?
         data.decchar = dec.charAt(0);
@@ -192,127 +187,24 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
             if (nskip > 0) {
                 openConn.readLines(nskip, true, skipNull);
             }
-            if (what instanceof RList) {
-                return scanFrame((RList) what, nmax, nlines, flush, fill, strip == RRuntime.LOGICAL_TRUE, blSkip, multiLine, data);
-            } else {
-                return scanVector(what, nmax, nlines, flush, strip == RRuntime.LOGICAL_TRUE, blSkip, data);
-            }
-        } catch (IOException x) {
-            throw error(RError.Message.CANNOT_READ_CONNECTION);
-        }
-    }
-
-    private static int getFirstQuoteInd(String str, char quotechar, Character sepChar) {
-        int quoteInd = str.indexOf(quotechar);
-        if (quoteInd >= 0) {
-            if (quoteInd == 0 || (str.charAt(quoteInd - 1) == ' ' || str.charAt(quoteInd - 1) == '\t') || sepChar != null && str.charAt(quoteInd - 1) == sepChar) {
-                // it's a quote character if it starts the string or is preceded by a blank space
-                return quoteInd;
-            }
-        }
-        return -1;
-    }
-
-    private static String[] getQuotedItems(LocalData data, String s) {
-        LinkedList<String> items = new LinkedList<>();
-
-        String str = s;
-        StringBuilder sb = null;
-
-        while (true) {
-            int sepInd;
-            if (data.sepchar == null) {
-                int blInd = str.indexOf(' ');
-                int tabInd = str.indexOf('\t');
-                if (blInd == -1) {
-                    sepInd = tabInd;
-                } else if (tabInd == -1) {
-                    sepInd = blInd;
-                } else {
-                    sepInd = Math.min(blInd, tabInd);
-                }
-            } else {
-                assert data.sepchar.length() == 1;
-                sepInd = str.indexOf(data.sepchar.charAt(0));
-            }
-
-            Character sepChar = data.sepchar != null ? data.sepchar.charAt(0) : null;
-            int quoteInd = getFirstQuoteInd(str, data.quoteset.charAt(0), sepChar);
-            char quoteChar = data.quoteset.charAt(0);
-            for (int i = 1; i < data.quoteset.length(); i++) {
-                int ind = getFirstQuoteInd(str, data.quoteset.charAt(i), sepChar);
-                if (ind >= 0 && (quoteInd == -1 || (quoteInd >= 0 && ind < quoteInd))) {
-                    // update quoteInd if either the new index is smaller or the previous one (for
-                    // another separator) was not found
-                    quoteInd = ind;
-                    quoteChar = data.quoteset.charAt(i);
-                }
-            }
-
-            if (sb == null) {
-                // first iteration
-                if (quoteInd == -1) {
-                    // no quotes at all
-                    return data.sepregex == null ? s.split("\\s+") : s.split(data.sepregex);
-                } else {
-                    sb = new StringBuilder();
-                }
-            }
-
-            if (sepInd == -1 && quoteInd == -1) {
-                // no more separators and no more quotes - add the last item and return
-                sb.append(str);
-                items.add(sb.toString());
-                break;
-            }
-
-            if (quoteInd >= 0 && (sepInd == -1 || (sepInd >= 0 && quoteInd < sepInd))) {
-                // quote character was found before the separator character - everything from the
-                // beginning of str up to the end of quote becomes part of this item
-                sb.append(str.substring(0, quoteInd));
-                int nextQuoteInd = str.indexOf(quoteChar, quoteInd + 1);
-                sb.append(str.substring(quoteInd + 1, nextQuoteInd));
-                str = str.substring(nextQuoteInd + 1, str.length());
-            } else {
-                assert sepInd >= 0;
-                // everything from the beginning of str becomes part of this time and item
-                // processing is completed (also eat up separators)
-                String[] tuple = data.sepregex == null ? str.split("\\s+", 2) : str.split(data.sepregex, 2);
-                assert tuple.length == 2;
-                sb.append(tuple[0]);
-                str = tuple[1];
-                items.add(sb.toString());
-                sb = new StringBuilder();
-            }
-        }
-
-        return items.toArray(new String[items.size()]);
-    }
-
-    private static String[] getItems(LocalData data, boolean blSkip) throws IOException {
-        while (true) {
-            String[] str = data.con.readLines(1, true, false);
-            if (str == null || str.length == 0) {
-                return null;
-            } else {
-                String s = str[0].trim();
-                if (blSkip && s.length() == 0) {
-                    continue;
+            data.tokenizer = new ScanTokenizer(openConn, data.sepchar == null ? -1 : data.sepchar.charAt(0), data.quoteset, data.comchar, strip == RRuntime.LOGICAL_TRUE, skipNull);
+            try {
+                if (what instanceof RList) {
+                    return scanFrame((RList) what, nmax, nlines, flush, fill, strip == RRuntime.LOGICAL_TRUE, blSkip, multiLine, data);
                 } else {
-                    if (data.quoteset.length() == 0) {
-                        return data.sepregex == null ? s.split("\\s+") : s.split(data.sepregex);
-                    } else {
-                        return getQuotedItems(data, s);
-                    }
+                    return scanVector(what, nmax, nlines, flush, strip == RRuntime.LOGICAL_TRUE, blSkip, data);
                 }
+            } finally {
+                data.tokenizer.close();
             }
+        } catch (IOException x) {
+            throw error(RError.Message.CANNOT_READ_CONNECTION);
         }
     }
 
-    private void fillEmpty(int from, int to, int records, RList list, LocalData data) {
+    private static void fillEmpty(int from, int to, ColumnBuffer[] columns, LocalData data) {
         for (int i = from; i < to; i++) {
-            RVector<?> vec = (RVector<?>) list.getDataAt(i);
-            vec.updateDataAtAsObject(records, extractItem(vec, "", data), naCheck);
+            columns[i].add("", data);
         }
     }
 
@@ -326,72 +218,66 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
         }
         int blockSize = maxRecords > 0 ? maxRecords : (maxLines > 0 ? maxLines : SCAN_BLOCKSIZE);
 
-        RList list = RDataFactory.createList(nc);
+        ColumnBuffer[] columns = new ColumnBuffer[nc];
         for (int i = 0; i < nc; i++) {
             if (what.getDataAt(i) == RNull.instance) {
                 throw error(RError.Message.INVALID_ARGUMENT, "what");
             } else {
                 RAbstractVector vec = castVector(what.getDataAt(i));
-                list.updateDataAt(i, vec.createEmptySameType(blockSize, RDataFactory.COMPLETE_VECTOR), null);
+                columns[i] = createColumnBuffer(vec, blockSize);
             }
         }
-        list.setNames(getNames.getNames(what));
 
-        naCheck.enable(true);
+        int records = scanFrameInternal(maxRecords, maxLines, flush, fill, blSkip, multiLine, data, columns);
 
-        return scanFrameInternal(maxRecords, maxLines, flush, fill, blSkip, multiLine, data, nc, blockSize, list);
+        RList list = RDataFactory.createList(nc);
+        for (int i = 0; i < nc; i++) {
+            list.updateDataAt(i, columns[i].createVector(), null);
+        }
+        list.setNames(getNames.getNames(what));
+        return list;
     }
 
     @TruffleBoundary
-    private RVector<?> scanFrameInternal(int maxRecords, int maxLines, boolean flush, boolean fill, boolean blSkip, boolean multiLine, LocalData data, int nc, int initialBlockSize, RList list)
-                    throws IOException {
-        int blockSize = initialBlockSize;
+    private int scanFrameInternal(int maxRecords, int maxLines, boolean flush, boolean fill, boolean blSkip, boolean multiLine, LocalData data, ColumnBuffer[] columns) throws IOException {
+        ScanTokenizer tokenizer = data.tokenizer;
+        int nc = columns.length;
         int n = 0;
         int lines = 0;
         int records = 0;
         while (true) {
-            // TODO: does not do any fancy stuff, like handling comments
-            String[] strItems = getItems(data, blSkip);
-            if (strItems == null) {
+            int count = tokenizer.nextRecord(blSkip);
+            if (count < 0) {
                 break;
             }
 
             boolean done = false;
-            for (int i = 0; i < Math.max(nc, strItems.length); i++) {
-
-                if (n == strItems.length) {
-                    if (fill) {
-                        fillEmpty(n, nc, records, list, data);
+            int i = 0;
+            while (true) {
+                if (i == count) {
+                    if (n == 0) {
+                        break;
+                    } else if (fill) {
+                        fillEmpty(n, nc, columns, data);
                         records++;
                         n = 0;
                         break;
                     } else if (!multiLine) {
                         throw error(RError.Message.LINE_ELEMENTS, lines + 1, nc);
                     } else {
-                        strItems = getItems(data, blSkip);
-                        // Checkstyle: stop modified control variable check
+                        // the record continues on the next line
+                        lines++;
+                        count = tokenizer.nextRecord(blSkip);
                         i = 0;
-                        // Checkstyle: resume modified control variable check
-                        if (strItems == null) {
+                        if (count < 0) {
                             done = true;
                             break;
                         }
+                        continue;
                     }
                 }
-                Object item = extractItem((RAbstractVector) list.getDataAt(n), strItems[i], data);
-
-                if (records == blockSize) {
-                    // enlarge the vector
-                    blockSize = blockSize * 2;
-                    for (int j = 0; j < nc; j++) {
-                        RVector<?> vec = (RVector<?>) list.getDataAt(j);
-                        vec = vec.copyResized(blockSize, false);
-                        list.updateDataAt(j, vec, null);
-                    }
-                }
-
-                RVector<?> vec = (RVector<?>) list.getDataAt(n);
-                vec.updateDataAtAsObject(records, item, naCheck);
+                columns[n].addField(tokenizer.getField(i), data);
+                i++;
                 n++;
                 if (n == nc) {
                     records++;
@@ -418,7 +304,7 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
             if (!fill) {
                 warning(RError.Message.ITEMS_NOT_MULTIPLE);
             }
-            fillEmpty(n, nc, records, list, data);
+            fillEmpty(n, nc, columns, data);
             records++;
         }
 
@@ -426,45 +312,26 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
             String s = String.format("Read %d record%s", records, (records == 1) ? "" : "s");
             StdConnections.getStdout().writeString(s, true);
         }
-        // trim vectors if necessary
-        for (int i = 0; i < nc; i++) {
-            RVector<?> vec = (RVector<?>) list.getDataAt(i);
-            if (vec.getLength() > records) {
-                list.updateDataAt(i, vec.copyResized(records, false), null);
-            }
-        }
-
-        return list;
+        return records;
     }
 
     @TruffleBoundary
     private RVector<?> scanVector(RAbstractVector what, int maxItems, int maxLines, @SuppressWarnings("unused") boolean flush, @SuppressWarnings("unused") boolean stripWhite, boolean blSkip,
                     LocalData data) throws IOException {
-        int blockSize = maxItems > 0 ? maxItems : SCAN_BLOCKSIZE;
-        RVector<?> vec = what.createEmptySameType(blockSize, RDataFactory.COMPLETE_VECTOR);
-        naCheck.enable(true);
+        ColumnBuffer buffer = createColumnBuffer(what, maxItems > 0 ? maxItems : SCAN_BLOCKSIZE);
+        ScanTokenizer tokenizer = data.tokenizer;
 
         int n = 0;
         int lines = 0;
         while (true) {
-            // TODO: does not do any fancy stuff, like handling comments
-            String[] strItems = getItems(data, blSkip);
-            if (strItems == null) {
+            int count = tokenizer.nextRecord(blSkip);
+            if (count < 0) {
                 break;
             }
 
             boolean done = false;
-            for (int i = 0; i < strItems.length; i++) {
-
-                Object item = extractItem(what, strItems[i], data);
-
-                if (n == blockSize) {
-                    // enlarge the vector
-                    blockSize = blockSize * 2;
-                    vec = vec.copyResized(blockSize, false);
-                }
-
-                vec.updateDataAtAsObject(n, item, naCheck);
+            for (int i = 0; i < count; i++) {
+                buffer.addField(tokenizer.getField(i), data);
                 n++;
                 if (n == maxItems) {
                     done = true;
@@ -483,8 +350,7 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
             String s = String.format("Read %d item%s", n, (n == 1) ? "" : "s");
             StdConnections.getStdout().writeString(s, true);
         }
-        // trim vector if necessary
-        return vec.getLength() > n ? vec.copyResized(n, false) : vec;
+        return buffer.createVector();
     }
 
     // If mode = 0 use for numeric fields where "" is NA
@@ -504,46 +370,191 @@ public abstract class Scan extends RBuiltinNode.Arg19 {
         return false;
     }
 
-    private static Object extractItem(RAbstractVector what, String buffer, LocalData data) {
+    private ColumnBuffer createColumnBuffer(RAbstractVector what, int initialCapacity) {
         switch (what.getRType()) {
             case Logical:
-                if (isNaString(buffer, 0, data)) {
-                    return RRuntime.LOGICAL_NA;
-                } else {
-                    return RRuntime.string2logicalNoCheck(buffer);
-                }
+                return new LogicalColumnBuffer(initialCapacity);
             case Integer:
-                if (isNaString(buffer, 0, data)) {
-                    return RRuntime.INT_NA;
-                } else {
-                    return RRuntime.string2intNoCheck(buffer);
-                }
+                return new IntColumnBuffer(initialCapacity);
             case Double:
-                if (isNaString(buffer, 0, data)) {
-                    return RRuntime.DOUBLE_NA;
-                } else {
-                    return RRuntime.string2doubleNoCheck(buffer);
-                }
+                return new DoubleColumnBuffer(initialCapacity);
             case Complex:
-                if (isNaString(buffer, 0, data)) {
-                    return RComplex.createNA();
-                } else {
-                    return RRuntime.string2complexNoCheck(buffer);
-                }
+                return new ComplexColumnBuffer(initialCapacity);
             case Character:
-                if (isNaString(buffer, 1, data)) {
-                    return RRuntime.STRING_NA;
-                } else {
-                    return buffer;
-                }
+                return new StringColumnBuffer(initialCapacity);
             case Raw:
-                if (isNaString(buffer, 0, data)) {
-                    return RDataFactory.createRaw((byte) 0);
-                } else {
-                    return RRuntime.string2raw(buffer);
-                }
+                return new RawColumnBuffer(initialCapacity);
             default:
-                throw RInternalError.shouldNotReachHere();
+                throw error(RError.Message.INVALID_ARGUMENT, "what");
+        }
+    }
+
+    /**
+     * Collects the converted items of one column in a primitive array that grows as needed, the
+     * result vector is only created once all input was read.
+     */
+    private abstract static class ColumnBuffer {
+        protected int length;
+        protected boolean complete = true;
+
+        protected static int grow(int capacity) {
+            return Math.max(capacity * 2, 16);
+        }
+
+        abstract void add(String item, LocalData data);
+
+        /**
+         * Adds a field as returned by the tokenizer. Blanks around it are only significant in
+         * character columns, where {@code strip.white} decides about them.
+         */
+        void addField(String field, LocalData data) {
+            add(field.trim(), data);
+        }
+
+        abstract RVector<?> createVector();
+    }
+
+    private static final class LogicalColumnBuffer extends ColumnBuffer {
+        private byte[] data;
+
+        LogicalColumnBuffer(int capacity) {
+            this.data = new byte[capacity];
+        }
+
+        @Override
+        void add(String item, LocalData localData) {
+            byte value = isNaString(item, 0, localData) ? RRuntime.LOGICAL_NA : RRuntime.string2logicalNoCheck(item);
+            complete &= !RRuntime.isNA(value);
+            if (length == data.length) {
+                data = Arrays.copyOf(data, grow(length));
+            }
+            data[length++] = value;
+        }
+
+        @Override
+        RVector<?> createVector() {
+            return RDataFactory.createLogicalVector(length == data.length ? data : Arrays.copyOf(data, length), complete);
+        }
+    }
+
+    private static final class IntColumnBuffer extends ColumnBuffer {
+        private int[] data;
+
+        IntColumnBuffer(int capacity) {
+            this.data = new int[capacity];
+        }
+
+        @Override
+        void add(String item, LocalData localData) {
+            int value = isNaString(item, 0, localData) ? RRuntime.INT_NA : RRuntime.string2intNoCheck(item);
+            complete &= !RRuntime.isNA(value);
+            if (length == data.length) {
+                data = Arrays.copyOf(data, grow(length));
+            }
+            data[length++] = value;
+        }
+
+        @Override
+        RVector<?> createVector() {
+            return RDataFactory.createIntVector(length == data.length ? data : Arrays.copyOf(data, length), complete);
+        }
+    }
+
+    private static final class DoubleColumnBuffer extends ColumnBuffer {
+        private double[] data;
+
+        DoubleColumnBuffer(int capacity) {
+            this.data = new double[capacity];
+        }
+
+        @Override
+        void add(String item, LocalData localData) {
+            double value = isNaString(item, 0, localData) ? RRuntime.DOUBLE_NA : RRuntime.string2doubleNoCheck(item);
+            complete &= !RRuntime.isNA(value);
+            if (length == data.length) {
+                data = Arrays.copyOf(data, grow(length));
+            }
+            data[length++] = value;
+        }
+
+        @Override
+        RVector<?> createVector() {
+            return RDataFactory.createDoubleVector(length == data.length ? data : Arrays.copyOf(data, length), complete);
+        }
+    }
+
+    private static final class ComplexColumnBuffer extends ColumnBuffer {
+        private double[] data;
+
+        ComplexColumnBuffer(int capacity) {
+            this.data = new double[capacity * 2];
+        }
+
+        @Override
+        void add(String item, LocalData localData) {
+            RComplex value = isNaString(item, 0, localData) ? RComplex.createNA() : RRuntime.string2complexNoCheck(item);
+            complete &= !value.isNA();
+            if (length * 2 == data.length) {
+                data = Arrays.copyOf(data, grow(length) * 2);
+            }
+            data[length * 2] = value.getRealPart();
+            data[length * 2 + 1] = value.getImaginaryPart();
+            length++;
+        }
+
+        @Override
+        RVector<?> createVector() {
+            return RDataFactory.createComplexVector(length * 2 == data.length ? data : Arrays.copyOf(data, length * 2), complete);
+        }
+    }
+
+    private static final class StringColumnBuffer extends ColumnBuffer {
+        private String[] data;
+
+        StringColumnBuffer(int capacity) {
+            this.data = new String[capacity];
+        }
+
+        @Override
+        void addField(String field, LocalData localData) {
+            add(field, localData);
+        }
+
+        @Override
+        void add(String item, LocalData localData) {
+            String value = isNaString(item, 1, localData) ? RRuntime.STRING_NA : item;
+            complete &= !RRuntime.isNA(value);
+            if (length == data.length) {
+                data = Arrays.copyOf(data, grow(length));
+            }
+            data[length++] = value;
+        }
+
+        @Override
+        RVector<?> createVector() {
+            return RDataFactory.createStringVector(length == data.length ? data : Arrays.copyOf(data, length), complete);
+        }
+    }
+
+    private static final class RawColumnBuffer extends ColumnBuffer {
+        private byte[] data;
+
+        RawColumnBuffer(int capacity) {
+            this.data = new byte[capacity];
+        }
+
+        @Override
+        void add(String item, LocalData localData) {
+            byte value = isNaString(item, 0, localData) ? 0 : RRuntime.string2raw(item).getValue();
+            if (length == data.length) {
+                data = Arrays.copyOf(data, grow(length));
+            }
+            data[length++] = value;
+        }
+
+        @Override
+        RVector<?> createVector() {
+            return RDataFactory.createRawVector(length == data.length ? data : Arrays.copyOf(data, length));
         }
     }
 }
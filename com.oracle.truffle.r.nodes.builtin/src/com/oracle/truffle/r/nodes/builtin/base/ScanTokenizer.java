@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.conn.RConnection;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+
+/**
+ * Splits the input of {@code scan} and {@code readTableHead} into lines and fields in a single pass
+ * over the characters, without the use of regular expressions. Lines are fetched from the
+ * connection in blocks; the ones that were not consumed are pushed back to the connection by
+ * {@link #close()}, so that subsequent reads continue exactly after the last line returned.
+ *
+ * A quote character starts a quoted string only at the beginning of a field, i.e., at the start of
+ * the line or after a blank or the separator. Quoted strings may span several lines, and within
+ * them neither separators nor the comment character are interpreted. If a separator is given, a
+ * doubled quote character within a quoted string stands for the quote character itself.
+ *
+ * If a separator is given, blanks around fields are kept unless {@code stripWhite} is set, in which
+ * case the ones outside of quoted strings are removed. Blanks are never taken for a separator that
+ * is a blank itself, e.g., {@code sep = "\t"}.
+ */
+public final class ScanTokenizer {
+
+    private static final int LINE_BLOCKSIZE = 1000;
+    private static final String[] EMPTY_LINES = new String[0];
+
+    private final RConnection con;
+    private final int sepChar;
+    private final String quoteSet;
+    private final int commentChar;
+    private final boolean stripWhite;
+    private final boolean skipNull;
+    private final int blockSize;
+
+    private String[] lines = EMPTY_LINES;
+    private int linePos;
+
+    private final StringBuilder lineBuffer = new StringBuilder();
+    private final StringBuilder fieldBuffer = new StringBuilder();
+    private String[] fields = new String[16];
+
+    /**
+     * @param sepChar the field separator or {@code -1} if fields are separated by blanks
+     * @param commentChar the comment character or any value outside of the {@code char} range if
+     *            there is none
+     * @param stripWhite whether to remove unquoted blanks around fields if a separator is given
+     */
+    public ScanTokenizer(RConnection con, int sepChar, String quoteSet, int commentChar, boolean stripWhite, boolean skipNull) {
+        this.con = con;
+        this.sepChar = sepChar;
+        this.quoteSet = quoteSet;
+        this.commentChar = commentChar;
+        this.stripWhite = stripWhite;
+        this.skipNull = skipNull;
+        // reading ahead could block on interactive or streaming connections
+        this.blockSize = con.isSeekable() ? LINE_BLOCKSIZE : 1;
+    }
+
+    private static boolean isBlank(char c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\f' || c == 0x0B;
+    }
+
+    private boolean isStrippable(char c) {
+        return c != sepChar && isBlank(c);
+    }
+
+    private boolean isFieldStart(CharSequence s, int index) {
+        if (index == 0) {
+            return true;
+        }
+        char prev = s.charAt(index - 1);
+        return isBlank(prev) || prev == sepChar;
+    }
+
+    private String readRawLine() throws IOException {
+        if (linePos == lines.length) {
+            String[] read = con.readLines(blockSize, true, skipNull);
+            lines = read == null ? EMPTY_LINES : read;
+            linePos = 0;
+            if (lines.length == 0) {
+                return null;
+            }
+        }
+        return lines[linePos++];
+    }
+
+    /**
+     * Returns the next logical line with comments removed, joining physical lines as long as a
+     * quoted string is open. Surrounding blanks are only trimmed if fields are separated by blanks.
+     * A line is blank if it contains nothing but blanks that are not the separator. Returns
+     * {@code null} at the end of input.
+     */
+    @TruffleBoundary
+    public String nextLine(boolean blankLinesSkip) throws IOException {
+        while (true) {
+            String raw = readRawLine();
+            if (raw == null) {
+                return null;
+            }
+            lineBuffer.setLength(0);
+            char quote = 0;
+            while (true) {
+                int i = 0;
+                int end = raw.length();
+                for (; i < end; i++) {
+                    char c = raw.charAt(i);
+                    if (quote != 0) {
+                        if (c == quote) {
+                            if (sepChar != -1 && i + 1 < end && raw.charAt(i + 1) == quote) {
+                                i++;
+                            } else {
+                                quote = 0;
+                            }
+                        }
+                    } else if (c == commentChar) {
+                        break;
+                    } else if (quoteSet.indexOf(c) >= 0 && isFieldStart(raw, i)) {
+                        quote = c;
+                    }
+                }
+                lineBuffer.append(raw, 0, i);
+                if (quote == 0) {
+                    break;
+                }
+                raw = readRawLine();
+                if (raw == null) {
+                    break;
+                }
+                lineBuffer.append('\n');
+            }
+            int start = 0;
+            int end = lineBuffer.length();
+            while (start < end && isStrippable(lineBuffer.charAt(start))) {
+                start++;
+            }
+            while (end > start && isStrippable(lineBuffer.charAt(end - 1))) {
+                end--;
+            }
+            if (blankLinesSkip && start == end) {
+                continue;
+            }
+            return sepChar == -1 ? lineBuffer.substring(start, end) : lineBuffer.toString();
+        }
+    }
+
+    /**
+     * Reads the next logical line and splits it into fields, which are then available through
+     * {@link #getField(int)}. Returns the number of fields or {@code -1} at the end of input. An
+     * empty line (if not skipped) consists of one empty field.
+     */
+    @TruffleBoundary
+    public int nextRecord(boolean blankLinesSkip) throws IOException {
+        String line = nextLine(blankLinesSkip);
+        if (line == null) {
+            return -1;
+        }
+        int count = 0;
+        int length = line.length();
+        int i = 0;
+        boolean strip = stripWhite && sepChar != -1;
+        while (true) {
+            fieldBuffer.setLength(0);
+            if (strip) {
+                while (i < length && isStrippable(line.charAt(i))) {
+                    i++;
+                }
+            }
+            int quotedEnd = 0;
+            while (i < length) {
+                char c = line.charAt(i);
+                if (c == sepChar || (sepChar == -1 && isBlank(c))) {
+                    break;
+                } else if (quoteSet.indexOf(c) >= 0 && isFieldStart(line, i)) {
+                    i = appendQuoted(line, i + 1, c);
+                    quotedEnd = fieldBuffer.length();
+                } else {
+                    fieldBuffer.append(c);
+                    i++;
+                }
+            }
+            if (strip) {
+                int end = fieldBuffer.length();
+                while (end > quotedEnd && isStrippable(fieldBuffer.charAt(end - 1))) {
+                    end--;
+                }
+                fieldBuffer.setLength(end);
+            }
+            if (count == fields.length) {
+                fields = Arrays.copyOf(fields, count * 2);
+            }
+            fields[count++] = fieldBuffer.toString();
+            if (i >= length) {
+                break;
+            }
+            if (sepChar == -1) {
+                while (i < length && isBlank(line.charAt(i))) {
+                    i++;
+                }
+            } else {
+                i++;
+            }
+        }
+        return count;
+    }
+
+    private int appendQuoted(String line, int start, char quote) {
+        int length = line.length();
+        int i = start;
+        while (i < length) {
+            char c = line.charAt(i++);
+            if (c == quote) {
+                if (sepChar != -1 && i < length && line.charAt(i) == quote) {
+                    i++;
+                } else {
+                    return i;
+                }
+            }
+            fieldBuffer.append(c);
+        }
+        return i;
+    }
+
+    public String getField(int index) {
+        return fields[index];
+    }
+
+    /**
+     * Pushes the lines that were read ahead but not consumed back to the connection.
+     */
+    @TruffleBoundary
+    public void close() {
+        if (linePos < lines.length) {
+            con.pushBack(RDataFactory.createStringVector(Arrays.copyOfRange(lines, linePos, lines.length), RDataFactory.COMPLETE_VECTOR), true);
+        }
+        lines = EMPTY_LINES;
+        linePos = 0;
+    }
+}
@@ -36,8 +36,10 @@ import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RAttributable;
+import com.oracle.truffle.r.runtime.data.RForeignArrayWrapper;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RSequence;
+import com.oracle.truffle.r.runtime.data.closures.RDeferredArithmeticVector;
 
 @RBuiltin(name = "setS4Object", kind = INTERNAL, parameterNames = {"object", "flag", "complete"}, behavior = PURE)
 public abstract class SetS4Object extends RBuiltinNode.Arg3 {
@@ -77,7 +79,17 @@ public abstract class SetS4Object extends RBuiltinNode.Arg3 {
         return asS4(seq.materialize(), flag, complete);
     }
 
+    @Specialization
+    protected Object asS4(RDeferredArithmeticVector deferred, boolean flag, int complete) {
+        return asS4(deferred.materialize(), flag, complete);
+    }
+
+    @Specialization
+    protected Object asS4(RForeignArrayWrapper wrapper, boolean flag, int complete) {
+        return asS4(wrapper.materialize(), flag, complete);
+    }
+
     protected boolean isSequence(Object o) {
-        return o instanceof RSequence;
+        return o instanceof RSequence || o instanceof RDeferredArithmeticVector || o instanceof RForeignArrayWrapper;
     }
 }
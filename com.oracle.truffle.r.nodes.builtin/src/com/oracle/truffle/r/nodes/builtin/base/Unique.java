@@ -37,8 +37,8 @@ import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.Collections.NonRecursiveHashMapDouble;
 import com.oracle.truffle.r.runtime.Collections.NonRecursiveHashSet;
-import com.oracle.truffle.r.runtime.Collections.NonRecursiveHashSetDouble;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RRuntime;
@@ -54,6 +54,7 @@ import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RRaw;
 import com.oracle.truffle.r.runtime.data.RRawVector;
 import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.data.VectorHashIndex;
 import com.oracle.truffle.r.runtime.data.model.RAbstractComplexVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
@@ -70,6 +71,7 @@ public abstract class Unique extends RBuiltinNode.Arg4 {
     private static final long BIG_THRESHOLD = 100;
 
     private final ConditionProfile bigProfile = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile indexedProfile = ConditionProfile.createBinaryProfile();
 
     static {
         Casts casts = new Casts(Unique.class);
@@ -98,6 +100,15 @@ public abstract class Unique extends RBuiltinNode.Arg4 {
                     @Cached("vecIn.getClass()") Class<? extends RAbstractStringVector> vecClass) {
         RAbstractStringVector vec = vecClass.cast(vecIn);
         reportWork(vec.getLength());
+        VectorHashIndex index = VectorHashIndex.get(vec);
+        if (indexedProfile.profile(index != null)) {
+            int[] positions = index.getUniquePositions();
+            String[] data = new String[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                data[i] = vec.getDataAt(positions[i]);
+            }
+            return RDataFactory.createStringVector(data, vec.isComplete());
+        }
         if (bigProfile.profile(vec.getLength() * (long) vec.getLength() > BIG_THRESHOLD)) {
             NonRecursiveHashSet<String> set = new NonRecursiveHashSet<>(vec.getLength());
             String[] data = new String[vec.getLength()];
@@ -170,8 +181,10 @@ public abstract class Unique extends RBuiltinNode.Arg4 {
         }
 
         public boolean contains(double val) {
+            boolean nan = Double.isNaN(val);
             for (int i = 0; i < index; i++) {
-                if (backingArray[i] == val) {
+                double other = backingArray[i];
+                if (nan ? Double.isNaN(other) && RRuntime.isNA(other) == RRuntime.isNA(val) : other == val) {
                     return true;
                 }
             }
@@ -254,6 +267,15 @@ public abstract class Unique extends RBuiltinNode.Arg4 {
                     @Cached("vecIn.getClass()") Class<? extends RAbstractIntVector> vecClass) {
         RAbstractIntVector vec = vecClass.cast(vecIn);
         reportWork(vec.getLength());
+        VectorHashIndex index = VectorHashIndex.get(vec);
+        if (indexedProfile.profile(index != null)) {
+            int[] positions = index.getUniquePositions();
+            int[] data = new int[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                data[i] = vec.getDataAt(positions[i]);
+            }
+            return RDataFactory.createIntVector(data, vec.isComplete());
+        }
         if (bigProfile.profile(vec.getLength() * (long) vec.getLength() > BIG_THRESHOLD)) {
             NonRecursiveHashSetInt set = new NonRecursiveHashSetInt();
             int[] data = new int[16];
@@ -386,13 +408,24 @@ public abstract class Unique extends RBuiltinNode.Arg4 {
     @Specialization
     protected RDoubleVector doUnique(RAbstractDoubleVector vec, byte incomparables, byte fromLast, int nmax) {
         reportWork(vec.getLength());
+        VectorHashIndex index = VectorHashIndex.get(vec);
+        if (indexedProfile.profile(index != null)) {
+            int[] positions = index.getUniquePositions();
+            double[] data = new double[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                data[i] = vec.getDataAt(positions[i]);
+            }
+            return RDataFactory.createDoubleVector(data, vec.isComplete());
+        }
         if (bigProfile.profile(vec.getLength() * (long) vec.getLength() > BIG_THRESHOLD)) {
-            NonRecursiveHashSetDouble set = new NonRecursiveHashSetDouble(vec.getLength());
+            // the map (unlike NonRecursiveHashSetDouble) finds NA and NaN, as VectorHashIndex does
+            NonRecursiveHashMapDouble map = new NonRecursiveHashMapDouble(vec.getLength());
             double[] data = new double[vec.getLength()];
             int ind = 0;
             for (int i = 0; i < vec.getLength(); i++) {
                 double val = vec.getDataAt(i);
-                if (!set.add(val)) {
+                if (map.get(val) == -1) {
+                    map.put(val, i);
                     data[ind++] = val;
                 }
             }
@@ -29,6 +29,7 @@ import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.data.RIntSequence;
+import com.oracle.truffle.r.runtime.data.VectorHashIndex;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
@@ -41,11 +42,16 @@ public abstract class IsElementFastPath extends RFastPathNode {
     protected Byte iselementOneCachedString(RAbstractStringVector elIn, RAbstractStringVector setIn,
                     @Cached("elIn.getClass()") Class<? extends RAbstractStringVector> elClass,
                     @Cached("setIn.getClass()") Class<? extends RAbstractStringVector> setClass,
+                    @Cached("createBinaryProfile()") ConditionProfile indexedProfile,
                     @Cached("create()") BranchProfile trueProfile,
                     @Cached("create()") BranchProfile falseProfile) {
         RAbstractStringVector el = elClass.cast(elIn);
         RAbstractStringVector set = setClass.cast(setIn);
         String element = el.getDataAt(0);
+        VectorHashIndex.StringIndex index = VectorHashIndex.getString(set);
+        if (indexedProfile.profile(index != null)) {
+            return RRuntime.asLogical(index.lookup(element) != -1);
+        }
         int length = set.getLength();
         for (int i = 0; i < length; i++) {
             if (element.equals(set.getDataAt(i))) {
@@ -59,9 +65,10 @@ public abstract class IsElementFastPath extends RFastPathNode {
 
     @Specialization(replaces = "iselementOneCachedString")
     protected Byte iselementOne(RAbstractStringVector elIn, RAbstractStringVector setIn,
+                    @Cached("createBinaryProfile()") ConditionProfile indexedProfile,
                     @Cached("create()") BranchProfile trueProfile,
                     @Cached("create()") BranchProfile falseProfile) {
-        return iselementOneCachedString(elIn, setIn, RAbstractStringVector.class, RAbstractStringVector.class, trueProfile, falseProfile);
+        return iselementOneCachedString(elIn, setIn, RAbstractStringVector.class, RAbstractStringVector.class, indexedProfile, trueProfile, falseProfile);
     }
 
     @Specialization
@@ -71,9 +78,17 @@ public abstract class IsElementFastPath extends RFastPathNode {
 
     @Specialization(guards = "el.getLength() == 1")
     protected Byte iselementOne(RAbstractDoubleVector el, RAbstractDoubleVector set,
+                    @Cached("createBinaryProfile()") ConditionProfile indexedProfile,
                     @Cached("create()") BranchProfile trueProfile,
                     @Cached("create()") BranchProfile falseProfile) {
         double element = el.getDataAt(0);
+        // NaN elements never match in the loop below, whereas the index would find them
+        if (!Double.isNaN(element)) {
+            VectorHashIndex.DoubleIndex index = VectorHashIndex.getDouble(set);
+            if (indexedProfile.profile(index != null)) {
+                return RRuntime.asLogical(index.lookup(element) != -1);
+            }
+        }
         int length = set.getLength();
         for (int i = 0; i < length; i++) {
             if (element == set.getDataAt(i)) {
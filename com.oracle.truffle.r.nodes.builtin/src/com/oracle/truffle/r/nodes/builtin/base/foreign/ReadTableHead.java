@@ -19,6 +19,7 @@ import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
+import com.oracle.truffle.r.nodes.builtin.base.ScanTokenizer;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.conn.RConnection;
@@ -42,20 +43,20 @@ public abstract class ReadTableHead extends RExternalBuiltinNode.Arg7 {
     @TruffleBoundary
     public RAbstractStringVector read(int con, int nlines, String commentChar, boolean blankLinesSkip,
                     String quote, String sep, boolean skipNull) {
-        // TODO This is quite incomplete and just uses readLines, which works for some inputs
         try (RConnection openConn = RConnection.fromIndex(con).forceOpen("r")) {
+            // quoted strings spanning several lines are returned as one line
+            ScanTokenizer tokenizer = new ScanTokenizer(openConn, sep.isEmpty() ? -1 : sep.charAt(0), quote, commentChar.isEmpty() ? -1 : commentChar.charAt(0), false, skipNull);
             List<String> lines = new ArrayList<>(nlines);
-            int totalLines = 0;
-            while (totalLines < nlines) {
-                String[] readLines = openConn.readLines(nlines - totalLines, true, skipNull);
-                if (readLines.length == 0) {
-                    break;
+            try {
+                while (lines.size() < nlines) {
+                    String line = tokenizer.nextLine(blankLinesSkip);
+                    if (line == null) {
+                        break;
+                    }
+                    lines.add(line);
                 }
-
-                for (int i = 0; i < readLines.length; i++) {
-                    postprocessLine(lines, readLines[i], commentChar, blankLinesSkip, quote, sep);
-                }
-                totalLines += lines.size();
+            } finally {
+                tokenizer.close();
             }
 
             return RDataFactory.createStringVector(lines.toArray(new String[0]), RDataFactory.COMPLETE_VECTOR);
@@ -63,19 +64,4 @@ public abstract class ReadTableHead extends RExternalBuiltinNode.Arg7 {
             throw error(RError.Message.ERROR_READING_CONNECTION, ex.getMessage());
         }
     }
-
-    private static void postprocessLine(List<String> lines, String string, String commentChar, boolean blankLinesSkip, @SuppressWarnings("unused") String quote,
-                    @SuppressWarnings("unused") String sep) {
-        // TODO quote, sep
-        if (blankLinesSkip && string.isEmpty()) {
-            return;
-        }
-
-        if (commentChar != null && !commentChar.isEmpty() && string.startsWith(commentChar)) {
-            return;
-        }
-
-        // no reason why not to add
-        lines.add(string);
-    }
 }
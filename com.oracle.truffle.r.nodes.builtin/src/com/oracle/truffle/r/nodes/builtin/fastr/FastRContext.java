@@ -23,6 +23,7 @@
 package com.oracle.truffle.r.nodes.builtin.fastr;
 
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.equalTo;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.gt;
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.instanceOf;
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.notEmpty;
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.singleElement;
@@ -45,6 +46,7 @@ import com.oracle.truffle.r.nodes.builtin.NodeWithArgumentCasts.Casts;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.runtime.FastROptions;
 import com.oracle.truffle.r.runtime.RChannel;
+import com.oracle.truffle.r.runtime.RCleanUp;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RSource;
@@ -98,6 +100,10 @@ public class FastRContext {
     }
 
     private static void handleSharedContexts(ContextKind contextKind) {
+        if (contextKind == ContextKind.SHARE_ALL && EvalThread.threadCnt.get() > 0) {
+            // idle workers kept alive by mclapply must not count as "other child contexts"
+            RCleanUp.stopMclapplyPool();
+        }
         if (contextKind == ContextKind.SHARE_ALL && EvalThread.threadCnt.get() == 0) {
             RContext current = RContext.getInstance();
             if (EvalThread.threadCnt.get() == 0 && (current.isInitial() || current.getKind() == ContextKind.SHARE_PARENT_RW)) {
@@ -349,18 +355,24 @@ public class FastRContext {
         return ChildContextInfo.createNoRestore(Client.RSCRIPT, null, contextKind, context, console.getStdin(), console.getStdout(), console.getStderr());
     }
 
-    @RBuiltin(name = ".fastr.channel.create", kind = PRIMITIVE, parameterNames = {"key"}, behavior = COMPLEX)
-    public abstract static class CreateChannel extends RBuiltinNode.Arg1 {
+    @RBuiltin(name = ".fastr.channel.create", kind = PRIMITIVE, parameterNames = {"key", "capacity"}, behavior = COMPLEX)
+    public abstract static class CreateChannel extends RBuiltinNode.Arg2 {
+
+        @Override
+        public Object[] getDefaultParameterValues() {
+            return new Object[]{RMissing.instance, RRuntime.INT_NA};
+        }
 
         static {
             Casts casts = new Casts(CreateChannel.class);
             CastsHelper.key(casts);
+            casts.arg("capacity").asIntegerVector().findFirst(RRuntime.INT_NA);
         }
 
         @Specialization
         @TruffleBoundary
-        protected int createChannel(int key) {
-            return RChannel.createChannel(key);
+        protected int createChannel(int key, int capacity) {
+            return RChannel.createChannel(key, RRuntime.isNA(capacity) ? RChannel.getDefaultCapacity() : capacity);
         }
     }
 
@@ -411,6 +423,23 @@ public class FastRContext {
         }
     }
 
+    @RBuiltin(name = ".fastr.channel.send.batch", visibility = OFF, kind = PRIMITIVE, parameterNames = {"id", "data"}, behavior = COMPLEX)
+    public abstract static class ChannelSendBatch extends RBuiltinNode.Arg2 {
+
+        static {
+            Casts casts = new Casts(ChannelSendBatch.class);
+            CastsHelper.id(casts);
+            casts.arg("data").mustBe(instanceOf(RList.class));
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected RNull sendBatch(int id, RList data) {
+            RChannel.sendBatch(id, data);
+            return RNull.instance;
+        }
+    }
+
     @RBuiltin(name = ".fastr.channel.receive", kind = PRIMITIVE, parameterNames = {"id"}, behavior = COMPLEX)
     public abstract static class ChannelReceive extends RBuiltinNode.Arg1 {
 
@@ -426,6 +455,27 @@ public class FastRContext {
         }
     }
 
+    @RBuiltin(name = ".fastr.channel.receive.batch", kind = PRIMITIVE, parameterNames = {"id", "max"}, behavior = COMPLEX)
+    public abstract static class ChannelReceiveBatch extends RBuiltinNode.Arg2 {
+
+        @Override
+        public Object[] getDefaultParameterValues() {
+            return new Object[]{RMissing.instance, Integer.MAX_VALUE};
+        }
+
+        static {
+            Casts casts = new Casts(ChannelReceiveBatch.class);
+            CastsHelper.id(casts);
+            casts.arg("max").asIntegerVector().findFirst().mustBe(gt(0), RError.Message.MUST_BE_POSITIVE_INT, "max");
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected RList receiveBatch(int id, int max) {
+            return RChannel.receiveBatch(id, max);
+        }
+    }
+
     @RBuiltin(name = ".fastr.channel.poll", kind = PRIMITIVE, parameterNames = {"id"}, behavior = COMPLEX)
     public abstract static class ChannelPoll extends RBuiltinNode.Arg1 {
 
@@ -452,22 +502,16 @@ public class FastRContext {
         @Specialization
         @TruffleBoundary
         protected RList select(RList nodes) {
-            int ind = 0;
-            int length = nodes.getLength();
-            while (true) {
-                Object o = nodes.getDataAt(ind);
-                ind = (ind + 1) % length;
-                int id;
+            int[] ids = new int[nodes.getLength()];
+            for (int i = 0; i < ids.length; i++) {
+                Object o = nodes.getDataAt(i);
                 if (o instanceof Integer) {
-                    id = (int) o;
+                    ids[i] = (int) o;
                 } else {
-                    id = ((RIntVector) o).getDataAt(0);
-                }
-                Object res = RChannel.poll(id);
-                if (res != null) {
-                    return RDataFactory.createList(new Object[]{id, res});
+                    ids[i] = ((RIntVector) o).getDataAt(0);
                 }
             }
+            return RDataFactory.createList(RChannel.select(ids));
         }
     }
 }
@@ -72,6 +72,9 @@ import com.oracle.truffle.r.runtime.builtins.RBuiltin;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RArgsValuesAndNames;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RForeignBooleanArrayWrapper;
+import com.oracle.truffle.r.runtime.data.RForeignDoubleArrayWrapper;
+import com.oracle.truffle.r.runtime.data.RForeignIntArrayWrapper;
 import com.oracle.truffle.r.runtime.data.RInteropScalar;
 import com.oracle.truffle.r.runtime.data.RInteropScalar.RInteropByte;
 import com.oracle.truffle.r.runtime.data.RInteropScalar.RInteropChar;
@@ -587,6 +590,9 @@ public class FastRInterop {
         @TruffleBoundary
         public Object toArray(RAbstractLogicalVector vec, @SuppressWarnings("unused") RMissing className, boolean flat,
                         @Cached("createR2Foreign()") R2Foreign r2Foreign) {
+            if (vec instanceof RForeignBooleanArrayWrapper) {
+                return ((RForeignBooleanArrayWrapper) vec).getDelegate();
+            }
             return toArray(vec, flat, boolean.class, (array, i) -> Array.set(array, i, r2Foreign.execute(vec.getDataAt(i))));
         }
 
@@ -601,6 +607,11 @@ public class FastRInterop {
         @TruffleBoundary
         public Object toArray(RAbstractIntVector vec, @SuppressWarnings("unused") RMissing className, boolean flat,
                         @Cached("createR2Foreign()") R2Foreign r2Foreign) {
+            if (vec instanceof RForeignIntArrayWrapper) {
+                return ((RForeignIntArrayWrapper) vec).getDelegate();
+            } else if (getDim(flat, vec).length == 1) {
+                return JavaInterop.asTruffleObject(vec.materialize().getDataCopy());
+            }
             return toArray(vec, flat, int.class, (array, i) -> Array.set(array, i, r2Foreign.execute(vec.getDataAt(i))));
         }
 
@@ -613,6 +624,11 @@ public class FastRInterop {
         @Specialization
         @TruffleBoundary
         public Object toArray(RAbstractDoubleVector vec, @SuppressWarnings("unused") RMissing className, boolean flat) {
+            if (vec instanceof RForeignDoubleArrayWrapper) {
+                return ((RForeignDoubleArrayWrapper) vec).getDelegate();
+            } else if (getDim(flat, vec).length == 1) {
+                return JavaInterop.asTruffleObject(vec.materialize().getDataCopy());
+            }
             return toArray(vec, flat, double.class, (array, i) -> Array.set(array, i, vec.getDataAt(i)));
         }
 
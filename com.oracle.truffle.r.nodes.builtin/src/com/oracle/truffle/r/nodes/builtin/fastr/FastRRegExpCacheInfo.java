@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.fastr;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
+import static com.oracle.truffle.r.runtime.builtins.RBehavior.COMPLEX;
+import static com.oracle.truffle.r.runtime.builtins.RBuiltinKind.PRIMITIVE;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.RegExp;
+import com.oracle.truffle.r.runtime.builtins.RBuiltin;
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
+
+/**
+ * Reports the statistics of the per-context compiled regular expression cache (see
+ * {@link RegExp.ContextStateImpl}) as a named vector {@code c(hits, misses, size, capacity)}. If
+ * {@code reset} is {@code TRUE}, the cache and its counters are cleared after reporting.
+ */
+@RBuiltin(name = ".fastr.regexp.cacheinfo", kind = PRIMITIVE, parameterNames = {"reset"}, behavior = COMPLEX)
+public abstract class FastRRegExpCacheInfo extends RBuiltinNode.Arg1 {
+
+    private static final String[] NAMES = new String[]{"hits", "misses", "size", "capacity"};
+
+    @Override
+    public Object[] getDefaultParameterValues() {
+        return new Object[]{RRuntime.LOGICAL_FALSE};
+    }
+
+    static {
+        Casts casts = new Casts(FastRRegExpCacheInfo.class);
+        casts.arg("reset").asLogicalVector().findFirst().map(toBoolean());
+    }
+
+    @TruffleBoundary
+    @Specialization
+    protected RDoubleVector cacheInfo(boolean reset) {
+        RegExp.ContextStateImpl cache = RContext.getInstance().stateRegExp;
+        double[] data = new double[]{cache.getHits(), cache.getMisses(), cache.getSize(), cache.getCapacity()};
+        if (reset) {
+            cache.clear();
+        }
+        return RDataFactory.createDoubleVector(data, RDataFactory.COMPLETE_VECTOR, RDataFactory.createStringVector(NAMES, RDataFactory.COMPLETE_VECTOR));
+    }
+}
@@ -24,6 +24,7 @@ package com.oracle.truffle.r.nodes.binary;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.r.nodes.primitive.BinaryMapNAFunctionNode;
+import com.oracle.truffle.r.runtime.FastROptions;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.data.RComplex;
@@ -31,6 +32,8 @@ import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDoubleSequence;
 import com.oracle.truffle.r.runtime.data.RIntSequence;
 import com.oracle.truffle.r.runtime.data.RSequence;
+import com.oracle.truffle.r.runtime.data.closures.RDeferredArithmeticVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 import com.oracle.truffle.r.runtime.ops.BinaryArithmetic;
 import com.oracle.truffle.r.runtime.ops.BinaryArithmetic.Add;
@@ -48,6 +51,8 @@ public final class BinaryMapArithmeticFunctionNode extends BinaryMapNAFunctionNo
 
     @Child private BinaryArithmetic arithmetic;
 
+    private final int deferredThreshold = FastROptions.DeferredArithmeticThreshold.getNonNegativeIntValue();
+
     public BinaryMapArithmeticFunctionNode(BinaryArithmetic arithmetic) {
         this.arithmetic = arithmetic;
     }
@@ -59,15 +64,55 @@ public final class BinaryMapArithmeticFunctionNode extends BinaryMapNAFunctionNo
 
     @Override
     public boolean mayFoldConstantTime(Class<? extends RAbstractVector> leftClass, Class<? extends RAbstractVector> rightClass) {
-        return (isSequenceAddArithmetic() || isSequenceMulArithmetic()) && (RSequence.class.isAssignableFrom(leftClass) || RSequence.class.isAssignableFrom(rightClass));
+        if ((isSequenceAddArithmetic() || isSequenceMulArithmetic()) && (RSequence.class.isAssignableFrom(leftClass) || RSequence.class.isAssignableFrom(rightClass))) {
+            return true;
+        }
+        return deferredThreshold > 0 && getDeferredKind() != null &&
+                        (RAbstractDoubleVector.class.isAssignableFrom(leftClass) || RAbstractDoubleVector.class.isAssignableFrom(rightClass));
     }
 
     @Override
     public RAbstractVector tryFoldConstantTime(RAbstractVector left, int leftLength, RAbstractVector right, int rightLength) {
+        RAbstractVector result = null;
         if (isSequenceAddArithmetic()) {
-            return sequenceAddOperation(left, leftLength, right, rightLength);
+            result = sequenceAddOperation(left, leftLength, right, rightLength);
         } else if (isSequenceMulArithmetic()) {
-            return sequenceMulOperation(left, leftLength, right, rightLength);
+            result = sequenceMulOperation(left, leftLength, right, rightLength);
+        }
+        if (result == null && deferredThreshold > 0) {
+            result = deferOperation(left, leftLength, right, rightLength);
+        }
+        return result;
+    }
+
+    /**
+     * Instead of computing a large double result eagerly, records the operation in a
+     * {@link RDeferredArithmeticVector}, so that chained arithmetic is evaluated in one loop once
+     * the result is materialized.
+     */
+    private RAbstractVector deferOperation(RAbstractVector left, int leftLength, RAbstractVector right, int rightLength) {
+        RDeferredArithmeticVector.Kind kind = getDeferredKind();
+        if (kind == null || Math.max(leftLength, rightLength) < deferredThreshold) {
+            return null;
+        }
+        return RDeferredArithmeticVector.create(kind, left, leftLength, right, rightLength);
+    }
+
+    @Override
+    public boolean isParallelizable() {
+        // the double operations of these nodes are plain arithmetic without profiles or child nodes
+        return arithmetic instanceof Add || arithmetic instanceof Subtract || arithmetic instanceof Multiply || arithmetic instanceof Div;
+    }
+
+    private RDeferredArithmeticVector.Kind getDeferredKind() {
+        if (arithmetic instanceof Add) {
+            return RDeferredArithmeticVector.Kind.ADD;
+        } else if (arithmetic instanceof Subtract) {
+            return RDeferredArithmeticVector.Kind.SUBTRACT;
+        } else if (arithmetic instanceof Multiply) {
+            return RDeferredArithmeticVector.Kind.MULTIPLY;
+        } else if (arithmetic instanceof Div) {
+            return RDeferredArithmeticVector.Kind.DIVIDE;
         }
         return null;
     }
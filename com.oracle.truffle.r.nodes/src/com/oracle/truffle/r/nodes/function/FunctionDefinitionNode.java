@@ -180,13 +180,20 @@ public final class FunctionDefinitionNode extends RRootNode implements RSyntaxNo
         List<RCodeBuilder.Argument<RSyntaxNode>> args = new ArrayList<>();
         for (int i = 0; i < getFormalArguments().getLength(); i++) {
             RNode value = getFormalArguments().getArgument(i);
-            SourceSection source = argSourceSections == null ? getLazySourceSection() : argSourceSections[i];
-            args.add(RCodeBuilder.argument(source, getFormalArguments().getSignature().getName(i), value == null ? null : builder.process(value.asRSyntaxNode())));
+            args.add(RCodeBuilder.argument(getArgumentSourceSection(i), getFormalArguments().getSignature().getName(i), value == null ? null : builder.process(value.asRSyntaxNode())));
         }
         RootCallTarget callTarget = builder.rootFunction(getRLanguage(), getLazySourceSection(), args, builder.process(getBody()), name);
         return callTarget;
     }
 
+    /**
+     * Returns the source section of the formal argument at {@code index} as it was passed to the
+     * {@link RCodeBuilder}, i.e., the section covering {@code name=value}.
+     */
+    public SourceSection getArgumentSourceSection(int index) {
+        return argSourceSections == null ? getLazySourceSection() : argSourceSections[index];
+    }
+
     public TruffleRLanguage getRLanguage() {
         return getLanguage(RContext.getTruffleRLanguage());
     }
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.function;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.MaterializedFrame;
+import com.oracle.truffle.api.nodes.InvalidAssumptionException;
+import com.oracle.truffle.r.nodes.function.S3FunctionLookupNode.Result;
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.RPromise;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor;
+import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor.FrameAndSlotLookupResult;
+import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor.LookupResult;
+
+/**
+ * Context-wide cache for the S3 method lookups of megamorphic dispatch sites. Entries are grouped
+ * by the frame descriptor of the caller frame and keyed by generic, group, class vector and methods
+ * table. Each entry keeps the {@link LookupResult}s of all names that were probed, so that it is
+ * only used as long as no method was defined or removed along the way and no environment was
+ * attached or detached.
+ */
+final class S3DispatchCache {
+
+    private static final int MAX_ENTRIES_PER_FRAME = 64;
+
+    /**
+     * Marker for lookup results that became invalid, never identical to any looked up value.
+     */
+    private static final Object INVALID = new Object();
+
+    private static final class Key {
+        private final String generic;
+        private final String group;
+        private final String[] classes;
+        private final Object methodsTable;
+        private final boolean nextMethod;
+        private final int hash;
+
+        private Key(String generic, String group, String[] classes, Object methodsTable, boolean nextMethod) {
+            this.generic = generic;
+            this.group = group;
+            this.classes = classes;
+            this.methodsTable = methodsTable;
+            this.nextMethod = nextMethod;
+            this.hash = Objects.hash(generic, group, Arrays.hashCode(classes), System.identityHashCode(methodsTable), nextMethod);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hash == other.hash && nextMethod == other.nextMethod && methodsTable == other.methodsTable && generic.equals(other.generic) && Objects.equals(group, other.group) &&
+                            Arrays.equals(classes, other.classes);
+        }
+    }
+
+    private static final class Entry {
+        private final Result result;
+        private final LookupResult[] lookups;
+        private final Object[] values;
+
+        private Entry(Result result, LookupResult[] lookups, Object[] values) {
+            this.result = result;
+            this.lookups = lookups;
+            this.values = values;
+        }
+
+        private boolean isValid() {
+            for (int i = 0; i < lookups.length; i++) {
+                LookupResult lookup = lookups[i];
+                if (!lookup.isValid()) {
+                    return false;
+                }
+                // bindings in singleton frames are not necessarily stable, re-check the actual
+                // value of every probe (including those that found nothing)
+                if (lookup instanceof FrameAndSlotLookupResult && currentValue(lookup) != values[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Collects the {@link LookupResult}s that correspond to the reads done during one lookup. If
+     * any read cannot be expressed as a lookup result, the outcome is not cacheable.
+     */
+    static final class Recorder {
+        private final ArrayList<LookupResult> lookups = new ArrayList<>();
+        private final ArrayList<Object> values = new ArrayList<>();
+        private boolean successful;
+        private boolean cacheable = true;
+
+        @TruffleBoundary
+        void record(MaterializedFrame frame, String name, Object value) {
+            if (!cacheable) {
+                return;
+            }
+            LookupResult lookup = FrameSlotChangeMonitor.lookup(frame, name);
+            Object unwrapped = unwrap(value);
+            if (lookup == null || currentValue(lookup) != unwrapped) {
+                cacheable = false;
+                return;
+            }
+            lookups.add(lookup);
+            values.add(unwrapped);
+            if (value != null) {
+                successful = true;
+            }
+        }
+    }
+
+    private static Object unwrap(Object value) {
+        if (value instanceof RPromise && ((RPromise) value).isEvaluated()) {
+            return ((RPromise) value).getValue();
+        }
+        return value;
+    }
+
+    private static Object currentValue(LookupResult lookup) {
+        try {
+            return unwrap(lookup.getValue());
+        } catch (InvalidAssumptionException e) {
+            return INVALID;
+        }
+    }
+
+    private final Map<FrameDescriptor, HashMap<Object, Object>> entries;
+    private final Key key;
+
+    private S3DispatchCache(Map<FrameDescriptor, HashMap<Object, Object>> entries, Key key) {
+        this.entries = entries;
+        this.key = key;
+    }
+
+    @TruffleBoundary
+    static S3DispatchCache create(String generic, String group, RStringVector type, Object methodsTable, boolean nextMethod) {
+        return new S3DispatchCache(RContext.getInstance().s3DispatchCache, new Key(generic, group, type.getDataCopy(), methodsTable, nextMethod));
+    }
+
+    @TruffleBoundary
+    Result get(MaterializedFrame callerFrame) {
+        synchronized (entries) {
+            HashMap<Object, Object> frameEntries = entries.get(callerFrame.getFrameDescriptor());
+            Entry entry = frameEntries == null ? null : (Entry) frameEntries.get(key);
+            if (entry == null) {
+                return null;
+            } else if (!entry.isValid()) {
+                frameEntries.remove(key);
+                return null;
+            }
+            return entry.result;
+        }
+    }
+
+    @TruffleBoundary
+    void put(MaterializedFrame callerFrame, Result result, Recorder recorder) {
+        if (result == null || !recorder.cacheable || !recorder.successful) {
+            return;
+        }
+        synchronized (entries) {
+            HashMap<Object, Object> frameEntries = entries.computeIfAbsent(callerFrame.getFrameDescriptor(), descriptor -> new HashMap<>());
+            if (frameEntries.size() >= MAX_ENTRIES_PER_FRAME) {
+                frameEntries.clear();
+            }
+            frameEntries.put(key, new Entry(result, recorder.lookups.toArray(new LookupResult[recorder.lookups.size()]), recorder.values.toArray()));
+        }
+    }
+}
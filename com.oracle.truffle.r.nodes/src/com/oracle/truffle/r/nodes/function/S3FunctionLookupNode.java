@@ -428,23 +428,19 @@ public abstract class S3FunctionLookupNode extends RBaseNode {
 
         @TruffleBoundary
         private Result executeInternal(String genericName, RStringVector type, String group, MaterializedFrame callerFrame, MaterializedFrame genericDefFrame) {
-            LookupOperation op = (lookupFrame, name, inMethodsTable) -> {
-                return ReadVariableNode.lookupFunction(name, lookupFrame, inMethodsTable, true);
-            };
-
-            GetMethodsTable getTable = () -> {
-                FrameSlot slot = genericDefFrame == null ? null : genericDefFrame.getFrameDescriptor().findFrameSlot(RRuntime.RS3MethodsTable);
-                if (slot == null) {
-                    return null;
-                }
-                try {
-                    return FrameSlotChangeMonitor.getObject(slot, genericDefFrame);
-                } catch (FrameSlotTypeException e) {
-                    throw RInternalError.shouldNotReachHere();
-                }
-            };
-
-            Result result = performLookup(callerFrame, genericName, group, type, nextMethod, op, getTable);
+            Object methodsTable = getMethodsTable(genericDefFrame);
+            S3DispatchCache cache = S3DispatchCache.create(genericName, group, type, methodsTable, nextMethod);
+            Result result = cache.get(callerFrame);
+            if (result == null) {
+                S3DispatchCache.Recorder recorder = new S3DispatchCache.Recorder();
+                LookupOperation op = (lookupFrame, name, inMethodsTable) -> {
+                    Object value = ReadVariableNode.lookupFunction(name, lookupFrame, inMethodsTable, true);
+                    recorder.record(lookupFrame, name, value);
+                    return value;
+                };
+                result = performLookup(callerFrame, genericName, group, type, nextMethod, op, () -> methodsTable);
+                cache.put(callerFrame, result, recorder);
+            }
 
             if (result == null) {
                 if (throwsError) {
@@ -459,5 +455,17 @@ public abstract class S3FunctionLookupNode extends RBaseNode {
             }
             return result;
         }
+
+        private static Object getMethodsTable(MaterializedFrame genericDefFrame) {
+            FrameSlot slot = genericDefFrame == null ? null : genericDefFrame.getFrameDescriptor().findFrameSlot(RRuntime.RS3MethodsTable);
+            if (slot == null) {
+                return null;
+            }
+            try {
+                return FrameSlotChangeMonitor.getObject(slot, genericDefFrame);
+            } catch (FrameSlotTypeException e) {
+                throw RInternalError.shouldNotReachHere();
+            }
+        }
     }
 }
@@ -94,6 +94,14 @@ public abstract class BinaryMapFunctionNode extends RBaseNode {
         return null;
     }
 
+    /**
+     * Returns <code>true</code> if {@link #applyDouble(double, double)} may be invoked concurrently
+     * from multiple threads, i.e., if it has no side effects besides updating NA checks.
+     */
+    public boolean isParallelizable() {
+        return false;
+    }
+
     /**
      * Enables the node for the two operation. Invoked once for each BinaryMap operation invocation.
      */
@@ -80,6 +80,7 @@ public final class BinaryMapNode extends RBaseNode {
     private final ConditionProfile seenEmpty = ConditionProfile.createBinaryProfile();
     private final ConditionProfile shareLeft;
     private final ConditionProfile shareRight;
+    private final ConditionProfile parallelProfile;
     private final RType argumentType;
     private final RType resultType;
 
@@ -89,6 +90,7 @@ public final class BinaryMapNode extends RBaseNode {
     private final boolean mayFoldConstantTime;
     private final boolean mayShareLeft;
     private final boolean mayShareRight;
+    private final boolean mayRunParallel;
 
     private BinaryMapNode(BinaryMapFunctionNode function, RAbstractVector left, RAbstractVector right, RType argumentType, RType resultType, boolean copyAttributes) {
         this.function = function;
@@ -102,6 +104,7 @@ public final class BinaryMapNode extends RBaseNode {
         this.mayFoldConstantTime = function.mayFoldConstantTime(leftClass, rightClass);
         this.mayShareLeft = left.getRType() == resultType && leftVectorImpl;
         this.mayShareRight = right.getRType() == resultType && rightVectorImpl;
+        this.mayRunParallel = argumentType == RType.Double && resultType == RType.Double && function.isParallelizable();
         this.argumentType = argumentType;
         this.resultType = resultType;
         this.maxLengthProfile = ConditionProfile.createBinaryProfile();
@@ -110,6 +113,7 @@ public final class BinaryMapNode extends RBaseNode {
         this.shareLeft = mayShareLeft ? ConditionProfile.createBinaryProfile() : null;
         this.shareRight = mayShareRight ? ConditionProfile.createBinaryProfile() : null;
         this.dimensionsProfile = mayContainMetadata ? ConditionProfile.createBinaryProfile() : null;
+        this.parallelProfile = mayRunParallel ? ConditionProfile.createBinaryProfile() : null;
 
         this.copyAttributes = mayContainMetadata ? CopyAttributesNodeGen.create(copyAttributes) : null;
     }
@@ -260,9 +264,15 @@ public final class BinaryMapNode extends RBaseNode {
             assert rightCast.getRType() == argumentType;
             assert isStoreCompatible(store, resultType, leftLength, rightLength);
 
-            vectorNode.execute(function, store, leftCast, leftLength, rightCast, rightLength);
-            RBaseNode.reportWork(this, maxLength);
-            target.setComplete(function.isComplete());
+            if (mayRunParallel && parallelProfile.profile(ParallelMapKernel.isParallel(maxLength) && (leftLength == rightLength || leftLength == 1 || rightLength == 1))) {
+                boolean complete = ParallelMapKernel.applyDouble(function, (double[]) store, (RAbstractDoubleVector) leftCast, leftLength, (RAbstractDoubleVector) rightCast, rightLength);
+                RBaseNode.reportWork(this, maxLength);
+                target.setComplete(complete);
+            } else {
+                vectorNode.execute(function, store, leftCast, leftLength, rightCast, rightLength);
+                RBaseNode.reportWork(this, maxLength);
+                target.setComplete(function.isComplete());
+            }
         }
         if (mayContainMetadata) {
             target = copyAttributes.execute(target, left, leftLength, right, rightLength);
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.primitive;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.FastROptions;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+
+/**
+ * Multi-threaded variants of the double to double loops of {@link BinaryMapNode} and
+ * {@link UnaryMapNode}. The result is split into chunks that are computed by the same scalar
+ * function node, so the function must not have side effects other than updating its NA checks
+ * (see {@link BinaryMapFunctionNode#isParallelizable()} and
+ * {@link UnaryMapFunctionNode#isParallelizable()}). Every element is computed exactly as in the
+ * sequential loops, so the results do not depend on the number of threads.
+ *
+ * Each chunk reports whether it produced an {@code NA}, and the results of all chunks are merged
+ * into the completeness of the result vector.
+ */
+final class ParallelMapKernel {
+
+    /**
+     * Smallest number of elements computed by one task.
+     */
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private static final int THRESHOLD = FastROptions.MapParallelThreshold.getNonNegativeIntValue();
+
+    private static final ForkJoinPool POOL = createPool();
+
+    private ParallelMapKernel() {
+        // no instances
+    }
+
+    private static ForkJoinPool createPool() {
+        int parallelism = FastROptions.MapParallelism.getNonNegativeIntValue();
+        if (parallelism == 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        return parallelism > 1 && THRESHOLD > 0 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    /**
+     * Returns {@code true} if a loop over {@code length} elements should be split across threads.
+     */
+    static boolean isParallel(int length) {
+        return POOL != null && length >= THRESHOLD && length >= 2 * CHUNK_SIZE;
+    }
+
+    /**
+     * Computes {@code result[i] = function(left[i], right[i])}, where an operand of length one is
+     * recycled. Returns {@code true} if no element of the result is {@code NA}.
+     */
+    @TruffleBoundary
+    static boolean applyDouble(BinaryMapFunctionNode function, double[] result, RAbstractDoubleVector left, int leftLength, RAbstractDoubleVector right, int rightLength) {
+        assert leftLength == rightLength || leftLength == 1 || rightLength == 1;
+        return POOL.invoke(new BinaryChunk(function, result, left, leftLength == 1, right, rightLength == 1, 0, result.length));
+    }
+
+    /**
+     * Computes {@code result[i] = function(operand[i])}. Returns {@code true} if no element of the
+     * result is {@code NA}.
+     */
+    @TruffleBoundary
+    static boolean applyDouble(UnaryMapFunctionNode function, double[] result, RAbstractDoubleVector operand) {
+        return POOL.invoke(new UnaryChunk(function, result, operand, 0, result.length));
+    }
+
+    @SuppressWarnings("serial")
+    private static final class BinaryChunk extends RecursiveTask<Boolean> {
+        private final BinaryMapFunctionNode function;
+        private final double[] result;
+        private final RAbstractDoubleVector left;
+        private final boolean leftScalar;
+        private final RAbstractDoubleVector right;
+        private final boolean rightScalar;
+        private final int from;
+        private final int to;
+
+        BinaryChunk(BinaryMapFunctionNode function, double[] result, RAbstractDoubleVector left, boolean leftScalar, RAbstractDoubleVector right, boolean rightScalar, int from, int to) {
+            this.function = function;
+            this.result = result;
+            this.left = left;
+            this.leftScalar = leftScalar;
+            this.right = right;
+            this.rightScalar = rightScalar;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Boolean compute() {
+            if (to - from >= 2 * CHUNK_SIZE) {
+                int middle = (from + to) >>> 1;
+                BinaryChunk first = new BinaryChunk(function, result, left, leftScalar, right, rightScalar, from, middle);
+                first.fork();
+                boolean complete = new BinaryChunk(function, result, left, leftScalar, right, rightScalar, middle, to).compute();
+                return first.join() && complete;
+            }
+            boolean complete = true;
+            for (int i = from; i < to; i++) {
+                double value = function.applyDouble(left.getDataAt(leftScalar ? 0 : i), right.getDataAt(rightScalar ? 0 : i));
+                result[i] = value;
+                if (RRuntime.isNA(value)) {
+                    complete = false;
+                }
+            }
+            return complete;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class UnaryChunk extends RecursiveTask<Boolean> {
+        private final UnaryMapFunctionNode function;
+        private final double[] result;
+        private final RAbstractDoubleVector operand;
+        private final int from;
+        private final int to;
+
+        UnaryChunk(UnaryMapFunctionNode function, double[] result, RAbstractDoubleVector operand, int from, int to) {
+            this.function = function;
+            this.result = result;
+            this.operand = operand;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Boolean compute() {
+            if (to - from >= 2 * CHUNK_SIZE) {
+                int middle = (from + to) >>> 1;
+                UnaryChunk first = new UnaryChunk(function, result, operand, from, middle);
+                first.fork();
+                boolean complete = new UnaryChunk(function, result, operand, middle, to).compute();
+                return first.join() && complete;
+            }
+            boolean complete = true;
+            for (int i = from; i < to; i++) {
+                double value = function.applyDouble(operand.getDataAt(i));
+                result[i] = value;
+                if (RRuntime.isNA(value)) {
+                    complete = false;
+                }
+            }
+            return complete;
+        }
+    }
+}
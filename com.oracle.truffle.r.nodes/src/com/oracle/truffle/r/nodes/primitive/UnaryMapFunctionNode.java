@@ -48,6 +48,14 @@ public abstract class UnaryMapFunctionNode extends RBaseNode {
         return false;
     }
 
+    /**
+     * Returns <code>true</code> if {@link #applyDouble(double)} may be invoked concurrently from
+     * multiple threads, i.e., if it has no side effects besides updating NA checks.
+     */
+    public boolean isParallelizable() {
+        return false;
+    }
+
     public byte applyLogical(byte operand) {
         throw RInternalError.shouldNotReachHere();
     }
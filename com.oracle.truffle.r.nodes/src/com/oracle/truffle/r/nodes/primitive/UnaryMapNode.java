@@ -64,12 +64,14 @@ public final class UnaryMapNode extends RBaseNode {
     private final ConditionProfile operandIsNAProfile = ConditionProfile.createBinaryProfile();
     private final BranchProfile hasAttributesProfile;
     private final ConditionProfile shareOperand;
+    private final ConditionProfile parallelProfile;
 
     // compile-time optimization flags
     private final boolean scalarType;
     private final boolean mayContainMetadata;
     private final boolean mayFoldConstantTime;
     private final boolean mayShareOperand;
+    private final boolean mayRunParallel;
 
     private UnaryMapNode(UnaryMapFunctionNode scalarNode, RAbstractVector operand, RType argumentType, RType resultType) {
         this.scalarNode = scalarNode;
@@ -80,10 +82,12 @@ public final class UnaryMapNode extends RBaseNode {
         this.mayContainMetadata = operandVector;
         this.mayFoldConstantTime = scalarNode.mayFoldConstantTime(operandClass);
         this.mayShareOperand = operandVector;
+        this.mayRunParallel = argumentType == RType.Double && resultType == RType.Double && scalarNode.isParallelizable();
 
         // lazily create profiles only if needed to avoid unnecessary allocations
         this.shareOperand = operandVector ? ConditionProfile.createBinaryProfile() : null;
         this.hasAttributesProfile = mayContainMetadata ? BranchProfile.create() : null;
+        this.parallelProfile = mayRunParallel ? ConditionProfile.createBinaryProfile() : null;
     }
 
     public static UnaryMapNode create(UnaryMapFunctionNode scalarNode, RAbstractVector operand, RType argumentType, RType resultType) {
@@ -152,9 +156,15 @@ public final class UnaryMapNode extends RBaseNode {
         if (target == null) {
             target = createOrShareVector(operandLength, operand);
             Object store = target.getInternalStore();
-            vectorNode.apply(scalarNode, store, operandCast, operandLength);
-            RBaseNode.reportWork(this, operandLength);
-            target.setComplete(scalarNode.isComplete());
+            if (mayRunParallel && parallelProfile.profile(ParallelMapKernel.isParallel(operandLength))) {
+                boolean complete = ParallelMapKernel.applyDouble(scalarNode, (double[]) store, (RAbstractDoubleVector) operandCast);
+                RBaseNode.reportWork(this, operandLength);
+                target.setComplete(complete);
+            } else {
+                vectorNode.apply(scalarNode, store, operandCast, operandLength);
+                RBaseNode.reportWork(this, operandLength);
+                target.setComplete(scalarNode.isComplete());
+            }
         }
         if (mayContainMetadata) {
             target = handleMetadata(target, operand);
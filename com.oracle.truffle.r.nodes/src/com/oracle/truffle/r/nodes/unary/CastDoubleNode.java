@@ -41,6 +41,7 @@ import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RList;
 import com.oracle.truffle.r.runtime.data.RRawVector;
 import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.data.closures.RDeferredArithmeticVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractContainer;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractListVector;
@@ -172,6 +173,12 @@ public abstract class CastDoubleNode extends CastDoubleBaseNode {
         return operand;
     }
 
+    @Specialization
+    protected RDeferredArithmeticVector doDoubleVector(RDeferredArithmeticVector operand) {
+        // deferred vector does not have attributes - nothing to copy or drop
+        return operand;
+    }
+
     @Specialization
     protected RDoubleVector doList(RAbstractListVector list) {
         int length = list.getLength();
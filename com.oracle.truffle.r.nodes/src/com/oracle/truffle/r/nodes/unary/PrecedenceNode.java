@@ -43,6 +43,9 @@ import com.oracle.truffle.r.runtime.data.RComplexVector;
 import com.oracle.truffle.r.runtime.data.RDoubleSequence;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RExpression;
+import com.oracle.truffle.r.runtime.data.RForeignBooleanArrayWrapper;
+import com.oracle.truffle.r.runtime.data.RForeignDoubleArrayWrapper;
+import com.oracle.truffle.r.runtime.data.RForeignIntArrayWrapper;
 import com.oracle.truffle.r.runtime.data.RFunction;
 import com.oracle.truffle.r.runtime.data.RIntSequence;
 import com.oracle.truffle.r.runtime.data.RIntVector;
@@ -57,6 +60,7 @@ import com.oracle.truffle.r.runtime.data.RRawVector;
 import com.oracle.truffle.r.runtime.data.RS4Object;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RSymbol;
+import com.oracle.truffle.r.runtime.data.closures.RDeferredArithmeticVector;
 import com.oracle.truffle.r.runtime.env.REnvironment;
 import com.oracle.truffle.r.runtime.interop.Foreign2R;
 import com.oracle.truffle.r.runtime.interop.ForeignArray2R;
@@ -107,6 +111,11 @@ public abstract class PrecedenceNode extends RBaseNode {
         return LOGICAL_PRECEDENCE;
     }
 
+    @Specialization
+    protected int doLogical(RForeignBooleanArrayWrapper val, boolean recursive) {
+        return LOGICAL_PRECEDENCE;
+    }
+
     @Specialization
     protected int doInt(int val, boolean recursive) {
         return INT_PRECEDENCE;
@@ -127,6 +136,11 @@ public abstract class PrecedenceNode extends RBaseNode {
         return INT_PRECEDENCE;
     }
 
+    @Specialization
+    protected int doInt(RForeignIntArrayWrapper val, boolean recursive) {
+        return INT_PRECEDENCE;
+    }
+
     @Specialization
     protected int doDouble(double val, boolean recursive) {
         return DOUBLE_PRECEDENCE;
@@ -142,6 +156,16 @@ public abstract class PrecedenceNode extends RBaseNode {
         return DOUBLE_PRECEDENCE;
     }
 
+    @Specialization
+    protected int doDouble(RDeferredArithmeticVector val, boolean recursive) {
+        return DOUBLE_PRECEDENCE;
+    }
+
+    @Specialization
+    protected int doDouble(RForeignDoubleArrayWrapper val, boolean recursive) {
+        return DOUBLE_PRECEDENCE;
+    }
+
     @Specialization
     protected int doComplex(RComplexVector val, boolean recursive) {
         return COMPLEX_PRECEDENCE;
@@ -72,6 +72,11 @@ public class ScalarUnaryArithmeticNode extends UnaryMapNAFunctionNode {
         return false;
     }
 
+    @Override
+    public boolean isParallelizable() {
+        return true;
+    }
+
     @Override
     public final double applyDouble(double operand) {
         if (operandNACheck.check(operand)) {
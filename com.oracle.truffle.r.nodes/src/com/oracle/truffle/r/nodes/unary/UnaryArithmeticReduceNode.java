@@ -45,6 +45,7 @@ import com.oracle.truffle.r.runtime.data.RLogicalVector;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RTypes;
+import com.oracle.truffle.r.runtime.data.closures.RDeferredArithmeticVector;
 import com.oracle.truffle.r.runtime.interop.ForeignArray2R;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
 import com.oracle.truffle.r.runtime.ops.BinaryArithmetic;
@@ -270,6 +271,13 @@ public abstract class UnaryArithmeticReduceNode extends RBaseNode {
         return result;
     }
 
+    @Specialization
+    protected double doDeferredDoubleVector(RDeferredArithmeticVector operand, boolean naRm, boolean finite,
+                    @Cached("createBinaryProfile()") ConditionProfile finiteProfile,
+                    @Cached("createBinaryProfile()") ConditionProfile isInfiniteProfile) {
+        return doDoubleVector(operand.materialize(), naRm, finite, finiteProfile, isInfiniteProfile);
+    }
+
     @Specialization
     protected Object doLogicalVector(RLogicalVector operand, boolean naRm, @SuppressWarnings("unused") boolean finite) {
         RBaseNode.reportWork(this, operand.getLength());
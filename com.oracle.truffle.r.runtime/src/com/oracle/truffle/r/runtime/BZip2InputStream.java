@@ -0,0 +1,481 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * A streaming bzip2 decompressor. Memory use is bounded by the block size of the stream (at most
+ * 900k entries); several concatenated bzip2 streams (as created by appending to a {@code bzfile})
+ * are decoded as one. Randomized blocks, which have not been produced by {@code bzip2} for a long
+ * time, are not supported.
+ */
+public final class BZip2InputStream extends InputStream {
+
+    static final int BLOCK_MAGIC_HI = 0x314159;
+    static final int BLOCK_MAGIC_LO = 0x265359;
+    static final int EOS_MAGIC_HI = 0x177245;
+    static final int EOS_MAGIC_LO = 0x385090;
+
+    static final int RUNA = 0;
+    static final int RUNB = 1;
+    static final int MAX_GROUPS = 6;
+    static final int GROUP_SIZE = 50;
+    static final int MAX_ALPHA_SIZE = 258;
+    static final int MAX_CODE_LEN = 20;
+    static final int MAX_SELECTORS = 2 + (900000 / GROUP_SIZE);
+
+    static final int[] CRC_TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int c = i << 24;
+            for (int j = 0; j < 8; j++) {
+                c = (c & 0x80000000) != 0 ? (c << 1) ^ 0x04c11db7 : c << 1;
+            }
+            CRC_TABLE[i] = c;
+        }
+    }
+
+    private final InputStream in;
+    private final byte[] inBuffer = new byte[8192];
+    private int inPos;
+    private int inLimit;
+    private long bitBuffer;
+    private int bitCount;
+
+    private int blockSize100k;
+    private int combinedCRC;
+    private boolean eof;
+
+    // the current block: tt holds the inverse BWT vector, the low 8 bits are the symbols
+    private int[] tt;
+    private int blockLength;
+    private int blockRead;
+    private int tPos;
+    private int blockCRC;
+    private int storedBlockCRC;
+    private boolean inBlock;
+
+    // state of the final run-length decoding
+    private int lastChar = -1;
+    private int sameCount;
+    private int repeatRemaining;
+
+    // per block decoding tables, kept to avoid reallocation
+    private final byte[] selectors = new byte[MAX_SELECTORS];
+    private final byte[][] lengths = new byte[MAX_GROUPS][MAX_ALPHA_SIZE];
+    private final int[][] limit = new int[MAX_GROUPS][MAX_CODE_LEN + 2];
+    private final int[][] base = new int[MAX_GROUPS][MAX_CODE_LEN + 2];
+    private final int[][] perm = new int[MAX_GROUPS][MAX_ALPHA_SIZE];
+    private final int[] minLens = new int[MAX_GROUPS];
+    private final int[] maxLens = new int[MAX_GROUPS];
+
+    public BZip2InputStream(InputStream in) throws IOException {
+        this.in = in;
+        if (!readStreamHeader()) {
+            throw new IOException("not a bzip2 stream");
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) == 1 ? b[0] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int n = 0;
+        while (n < len) {
+            if (!inBlock && !nextBlock()) {
+                break;
+            }
+            int ch = nextByte();
+            if (ch < 0) {
+                endBlock();
+                continue;
+            }
+            b[off + n++] = (byte) ch;
+        }
+        return n == 0 ? -1 : n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        tt = null;
+        in.close();
+    }
+
+    /**
+     * Produces the next byte of the current block, undoing the initial run-length encoding, or
+     * returns {@code -1} at the end of the block.
+     */
+    private int nextByte() {
+        while (true) {
+            if (repeatRemaining > 0) {
+                repeatRemaining--;
+                updateCRC(lastChar);
+                return lastChar;
+            }
+            if (blockRead == blockLength) {
+                return -1;
+            }
+            tPos = tt[tPos];
+            int ch = tPos & 0xFF;
+            tPos >>>= 8;
+            blockRead++;
+            if (sameCount == 4) {
+                // ch is the number of additional repetitions of the last character
+                repeatRemaining = ch;
+                sameCount = 0;
+                continue;
+            }
+            if (ch == lastChar) {
+                sameCount++;
+            } else {
+                sameCount = 1;
+                lastChar = ch;
+            }
+            updateCRC(ch);
+            return ch;
+        }
+    }
+
+    private void updateCRC(int ch) {
+        blockCRC = (blockCRC << 8) ^ CRC_TABLE[((blockCRC >>> 24) ^ ch) & 0xFF];
+    }
+
+    private void endBlock() throws IOException {
+        inBlock = false;
+        int crc = ~blockCRC;
+        if (crc != storedBlockCRC) {
+            throw new IOException("bzip2 block CRC error");
+        }
+        combinedCRC = ((combinedCRC << 1) | (combinedCRC >>> 31)) ^ crc;
+    }
+
+    private boolean readStreamHeader() throws IOException {
+        int b = readByteAligned();
+        if (b < 0) {
+            return false;
+        }
+        if (b != 'B' || readByteAligned() != 'Z' || readByteAligned() != 'h') {
+            return false;
+        }
+        int level = readByteAligned();
+        if (level < '1' || level > '9') {
+            throw new IOException("invalid bzip2 block size");
+        }
+        if (blockSize100k != level - '0') {
+            blockSize100k = level - '0';
+            tt = new int[blockSize100k * 100000];
+        }
+        combinedCRC = 0;
+        return true;
+    }
+
+    /**
+     * Reads the next block header and decodes the block, moving to the next concatenated stream if
+     * necessary. Returns {@code false} at the end of the input.
+     */
+    private boolean nextBlock() throws IOException {
+        if (eof) {
+            return false;
+        }
+        while (true) {
+            int magicHi = getBits(24);
+            int magicLo = getBits(24);
+            if (magicHi == BLOCK_MAGIC_HI && magicLo == BLOCK_MAGIC_LO) {
+                decodeBlock();
+                return true;
+            } else if (magicHi == EOS_MAGIC_HI && magicLo == EOS_MAGIC_LO) {
+                int storedCombinedCRC = getInt();
+                if (storedCombinedCRC != combinedCRC) {
+                    throw new IOException("bzip2 stream CRC error");
+                }
+                // streams are byte aligned, there might be another one
+                bitCount -= bitCount % 8;
+                if (!readStreamHeader()) {
+                    eof = true;
+                    return false;
+                }
+            } else {
+                throw new IOException("bzip2 data is corrupt");
+            }
+        }
+    }
+
+    private void decodeBlock() throws IOException {
+        storedBlockCRC = getInt();
+        if (getBits(1) != 0) {
+            throw new IOException("randomized bzip2 blocks are not supported");
+        }
+        int origPtr = getBits(24);
+
+        // the symbols used in the block
+        byte[] seqToUnseq = new byte[256];
+        int nInUse = 0;
+        int inUse16 = getBits(16);
+        for (int i = 0; i < 16; i++) {
+            if ((inUse16 & (0x8000 >>> i)) != 0) {
+                int inUse = getBits(16);
+                for (int j = 0; j < 16; j++) {
+                    if ((inUse & (0x8000 >>> j)) != 0) {
+                        seqToUnseq[nInUse++] = (byte) (i * 16 + j);
+                    }
+                }
+            }
+        }
+        if (nInUse == 0) {
+            throw new IOException("bzip2 data is corrupt");
+        }
+        int alphaSize = nInUse + 2;
+
+        // the Huffman table selectors, move-to-front encoded
+        int nGroups = getBits(3);
+        int nSelectors = getBits(15);
+        if (nGroups < 2 || nGroups > MAX_GROUPS || nSelectors < 1 || nSelectors > MAX_SELECTORS) {
+            throw new IOException("bzip2 data is corrupt");
+        }
+        byte[] pos = new byte[MAX_GROUPS];
+        for (int i = 0; i < nGroups; i++) {
+            pos[i] = (byte) i;
+        }
+        for (int i = 0; i < nSelectors; i++) {
+            int j = 0;
+            while (getBits(1) != 0) {
+                j++;
+                if (j >= nGroups) {
+                    throw new IOException("bzip2 data is corrupt");
+                }
+            }
+            byte v = pos[j];
+            System.arraycopy(pos, 0, pos, 1, j);
+            pos[0] = v;
+            selectors[i] = v;
+        }
+
+        // the delta-encoded code lengths
+        for (int t = 0; t < nGroups; t++) {
+            int curr = getBits(5);
+            for (int i = 0; i < alphaSize; i++) {
+                while (true) {
+                    if (curr < 1 || curr > MAX_CODE_LEN) {
+                        throw new IOException("bzip2 data is corrupt");
+                    }
+                    if (getBits(1) == 0) {
+                        break;
+                    }
+                    curr += getBits(1) == 0 ? 1 : -1;
+                }
+                lengths[t][i] = (byte) curr;
+            }
+            createDecodeTable(t, alphaSize);
+        }
+
+        // the MTF values, expanded into tt
+        int[] unzftab = new int[256];
+        byte[] mtf = new byte[256];
+        for (int i = 0; i < 256; i++) {
+            mtf[i] = (byte) i;
+        }
+        int eob = nInUse + 1;
+        int maxBlock = blockSize100k * 100000;
+        int n = 0;
+        int groupNo = -1;
+        int groupPos = 0;
+        int t = 0;
+        int runLength = 0;
+        int runWeight = 1;
+        while (true) {
+            if (groupPos == 0) {
+                groupNo++;
+                if (groupNo >= nSelectors) {
+                    throw new IOException("bzip2 data is corrupt");
+                }
+                groupPos = GROUP_SIZE;
+                t = selectors[groupNo];
+            }
+            groupPos--;
+            int sym = decodeSymbol(t);
+            if (sym == RUNA || sym == RUNB) {
+                runLength += (sym + 1) * runWeight;
+                runWeight <<= 1;
+                if (runLength > maxBlock) {
+                    throw new IOException("bzip2 data is corrupt");
+                }
+                continue;
+            }
+            if (runLength > 0) {
+                if (n + runLength > maxBlock) {
+                    throw new IOException("bzip2 data is corrupt");
+                }
+                int ch = seqToUnseq[mtf[0] & 0xFF] & 0xFF;
+                unzftab[ch] += runLength;
+                while (runLength > 0) {
+                    tt[n++] = ch;
+                    runLength--;
+                }
+                runWeight = 1;
+            }
+            if (sym == eob) {
+                break;
+            }
+            if (n >= maxBlock) {
+                throw new IOException("bzip2 data is corrupt");
+            }
+            int index = sym - 1;
+            byte v = mtf[index];
+            System.arraycopy(mtf, 0, mtf, 1, index);
+            mtf[0] = v;
+            int ch = seqToUnseq[v & 0xFF] & 0xFF;
+            unzftab[ch]++;
+            tt[n++] = ch;
+        }
+        if (origPtr < 0 || origPtr >= n) {
+            throw new IOException("bzip2 data is corrupt");
+        }
+
+        // inverse BWT: link every position to its successor in the original order
+        int[] cftab = new int[256];
+        int sum = 0;
+        for (int i = 0; i < 256; i++) {
+            cftab[i] = sum;
+            sum += unzftab[i];
+        }
+        for (int i = 0; i < n; i++) {
+            int ch = tt[i] & 0xFF;
+            tt[cftab[ch]++] |= i << 8;
+        }
+        tPos = tt[origPtr] >>> 8;
+        blockLength = n;
+        blockRead = 0;
+        blockCRC = 0xFFFFFFFF;
+        lastChar = -1;
+        sameCount = 0;
+        repeatRemaining = 0;
+        inBlock = true;
+    }
+
+    private void createDecodeTable(int t, int alphaSize) throws IOException {
+        byte[] len = lengths[t];
+        int minLen = MAX_CODE_LEN;
+        int maxLen = 0;
+        for (int i = 0; i < alphaSize; i++) {
+            minLen = Math.min(minLen, len[i]);
+            maxLen = Math.max(maxLen, len[i]);
+        }
+        int[] p = perm[t];
+        int pp = 0;
+        for (int l = minLen; l <= maxLen; l++) {
+            for (int i = 0; i < alphaSize; i++) {
+                if (len[i] == l) {
+                    p[pp++] = i;
+                }
+            }
+        }
+        int[] b = base[t];
+        int[] lim = limit[t];
+        Arrays.fill(b, 0);
+        Arrays.fill(lim, 0);
+        for (int i = 0; i < alphaSize; i++) {
+            b[len[i] + 1]++;
+        }
+        for (int i = 1; i < b.length; i++) {
+            b[i] += b[i - 1];
+        }
+        int vec = 0;
+        for (int l = minLen; l <= maxLen; l++) {
+            vec += b[l + 1] - b[l];
+            lim[l] = vec - 1;
+            vec <<= 1;
+        }
+        for (int l = minLen + 1; l <= maxLen; l++) {
+            b[l] = ((lim[l - 1] + 1) << 1) - b[l];
+        }
+        minLens[t] = minLen;
+        maxLens[t] = maxLen;
+    }
+
+    private int decodeSymbol(int t) throws IOException {
+        int len = minLens[t];
+        int maxLen = maxLens[t];
+        int[] lim = limit[t];
+        int code = getBits(len);
+        while (code > lim[len]) {
+            len++;
+            if (len > maxLen) {
+                throw new IOException("bzip2 data is corrupt");
+            }
+            code = (code << 1) | getBits(1);
+        }
+        int index = code - base[t][len];
+        if (index < 0 || index >= MAX_ALPHA_SIZE) {
+            throw new IOException("bzip2 data is corrupt");
+        }
+        return perm[t][index];
+    }
+
+    private int getInt() throws IOException {
+        return (getBits(16) << 16) | getBits(16);
+    }
+
+    private int getBits(int n) throws IOException {
+        while (bitCount < n) {
+            if (inPos == inLimit) {
+                inLimit = in.read(inBuffer, 0, inBuffer.length);
+                inPos = 0;
+                if (inLimit <= 0) {
+                    inLimit = 0;
+                    throw new IOException("unexpected end of bzip2 data");
+                }
+            }
+            bitBuffer = (bitBuffer << 8) | (inBuffer[inPos++] & 0xFF);
+            bitCount += 8;
+        }
+        bitCount -= n;
+        return (int) (bitBuffer >>> bitCount) & ((1 << n) - 1);
+    }
+
+    /**
+     * Reads a byte at a byte boundary, returns {@code -1} at the end of the input.
+     */
+    private int readByteAligned() throws IOException {
+        assert bitCount % 8 == 0;
+        if (bitCount == 0 && inPos == inLimit) {
+            inLimit = in.read(inBuffer, 0, inBuffer.length);
+            inPos = 0;
+            if (inLimit <= 0) {
+                inLimit = 0;
+                return -1;
+            }
+        }
+        return getBits(8);
+    }
+}
@@ -0,0 +1,579 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import static com.oracle.truffle.r.runtime.BZip2InputStream.BLOCK_MAGIC_HI;
+import static com.oracle.truffle.r.runtime.BZip2InputStream.BLOCK_MAGIC_LO;
+import static com.oracle.truffle.r.runtime.BZip2InputStream.CRC_TABLE;
+import static com.oracle.truffle.r.runtime.BZip2InputStream.EOS_MAGIC_HI;
+import static com.oracle.truffle.r.runtime.BZip2InputStream.EOS_MAGIC_LO;
+import static com.oracle.truffle.r.runtime.BZip2InputStream.GROUP_SIZE;
+import static com.oracle.truffle.r.runtime.BZip2InputStream.MAX_GROUPS;
+import static com.oracle.truffle.r.runtime.BZip2InputStream.RUNA;
+import static com.oracle.truffle.r.runtime.BZip2InputStream.RUNB;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A streaming bzip2 compressor producing the same format as {@code bzip2}. Data is collected in
+ * blocks of up to {@code blockSize100k * 100000} bytes, each of which is compressed and written
+ * when full. The Burrows-Wheeler transform sorts the rotations of a block by prefix doubling, so
+ * highly repetitive input does not degrade to quadratic time.
+ */
+public final class BZip2OutputStream extends OutputStream {
+
+    private static final int MAX_CODE_LEN = 17;
+    private static final int N_ITERS = 4;
+
+    private final OutputStream out;
+    private final int blockSize100k;
+    private final int maxBlockLength;
+    private final byte[] block;
+    private int blockLength;
+    private int blockCRC = 0xFFFFFFFF;
+    private int combinedCRC;
+    private boolean closed;
+
+    // the pending run of the initial run-length encoding
+    private int runChar = -1;
+    private int runLength;
+
+    private long bitBuffer;
+    private int bitCount;
+    private final byte[] outBuffer = new byte[8192];
+    private int outPos;
+
+    public BZip2OutputStream(OutputStream out) throws IOException {
+        this(out, 9);
+    }
+
+    public BZip2OutputStream(OutputStream out, int blockSize100k) throws IOException {
+        if (blockSize100k < 1 || blockSize100k > 9) {
+            throw new IllegalArgumentException("invalid block size");
+        }
+        this.out = out;
+        this.blockSize100k = blockSize100k;
+        // bzip2 leaves some room for a final run
+        this.maxBlockLength = blockSize100k * 100000 - 19;
+        this.block = new byte[blockSize100k * 100000];
+        writeBits(8, 'B');
+        writeBits(8, 'Z');
+        writeBits(8, 'h');
+        writeBits(8, '0' + blockSize100k);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("stream closed");
+        }
+        for (int i = off; i < off + len; i++) {
+            int ch = b[i] & 0xFF;
+            if (ch == runChar && runLength < 255) {
+                runLength++;
+            } else {
+                if (runLength > 0) {
+                    writeRun();
+                }
+                runChar = ch;
+                runLength = 1;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        if (runLength > 0) {
+            writeRun();
+        }
+        if (blockLength > 0) {
+            compressBlock();
+        }
+        writeBits(24, EOS_MAGIC_HI);
+        writeBits(24, EOS_MAGIC_LO);
+        writeInt(combinedCRC);
+        if (bitCount > 0) {
+            writeBits(8 - bitCount, 0);
+        }
+        flushOutBuffer();
+        closed = true;
+        out.close();
+    }
+
+    /**
+     * Appends the pending run to the block, as up to four characters followed by a repeat count.
+     */
+    private void writeRun() throws IOException {
+        if (blockLength + 5 > maxBlockLength) {
+            compressBlock();
+        }
+        for (int i = 0; i < runLength; i++) {
+            blockCRC = (blockCRC << 8) ^ CRC_TABLE[((blockCRC >>> 24) ^ runChar) & 0xFF];
+        }
+        byte ch = (byte) runChar;
+        int n = Math.min(runLength, 4);
+        for (int i = 0; i < n; i++) {
+            block[blockLength++] = ch;
+        }
+        if (runLength >= 4) {
+            block[blockLength++] = (byte) (runLength - 4);
+        }
+        runLength = 0;
+    }
+
+    private void compressBlock() throws IOException {
+        int n = blockLength;
+        int crc = ~blockCRC;
+        combinedCRC = ((combinedCRC << 1) | (combinedCRC >>> 31)) ^ crc;
+
+        int[] rotations = sortRotations(block, n);
+        int origPtr = -1;
+        byte[] bwt = new byte[n];
+        for (int i = 0; i < n; i++) {
+            int p = rotations[i];
+            if (p == 0) {
+                origPtr = i;
+                bwt[i] = block[n - 1];
+            } else {
+                bwt[i] = block[p - 1];
+            }
+        }
+        rotations = null;
+
+        // move-to-front and zero run-length encoding
+        boolean[] inUse = new boolean[256];
+        for (int i = 0; i < n; i++) {
+            inUse[bwt[i] & 0xFF] = true;
+        }
+        byte[] unseqToSeq = new byte[256];
+        int nInUse = 0;
+        for (int i = 0; i < 256; i++) {
+            if (inUse[i]) {
+                unseqToSeq[i] = (byte) nInUse++;
+            }
+        }
+        int alphaSize = nInUse + 2;
+        int eob = nInUse + 1;
+        char[] mtfValues = new char[n + 1];
+        int[] mtfFreq = new int[alphaSize];
+        int nMTF = 0;
+        byte[] mtf = new byte[nInUse];
+        for (int i = 0; i < nInUse; i++) {
+            mtf[i] = (byte) i;
+        }
+        int zeroRun = 0;
+        for (int i = 0; i < n; i++) {
+            byte seq = unseqToSeq[bwt[i] & 0xFF];
+            if (mtf[0] == seq) {
+                zeroRun++;
+                continue;
+            }
+            if (zeroRun > 0) {
+                nMTF = writeZeroRun(mtfValues, mtfFreq, nMTF, zeroRun);
+                zeroRun = 0;
+            }
+            int j = 1;
+            while (mtf[j] != seq) {
+                j++;
+            }
+            System.arraycopy(mtf, 0, mtf, 1, j);
+            mtf[0] = seq;
+            mtfValues[nMTF++] = (char) (j + 1);
+            mtfFreq[j + 1]++;
+        }
+        if (zeroRun > 0) {
+            nMTF = writeZeroRun(mtfValues, mtfFreq, nMTF, zeroRun);
+        }
+        mtfValues[nMTF++] = (char) eob;
+        mtfFreq[eob]++;
+
+        // choose the Huffman tables
+        int nGroups = nMTF < 200 ? 2 : nMTF < 600 ? 3 : nMTF < 1200 ? 4 : nMTF < 2400 ? 5 : 6;
+        byte[][] lengths = new byte[nGroups][alphaSize];
+        int remaining = nMTF;
+        int gs = 0;
+        for (int part = nGroups; part > 0; part--) {
+            int target = remaining / part;
+            int ge = gs - 1;
+            int acc = 0;
+            while (acc < target && ge < alphaSize - 1) {
+                ge++;
+                acc += mtfFreq[ge];
+            }
+            if (ge > gs && part != nGroups && part != 1 && ((nGroups - part) % 2 == 1)) {
+                acc -= mtfFreq[ge];
+                ge--;
+            }
+            for (int v = 0; v < alphaSize; v++) {
+                lengths[part - 1][v] = (byte) (v >= gs && v <= ge ? 0 : 15);
+            }
+            gs = ge + 1;
+            remaining -= acc;
+        }
+        int nSelectors = (nMTF + GROUP_SIZE - 1) / GROUP_SIZE;
+        byte[] selectors = new byte[nSelectors];
+        int[][] freqs = new int[nGroups][alphaSize];
+        for (int iter = 0; iter < N_ITERS; iter++) {
+            for (int t = 0; t < nGroups; t++) {
+                Arrays.fill(freqs[t], 0);
+            }
+            int sel = 0;
+            for (gs = 0; gs < nMTF; gs += GROUP_SIZE) {
+                int ge = Math.min(gs + GROUP_SIZE, nMTF);
+                int best = 0;
+                int bestCost = Integer.MAX_VALUE;
+                for (int t = 0; t < nGroups; t++) {
+                    byte[] len = lengths[t];
+                    int cost = 0;
+                    for (int i = gs; i < ge; i++) {
+                        cost += len[mtfValues[i]];
+                    }
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        best = t;
+                    }
+                }
+                selectors[sel++] = (byte) best;
+                int[] freq = freqs[best];
+                for (int i = gs; i < ge; i++) {
+                    freq[mtfValues[i]]++;
+                }
+            }
+            for (int t = 0; t < nGroups; t++) {
+                makeCodeLengths(lengths[t], freqs[t], alphaSize);
+            }
+        }
+        int[][] codes = new int[nGroups][alphaSize];
+        for (int t = 0; t < nGroups; t++) {
+            assignCodes(codes[t], lengths[t], alphaSize);
+        }
+
+        // block header
+        writeBits(24, BLOCK_MAGIC_HI);
+        writeBits(24, BLOCK_MAGIC_LO);
+        writeInt(crc);
+        writeBits(1, 0);
+        writeBits(24, origPtr);
+
+        // symbol map
+        int inUse16 = 0;
+        for (int i = 0; i < 16; i++) {
+            for (int j = 0; j < 16; j++) {
+                if (inUse[i * 16 + j]) {
+                    inUse16 |= 0x8000 >>> i;
+                }
+            }
+        }
+        writeBits(16, inUse16);
+        for (int i = 0; i < 16; i++) {
+            if ((inUse16 & (0x8000 >>> i)) != 0) {
+                int bits = 0;
+                for (int j = 0; j < 16; j++) {
+                    if (inUse[i * 16 + j]) {
+                        bits |= 0x8000 >>> j;
+                    }
+                }
+                writeBits(16, bits);
+            }
+        }
+
+        // selectors, move-to-front encoded
+        writeBits(3, nGroups);
+        writeBits(15, nSelectors);
+        byte[] pos = new byte[MAX_GROUPS];
+        for (int i = 0; i < nGroups; i++) {
+            pos[i] = (byte) i;
+        }
+        for (int i = 0; i < nSelectors; i++) {
+            byte v = selectors[i];
+            int j = 0;
+            while (pos[j] != v) {
+                j++;
+            }
+            System.arraycopy(pos, 0, pos, 1, j);
+            pos[0] = v;
+            for (int k = 0; k < j; k++) {
+                writeBits(1, 1);
+            }
+            writeBits(1, 0);
+        }
+
+        // code lengths, delta encoded
+        for (int t = 0; t < nGroups; t++) {
+            byte[] len = lengths[t];
+            int curr = len[0];
+            writeBits(5, curr);
+            for (int i = 0; i < alphaSize; i++) {
+                while (curr < len[i]) {
+                    writeBits(2, 2);
+                    curr++;
+                }
+                while (curr > len[i]) {
+                    writeBits(2, 3);
+                    curr--;
+                }
+                writeBits(1, 0);
+            }
+        }
+
+        // the data
+        int sel = 0;
+        for (gs = 0; gs < nMTF; gs += GROUP_SIZE) {
+            int ge = Math.min(gs + GROUP_SIZE, nMTF);
+            int t = selectors[sel++];
+            byte[] len = lengths[t];
+            int[] code = codes[t];
+            for (int i = gs; i < ge; i++) {
+                int v = mtfValues[i];
+                writeBits(len[v], code[v]);
+            }
+        }
+
+        blockLength = 0;
+        blockCRC = 0xFFFFFFFF;
+    }
+
+    private static int writeZeroRun(char[] mtfValues, int[] mtfFreq, int nMTF, int zeroRun) {
+        int pos = nMTF;
+        int z = zeroRun - 1;
+        while (true) {
+            int sym = (z & 1) == 0 ? RUNA : RUNB;
+            mtfValues[pos++] = (char) sym;
+            mtfFreq[sym]++;
+            if (z < 2) {
+                break;
+            }
+            z = (z - 2) / 2;
+        }
+        return pos;
+    }
+
+    /**
+     * Sorts the cyclic rotations of {@code data[0..n)} by prefix doubling with counting sorts.
+     */
+    static int[] sortRotations(byte[] data, int n) {
+        int[] p = new int[n];
+        int[] c = new int[n];
+        int[] cnt = new int[Math.max(256, n)];
+        for (int i = 0; i < n; i++) {
+            cnt[data[i] & 0xFF]++;
+        }
+        for (int i = 1; i < 256; i++) {
+            cnt[i] += cnt[i - 1];
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            p[--cnt[data[i] & 0xFF]] = i;
+        }
+        int classes = 1;
+        c[p[0]] = 0;
+        for (int i = 1; i < n; i++) {
+            if (data[p[i]] != data[p[i - 1]]) {
+                classes++;
+            }
+            c[p[i]] = classes - 1;
+        }
+        int[] pn = new int[n];
+        int[] cn = new int[n];
+        for (int h = 1; h < n && classes < n; h <<= 1) {
+            for (int i = 0; i < n; i++) {
+                int q = p[i] - h;
+                pn[i] = q < 0 ? q + n : q;
+            }
+            Arrays.fill(cnt, 0, classes, 0);
+            for (int i = 0; i < n; i++) {
+                cnt[c[pn[i]]]++;
+            }
+            for (int i = 1; i < classes; i++) {
+                cnt[i] += cnt[i - 1];
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                p[--cnt[c[pn[i]]]] = pn[i];
+            }
+            cn[p[0]] = 0;
+            classes = 1;
+            for (int i = 1; i < n; i++) {
+                int a = p[i];
+                int b = p[i - 1];
+                int a2 = a + h >= n ? a + h - n : a + h;
+                int b2 = b + h >= n ? b + h - n : b + h;
+                if (c[a] != c[b] || c[a2] != c[b2]) {
+                    classes++;
+                }
+                cn[a] = classes - 1;
+            }
+            int[] tmp = c;
+            c = cn;
+            cn = tmp;
+        }
+        return p;
+    }
+
+    /**
+     * Computes Huffman code lengths limited to {@link #MAX_CODE_LEN}, flattening the frequencies
+     * until the limit is met (as {@code bzip2} does).
+     */
+    private static void makeCodeLengths(byte[] len, int[] freq, int alphaSize) {
+        long[] weight = new long[alphaSize * 2];
+        int[] parent = new int[alphaSize * 2];
+        for (int i = 0; i < alphaSize; i++) {
+            weight[i] = (long) (freq[i] == 0 ? 1 : freq[i]) << 8;
+        }
+        while (true) {
+            // a heap of node indices ordered by weight (the low 8 bits hold the subtree depth)
+            int[] heap = new int[alphaSize + 1];
+            int heapSize = 0;
+            for (int i = 0; i < alphaSize; i++) {
+                parent[i] = -1;
+                heapSize = heapInsert(heap, heapSize, weight, i);
+            }
+            int nodes = alphaSize;
+            while (heapSize > 1) {
+                int n1 = heap[1];
+                heap[1] = heap[heapSize--];
+                heapDown(heap, heapSize, weight);
+                int n2 = heap[1];
+                heap[1] = heap[heapSize--];
+                heapDown(heap, heapSize, weight);
+                parent[n1] = nodes;
+                parent[n2] = nodes;
+                long depth = 1 + Math.max(weight[n1] & 0xFF, weight[n2] & 0xFF);
+                weight[nodes] = ((weight[n1] & ~0xFFL) + (weight[n2] & ~0xFFL)) | depth;
+                parent[nodes] = -1;
+                heapSize = heapInsert(heap, heapSize, weight, nodes);
+                nodes++;
+            }
+            boolean tooLong = false;
+            for (int i = 0; i < alphaSize; i++) {
+                int depth = 0;
+                int k = i;
+                while (parent[k] >= 0) {
+                    k = parent[k];
+                    depth++;
+                }
+                len[i] = (byte) depth;
+                if (depth > MAX_CODE_LEN) {
+                    tooLong = true;
+                }
+            }
+            if (!tooLong) {
+                return;
+            }
+            for (int i = 0; i < alphaSize; i++) {
+                long j = weight[i] >> 8;
+                j = 1 + (j / 2);
+                weight[i] = j << 8;
+            }
+        }
+    }
+
+    private static int heapInsert(int[] heap, int heapSize, long[] weight, int node) {
+        int pos = heapSize + 1;
+        heap[pos] = node;
+        while (pos > 1 && weight[node] < weight[heap[pos >> 1]]) {
+            heap[pos] = heap[pos >> 1];
+            pos >>= 1;
+        }
+        heap[pos] = node;
+        return heapSize + 1;
+    }
+
+    private static void heapDown(int[] heap, int heapSize, long[] weight) {
+        int pos = 1;
+        int node = heap[pos];
+        while (true) {
+            int child = pos << 1;
+            if (child > heapSize) {
+                break;
+            }
+            if (child < heapSize && weight[heap[child + 1]] < weight[heap[child]]) {
+                child++;
+            }
+            if (weight[node] < weight[heap[child]]) {
+                break;
+            }
+            heap[pos] = heap[child];
+            pos = child;
+        }
+        heap[pos] = node;
+    }
+
+    /**
+     * Assigns canonical codes: shorter codes first, equal lengths in symbol order.
+     */
+    private static void assignCodes(int[] code, byte[] len, int alphaSize) {
+        int minLen = 32;
+        int maxLen = 0;
+        for (int i = 0; i < alphaSize; i++) {
+            minLen = Math.min(minLen, len[i]);
+            maxLen = Math.max(maxLen, len[i]);
+        }
+        int vec = 0;
+        for (int l = minLen; l <= maxLen; l++) {
+            for (int i = 0; i < alphaSize; i++) {
+                if (len[i] == l) {
+                    code[i] = vec++;
+                }
+            }
+            vec <<= 1;
+        }
+    }
+
+    private void writeInt(int value) throws IOException {
+        writeBits(16, value >>> 16);
+        writeBits(16, value & 0xFFFF);
+    }
+
+    private void writeBits(int n, int value) throws IOException {
+        bitBuffer = (bitBuffer << n) | (value & ((1L << n) - 1));
+        bitCount += n;
+        while (bitCount >= 8) {
+            bitCount -= 8;
+            if (outPos == outBuffer.length) {
+                flushOutBuffer();
+            }
+            outBuffer[outPos++] = (byte) (bitBuffer >>> bitCount);
+        }
+    }
+
+    private void flushOutBuffer() throws IOException {
+        out.write(outBuffer, 0, outPos);
+        outPos = 0;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // the data of the current block can only be written once the block is complete
+        flushOutBuffer();
+        out.flush();
+    }
+}
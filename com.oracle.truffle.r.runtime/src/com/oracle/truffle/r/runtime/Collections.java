@@ -324,6 +324,13 @@ public final class Collections {
             Arrays.fill(keys, RRuntime.DOUBLE_NA);
         }
 
+        /**
+         * {@code 0} and {@code -0} are equal keys, so they must hash alike.
+         */
+        private static int hash(double key) {
+            return Double.hashCode(key == 0 ? 0 : key);
+        }
+
         public boolean put(double key, int value) {
             assert value >= 0;
             if (RRuntime.isNA(key)) {
@@ -335,7 +342,7 @@ public final class Collections {
                 nanValue = value + 1;
                 return ret;
             } else {
-                int ind = index(Double.hashCode(key));
+                int ind = index(hash(key));
                 while (true) {
                     if (values[ind] == 0) {
                         keys[ind] = key;
@@ -360,7 +367,7 @@ public final class Collections {
             } else if (Double.isNaN(key)) {
                 return nanValue - 1;
             } else {
-                int ind = index(Double.hashCode(key));
+                int ind = index(hash(key));
                 int firstInd = ind;
                 while (true) {
                     if (key == keys[ind]) {
@@ -48,7 +48,11 @@ public enum FastROptions {
     PerformanceWarnings("Print FastR performance warning", false),
     LoadProfiles("Load the system, site and user profile scripts.", !FastRConfig.ManagedMode),
     PrintComplexLookups("Print a message for each non-trivial variable lookup", false),
+    MatMultParallelism("Number of threads used by %*% and crossprod on large matrices (0 means one per processor, 1 disables multi-threading)", "0", true),
+    MapParallelism("Number of threads used by element-wise arithmetic on long double vectors (0 means one per processor, 1 disables multi-threading)", "0", true),
+    MapParallelThreshold("Minimum length of double vectors for which element-wise arithmetic is split across threads (0 disables multi-threading)", "1048576", true),
     FullPrecisionSum("Use 128 bit arithmetic in sum builtin", false),
+    DeferredArithmeticThreshold("Minimum length of double vectors for which +, -, * and / are deferred and fused with each other (0 disables deferred arithmetic)", "8192", true),
     InvisibleArgs("Argument writes do not trigger state transitions", true),
     RefCountIncrementOnly("Disable reference count decrements for experimental state transition implementation", false),
     UseInternalGridGraphics("Whether the internal (Java) grid graphics implementation should be used", true),
@@ -57,10 +61,14 @@ public enum FastROptions {
     SharedContexts("Whether all child contexts are to be shared contexts", true),
     SearchPathForcePromises("Whether all promises for frames on shared path are forced in presence of shared contexts", false),
     LoadPackagesNativeCode("Load native code of packages, including builtin packages.", !FastRConfig.ManagedMode),
+    NativeMirrors("Keep the native copies of integer and double vectors passed to native code alive across calls", true),
     EmitTmpSource("Write deparsed source code to temporary files for better debugging.", true),
     EmitTmpDir("The directory where to allocate temporary files with deparsed source code.", null, true),
     EmitTmpHashed("Use an SHA-256 hash as file name to reduce temporary file creation.", true),
     SpawnUsesPolyglot("use PolyglotEngine for .fastr.context.spwan", false),
+    ThreadSafeDLLs("ThreadSafeDLLs=dll1,dll2,...; native routines of the listed DLLs may run concurrently, those of any other DLL never do (all DLLs if no list is given)", null, true),
+    RprofFolded("Rprof also writes the sampled call tree as folded stacks to <filename>.folded", false),
+    ChannelQueueCapacity("Default number of messages that can be buffered in each direction of a .fastr.channel", "1", true),
 
     // Promises optimizations
     EagerEval("If enabled, overrides all other EagerEval switches (see EagerEvalHelper)", false),
@@ -72,6 +80,11 @@ public enum FastROptions {
 
     // Miscellaneous
 
+    LazyDBPayloadCacheSize("Maximum size in megabytes of the decompressed lazy-load DB entries cached for all contexts (0 disables the cache)", "16", true),
+    ParseCacheSize("Maximum size in megabytes of the parsed internal and file sources cached for all contexts (0 disables the cache)", "8", true),
+    ParseCacheDir("Directory in which parsed internal and file sources are persisted between runs (disabled if not set)", null, true),
+    VectorHashIndex("Attach hash indices to long shared vectors for reuse by match, %in%, unique and duplicated", true),
+    RegExpCacheSize("Maximum number of compiled regular expressions cached per context (0 disables the cache)", "128", true),
     StartupTiming("Records and prints various timestamps during initialization", false);
 
     private final String help;
@@ -252,6 +265,28 @@ public enum FastROptions {
         return null;
     }
 
+    /**
+     * Like {@link #matchesElement} but requires an element of the comma separated list to be equal
+     * to {@code element}, so that e.g. {@code stats} does not match {@code statsExtra}.
+     *
+     * @return {@code true} if the option is set with no {@code =value} component or if an element
+     *         of the list equals {@code element}.
+     */
+    public static boolean containsElement(String element, String option) {
+        if (option == null) {
+            return false;
+        } else if (option.length() == 0) {
+            return true;
+        } else {
+            for (String part : option.split(",")) {
+                if (part.equals(element)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Updates the value of the Debug option, adding only. TODO maybe support removal if there is a
      * use-case.
@@ -23,35 +23,156 @@
 package com.oracle.truffle.r.runtime;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.FileSystems;
-import java.nio.file.Files;
-import java.util.HashMap;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.r.runtime.context.RContext;
 
+/**
+ * Access to the lazy-load databases ({@code .rdb} files) of packages. The files are memory-mapped
+ * read-only once per VM and the mappings are shared by all contexts, so that contexts loading the
+ * same packages do not each hold a copy of the databases.
+ *
+ * In addition, the decompressed form of the entries fetched from the databases is kept in a
+ * bounded LRU cache, also shared by all contexts, whose size is controlled by
+ * {@link FastROptions#LazyDBPayloadCacheSize}; a size of zero disables it.
+ */
 public class LazyDBCache {
 
+    private static final ConcurrentHashMap<String, ByteBuffer> dbMappings = new ConcurrentHashMap<>();
+
+    private static PayloadCache payloadCache;
+
+    private static final class PayloadKey {
+        private final String dbPath;
+        private final int offset;
+
+        private PayloadKey(String dbPath, int offset) {
+            this.dbPath = dbPath;
+            this.offset = offset;
+        }
+
+        @Override
+        public int hashCode() {
+            return dbPath.hashCode() * 31 + offset;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof PayloadKey)) {
+                return false;
+            }
+            PayloadKey other = (PayloadKey) obj;
+            return offset == other.offset && dbPath.equals(other.dbPath);
+        }
+    }
+
+    /**
+     * LRU cache of decompressed entries, bounded by the total number of bytes.
+     */
+    private static final class PayloadCache {
+        private final long capacity;
+        private final LinkedHashMap<PayloadKey, byte[]> cache = new LinkedHashMap<>(16, 0.75f, true);
+        private long size;
+
+        private PayloadCache(long capacity) {
+            this.capacity = capacity;
+        }
+
+        private synchronized byte[] get(PayloadKey key) {
+            return cache.get(key);
+        }
+
+        private synchronized void put(PayloadKey key, byte[] data) {
+            if (data.length > capacity) {
+                return;
+            }
+            byte[] old = cache.put(key, data);
+            size += data.length - (old == null ? 0 : old.length);
+            Iterator<byte[]> iter = cache.values().iterator();
+            while (size > capacity) {
+                size -= iter.next().length;
+                iter.remove();
+            }
+        }
+
+        private synchronized void remove(String dbPath) {
+            Iterator<Map.Entry<PayloadKey, byte[]>> iter = cache.entrySet().iterator();
+            while (iter.hasNext()) {
+                Map.Entry<PayloadKey, byte[]> entry = iter.next();
+                if (entry.getKey().dbPath.equals(dbPath)) {
+                    size -= entry.getValue().length;
+                    iter.remove();
+                }
+            }
+        }
+    }
+
+    private static synchronized PayloadCache getPayloadCache() {
+        if (payloadCache == null) {
+            payloadCache = new PayloadCache(FastROptions.LazyDBPayloadCacheSize.getNonNegativeIntValue() * 1024L * 1024L);
+        }
+        return payloadCache;
+    }
+
+    private static ByteBuffer map(String dbPath) {
+        try (FileChannel channel = FileChannel.open(FileSystems.getDefault().getPath(dbPath), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException ex) {
+            // unexpected
+            throw RInternalError.shouldNotReachHere(ex);
+        }
+    }
+
     public static final class ContextStateImpl implements RContext.ContextState {
-        private final Map<String, byte[]> dbCache = new HashMap<>();
 
-        public byte[] getData(String dbPath) {
-            byte[] dbData = dbCache.get(dbPath);
+        /**
+         * Returns the contents of the database {@code dbPath}. The result is a private view of the
+         * shared mapping, so its position and limit may be changed freely.
+         */
+        @TruffleBoundary
+        public ByteBuffer getData(String dbPath) {
+            ByteBuffer dbData = dbMappings.get(dbPath);
             if (dbData == null) {
-                try {
-                    dbData = Files.readAllBytes(FileSystems.getDefault().getPath(dbPath));
-                } catch (IOException ex) {
-                    // unexpected
-                    throw RInternalError.shouldNotReachHere(ex);
-                }
-                dbCache.put(dbPath, dbData);
+                dbData = dbMappings.computeIfAbsent(dbPath, LazyDBCache::map);
+            }
+            return dbData.duplicate();
+        }
+
+        /**
+         * Returns the decompressed entry at {@code offset} of {@code dbPath} if it is cached,
+         * {@code null} otherwise. The result must not be modified.
+         */
+        @TruffleBoundary
+        public byte[] getPayload(String dbPath, int offset) {
+            PayloadCache cache = getPayloadCache();
+            return cache.capacity == 0 ? null : cache.get(new PayloadKey(dbPath, offset));
+        }
+
+        @TruffleBoundary
+        public void putPayload(String dbPath, int offset, byte[] data) {
+            PayloadCache cache = getPayloadCache();
+            if (cache.capacity > 0) {
+                cache.put(new PayloadKey(dbPath, offset), data);
             }
-            return dbData;
         }
 
+        /**
+         * Forgets the database {@code dbPath}, e.g., because it has been rewritten. This affects all
+         * contexts, which will map the file again on the next fetch.
+         */
+        @TruffleBoundary
         public void remove(String dbPath) {
             // no an error if missing
-            dbCache.remove(dbPath);
+            dbMappings.remove(dbPath);
+            getPayloadCache().remove(dbPath);
         }
 
         public static ContextStateImpl newContextState() {
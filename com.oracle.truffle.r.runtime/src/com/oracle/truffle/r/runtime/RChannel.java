@@ -23,8 +23,13 @@
 package com.oracle.truffle.r.runtime;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.RootCallTarget;
@@ -55,6 +60,14 @@ import com.oracle.truffle.r.runtime.nodes.RSyntaxElement;
 /**
  * Implementation of a channel abstraction used for communication between parallel contexts in
  * shared memory space.
+ * <p>
+ * Each direction of a channel is a bounded queue whose capacity is given when the channel is
+ * created (defaulting to {@link FastROptions#ChannelQueueCapacity}), so that a sender can run ahead
+ * of the receiver by that many messages.
+ * <p>
+ * The channel registry is copy-on-write: creating and closing channels is serialized, but the
+ * lookups performed by every send and receive only read the currently published {@link Registry}
+ * and never block.
  */
 public class RChannel {
 
@@ -62,54 +75,84 @@ public class RChannel {
 
     private static final int INITIAL_CHANNEL_NUM = 4;
     private static final int CHANNEL_NUM_GROW_FACTOR = 2;
-    private static final int QUEUE_CAPACITY = 1;
 
-    private static int[] keys = new int[INITIAL_CHANNEL_NUM];
-    private static RChannel[] channels = new RChannel[INITIAL_CHANNEL_NUM];
+    /**
+     * An immutable snapshot of the channel keys and channels, indexed by the (absolute value of
+     * the) channel id. Slot 0 is never used.
+     */
+    private static final class Registry {
+        private final int[] keys;
+        private final RChannel[] channels;
+
+        Registry(int[] keys, RChannel[] channels) {
+            this.keys = keys;
+            this.channels = channels;
+        }
+    }
+
+    private static volatile Registry registry = new Registry(new int[INITIAL_CHANNEL_NUM], new RChannel[INITIAL_CHANNEL_NUM]);
 
     private static final int CLOSED_CHANNEL_KEY = -1;
 
     /*
-     * Used to mediate access to the semaphore instances
+     * Used to serialize updates of the registry
      */
     private static final Semaphore create = new Semaphore(1, true);
 
-    private final ArrayBlockingQueue<Object> masterToClient = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
-    private final ArrayBlockingQueue<Object> clientToMaster = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final ArrayBlockingQueue<Object> masterToClient;
+    private final ArrayBlockingQueue<Object> clientToMaster;
+
+    /*
+     * Threads blocked in select waiting for a message in the respective queue
+     */
+    private final Set<Thread> masterToClientWaiters = ConcurrentHashMap.newKeySet();
+    private final Set<Thread> clientToMasterWaiters = ConcurrentHashMap.newKeySet();
+
+    private RChannel(int capacity) {
+        this.masterToClient = new ArrayBlockingQueue<>(capacity);
+        this.clientToMaster = new ArrayBlockingQueue<>(capacity);
+    }
+
+    public static int getDefaultCapacity() {
+        return Math.max(1, FastROptions.ChannelQueueCapacity.getNonNegativeIntValue());
+    }
 
     public static int createChannel(int key) {
+        return createChannel(key, getDefaultCapacity());
+    }
+
+    public static int createChannel(int key, int capacity) {
         if (key <= 0) {
             throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel's key must be positive");
         }
+        if (capacity <= 0) {
+            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel's capacity must be positive");
+        }
         try {
             create.acquire();
-            while (true) {
-                int freeSlot = -1;
-                // start from one as we need slots that have distinguishable positive and negative
-                // value
-                for (int i = 1; i < keys.length; i++) {
-                    if (keys[i] == key) {
-                        throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel with specified key already exists");
-                    }
-                    if (keys[i] == 0 && freeSlot == -1) {
-                        freeSlot = i;
-                    }
+            Registry current = registry;
+            int[] keys = current.keys;
+            int freeSlot = -1;
+            // start from one as we need slots that have distinguishable positive and negative
+            // value
+            for (int i = 1; i < keys.length; i++) {
+                if (keys[i] == key) {
+                    throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel with specified key already exists");
                 }
-                if (freeSlot != -1) {
-                    keys[freeSlot] = key;
-                    channels[freeSlot] = new RChannel();
-                    return freeSlot;
-                } else {
-                    int[] keysTmp = new int[keys.length * CHANNEL_NUM_GROW_FACTOR];
-                    RChannel[] channelsTmp = new RChannel[channels.length * CHANNEL_NUM_GROW_FACTOR];
-                    for (int i = 1; i < keys.length; i++) {
-                        keysTmp[i] = keys[i];
-                        channelsTmp[i] = channels[i];
-                    }
-                    keys = keysTmp;
-                    channels = channelsTmp;
+                if (keys[i] == 0 && freeSlot == -1) {
+                    freeSlot = i;
                 }
             }
+            int newLength = freeSlot == -1 ? keys.length * CHANNEL_NUM_GROW_FACTOR : keys.length;
+            if (freeSlot == -1) {
+                freeSlot = keys.length;
+            }
+            int[] keysTmp = Arrays.copyOf(keys, newLength);
+            RChannel[] channelsTmp = Arrays.copyOf(current.channels, newLength);
+            keysTmp[freeSlot] = key;
+            channelsTmp[freeSlot] = new RChannel(capacity);
+            registry = new Registry(keysTmp, channelsTmp);
+            return freeSlot;
         } catch (InterruptedException x) {
             throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error creating a channel");
         } finally {
@@ -118,63 +161,111 @@ public class RChannel {
     }
 
     public static int getChannel(int key) {
-        try {
-            create.acquire();
-            for (int i = 1; i < keys.length; i++) {
-                if (keys[i] == key) {
-                    return -i;
-                }
+        int[] keys = registry.keys;
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i] == key) {
+                return -i;
             }
-        } catch (InterruptedException x) {
-            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error accessing channel");
-        } finally {
-            create.release();
         }
         throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel does not exist");
     }
 
     public static void closeChannel(int id) {
         int actualId = Math.abs(id);
+        RChannel closed;
         try {
             create.acquire();
-            if (actualId == 0 || actualId >= channels.length || channels[actualId] == null) {
+            Registry current = registry;
+            if (actualId == 0 || actualId >= current.channels.length || current.channels[actualId] == null) {
                 // closing an already closed channel does not necessarily have to be an error (and
                 // makes parallell package's worker script work unchanged)
-                if (keys[actualId] != CLOSED_CHANNEL_KEY) {
+                if (actualId == 0 || actualId >= current.keys.length || current.keys[actualId] != CLOSED_CHANNEL_KEY) {
                     throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel with specified id does not exist");
                 }
             }
-            keys[actualId] = CLOSED_CHANNEL_KEY;
-            channels[actualId] = null;
+            closed = current.channels[actualId];
+            int[] keysTmp = current.keys.clone();
+            RChannel[] channelsTmp = current.channels.clone();
+            keysTmp[actualId] = CLOSED_CHANNEL_KEY;
+            channelsTmp[actualId] = null;
+            registry = new Registry(keysTmp, channelsTmp);
         } catch (InterruptedException x) {
             throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error closing channel");
         } finally {
             create.release();
         }
+        if (closed != null) {
+            // wake up threads selecting on the channel so that they notice it has been closed
+            signal(closed.masterToClientWaiters);
+            signal(closed.clientToMasterWaiters);
+        }
     }
 
     private static RChannel getChannelFromId(int id) {
         int actualId = Math.abs(id);
+        RChannel[] channels = registry.channels;
+        if (actualId == 0 || actualId >= channels.length || channels[actualId] == null) {
+            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel with specified id does not exist");
+        }
+        return channels[actualId];
+    }
+
+    private static void signal(Set<Thread> waiters) {
+        for (Thread waiter : waiters) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    private ArrayBlockingQueue<Object> sendQueue(int id) {
+        return id > 0 ? masterToClient : clientToMaster;
+    }
+
+    private ArrayBlockingQueue<Object> receiveQueue(int id) {
+        return id < 0 ? masterToClient : clientToMaster;
+    }
+
+    private Set<Thread> receiveWaiters(int id) {
+        return id < 0 ? masterToClientWaiters : clientToMasterWaiters;
+    }
+
+    private void signalReceivers(int id) {
+        // receivers of messages sent via id wait on the opposite end of the channel
+        signal(receiveWaiters(-id));
+    }
+
+    private static Object processOutgoingMessage(Object data) {
+        Output out = new Output();
+        return out.processOutgoingMessage(data);
+    }
+
+    private static Object processReceivedMessage(Object msg) {
+        Input in = new Input();
+        return in.processedReceivedMessage(msg);
+    }
+
+    public static void send(int id, Object data) {
+        Object msg = processOutgoingMessage(data);
+        RChannel channel = getChannelFromId(id);
         try {
-            create.acquire();
-            if (actualId == 0 || actualId >= channels.length || channels[actualId] == null) {
-                throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "channel with specified id does not exist");
-            }
-            RChannel channel = channels[actualId];
-            return channel;
+            channel.sendQueue(id).put(msg);
+            channel.signalReceivers(id);
         } catch (InterruptedException x) {
-            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error transmitting through channel");
-        } finally {
-            create.release();
+            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error sending through the channel");
         }
     }
 
-    public static void send(int id, Object data) {
-        Output out = new Output();
-        Object msg = out.processOutgoingMessage(data);
+    /**
+     * Sends each element of {@code data} as a separate message, blocking whenever the channel is
+     * full.
+     */
+    public static void sendBatch(int id, RList data) {
         RChannel channel = getChannelFromId(id);
+        ArrayBlockingQueue<Object> queue = channel.sendQueue(id);
         try {
-            (id > 0 ? channel.masterToClient : channel.clientToMaster).put(msg);
+            for (int i = 0; i < data.getLength(); i++) {
+                queue.put(processOutgoingMessage(data.getDataAt(i)));
+                channel.signalReceivers(id);
+            }
         } catch (InterruptedException x) {
             throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error sending through the channel");
         }
@@ -183,20 +274,92 @@ public class RChannel {
     public static Object receive(int id) {
         RChannel channel = getChannelFromId(id);
         try {
-            Object msg = (id < 0 ? channel.masterToClient : channel.clientToMaster).take();
-            Input in = new Input();
-            return in.processedReceivedMessage(msg);
+            Object msg = channel.receiveQueue(id).take();
+            return processReceivedMessage(msg);
+        } catch (InterruptedException x) {
+            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error receiving from the channel");
+        }
+    }
+
+    /**
+     * Waits for at least one message and then receives all messages that are already available, up
+     * to {@code max} messages in total.
+     */
+    public static RList receiveBatch(int id, int max) {
+        assert max > 0;
+        RChannel channel = getChannelFromId(id);
+        ArrayBlockingQueue<Object> queue = channel.receiveQueue(id);
+        ArrayList<Object> msgs = new ArrayList<>();
+        try {
+            msgs.add(queue.take());
         } catch (InterruptedException x) {
             throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error receiving from the channel");
         }
+        queue.drainTo(msgs, max - 1);
+        Object[] data = new Object[msgs.size()];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = processReceivedMessage(msgs.get(i));
+        }
+        return RDataFactory.createList(data);
     }
 
     public static Object poll(int id) {
         RChannel channel = getChannelFromId(id);
-        Object msg = (id < 0 ? channel.masterToClient : channel.clientToMaster).poll();
+        Object msg = channel.receiveQueue(id).poll();
         if (msg != null) {
-            Input in = new Input();
-            return in.processedReceivedMessage(msg);
+            return processReceivedMessage(msg);
+        }
+        return null;
+    }
+
+    /**
+     * Waits until a message is available on any of the channels in {@code ids} and receives it.
+     * The calling thread is parked (rather than spinning) while all the channels are empty.
+     *
+     * @return a two-element array of the id of the channel the message was received from and the
+     *         message itself
+     */
+    public static Object[] select(int[] ids) {
+        if (ids.length == 0) {
+            throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "no channels to select from");
+        }
+        Thread current = Thread.currentThread();
+        while (true) {
+            Object[] res = pollAny(ids);
+            if (res != null) {
+                return res;
+            }
+            RChannel[] selected = new RChannel[ids.length];
+            try {
+                for (int i = 0; i < ids.length; i++) {
+                    selected[i] = getChannelFromId(ids[i]);
+                    selected[i].receiveWaiters(ids[i]).add(current);
+                }
+                // poll again to catch messages sent before the registration took effect
+                res = pollAny(ids);
+                if (res != null) {
+                    return res;
+                }
+                LockSupport.park(selected);
+                if (Thread.interrupted()) {
+                    throw RError.error(RError.SHOW_CALLER2, RError.Message.GENERIC, "error receiving from the channel");
+                }
+            } finally {
+                for (int i = 0; i < ids.length; i++) {
+                    if (selected[i] != null) {
+                        selected[i].receiveWaiters(ids[i]).remove(current);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Object[] pollAny(int[] ids) {
+        for (int id : ids) {
+            Object msg = poll(id);
+            if (msg != null) {
+                return new Object[]{id, msg};
+            }
         }
         return null;
     }
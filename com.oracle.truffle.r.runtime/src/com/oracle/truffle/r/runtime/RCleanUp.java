@@ -16,6 +16,9 @@ import java.util.ArrayList;
 import com.oracle.truffle.r.launcher.RStartParams;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.context.RContext.ConsoleIO;
+import com.oracle.truffle.r.runtime.context.RContext.ContextKind;
+import com.oracle.truffle.r.runtime.data.RFunction;
+import com.oracle.truffle.r.runtime.env.REnvironment;
 import com.oracle.truffle.r.runtime.ffi.RFFIFactory;
 import com.oracle.truffle.r.runtime.gnur.SA_TYPE;
 import com.oracle.truffle.r.runtime.instrument.InstrumentationState;
@@ -102,6 +105,11 @@ public class RCleanUp {
         }
         // TODO run exit finalizers (FFI) (this should happen in the FFI context beforeDestroy)
 
+        try {
+            stopMclapplyPool();
+        } catch (Throwable t) {
+            RInternalError.reportError(t);
+        }
         // force sub-context threads to stop
         for (Thread thread : new ArrayList<>(RContext.getInstance().threads.values())) {
             thread.interrupt();
@@ -114,6 +122,26 @@ public class RCleanUp {
         throw new ExitException(status, false);
     }
 
+    /**
+     * Stops the worker contexts that {@code mclapply} keeps alive between calls when
+     * {@code options(fastr.mc.pool = TRUE)} is set. Contexts sharing the parent's namespaces never
+     * own such a pool, so the call does nothing in a {@link ContextKind#SHARE_ALL} or {@link ContextKind#SHARE_PARENT_RO}
+     * context, if the {@code parallel} namespace is not loaded or if no pool is running.
+     */
+    public static void stopMclapplyPool() {
+        RContext context = RContext.getInstance();
+        if (context.getKind() == ContextKind.SHARE_ALL || context.getKind() == ContextKind.SHARE_PARENT_RO) {
+            return;
+        }
+        REnvironment parallel = REnvironment.getRegisteredNamespace(context, "parallel");
+        if (parallel != null) {
+            Object stop = parallel.get("mc.pool.stop");
+            if (stop instanceof RFunction) {
+                RContext.getEngine().evalFunction((RFunction) stop, null, null, true, null);
+            }
+        }
+    }
+
     private static void runDotLast() {
         RContext.getEngine().checkAndRunStartupShutdownFunction(".Last");
         // TODO errors should return to toplevel if interactive
@@ -23,25 +23,23 @@
 package com.oracle.truffle.r.runtime;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
-import java.lang.ProcessBuilder.Redirect;
-import java.nio.file.Files;
-import java.nio.file.OpenOption;
-import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
-import java.util.Arrays;
 import java.util.zip.GZIPInputStream;
 
+import org.tukaani.xz.FinishableOutputStream;
+import org.tukaani.xz.FinishableWrapperOutputStream;
 import org.tukaani.xz.LZMA2InputStream;
+import org.tukaani.xz.LZMA2Options;
 
 import com.oracle.truffle.r.runtime.ffi.ZipRFFI;
 
 /**
- * Abstracts the implementation of the various forms of compression used in R. Since the C API for
- * LZMA is very complex (as used by GnuR), we use an 'xz' subprocess to do the work.
+ * Abstracts the implementation of the various forms of compression used in R. GZIP uses the native
+ * zlib, LZMA2 is provided by the XZ library and bzip2 by {@link BZip2InputStream} and
+ * {@link BZip2OutputStream}, so no subprocesses are needed.
  */
 public class RCompression {
     public enum Type {
@@ -112,7 +110,7 @@ public class RCompression {
             case GZIP:
                 return gzipUncompress(udata, cdata);
             case BZIP2:
-                throw RInternalError.unimplemented("BZIP2 compression");
+                return bzipUncompress(udata, cdata);
             case XZ:
                 return lzmaUncompress(udata, cdata);
             default:
@@ -138,15 +136,45 @@ public class RCompression {
             case GZIP:
                 return gzipCompress(udata, cdata);
             case BZIP2:
-                throw RInternalError.unimplemented("BZIP2 compression");
             case XZ:
-                return lzmaCompress(udata, cdata);
+                try {
+                    byte[] result = compress(type, udata);
+                    if (result.length > cdata.length) {
+                        return false;
+                    }
+                    System.arraycopy(result, 0, cdata, 0, result.length);
+                    return true;
+                } catch (IOException ex) {
+                    return false;
+                }
             default:
                 assert false;
                 return false;
         }
     }
 
+    /**
+     * Compress for internal use in {@code LazyLoadDBInsertValue}, the result contains exactly the
+     * compressed data. {@link Type#GZIP} is not supported as it is implemented by native code
+     * writing into a preallocated buffer.
+     *
+     * @param type compression type
+     * @param udata uncompressed data
+     * @return the compressed data
+     */
+    public static byte[] compress(Type type, byte[] udata) throws IOException {
+        switch (type) {
+            case NONE:
+                return udata.clone();
+            case BZIP2:
+                return bzipCompress(udata);
+            case XZ:
+                return lzmaCompress(udata);
+            default:
+                throw RInternalError.unimplemented(type + " compression");
+        }
+    }
+
     private static boolean gzipCompress(byte[] udata, byte[] cdata) {
         int rc = (int) ZipRFFI.CompressRootNode.create().getCallTarget().call(cdata, udata);
         return rc == 0;
@@ -158,95 +186,50 @@ public class RCompression {
     }
 
     /**
-     * There is no obvious counterpart to {@link LZMA2InputStream} and according to the XZ forum it
-     * is not implemented for Java, so have to use sub-process.
+     * Raw LZMA2, as used by GnuR for lazy-load DBs. The dictionary never needs to be larger than
+     * the data, which keeps the encoder small for the typical (small) serialized values.
      */
-    private static boolean lzmaCompress(byte[] udata, byte[] cdata) {
-        int rc;
-        ProcessBuilder pb = new ProcessBuilder("xz", "--compress", "--format=raw", "--lzma2", "--stdout");
-        pb.redirectError(Redirect.INHERIT);
-        try {
-            Process p = pb.start();
-            OutputStream os = p.getOutputStream();
-            InputStream is = p.getInputStream();
-            ProcessOutputManager.OutputThread readThread = new ProcessOutputManager.OutputThreadFixed("xz", is, cdata);
-            readThread.start();
+    private static byte[] lzmaCompress(byte[] udata) throws IOException {
+        LZMA2Options options = new LZMA2Options();
+        options.setDictSize(Math.max(LZMA2Options.DICT_SIZE_MIN, Math.min(udata.length, LZMA2Options.DICT_SIZE_DEFAULT)));
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(udata.length / 2 + 64);
+        try (FinishableOutputStream os = options.getOutputStream(new FinishableWrapperOutputStream(bos))) {
             os.write(udata);
-            os.close();
-            rc = p.waitFor();
-            if (rc == 0) {
-                readThread.join();
-                return true;
-            }
-        } catch (InterruptedException | IOException ex) {
-            return false;
         }
-        return rc == 0;
-
+        return bos.toByteArray();
     }
 
     private static boolean lzmaUncompress(byte[] udata, byte[] data) {
         int dictSize = udata.length < LZMA2InputStream.DICT_SIZE_MIN ? LZMA2InputStream.DICT_SIZE_MIN : udata.length;
         try (LZMA2InputStream lzmaStream = new LZMA2InputStream(new ByteArrayInputStream(data), dictSize)) {
-            int totalRead = 0;
-            int n;
-            while ((n = lzmaStream.read(udata, totalRead, udata.length - totalRead)) > 0) {
-                totalRead += n;
-            }
-            return totalRead == udata.length;
+            return readFully(lzmaStream, udata);
         } catch (IOException ex) {
             return false;
         }
     }
 
-    public static byte[] bzipUncompressFromFile(String path) throws IOException {
-        String[] command = new String[]{"bzip2", "-dc", path};
-        ProcessBuilder pb = new ProcessBuilder(command);
-        pb.redirectError(Redirect.INHERIT);
-        Process p = pb.start();
-        InputStream is = p.getInputStream();
-        ProcessOutputManager.OutputThreadVariable readThread = new ProcessOutputManager.OutputThreadVariable(command[0], is);
-        readThread.start();
-        try {
-            int rc = p.waitFor();
-            if (rc == 0) {
-                readThread.join();
-                return Arrays.copyOf(readThread.getData(), readThread.getTotalRead());
-            } else {
-                throw new IOException("bzip2 error code: " + rc);
-            }
-        } catch (InterruptedException ex) {
-            // fall through
+    private static byte[] bzipCompress(byte[] udata) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(udata.length / 2 + 64);
+        try (BZip2OutputStream os = new BZip2OutputStream(bos)) {
+            os.write(udata);
         }
-        throw new IOException();
+        return bos.toByteArray();
     }
 
-    public static void bzipCompressToFile(byte[] data, String path, boolean append) throws IOException {
-        String[] command = new String[]{"bzip2", "-zc"};
-        int rc;
-        ProcessBuilder pb = new ProcessBuilder(command);
-        pb.redirectError(Redirect.INHERIT);
-        Process p = pb.start();
-        InputStream is = p.getInputStream();
-        OutputStream os = p.getOutputStream();
-        ProcessOutputManager.OutputThreadVariable readThread = new ProcessOutputManager.OutputThreadVariable(command[0], is);
-        readThread.start();
-        os.write(data);
-        os.close();
-        try {
-            rc = p.waitFor();
-            if (rc == 0) {
-                readThread.join();
-                byte[] cData = Arrays.copyOf(readThread.getData(), readThread.getTotalRead());
-                OpenOption[] openOptions = append ? new OpenOption[]{StandardOpenOption.APPEND} : new OpenOption[0];
-                Files.write(Paths.get(path), cData, openOptions);
-                return;
-            } else {
-                throw new IOException("bzip2 error code: " + rc);
-            }
-        } catch (InterruptedException ex) {
-            // fall through
+    private static boolean bzipUncompress(byte[] udata, byte[] data) {
+        try (BZip2InputStream bzipStream = new BZip2InputStream(new ByteArrayInputStream(data))) {
+            return readFully(bzipStream, udata);
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    private static boolean readFully(InputStream is, byte[] udata) throws IOException {
+        int totalRead = 0;
+        int n;
+        while (totalRead < udata.length && (n = is.read(udata, totalRead, udata.length - totalRead)) > 0) {
+            totalRead += n;
         }
-        throw new IOException();
+        return totalRead == udata.length;
     }
 }
@@ -22,13 +22,150 @@
  */
 package com.oracle.truffle.r.runtime;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.ffi.PCRERFFI;
 
 /**
  * Support methods for regular expressions.
  */
 public class RegExp {
 
+    /**
+     * The regular expression engine a cached pattern was compiled for.
+     */
+    public enum Engine {
+        JAVA,
+        PCRE
+    }
+
+    private static final class CacheKey {
+        private final String pattern;
+        private final int flags;
+        private final Engine engine;
+
+        CacheKey(String pattern, int flags, Engine engine) {
+            this.pattern = pattern;
+            this.flags = flags;
+            this.engine = engine;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(pattern, flags, engine);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+            return flags == other.flags && engine == other.engine && pattern.equals(other.pattern);
+        }
+    }
+
+    /**
+     * A bounded LRU cache of compiled patterns, shared by the Java regex and the PCRE code paths.
+     * The key is the pattern as given by the user (i.e. before {@link #checkPreDefinedClasses} is
+     * applied), the compilation flags and the engine. The size is controlled by
+     * {@link FastROptions#RegExpCacheSize}, a size of zero disables the cache.
+     * <p>
+     * N.B. compiled PCRE patterns are never freed (as was the case before the cache existed), so
+     * evicting them from the cache only makes them eligible for re-compilation.
+     */
+    public static final class ContextStateImpl implements RContext.ContextState {
+        private final int capacity;
+        private final LinkedHashMap<CacheKey, Object> cache;
+        private long hits;
+        private long misses;
+
+        @SuppressWarnings("serial")
+        private ContextStateImpl(int capacity) {
+            this.capacity = capacity;
+            this.cache = new LinkedHashMap<CacheKey, Object>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<CacheKey, Object> eldest) {
+                    return size() > ContextStateImpl.this.capacity;
+                }
+            };
+        }
+
+        /**
+         * Returns the compiled Java {@link Pattern} for the R regular expression {@code pattern},
+         * the translation of predefined character classes is part of the cached work.
+         */
+        @TruffleBoundary
+        public synchronized Pattern getJavaPattern(String pattern, int flags) {
+            CacheKey key = new CacheKey(pattern, flags, Engine.JAVA);
+            Pattern result = (Pattern) lookup(key);
+            if (result == null) {
+                // may throw PatternSyntaxException, in which case nothing is cached
+                result = Pattern.compile(checkPreDefinedClasses(pattern), flags);
+                cache.put(key, result);
+            }
+            return result;
+        }
+
+        /**
+         * Returns the compiled PCRE pattern for {@code pattern}, using {@code compiler} to compile
+         * it if it is not cached. The {@code compiler} is expected to report invalid patterns with
+         * an error rather than returning a failed {@link PCRERFFI.Result}.
+         */
+        @TruffleBoundary
+        public synchronized PCRERFFI.Result getPerlPattern(String pattern, int flags, Supplier<PCRERFFI.Result> compiler) {
+            CacheKey key = new CacheKey(pattern, flags, Engine.PCRE);
+            PCRERFFI.Result result = (PCRERFFI.Result) lookup(key);
+            if (result == null) {
+                result = compiler.get();
+                cache.put(key, result);
+            }
+            return result;
+        }
+
+        private Object lookup(CacheKey key) {
+            Object result = cache.get(key);
+            if (result == null) {
+                misses++;
+            } else {
+                hits++;
+            }
+            return result;
+        }
+
+        public synchronized long getHits() {
+            return hits;
+        }
+
+        public synchronized long getMisses() {
+            return misses;
+        }
+
+        public synchronized int getSize() {
+            return cache.size();
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public synchronized void clear() {
+            cache.clear();
+            hits = 0;
+            misses = 0;
+        }
+
+        public static ContextStateImpl newContextState() {
+            return new ContextStateImpl(FastROptions.RegExpCacheSize.getNonNegativeIntValue());
+        }
+    }
+
     private enum Predefined {
         alnum("\\p{Alnum}"),
         alpha("\\p{Alpha}"),
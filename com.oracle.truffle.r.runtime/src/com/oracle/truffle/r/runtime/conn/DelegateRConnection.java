@@ -36,7 +36,9 @@ import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Objects;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -134,9 +136,12 @@ abstract class DelegateRConnection implements RConnection, ByteChannel {
     @TruffleBoundary
     public String[] readLines(int n, boolean warn, boolean skipNul) throws IOException {
         base.setIncomplete(false);
+        if (readCache && cache != null) {
+            return readLinesCached(n, warn, skipNul);
+        }
         ArrayList<String> lines = new ArrayList<>();
         int totalRead = 0;
-        int nBytesConsumed = 0;
+        long nBytesConsumed = 0;
         byte[] buffer = new byte[64];
         int pushBack = 0;
         boolean nullRead = false;
@@ -151,21 +156,8 @@ abstract class DelegateRConnection implements RConnection, ByteChannel {
             boolean lineEnd = false;
             if (ch < 0) {
                 if (totalRead > 0) {
-                    /*
-                     * GnuR says if non-blocking and in text mode, silently push back incomplete
-                     * lines, otherwise keep data and output warning.
-                     */
-                    final String incompleteFinalLine = new String(buffer, 0, totalRead, base.getEncoding());
                     nBytesConsumed += totalRead;
-                    if (!base.isBlocking() && base.isTextMode()) {
-                        base.pushBack(RDataFactory.createStringVector(incompleteFinalLine), false);
-                        base.setIncomplete(true);
-                    } else {
-                        lines.add(incompleteFinalLine);
-                        if (warn) {
-                            RError.warning(RError.SHOW_CALLER, RError.Message.INCOMPLETE_FINAL_LINE, base.getSummaryDescription());
-                        }
-                    }
+                    addIncompleteFinalLine(lines, new String(buffer, 0, totalRead, base.getEncoding()), warn);
                 }
                 break;
             }
@@ -209,6 +201,142 @@ abstract class DelegateRConnection implements RConnection, ByteChannel {
         return result;
     }
 
+    /**
+     * {@code readLines} on top of the read cache: instead of fetching single bytes, the cached data
+     * is scanned for line terminators and complete lines are decoded directly from the cache. Only
+     * lines that span several cache fills are assembled in a separate buffer. Unlike the byte-wise
+     * variant, the byte following a {@code '\r'} is only looked at, so it is not lost if it starts
+     * a new line, and the consumed line terminators are accounted for in the read offset.
+     */
+    private String[] readLinesCached(int n, boolean warn, boolean skipNul) throws IOException {
+        ArrayList<String> lines = new ArrayList<>();
+        Charset encoding = base.getEncoding();
+        boolean asciiCompatible = StandardCharsets.UTF_8.equals(encoding) || StandardCharsets.US_ASCII.equals(encoding) || StandardCharsets.ISO_8859_1.equals(encoding);
+        // the beginning of a line that did not fit into the cache
+        byte[] buffer = new byte[64];
+        int totalRead = 0;
+        long nBytesConsumed = 0;
+        boolean nullRead = false;
+        while (n <= 0 || lines.size() < n) {
+            if (!cache.hasRemaining()) {
+                ensureDataAvailable(1);
+                if (!cache.hasRemaining()) {
+                    if (totalRead > 0) {
+                        addIncompleteFinalLine(lines, decodeLine(buffer, 0, totalRead, encoding, asciiCompatible), warn);
+                    }
+                    break;
+                }
+            }
+            byte[] data = cache.array();
+            int start = cache.arrayOffset() + cache.position();
+            int end = cache.arrayOffset() + cache.limit();
+            int pos = start;
+            while (pos < end) {
+                byte b = data[pos];
+                if (b == '\n' || b == '\r' || b == 0) {
+                    break;
+                }
+                pos++;
+            }
+            int segmentLength = pos - start;
+            if (pos == end) {
+                // no terminator in the cached data, keep the segment and refill the cache
+                if (!nullRead) {
+                    buffer = appendToBuffer(buffer, totalRead, data, start, segmentLength);
+                    totalRead += segmentLength;
+                }
+                cache.position(cache.limit());
+                nBytesConsumed += segmentLength;
+                continue;
+            }
+            byte terminator = data[pos];
+            cache.position(cache.position() + segmentLength + 1);
+            nBytesConsumed += segmentLength + 1;
+            if (terminator == 0) {
+                if (!nullRead) {
+                    buffer = appendToBuffer(buffer, totalRead, data, start, segmentLength);
+                    totalRead += segmentLength;
+                }
+                if (warn && !skipNul) {
+                    RError.warning(RError.SHOW_CALLER, RError.Message.LINE_CONTAINS_EMBEDDED_NULLS, lines.size() + 1);
+                }
+                // without skipNul, the rest of the line is dropped
+                nullRead = !skipNul;
+                continue;
+            }
+            String line;
+            if (totalRead == 0) {
+                line = decodeLine(data, start, nullRead ? 0 : segmentLength, encoding, asciiCompatible);
+            } else {
+                if (!nullRead) {
+                    buffer = appendToBuffer(buffer, totalRead, data, start, segmentLength);
+                    totalRead += segmentLength;
+                }
+                line = decodeLine(buffer, 0, totalRead, encoding, asciiCompatible);
+            }
+            // decode before touching the cache again, refilling it overwrites the data
+            if (terminator == '\r') {
+                ensureDataAvailable(1);
+                if (cache.hasRemaining() && cache.get(cache.position()) == '\n') {
+                    // swallow the trailing lf
+                    cache.get();
+                    nBytesConsumed++;
+                }
+            }
+            lines.add(line);
+            totalRead = 0;
+            nullRead = false;
+        }
+        String[] result = new String[lines.size()];
+        lines.toArray(result);
+        updateReadOffset(nBytesConsumed);
+        return result;
+    }
+
+    private void addIncompleteFinalLine(ArrayList<String> lines, String incompleteFinalLine, boolean warn) {
+        /*
+         * GnuR says if non-blocking and in text mode, silently push back incomplete lines,
+         * otherwise keep data and output warning.
+         */
+        if (!base.isBlocking() && base.isTextMode()) {
+            base.pushBack(RDataFactory.createStringVector(incompleteFinalLine), false);
+            base.setIncomplete(true);
+        } else {
+            lines.add(incompleteFinalLine);
+            if (warn) {
+                RError.warning(RError.SHOW_CALLER, RError.Message.INCOMPLETE_FINAL_LINE, base.getSummaryDescription());
+            }
+        }
+    }
+
+    private static byte[] appendToBuffer(byte[] buffer, int totalRead, byte[] data, int start, int length) {
+        byte[] result = buffer;
+        if (totalRead + length > buffer.length) {
+            result = Arrays.copyOf(buffer, Math.max(totalRead + length, buffer.length + buffer.length / 2));
+        }
+        System.arraycopy(data, start, result, totalRead, length);
+        return result;
+    }
+
+    /**
+     * Decodes a line, taking a shortcut for pure ASCII data in ASCII compatible encodings.
+     */
+    private static String decodeLine(byte[] data, int start, int length, Charset encoding, boolean asciiCompatible) {
+        if (asciiCompatible) {
+            boolean ascii = true;
+            for (int i = start; i < start + length; i++) {
+                if (data[i] < 0) {
+                    ascii = false;
+                    break;
+                }
+            }
+            if (ascii) {
+                return new String(data, start, length, StandardCharsets.ISO_8859_1);
+            }
+        }
+        return new String(data, start, length, encoding);
+    }
+
     /**
      * Updates the read cursor.<br>
      * <p>
@@ -218,7 +346,7 @@ abstract class DelegateRConnection implements RConnection, ByteChannel {
      *
      * @param nBytesConsumed Number of bytes consumed by a read operation.
      */
-    protected void updateReadOffset(int nBytesConsumed) {
+    protected void updateReadOffset(long nBytesConsumed) {
         // default: nothing to do
     }
 
@@ -22,8 +22,6 @@
  */
 package com.oracle.truffle.r.runtime.conn;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -47,6 +45,8 @@ import org.tukaani.xz.XZInputStream;
 import org.tukaani.xz.XZOutputStream;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.BZip2InputStream;
+import com.oracle.truffle.r.runtime.BZip2OutputStream;
 import com.oracle.truffle.r.runtime.RCompression;
 import com.oracle.truffle.r.runtime.RCompression.Type;
 import com.oracle.truffle.r.runtime.RError;
@@ -205,14 +205,13 @@ public class FileConnections {
         switch (base.getOpenMode().abstractOpenMode) {
             case Read:
             case ReadBinary:
-                byte[] bzipUdata = RCompression.bzipUncompressFromFile(base.path);
-                return new ByteStreamCompressedInputRConnection(base, new ByteArrayInputStream(bzipUdata));
+                return new CompressedInputRConnection(base, new BZip2InputStream(new FileInputStream(base.path)));
             case Append:
             case AppendBinary:
-                return new BZip2OutputRConnection(base, new ByteArrayOutputStream(), true);
+                return new CompressedOutputRConnection(base, new BZip2OutputStream(new FileOutputStream(base.path, true)), false);
             case Write:
             case WriteBinary:
-                return new BZip2OutputRConnection(base, new ByteArrayOutputStream(), false);
+                return new CompressedOutputRConnection(base, new BZip2OutputStream(new FileOutputStream(base.path, false)), false);
             default:
                 throw RError.nyi(RError.SHOW_CALLER2, "open mode: " + base.getOpenMode());
         }
@@ -388,7 +387,7 @@ public class FileConnections {
         }
 
         @Override
-        protected void updateReadOffset(int nBytesConsumed) {
+        protected void updateReadOffset(long nBytesConsumed) {
             readOffset += nBytesConsumed;
         }
 
@@ -559,7 +558,7 @@ public class FileConnections {
         }
 
         @Override
-        protected void updateReadOffset(int nBytesConsumed) {
+        protected void updateReadOffset(long nBytesConsumed) {
             readOffset += nBytesConsumed;
         }
 
@@ -701,12 +700,6 @@ public class FileConnections {
         }
     }
 
-    private static class ByteStreamCompressedInputRConnection extends CompressedInputRConnection {
-        ByteStreamCompressedInputRConnection(BasePathRConnection base, ByteArrayInputStream is) {
-            super(base, is);
-        }
-    }
-
     private static class CompressedOutputRConnection extends DelegateWriteRConnection {
         protected ByteChannel channel;
         private final boolean seekable;
@@ -751,23 +744,4 @@ public class FileConnections {
             throw RError.nyi(RError.SHOW_CALLER, "truncating compressed file not");
         }
     }
-
-    private static class BZip2OutputRConnection extends CompressedOutputRConnection {
-        private final ByteArrayOutputStream bos;
-        private final boolean append;
-
-        BZip2OutputRConnection(BasePathRConnection base, ByteArrayOutputStream os, boolean append) {
-            super(base, os, false);
-            this.bos = os;
-            this.append = append;
-        }
-
-        @Override
-        public void close() throws IOException {
-            flush();
-            // Now actually do the compression using sub-process
-            byte[] data = bos.toByteArray();
-            RCompression.bzipCompressToFile(data, ((BasePathRConnection) base).path, append);
-        }
-    }
 }
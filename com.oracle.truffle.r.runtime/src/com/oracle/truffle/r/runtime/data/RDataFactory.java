@@ -35,6 +35,7 @@ import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.instrumentation.AllocationReporter;
+import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.r.runtime.FastROptions;
 import com.oracle.truffle.r.runtime.RCaller;
 import com.oracle.truffle.r.runtime.RInternalError;
@@ -257,6 +258,18 @@ public final class RDataFactory {
         return traceDataCreated(new RDoubleSequence(start, stride, length));
     }
 
+    public static RForeignDoubleArrayWrapper createForeignDoubleVector(TruffleObject delegate, double[] data) {
+        return traceDataCreated(new RForeignDoubleArrayWrapper(delegate, data));
+    }
+
+    public static RForeignIntArrayWrapper createForeignIntVector(TruffleObject delegate, int[] data) {
+        return traceDataCreated(new RForeignIntArrayWrapper(delegate, data));
+    }
+
+    public static RForeignBooleanArrayWrapper createForeignLogicalVector(TruffleObject delegate, boolean[] data) {
+        return traceDataCreated(new RForeignBooleanArrayWrapper(delegate, data));
+    }
+
     public static RIntVector createEmptyIntVector() {
         return createIntVector(new int[0], true);
     }
@@ -524,10 +537,7 @@ public final class RDataFactory {
 
     @TruffleBoundary
     public static REnvironment createNewEnv(String name, boolean hashed, int initialSize) {
-        REnvironment.NewEnv env = new REnvironment.NewEnv(RRuntime.createNonFunctionFrame("<new-env-" + environmentCount.incrementAndGet() + ">"), name);
-        env.setHashed(hashed);
-        env.setInitialSize(initialSize);
-        return traceDataCreated(env);
+        return traceDataCreated(new REnvironment.NewEnv(RRuntime.createNonFunctionFrame("<new-env-" + environmentCount.incrementAndGet() + ">"), name, hashed, initialSize));
     }
 
     public static RS4Object createS4Object() {
@@ -78,6 +78,7 @@ public final class RDoubleVector extends RVector<double[]> implements RAbstractD
     @Override
     public void setDataAt(Object store, int index, double value) {
         assert data == store;
+        nativeMirrorStale = true;
         ((double[]) store)[index] = value;
     }
 
@@ -138,6 +139,9 @@ public final class RDoubleVector extends RVector<double[]> implements RAbstractD
      */
     @Override
     public double[] getDataWithoutCopying() {
+        // the caller may modify the data
+        nativeMirrorStale = true;
+        invalidateHashIndex();
         return data;
     }
 
@@ -149,6 +153,7 @@ public final class RDoubleVector extends RVector<double[]> implements RAbstractD
     public RDoubleVector updateDataAt(int i, double right, NACheck valueNACheck) {
         assert !this.isShared();
         data[i] = right;
+        nativeMirrorStale = true;
         if (valueNACheck.check(right)) {
             complete = false;
         }
@@ -202,6 +207,7 @@ public final class RDoubleVector extends RVector<double[]> implements RAbstractD
     public void transferElementSameType(int toIndex, RAbstractVector fromVector, int fromIndex) {
         RAbstractDoubleVector other = (RAbstractDoubleVector) fromVector;
         data[toIndex] = other.getDataAt(fromIndex);
+        nativeMirrorStale = true;
     }
 
     @Override
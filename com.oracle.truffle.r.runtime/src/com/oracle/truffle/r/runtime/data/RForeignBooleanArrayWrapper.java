@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
+
+public final class RForeignBooleanArrayWrapper extends RForeignArrayWrapper implements RAbstractLogicalVector {
+
+    private final boolean[] data;
+
+    RForeignBooleanArrayWrapper(TruffleObject delegate, boolean[] data) {
+        super(delegate);
+        this.data = data;
+    }
+
+    @Override
+    public int getLength() {
+        return data.length;
+    }
+
+    @Override
+    public byte getDataAt(int index) {
+        return RRuntime.asLogical(data[index]);
+    }
+
+    @Override
+    protected RLogicalVector internalCreateVector() {
+        byte[] copy = new byte[data.length];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = RRuntime.asLogical(data[i]);
+        }
+        return RDataFactory.createLogicalVector(copy, RDataFactory.COMPLETE_VECTOR);
+    }
+
+    @Override
+    public RLogicalVector materialize() {
+        return this.internalCreateVector();
+    }
+
+    @Override
+    public RLogicalVector createEmptySameType(int newLength, boolean newIsComplete) {
+        return RDataFactory.createLogicalVector(new byte[newLength], newIsComplete);
+    }
+
+    @Override
+    public String toString() {
+        CompilerAsserts.neverPartOfCompilation();
+        return "foreign boolean[" + data.length + "]";
+    }
+}
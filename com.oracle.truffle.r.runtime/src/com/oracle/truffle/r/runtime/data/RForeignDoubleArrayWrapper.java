@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+
+public final class RForeignDoubleArrayWrapper extends RForeignArrayWrapper implements RAbstractDoubleVector {
+
+    private final double[] data;
+
+    RForeignDoubleArrayWrapper(TruffleObject delegate, double[] data) {
+        super(delegate);
+        this.data = data;
+    }
+
+    @Override
+    public int getLength() {
+        return data.length;
+    }
+
+    @Override
+    public double getDataAt(int index) {
+        return data[index];
+    }
+
+    @Override
+    protected RDoubleVector internalCreateVector() {
+        double[] copy = data.clone();
+        boolean complete = true;
+        for (int i = 0; i < copy.length; i++) {
+            complete &= !RRuntime.isNA(copy[i]);
+        }
+        return RDataFactory.createDoubleVector(copy, complete);
+    }
+
+    @Override
+    public RDoubleVector materialize() {
+        return this.internalCreateVector();
+    }
+
+    @Override
+    public RDoubleVector createEmptySameType(int newLength, boolean newIsComplete) {
+        return RDataFactory.createDoubleVector(new double[newLength], newIsComplete);
+    }
+
+    @Override
+    public String toString() {
+        CompilerAsserts.neverPartOfCompilation();
+        return "foreign double[" + data.length + "]";
+    }
+}
@@ -84,6 +84,7 @@ public final class RIntVector extends RVector<int[]> implements RAbstractIntVect
     @Override
     public void setDataAt(Object store, int index, int value) {
         assert data == store;
+        nativeMirrorStale = true;
         ((int[]) store)[index] = value;
     }
 
@@ -138,6 +139,9 @@ public final class RIntVector extends RVector<int[]> implements RAbstractIntVect
      */
     @Override
     public int[] getDataWithoutCopying() {
+        // the caller may modify the data
+        nativeMirrorStale = true;
+        invalidateHashIndex();
         return data;
     }
 
@@ -149,6 +153,7 @@ public final class RIntVector extends RVector<int[]> implements RAbstractIntVect
     public RIntVector updateDataAt(int i, int right, NACheck valueNACheck) {
         assert !this.isShared();
         data[i] = right;
+        nativeMirrorStale = true;
         if (valueNACheck.check(right)) {
             setComplete(false);
         }
@@ -201,6 +206,7 @@ public final class RIntVector extends RVector<int[]> implements RAbstractIntVect
     public void transferElementSameType(int toIndex, RAbstractVector fromVector, int fromIndex) {
         RAbstractIntVector other = (RAbstractIntVector) fromVector;
         data[toIndex] = other.getDataAt(fromIndex);
+        nativeMirrorStale = true;
     }
 
     @Override
@@ -50,6 +50,17 @@ public abstract class RSharingAttributeStorage extends RAttributeStorage impleme
         assert refCount != SHARED_PERMANENT_VAL : "cannot decRefCount of shared permanent value";
         assert refCount > 0 : "cannot decRefCount when refCount <= 0";
         refCount--;
+        if (refCount == 1) {
+            sharingReleased();
+        }
+    }
+
+    /**
+     * Called when the object stops being shared, i.e., when it may again be modified in place.
+     * Subclasses can use this to drop state derived from the (so far immutable) contents.
+     */
+    protected void sharingReleased() {
+        // nothing to do by default
     }
 
     @Override
@@ -113,6 +113,7 @@ public final class RStringVector extends RVector<String[]> implements RAbstractS
      */
     @Override
     public String[] getDataWithoutCopying() {
+        invalidateHashIndex();
         return data;
     }
 
@@ -214,6 +215,7 @@ public final class RStringVector extends RVector<String[]> implements RAbstractS
 
     @Override
     public void setElement(int i, Object value) {
+        invalidateHashIndex();
         data[i] = (String) value;
     }
 }
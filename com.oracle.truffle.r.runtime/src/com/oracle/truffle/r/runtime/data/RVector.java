@@ -62,6 +62,28 @@ public abstract class RVector<ArrayT> extends RSharingAttributeStorage implement
 
     protected boolean complete; // "complete" means: does not contain NAs
 
+    /**
+     * A native copy of the data that is kept alive across native calls, or {@code null}. The object
+     * is owned by the FFI implementation; the vector only records in {@link #nativeMirrorStale}
+     * whether its Java data may have changed since the mirror was last updated.
+     */
+    private Object nativeMirror;
+    protected boolean nativeMirrorStale;
+
+    /**
+     * A {@link VectorHashIndex} over the contents, or {@code null}. Only set while the vector is
+     * shared (and therefore cannot be modified in place), see {@link #sharingReleased()}. It is
+     * also dropped whenever the data array is handed out for modification, see
+     * {@link #invalidateHashIndex()}. The field is volatile because an index built by one thread
+     * may be used by another.
+     */
+    private volatile VectorHashIndex hashIndex;
+
+    /**
+     * Set once the data array was handed out to native code, which may modify it at any time.
+     */
+    private volatile boolean hashIndexDisabled;
+
     protected RVector(boolean complete, int length, int[] dimensions, RStringVector names) {
         this.complete = complete;
         assert names != this;
@@ -135,6 +157,63 @@ public abstract class RVector<ArrayT> extends RSharingAttributeStorage implement
         return isTemporary() ? getDataWithoutCopying() : getDataCopy();
     }
 
+    public final Object getNativeMirror() {
+        return nativeMirror;
+    }
+
+    public final void setNativeMirror(Object nativeMirror) {
+        this.nativeMirror = nativeMirror;
+        this.nativeMirrorStale = true;
+        // the data may now be changed through the mirror
+        disableHashIndex();
+    }
+
+    /**
+     * Returns {@code true} if the data may have been modified since the last call, i.e., the native
+     * mirror has to be updated, and resets the flag.
+     */
+    public final boolean checkAndResetNativeMirrorStale() {
+        boolean result = nativeMirrorStale;
+        nativeMirrorStale = false;
+        return result;
+    }
+
+    public final void setNativeMirrorStale() {
+        nativeMirrorStale = true;
+    }
+
+    final VectorHashIndex getHashIndex() {
+        return hashIndex;
+    }
+
+    final void setHashIndex(VectorHashIndex hashIndex) {
+        if (!hashIndexDisabled) {
+            this.hashIndex = hashIndex;
+        }
+    }
+
+    /**
+     * Drops the {@link VectorHashIndex}, to be called whenever the data may be modified without
+     * going through a reference count change.
+     */
+    protected final void invalidateHashIndex() {
+        hashIndex = null;
+    }
+
+    /**
+     * Drops the {@link VectorHashIndex} and never attaches a new one, for vectors whose data array
+     * escapes to native code.
+     */
+    public final void disableHashIndex() {
+        hashIndexDisabled = true;
+        hashIndex = null;
+    }
+
+    @Override
+    protected final void sharingReleased() {
+        invalidateHashIndex();
+    }
+
     @Override
     public final void setComplete(boolean complete) {
         this.complete = complete;
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.Collections.NonRecursiveHashMapCharacter;
+import com.oracle.truffle.r.runtime.Collections.NonRecursiveHashMapDouble;
+import com.oracle.truffle.r.runtime.Collections.NonRecursiveHashMapInt;
+import com.oracle.truffle.r.runtime.FastROptions;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+
+/**
+ * A hash index over the elements of a vector that maps every distinct value to the position of its
+ * first occurrence. This is what {@code match}, {@code %in%}, {@code unique} and
+ * {@code duplicated} compute internally, so attaching the index to the vector allows repeated
+ * calls with the same vector to skip rebuilding their hash tables.
+ *
+ * The index is only attached to shared vectors: these cannot be modified in place, and the index is
+ * dropped by {@link RVector#sharingReleased()} as soon as the vector stops being shared. Code that
+ * obtains the data array for modification also drops it, and vectors whose data escapes to native
+ * code never get one. Values are compared as in GNU R, i.e., {@code 0} equals {@code -0} and
+ * {@code NA} differs from {@code NaN}, like in {@code DuplicationHelper}. The index can be turned
+ * off with {@link FastROptions#VectorHashIndex}.
+ */
+public abstract class VectorHashIndex {
+
+    /**
+     * Shorter vectors are cheap enough to hash that keeping an index around is not worth it.
+     */
+    public static final int MIN_LENGTH = 64;
+
+    /**
+     * The position of the first element that is equal to the element at each position.
+     */
+    private final int[] first;
+
+    protected VectorHashIndex(int length) {
+        this.first = new int[length];
+    }
+
+    protected final void setFirst(int i, int firstIndex) {
+        first[i] = firstIndex;
+    }
+
+    public final int getLength() {
+        return first.length;
+    }
+
+    /**
+     * Returns the positions of the first occurrences of all distinct values, in ascending order.
+     */
+    public final int[] getUniquePositions() {
+        int count = 0;
+        for (int i = 0; i < first.length; i++) {
+            if (first[i] == i) {
+                count++;
+            }
+        }
+        int[] result = new int[count];
+        int ind = 0;
+        for (int i = 0; i < first.length; i++) {
+            if (first[i] == i) {
+                result[ind++] = i;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the result of {@code duplicated} (without incomparables) as logical values.
+     */
+    public final byte[] getDuplicated(boolean fromLast) {
+        byte[] result = new byte[first.length];
+        if (fromLast) {
+            boolean[] seen = new boolean[first.length];
+            for (int i = first.length - 1; i >= 0; i--) {
+                result[i] = RRuntime.asLogical(seen[first[i]]);
+                seen[first[i]] = true;
+            }
+        } else {
+            for (int i = 0; i < first.length; i++) {
+                result[i] = RRuntime.asLogical(first[i] != i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the result of {@code anyDuplicated} (without incomparables), i.e., the 1-based
+     * position of the first duplicate or {@code 0}.
+     */
+    public final int getAnyDuplicated(boolean fromLast) {
+        if (fromLast) {
+            boolean[] seen = new boolean[first.length];
+            for (int i = first.length - 1; i >= 0; i--) {
+                if (seen[first[i]]) {
+                    return i + 1;
+                }
+                seen[first[i]] = true;
+            }
+        } else {
+            for (int i = 0; i < first.length; i++) {
+                if (first[i] != i) {
+                    return i + 1;
+                }
+            }
+        }
+        return 0;
+    }
+
+    public static final class IntIndex extends VectorHashIndex {
+
+        private final NonRecursiveHashMapInt map;
+
+        private IntIndex(RAbstractIntVector vector) {
+            super(vector.getLength());
+            map = new NonRecursiveHashMapInt(vector.getLength());
+            for (int i = 0; i < vector.getLength(); i++) {
+                int value = vector.getDataAt(i);
+                int index = map.get(value);
+                if (index == -1) {
+                    map.put(value, i);
+                    setFirst(i, i);
+                } else {
+                    setFirst(i, index);
+                }
+            }
+        }
+
+        /**
+         * Returns the position of the first occurrence of {@code value}, or {@code -1}.
+         */
+        public int lookup(int value) {
+            return map.get(value);
+        }
+    }
+
+    public static final class DoubleIndex extends VectorHashIndex {
+
+        private final NonRecursiveHashMapDouble map;
+
+        private DoubleIndex(RAbstractDoubleVector vector) {
+            super(vector.getLength());
+            map = new NonRecursiveHashMapDouble(vector.getLength());
+            for (int i = 0; i < vector.getLength(); i++) {
+                double value = vector.getDataAt(i);
+                int index = map.get(value);
+                if (index == -1) {
+                    map.put(value, i);
+                    setFirst(i, i);
+                } else {
+                    setFirst(i, index);
+                }
+            }
+        }
+
+        /**
+         * Returns the position of the first occurrence of {@code value}, or {@code -1}.
+         */
+        public int lookup(double value) {
+            return map.get(value);
+        }
+    }
+
+    public static final class StringIndex extends VectorHashIndex {
+
+        private final NonRecursiveHashMapCharacter map;
+
+        private StringIndex(RAbstractStringVector vector) {
+            super(vector.getLength());
+            map = new NonRecursiveHashMapCharacter(vector.getLength());
+            for (int i = 0; i < vector.getLength(); i++) {
+                String value = vector.getDataAt(i);
+                int index = map.get(value);
+                if (index == -1) {
+                    map.put(value, i);
+                    setFirst(i, i);
+                } else {
+                    setFirst(i, index);
+                }
+            }
+        }
+
+        /**
+         * Returns the position of the first occurrence of {@code value}, or {@code -1}.
+         */
+        public int lookup(String value) {
+            return map.get(value);
+        }
+    }
+
+    /**
+     * Returns the index attached to {@code vector}, creating it if necessary, or {@code null} if
+     * the vector is not eligible for an index (not shared, too short, or of an unsupported type).
+     */
+    @TruffleBoundary
+    public static VectorHashIndex get(RAbstractVector vector) {
+        if (!(vector instanceof RVector) || vector.getLength() < MIN_LENGTH || !FastROptions.VectorHashIndex.getBooleanValue()) {
+            return null;
+        }
+        RVector<?> vec = (RVector<?>) vector;
+        if (!vec.isShared() && !vec.isSharedPermanent()) {
+            return null;
+        }
+        VectorHashIndex index = vec.getHashIndex();
+        if (index == null) {
+            if (vec instanceof RIntVector) {
+                index = new IntIndex((RIntVector) vec);
+            } else if (vec instanceof RDoubleVector) {
+                index = new DoubleIndex((RDoubleVector) vec);
+            } else if (vec instanceof RStringVector) {
+                index = new StringIndex((RStringVector) vec);
+            } else {
+                return null;
+            }
+            vec.setHashIndex(index);
+        }
+        return index;
+    }
+
+    public static IntIndex getInt(RAbstractIntVector vector) {
+        return (IntIndex) get(vector);
+    }
+
+    public static DoubleIndex getDouble(RAbstractDoubleVector vector) {
+        return (DoubleIndex) get(vector);
+    }
+
+    public static StringIndex getString(RAbstractStringVector vector) {
+        return (StringIndex) get(vector);
+    }
+}
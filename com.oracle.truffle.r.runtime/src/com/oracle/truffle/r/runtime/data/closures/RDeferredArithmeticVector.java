@@ -0,0 +1,472 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data.closures;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.RType;
+import com.oracle.truffle.r.runtime.data.MemoryCopyTracer;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RDoubleSequence;
+import com.oracle.truffle.r.runtime.data.RDoubleVector;
+import com.oracle.truffle.r.runtime.data.RList;
+import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.data.RShareable;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.data.RTypedValue;
+import com.oracle.truffle.r.runtime.data.RVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractContainer;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+
+/**
+ * A deferred {@code left <op> right} on double vectors, where {@code <op>} is one of {@code +},
+ * {@code -}, {@code *} and {@code /}. Operands are either materialized double vectors, double
+ * sequences, other deferred vectors or (for length one operands) constants, so that a chain like
+ * {@code a * b + c * d - e} forms a small expression tree that is evaluated block by block in a
+ * single pass, without allocating the intermediate results.
+ *
+ * The tree is evaluated at most once: the first access to the elements computes the result, which
+ * is kept by the deferred vector, and the operands are released. Like
+ * {@link com.oracle.truffle.r.runtime.data.RSequence}, a deferred vector never has attributes and
+ * every operation that would modify it works on a materialized copy. Until the result is computed,
+ * captured vector operands have their reference count incremented, so that they are copied rather
+ * than updated in place while the deferred vector may still read them.
+ *
+ * The NA handling mirrors the double case of {@code BinaryMapArithmeticFunctionNode}: an operand is
+ * only checked for {@code NA} if it was not known to be complete, and {@code NaN <op> NA} yields
+ * {@code NaN}.
+ */
+public final class RDeferredArithmeticVector implements RAbstractDoubleVector {
+
+    /**
+     * Deferred trees deeper than this are not extended, which bounds both the recursion of the
+     * evaluation and the amount of memory kept alive by a deferred vector.
+     */
+    public static final int MAX_DEPTH = 8;
+
+    /**
+     * Number of elements evaluated at once by each node of the tree.
+     */
+    private static final int BLOCK_SIZE = 1024;
+
+    public enum Kind {
+        ADD,
+        SUBTRACT,
+        MULTIPLY,
+        DIVIDE
+    }
+
+    private final Kind kind;
+    private final int length;
+    private final int depth;
+    private final boolean complete;
+
+    /**
+     * The vector operands, {@code null} for constant operands and once {@link #values} is set.
+     */
+    private RAbstractDoubleVector left;
+    private final double leftValue;
+    private final boolean leftComplete;
+    private RAbstractDoubleVector right;
+    private final double rightValue;
+    private final boolean rightComplete;
+
+    /**
+     * The result, computed on first access. It is never handed out, so it cannot be modified.
+     */
+    private volatile RDoubleVector values;
+
+    private RDeferredArithmeticVector(Kind kind, int length, RAbstractDoubleVector left, double leftValue, boolean leftComplete, RAbstractDoubleVector right, double rightValue,
+                    boolean rightComplete) {
+        this.kind = kind;
+        this.length = length;
+        this.left = left;
+        this.leftValue = leftValue;
+        this.leftComplete = leftComplete;
+        this.right = right;
+        this.rightValue = rightValue;
+        this.rightComplete = rightComplete;
+        this.depth = 1 + Math.max(depthOf(left), depthOf(right));
+        this.complete = leftComplete && rightComplete;
+    }
+
+    /**
+     * Creates a deferred vector for {@code left <op> right}, or returns {@code null} if the
+     * operands cannot be captured: they must have the same length unless one of them has length
+     * one, and non-constant operands must be attribute-free double vectors, double sequences or
+     * deferred vectors that are not nested too deeply.
+     */
+    @TruffleBoundary
+    public static RDeferredArithmeticVector create(Kind kind, RAbstractVector left, int leftLength, RAbstractVector right, int rightLength) {
+        if (!(left instanceof RAbstractDoubleVector) || !(right instanceof RAbstractDoubleVector)) {
+            return null;
+        }
+        RAbstractDoubleVector leftVector = (RAbstractDoubleVector) left;
+        RAbstractDoubleVector rightVector = (RAbstractDoubleVector) right;
+        int length;
+        if (leftLength == rightLength) {
+            if (!isCapturable(leftVector) || !isCapturable(rightVector)) {
+                return null;
+            }
+            length = leftLength;
+        } else if (leftLength == 1) {
+            if (!isCapturable(rightVector)) {
+                return null;
+            }
+            leftVector = null;
+            length = rightLength;
+        } else if (rightLength == 1) {
+            if (!isCapturable(leftVector)) {
+                return null;
+            }
+            rightVector = null;
+            length = leftLength;
+        } else {
+            // recycling with a warning is left to the eager path
+            return null;
+        }
+        double leftConstant = leftVector == null ? left.getDataAt(0) : 0;
+        double rightConstant = rightVector == null ? right.getDataAt(0) : 0;
+        capture(leftVector);
+        capture(rightVector);
+        boolean isLeftComplete = leftVector == null ? !RRuntime.isNA(leftConstant) : leftVector.isComplete();
+        boolean isRightComplete = rightVector == null ? !RRuntime.isNA(rightConstant) : rightVector.isComplete();
+        return new RDeferredArithmeticVector(kind, length, leftVector, leftConstant, isLeftComplete, rightVector, rightConstant, isRightComplete);
+    }
+
+    private static boolean isCapturable(RAbstractDoubleVector vector) {
+        if (vector instanceof RDeferredArithmeticVector) {
+            return ((RDeferredArithmeticVector) vector).depth < MAX_DEPTH;
+        }
+        return vector instanceof RDoubleSequence || (vector instanceof RDoubleVector && vector.getAttributes() == null);
+    }
+
+    private static void capture(RAbstractDoubleVector vector) {
+        if (vector instanceof RShareable) {
+            RShareable shareable = (RShareable) vector;
+            if (!shareable.isSharedPermanent()) {
+                shareable.incRefCount();
+            }
+        }
+    }
+
+    private static void release(RAbstractDoubleVector vector) {
+        if (vector instanceof RShareable) {
+            RShareable shareable = (RShareable) vector;
+            if (!shareable.isSharedPermanent()) {
+                shareable.decRefCount();
+            }
+        }
+    }
+
+    private static int depthOf(RAbstractDoubleVector vector) {
+        return vector instanceof RDeferredArithmeticVector ? ((RDeferredArithmeticVector) vector).depth : 0;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    @Override
+    public double getDataAt(int index) {
+        assert index >= 0 && index < length;
+        return getValues().getDataAt(index);
+    }
+
+    /**
+     * Returns the result, computing it if necessary.
+     */
+    private RDoubleVector getValues() {
+        RDoubleVector result = values;
+        if (result == null) {
+            result = computeValues();
+        }
+        return result;
+    }
+
+    @TruffleBoundary
+    private synchronized RDoubleVector computeValues() {
+        RDoubleVector result = values;
+        if (result == null) {
+            double[] data = new double[length];
+            double[][] buffers = new double[2 * depth][BLOCK_SIZE];
+            for (int start = 0; start < length; start += BLOCK_SIZE) {
+                evaluate(start, Math.min(BLOCK_SIZE, length - start), data, start, buffers, 0);
+            }
+            result = RDataFactory.createDoubleVector(data, complete);
+            values = result;
+            release(left);
+            release(right);
+            left = null;
+            right = null;
+        }
+        return result;
+    }
+
+    /**
+     * Writes the elements {@code start} to {@code start + count - 1} into {@code out}, starting
+     * at {@code outOffset}. The operands of this node are loaded into the buffers of the given
+     * level of the tree.
+     */
+    private synchronized void evaluate(int start, int count, double[] out, int outOffset, double[][] buffers, int level) {
+        RDoubleVector result = values;
+        if (result != null) {
+            System.arraycopy(result.getInternalStore(), start, out, outOffset, count);
+            return;
+        }
+        double[] l = buffers[2 * level];
+        double[] r = buffers[2 * level + 1];
+        load(left, leftValue, start, count, l, buffers, level);
+        load(right, rightValue, start, count, r, buffers, level);
+        switch (kind) {
+            case ADD:
+                for (int i = 0; i < count; i++) {
+                    out[outOffset + i] = l[i] + r[i];
+                }
+                break;
+            case SUBTRACT:
+                for (int i = 0; i < count; i++) {
+                    out[outOffset + i] = l[i] - r[i];
+                }
+                break;
+            case MULTIPLY:
+                for (int i = 0; i < count; i++) {
+                    out[outOffset + i] = l[i] * r[i];
+                }
+                break;
+            case DIVIDE:
+                for (int i = 0; i < count; i++) {
+                    out[outOffset + i] = l[i] / r[i];
+                }
+                break;
+            default:
+                throw RInternalError.shouldNotReachHere();
+        }
+        if (!leftComplete || !rightComplete) {
+            for (int i = 0; i < count; i++) {
+                if (!leftComplete && RRuntime.isNA(l[i])) {
+                    out[outOffset + i] = RRuntime.DOUBLE_NA;
+                } else if (!rightComplete && RRuntime.isNA(r[i])) {
+                    // NaN <op> NA == NaN
+                    out[outOffset + i] = Double.isNaN(l[i]) ? l[i] : RRuntime.DOUBLE_NA;
+                }
+            }
+        }
+    }
+
+    private static void load(RAbstractDoubleVector operand, double constant, int start, int count, double[] buffer, double[][] buffers, int level) {
+        if (operand == null) {
+            Arrays.fill(buffer, 0, count, constant);
+        } else if (operand instanceof RDeferredArithmeticVector) {
+            ((RDeferredArithmeticVector) operand).evaluate(start, count, buffer, 0, buffers, level + 1);
+        } else if (operand instanceof RDoubleVector) {
+            System.arraycopy(((RDoubleVector) operand).getInternalStore(), start, buffer, 0, count);
+        } else {
+            for (int i = 0; i < count; i++) {
+                buffer[i] = operand.getDataAt(start + i);
+            }
+        }
+    }
+
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public RAbstractContainer resize(int size) {
+        return materialize().resize(size);
+    }
+
+    @Override
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @Override
+    public void setComplete(boolean complete) {
+        // completeness is derived from the operands
+    }
+
+    @Override
+    public boolean hasDimensions() {
+        return false;
+    }
+
+    @Override
+    public int[] getDimensions() {
+        return null;
+    }
+
+    @Override
+    public void setDimensions(int[] newDimensions) {
+        // should only be used on materialized vector
+        throw RInternalError.shouldNotReachHere();
+    }
+
+    @Override
+    public RAbstractVector castSafe(RType type, ConditionProfile isNAProfile) {
+        if (type == RType.Double) {
+            return this;
+        }
+        // the closures only read the result
+        return getValues().castSafe(type, isNAProfile);
+    }
+
+    /**
+     * Returns a new vector with the result, which the caller may modify.
+     */
+    @Override
+    @TruffleBoundary
+    public RDoubleVector materialize() {
+        RDoubleVector result = RDataFactory.createDoubleVector(getValues().getDataCopy(), complete);
+        MemoryCopyTracer.reportCopying(this, result);
+        return result;
+    }
+
+    @Override
+    public RDoubleVector copy() {
+        return materialize();
+    }
+
+    @Override
+    public RDoubleVector copyDropAttributes() {
+        return materialize();
+    }
+
+    @Override
+    public RDoubleVector copyWithNewDimensions(int[] newDimensions) {
+        return materialize().copyWithNewDimensions(newDimensions);
+    }
+
+    @Override
+    public RVector<?> copyResized(int size, boolean fillNA) {
+        return getValues().copyResized(size, fillNA);
+    }
+
+    @Override
+    public RVector<?> copyResizedWithDimensions(int[] newDimensions, boolean fillNA) {
+        return getValues().copyResizedWithDimensions(newDimensions, fillNA);
+    }
+
+    @Override
+    public RDoubleVector createEmptySameType(int newLength, boolean newIsComplete) {
+        return RDataFactory.createDoubleVector(new double[newLength], newIsComplete);
+    }
+
+    @Override
+    public RStringVector getNames() {
+        return null;
+    }
+
+    @Override
+    public void setNames(RStringVector newNames) {
+        // should only be used on materialized vector
+        throw RInternalError.shouldNotReachHere();
+    }
+
+    @Override
+    public RList getDimNames() {
+        return null;
+    }
+
+    @Override
+    public void setDimNames(RList newDimNames) {
+        // should only be used on materialized vector
+        throw RInternalError.shouldNotReachHere();
+    }
+
+    @Override
+    public Object getRowNames() {
+        return RNull.instance;
+    }
+
+    @Override
+    public void setRowNames(RAbstractVector rowNames) {
+        // should only be used on materialized vector
+        throw RInternalError.shouldNotReachHere();
+    }
+
+    @Override
+    public DynamicObject initAttributes() {
+        throw RInternalError.shouldNotReachHere();
+    }
+
+    @Override
+    public void initAttributes(DynamicObject newAttributes) {
+        throw RInternalError.shouldNotReachHere();
+    }
+
+    @Override
+    public DynamicObject getAttributes() {
+        return null;
+    }
+
+    @Override
+    public boolean isMatrix() {
+        return false;
+    }
+
+    @Override
+    public boolean isArray() {
+        return false;
+    }
+
+    @Override
+    public boolean isObject() {
+        return false;
+    }
+
+    @Override
+    public RTypedValue getNonShared() {
+        return materialize().getNonShared();
+    }
+
+    @Override
+    public int getTypedValueInfo() {
+        return 0;
+    }
+
+    @Override
+    public void setTypedValueInfo(int value) {
+        throw RInternalError.shouldNotReachHere();
+    }
+
+    @Override
+    public boolean isS4() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        CompilerAsserts.neverPartOfCompilation();
+        return "deferred " + kind + " [" + length + "]";
+    }
+}
@@ -55,6 +55,7 @@ import com.oracle.truffle.r.runtime.env.frame.FrameSlotChangeMonitor;
 import com.oracle.truffle.r.runtime.env.frame.NSBaseMaterializedFrame;
 import com.oracle.truffle.r.runtime.env.frame.REnvEmptyFrameAccess;
 import com.oracle.truffle.r.runtime.env.frame.REnvFrameAccess;
+import com.oracle.truffle.r.runtime.env.frame.REnvHashFrameAccess;
 import com.oracle.truffle.r.runtime.env.frame.REnvTruffleFrameAccess;
 
 /**
@@ -751,24 +752,39 @@ public abstract class REnvironment extends RAttributeStorage {
      * An environment associated with an already materialized frame.
      */
     private REnvironment(String name, MaterializedFrame frame) {
-        this(name, new REnvTruffleFrameAccess(frame));
+        this(name, frame, new REnvTruffleFrameAccess(frame));
+    }
+
+    /**
+     * An environment associated with an already materialized frame, whose bindings are accessed
+     * through {@code frameAccess}.
+     */
+    private REnvironment(String name, MaterializedFrame frame, REnvFrameAccess frameAccess) {
+        this(name, frameAccess);
 
         // Associate frame with the environment
         RArguments.setEnvironment(frame, this);
     }
 
     public REnvironment getParent() {
-        MaterializedFrame enclosingFrame = RArguments.getEnclosingFrame(getFrame());
+        MaterializedFrame enclosingFrame = RArguments.getEnclosingFrame(frameAccess.getEnclosureFrame());
         return enclosingFrame == null ? emptyEnv : frameToEnvironment(enclosingFrame);
     }
 
+    /**
+     * Set the parent of a newly created environment.
+     */
+    public void initializeParent(REnvironment parent) {
+        RArguments.initializeEnclosingFrame(frameAccess.getEnclosureFrame(), parent.getFrame());
+    }
+
     /**
      * Explicitly set the parent of an environment. TODO Change the enclosingFrame of (any)
      * associated Truffle frame
      */
     public void setParent(REnvironment env) {
         if (getParent() != env) {
-            RArguments.setEnclosingFrame(getFrame(), env.getFrame(), true);
+            RArguments.setEnclosingFrame(frameAccess.getEnclosureFrame(), env.getFrame(), true);
         }
     }
 
@@ -1078,6 +1094,19 @@ public abstract class REnvironment extends RAttributeStorage {
             }
         }
 
+        /**
+         * Creates an environment that, if {@code hashed}, keeps its bindings in a hash table until
+         * its frame is needed, see {@link REnvHashFrameAccess}.
+         */
+        public NewEnv(MaterializedFrame frame, String name, boolean hashed, int initialSize) {
+            super(UNNAMED, frame, hashed ? new REnvHashFrameAccess(frame, initialSize) : new REnvTruffleFrameAccess(frame));
+            if (name != null) {
+                setAttr(NAME_ATTR_KEY, name);
+            }
+            this.hashed = hashed;
+            this.initialSize = initialSize;
+        }
+
         public boolean isHashed() {
             return hashed;
         }
@@ -77,4 +77,12 @@ public abstract class REnvFrameAccess {
 
     public abstract MaterializedFrame getFrame();
 
+    /**
+     * Return the frame only to read or change its enclosing frame. Unlike {@link #getFrame()}, this
+     * does not require the bindings to be stored in the frame.
+     */
+    public MaterializedFrame getEnclosureFrame() {
+        return getFrame();
+    }
+
 }
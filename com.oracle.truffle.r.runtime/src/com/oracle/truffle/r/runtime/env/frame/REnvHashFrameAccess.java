@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.env.frame;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.MaterializedFrame;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RStringVector;
+import com.oracle.truffle.r.runtime.env.REnvironment;
+import com.oracle.truffle.r.runtime.env.REnvironment.PutException;
+
+/**
+ * Variant of {@link REnvFrameAccess} for hashed environments, i.e., those created by
+ * {@code new.env(hash = TRUE)}, that keeps the bindings in an open addressing hash table instead
+ * of the slots of the Truffle frame. Adding a frame slot gets more expensive as the
+ * {@link FrameDescriptor} grows, which makes environments used as large dictionaries slow to
+ * fill.
+ *
+ * The frame is still allocated, because it carries the link to the enclosing frame. As soon as
+ * the frame itself is requested through {@link #getFrame()}, e.g., to evaluate code in the
+ * environment or to use it as the enclosing environment of a function or another environment,
+ * all bindings are moved into the frame and from then on this class just delegates to a
+ * {@link REnvTruffleFrameAccess}.
+ */
+public final class REnvHashFrameAccess extends REnvFrameAccess {
+
+    private static final int MIN_CAPACITY = 8;
+    private static final int MAX_INITIAL_CAPACITY = 1 << 16;
+
+    private final MaterializedFrame frame;
+
+    /**
+     * Linear probing table; {@code keys[i] == null} marks a free entry.
+     */
+    private String[] keys;
+    private Object[] values;
+    private int size;
+
+    /**
+     * Records which bindings are locked, allocated lazily as in {@link REnvTruffleFrameAccess}.
+     */
+    private Set<String> lockedBindings;
+
+    /**
+     * Non-null once the bindings have been moved into {@link #frame}.
+     */
+    private REnvTruffleFrameAccess frameAccess;
+
+    public REnvHashFrameAccess(MaterializedFrame frame, int initialSize) {
+        this.frame = frame;
+        int capacity = MIN_CAPACITY;
+        int wanted = Math.min(MAX_INITIAL_CAPACITY, initialSize + (initialSize >> 1));
+        while (capacity < wanted) {
+            capacity <<= 1;
+        }
+        this.keys = new String[capacity];
+        this.values = new Object[capacity];
+    }
+
+    @Override
+    public MaterializedFrame getFrame() {
+        if (frameAccess == null) {
+            CompilerDirectives.transferToInterpreter();
+            moveToFrame();
+        }
+        return frame;
+    }
+
+    @Override
+    public MaterializedFrame getEnclosureFrame() {
+        return frame;
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private int find(String key) {
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (true) {
+            String k = keys[i];
+            if (k == null) {
+                return -1;
+            } else if (k == key || k.equals(key)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    @Override
+    public Object get(String key) {
+        CompilerAsserts.neverPartOfCompilation();
+        if (frameAccess != null) {
+            return frameAccess.get(key);
+        }
+        int i = find(key);
+        return i < 0 ? null : values[i];
+    }
+
+    @Override
+    public void put(String key, Object value) throws PutException {
+        CompilerAsserts.neverPartOfCompilation();
+        assert key != null;
+        if (frameAccess != null) {
+            frameAccess.put(key, value);
+            return;
+        }
+        if (lockedBindings != null && lockedBindings.contains(key)) {
+            throw new PutException(RError.Message.ENV_CHANGE_BINDING, key);
+        }
+        if (value == null) {
+            remove(key);
+            return;
+        }
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (true) {
+            String k = keys[i];
+            if (k == null) {
+                keys[i] = key;
+                values[i] = value;
+                if (++size > (keys.length >> 1) + (keys.length >> 2)) {
+                    resize();
+                }
+                return;
+            } else if (k == key || k.equals(key)) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void resize() {
+        String[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new String[oldKeys.length << 1];
+        values = new Object[oldKeys.length << 1];
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            String k = oldKeys[j];
+            if (k != null) {
+                int i = hash(k) & mask;
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = k;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Removes the entry for {@code key}, closing the gap by moving later entries of the probe
+     * sequence back so that no tombstones are needed.
+     */
+    private boolean remove(String key) {
+        int i = find(key);
+        if (i < 0) {
+            return false;
+        }
+        int mask = keys.length - 1;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            String k = keys[j];
+            if (k == null) {
+                break;
+            }
+            int home = hash(k) & mask;
+            // move k into the gap at i unless its home position lies cyclically in (i, j]
+            if (i <= j ? (home <= i || home > j) : (home <= i && home > j)) {
+                keys[i] = k;
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = null;
+        values[i] = null;
+        size--;
+        return true;
+    }
+
+    @Override
+    public void rm(String key) throws PutException {
+        CompilerAsserts.neverPartOfCompilation();
+        assert key != null;
+        if (frameAccess != null) {
+            frameAccess.rm(key);
+            return;
+        }
+        if (lockedBindings != null) {
+            lockedBindings.remove(key);
+        }
+        if (!remove(key)) {
+            throw new PutException(RError.Message.UNKNOWN_OBJECT, key);
+        }
+    }
+
+    @Override
+    @TruffleBoundary
+    public RStringVector ls(boolean allNames, Pattern pattern, boolean sorted) {
+        if (frameAccess != null) {
+            return frameAccess.ls(allNames, pattern, sorted);
+        }
+        String[] data = new String[size];
+        int count = 0;
+        for (String k : keys) {
+            if (k != null && REnvironment.includeName(k, allNames, pattern)) {
+                data[count++] = k;
+            }
+        }
+        if (count < data.length) {
+            data = Arrays.copyOf(data, count);
+        }
+        if (sorted) {
+            Arrays.sort(data);
+        }
+        return RDataFactory.createStringVector(data, RDataFactory.COMPLETE_VECTOR);
+    }
+
+    @Override
+    @TruffleBoundary
+    public boolean bindingIsLocked(String key) {
+        if (frameAccess != null) {
+            return frameAccess.bindingIsLocked(key);
+        }
+        return lockedBindings != null && lockedBindings.contains(key);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void lockBindings() {
+        if (frameAccess != null) {
+            frameAccess.lockBindings();
+            return;
+        }
+        for (String k : keys) {
+            if (k != null) {
+                lockBinding(k);
+            }
+        }
+    }
+
+    @Override
+    @TruffleBoundary
+    public void lockBinding(String key) {
+        if (frameAccess != null) {
+            frameAccess.lockBinding(key);
+            return;
+        }
+        if (lockedBindings == null) {
+            lockedBindings = new HashSet<>();
+        }
+        lockedBindings.add(key);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void unlockBinding(String key) {
+        if (frameAccess != null) {
+            frameAccess.unlockBinding(key);
+            return;
+        }
+        if (lockedBindings != null) {
+            lockedBindings.remove(key);
+        }
+    }
+
+    @TruffleBoundary
+    private void moveToFrame() {
+        REnvTruffleFrameAccess access = new REnvTruffleFrameAccess(frame);
+        // create all slots first, so that the frame is resized only once
+        FrameDescriptor fd = frame.getFrameDescriptor();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                FrameSlotChangeMonitor.findOrAddFrameSlot(fd, keys[i], RRuntime.getSlotKind(values[i]));
+            }
+        }
+        try {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null) {
+                    access.put(keys[i], values[i]);
+                }
+            }
+        } catch (PutException ex) {
+            throw RInternalError.shouldNotReachHere(ex);
+        }
+        if (lockedBindings != null) {
+            for (String k : lockedBindings) {
+                access.lockBinding(k);
+            }
+        }
+        keys = null;
+        values = null;
+        lockedBindings = null;
+        frameAccess = access;
+    }
+}
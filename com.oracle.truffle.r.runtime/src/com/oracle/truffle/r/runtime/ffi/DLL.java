@@ -13,6 +13,7 @@ package com.oracle.truffle.r.runtime.ffi;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.oracle.truffle.api.CompilerAsserts;
@@ -24,6 +25,7 @@ import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.r.runtime.FastROptions;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
 import com.oracle.truffle.r.runtime.RError.RErrorException;
@@ -188,6 +190,18 @@ public class DLL {
         private boolean forceSymbols;
         private final DotSymbol[][] nativeSymbols = new DotSymbol[NativeSymbolType.values().length][];
         private ArrayList<CEntry> cEntryTable = null;
+        /**
+         * The call locks of DLLs not declared thread-safe, keyed by library path. A library is loaded once per
+         * process, so its static state is shared by every context (including
+         * {@code SHARE_NOTHING} ones) that has its own {@link DLLInfo} for it.
+         */
+        private static final ConcurrentHashMap<String, Object> CALL_LOCKS = new ConcurrentHashMap<>();
+        /**
+         * Native calls into a DLL are serialized on this lock unless the DLL is declared thread-safe
+         * through the {@code ThreadSafeDLLs} option, in which case they may run concurrently and
+         * the lock is {@code null}.
+         */
+        private final Object callLock;
 
         private DLLInfo(String name, String path, boolean dynamicLookup, Object handle) {
             this.id = ID.getAndIncrement();
@@ -195,6 +209,11 @@ public class DLL {
             this.path = path;
             this.dynamicLookup = dynamicLookup;
             this.handle = handle;
+            if (FastROptions.containsElement(name, FastROptions.ThreadSafeDLLs.getStringValue())) {
+                this.callLock = null;
+            } else {
+                this.callLock = CALL_LOCKS.computeIfAbsent(path, p -> new Object());
+            }
         }
 
         private static DLLInfo create(String name, String path, boolean dynamicLookup, Object handle, boolean addToList) {
@@ -206,6 +225,18 @@ public class DLL {
             return result;
         }
 
+        public boolean isThreadSafe() {
+            return callLock == null;
+        }
+
+        /**
+         * Returns the object that calls into this DLL must synchronize on, or {@code null} if the
+         * DLL is thread-safe and calls may run concurrently.
+         */
+        public Object getCallLock() {
+            return callLock;
+        }
+
         public void setNativeSymbols(int nstOrd, DotSymbol[] symbols) {
             nativeSymbols[nstOrd] = symbols;
         }
@@ -278,7 +309,7 @@ public class DLL {
 
         @Override
         public String toString() {
-            return String.format("name: %s, path: %s, dynamicLookup: %b, forceSymbols %b", name, path, dynamicLookup, forceSymbols);
+            return String.format("name: %s, path: %s, dynamicLookup: %b, forceSymbols %b, threadSafe %b", name, path, dynamicLookup, forceSymbols, isThreadSafe());
         }
     }
 
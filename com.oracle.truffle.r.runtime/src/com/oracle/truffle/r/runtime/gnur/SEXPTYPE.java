@@ -20,6 +20,9 @@ import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.REmpty;
 import com.oracle.truffle.r.runtime.data.RExpression;
 import com.oracle.truffle.r.runtime.data.RExternalPtr;
+import com.oracle.truffle.r.runtime.data.RForeignBooleanArrayWrapper;
+import com.oracle.truffle.r.runtime.data.RForeignDoubleArrayWrapper;
+import com.oracle.truffle.r.runtime.data.RForeignIntArrayWrapper;
 import com.oracle.truffle.r.runtime.data.RFunction;
 import com.oracle.truffle.r.runtime.data.RIntSequence;
 import com.oracle.truffle.r.runtime.data.RIntVector;
@@ -37,6 +40,7 @@ import com.oracle.truffle.r.runtime.data.RS4Object;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RSymbol;
 import com.oracle.truffle.r.runtime.data.RUnboundValue;
+import com.oracle.truffle.r.runtime.data.closures.RDeferredArithmeticVector;
 import com.oracle.truffle.r.runtime.env.REnvironment;
 
 // Transcribed from GnuR src/include/Rinternals.h and src/main/serialize.c
@@ -53,9 +57,9 @@ public enum SEXPTYPE {
     SPECIALSXP(7), /* special forms */
     BUILTINSXP(8), /* builtin non-special forms */
     CHARSXP(9), /* "scalar" string type (GnuR internal only) */
-    LGLSXP(10, RLogicalVector.class, Byte.class), /* logical vectors */
-    INTSXP(13, RIntVector.class, RIntSequence.class, Integer.class), /* integer vectors */
-    REALSXP(14, RDoubleVector.class, RDoubleSequence.class, Double.class), /* real variables */
+    LGLSXP(10, RLogicalVector.class, RForeignBooleanArrayWrapper.class, Byte.class), /* logical vectors */
+    INTSXP(13, RIntVector.class, RIntSequence.class, RForeignIntArrayWrapper.class, Integer.class), /* integer vectors */
+    REALSXP(14, RDoubleVector.class, RDoubleSequence.class, RDeferredArithmeticVector.class, RForeignDoubleArrayWrapper.class, Double.class), /* real variables */
     CPLXSXP(15, RComplexVector.class, RComplex.class), /* complex variables */
     STRSXP(16, RStringVector.class, String.class), /* string vectors */
     DOTSXP(17, RArgsValuesAndNames.class), /* dot-dot-dot object */
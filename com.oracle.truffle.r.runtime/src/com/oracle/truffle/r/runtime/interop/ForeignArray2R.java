@@ -72,6 +72,10 @@ public abstract class ForeignArray2R extends RBaseNode {
     @TruffleBoundary
     public RAbstractVector doArray(TruffleObject obj, boolean recursive,
                     @Cached("GET_SIZE.createNode()") Node getSize) {
+        RAbstractVector wrapper = wrapPrimitiveArray(obj);
+        if (wrapper != null) {
+            return wrapper;
+        }
         try {
             CollectedElements ce = new CollectedElements();
             collectArrayElements(ce, obj, recursive, getSize);
@@ -104,6 +108,24 @@ public abstract class ForeignArray2R extends RBaseNode {
         return obj;
     }
 
+    /**
+     * Wraps non-empty Java {@code double[]}, {@code int[]} and {@code boolean[]} arrays into vectors
+     * that read the array directly instead of copying it element by element.
+     */
+    private static RAbstractVector wrapPrimitiveArray(TruffleObject obj) {
+        if (JavaInterop.isJavaObject(obj)) {
+            Object array = JavaInterop.asJavaObject(Object.class, obj);
+            if (array instanceof double[] && ((double[]) array).length > 0) {
+                return RDataFactory.createForeignDoubleVector(obj, (double[]) array);
+            } else if (array instanceof int[] && ((int[]) array).length > 0) {
+                return RDataFactory.createForeignIntVector(obj, (int[]) array);
+            } else if (array instanceof boolean[] && ((boolean[]) array).length > 0) {
+                return RDataFactory.createForeignLogicalVector(obj, (boolean[]) array);
+            }
+        }
+        return null;
+    }
+
     private void collectArrayElements(CollectedElements ce, TruffleObject obj, boolean recursive, Node getSize) throws UnsupportedMessageException, UnknownIdentifierException {
         int size = (int) ForeignAccess.sendGetSize(getSize, obj);
         if (size == 0) {
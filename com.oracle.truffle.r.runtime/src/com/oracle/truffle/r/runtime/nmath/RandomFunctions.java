@@ -22,6 +22,7 @@
  */
 package com.oracle.truffle.r.runtime.nmath;
 
+import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.nmath.distr.SExp;
 import com.oracle.truffle.r.runtime.nmath.distr.SNorm;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
@@ -36,6 +37,21 @@ import com.oracle.truffle.r.runtime.rng.RandomNumberGenerator;
 public class RandomFunctions {
     public abstract static class RandFunction3_Double extends RBaseNode {
         public abstract double execute(double a, double b, double c, RandomNumberProvider rand);
+
+        /**
+         * Returns {@code true} if {@link #execute} with given parameters takes exactly one value
+         * from {@link RandomNumberProvider#unifRand()} and computes the result using
+         * {@link #fromUnif}. This allows the vectorized code to draw all the uniform values at once.
+         */
+        @SuppressWarnings("unused")
+        public boolean isSingleUnif(double a, double b, double c) {
+            return false;
+        }
+
+        @SuppressWarnings("unused")
+        public double fromUnif(double a, double b, double c, double unif) {
+            throw RInternalError.shouldNotReachHere();
+        }
     }
 
     public abstract static class RandFunction2_Double extends RandFunction3_Double {
@@ -80,6 +96,14 @@ public class RandomFunctions {
             return generator.genrandDouble();
         }
 
+        /**
+         * Fills given part of {@code out} with the same values as {@code len} calls to
+         * {@link #unifRand()} would produce.
+         */
+        public void unifRand(double[] out, int off, int len) {
+            generator.genrandDouble(out, off, len);
+        }
+
         public double normRand() {
             return SNorm.normRand(generator, normKind);
         }
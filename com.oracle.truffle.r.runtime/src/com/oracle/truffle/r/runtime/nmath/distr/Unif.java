@@ -45,7 +45,17 @@ public final class Unif {
             if (minEqualsMaxProfile.profile(min == max)) {
                 return min;
             }
-            return min + rand.unifRand() * (max - min);
+            return fromUnif(min, max, 0, rand.unifRand());
+        }
+
+        @Override
+        public boolean isSingleUnif(double min, double max, double c) {
+            return RRuntime.isFinite(min) && RRuntime.isFinite(max) && min < max;
+        }
+
+        @Override
+        public double fromUnif(double min, double max, double c, double unif) {
+            return min + unif * (max - min);
         }
     }
 
@@ -20,8 +20,19 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractContainer;
  * Code sharing vehicle for the slight differences in behavior between {@code duplicated} and
  * {@code anyDuplicated} (both internal and native versions) and whether {@code fromLast} is
  * {@code TRUE/FALSE}.
+ *
+ * Elements are compared as in GNU R: {@code 0} equals {@code -0} and {@code NA} differs from
+ * {@code NaN}, which is also how {@link com.oracle.truffle.r.runtime.data.VectorHashIndex} compares
+ * them.
  */
 public class DuplicationHelper {
+
+    /**
+     * Stands for the double {@code NA}, which {@link Double#equals(Object)} does not distinguish
+     * from other {@code NaN} values.
+     */
+    private static final Object DOUBLE_NA_KEY = new Object();
+
     private final RAbstractContainer x;
     private final HashSet<Object> vectorContents = new HashSet<>();
     private final HashSet<Object> incompContents;
@@ -30,12 +41,12 @@ public class DuplicationHelper {
 
     public DuplicationHelper(RAbstractContainer x, RAbstractContainer incomparables, boolean justIndex, boolean fromLast) {
         this.x = x;
-        vectorContents.add(x.getDataAtAsObject(fromLast ? x.getLength() - 1 : 0));
+        vectorContents.add(key(x.getDataAtAsObject(fromLast ? x.getLength() - 1 : 0)));
 
         if (incomparables != null) {
             incompContents = new HashSet<>();
             for (int i = 0; i < incomparables.getLength(); i++) {
-                incompContents.add(incomparables.getDataAtAsObject(i));
+                incompContents.add(key(incomparables.getDataAtAsObject(i)));
             }
         } else {
             incompContents = null;
@@ -43,9 +54,23 @@ public class DuplicationHelper {
         dupVec = justIndex ? null : new byte[x.getLength()];
     }
 
+    private static Object key(Object value) {
+        if (value instanceof Double) {
+            double d = (Double) value;
+            if (RRuntime.isNA(d)) {
+                return DOUBLE_NA_KEY;
+            } else if (d == 0) {
+                // -0 is not equal to 0 according to Double.equals
+                return 0d;
+            }
+        }
+        return value;
+    }
+
     public boolean doIt(int i) {
-        if (incompContents == null || !incompContents.contains(x.getDataAtAsObject(i))) {
-            if (vectorContents.contains(x.getDataAtAsObject(i))) {
+        Object key = key(x.getDataAtAsObject(i));
+        if (incompContents == null || !incompContents.contains(key)) {
+            if (vectorContents.contains(key)) {
                 if (dupVec == null) {
                     index = i + 1;
                     return true;
@@ -53,7 +78,7 @@ public class DuplicationHelper {
                     dupVec[i] = RRuntime.LOGICAL_TRUE;
                 }
             } else {
-                vectorContents.add(x.getDataAtAsObject(i));
+                vectorContents.add(key);
             }
         } else {
             if (dupVec != null) {
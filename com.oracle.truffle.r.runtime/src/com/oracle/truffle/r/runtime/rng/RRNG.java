@@ -26,14 +26,16 @@ import com.oracle.truffle.r.runtime.data.RPromise;
 import com.oracle.truffle.r.runtime.data.RTypedValue;
 import com.oracle.truffle.r.runtime.env.REnvironment;
 import com.oracle.truffle.r.runtime.ffi.BaseRFFI;
+import com.oracle.truffle.r.runtime.rng.lecuyer.LEcuyerCMRG;
 import com.oracle.truffle.r.runtime.rng.mm.MarsagliaMulticarry;
 import com.oracle.truffle.r.runtime.rng.mt.MersenneTwister;
 import com.oracle.truffle.r.runtime.rng.user.UserRNG;
 
 /**
  * Facade class to the R random number generators, (see src/main/RNG.c in GnuR). The individual
- * generators are implemented in their own class. Currently there are only two implemented, the
- * default, {@link MersenneTwister} and {@link MarsagliaMulticarry}.
+ * generators are implemented in their own class. Currently there are only three implemented, the
+ * default, {@link MersenneTwister}, {@link MarsagliaMulticarry} and {@link LEcuyerCMRG}, plus the
+ * user supplied one.
  *
  * The fact that the R programmer can set {@code .Random.seed} explicitly, as opposed to the
  * recommended approach of calling {@code set.seed}, is something of a pain as it changes the
@@ -58,7 +60,7 @@ public class RRNG {
         KNUTH_TAOCP(),
         USER_UNIF(UserRNG::new),
         KNUTH_TAOCP2(),
-        LECUYER_CMRG();
+        LECUYER_CMRG(LEcuyerCMRG::new);
 
         @CompilationFinal(dimensions = 1) static final Kind[] VALUES = values();
 
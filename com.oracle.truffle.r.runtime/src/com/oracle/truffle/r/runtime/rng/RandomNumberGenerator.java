@@ -29,6 +29,17 @@ public interface RandomNumberGenerator {
 
     double genrandDouble();
 
+    /**
+     * Fills {@code out[off .. off+len-1]} with the same values that {@code len} calls to
+     * {@link #genrandDouble()} would produce. Generators may override this to avoid the per-value
+     * overhead.
+     */
+    default void genrandDouble(double[] out, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            out[i] = genrandDouble();
+        }
+    }
+
     Kind getKind();
 
     /**
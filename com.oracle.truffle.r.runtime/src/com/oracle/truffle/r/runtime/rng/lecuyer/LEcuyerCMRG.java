@@ -0,0 +1,206 @@
+/*
+ * This material is distributed under the GNU General Public License
+ * Version 2. You may review the terms of this license at
+ * http://www.gnu.org/licenses/gpl-2.0.html
+ *
+ * Copyright (c) 1995-2012, The R Core Team
+ * Copyright (c) 2003, The R Foundation
+ * Copyright (c) 2017, Oracle and/or its affiliates
+ *
+ * All rights reserved.
+ */
+package com.oracle.truffle.r.runtime.rng.lecuyer;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.rng.RNGInitAdapter;
+import com.oracle.truffle.r.runtime.rng.RRNG;
+import com.oracle.truffle.r.runtime.rng.RRNG.Kind;
+
+/**
+ * "L'Ecuyer-CMRG" RNG, the combined multiple-recursive generator MRG32k3a. Transcribed from GnuR
+ * RNG.c, the stream and sub-stream jumps ({@link #nextStream(int[])} and
+ * {@link #nextSubStream(int[])}) are transcribed from rngstream.c of the parallel package.
+ *
+ * The six seeds are unsigned 32-bit values, the first three in {@code [0, m1)} and the other three
+ * in {@code [0, m2)}.
+ */
+public final class LEcuyerCMRG extends RNGInitAdapter {
+
+    private static final long M1 = 4294967087L;
+    private static final long M2 = 4294944443L;
+    private static final double NORMC = 2.328306549295727688e-10;
+    private static final long A12 = 1403580L;
+    private static final long A13N = 810728L;
+    private static final long A21 = 527612L;
+    private static final long A23N = 1370589L;
+
+    private static final long[][] A1P76 = {
+                    {82758667L, 1871391091L, 4127413238L},
+                    {3672831523L, 69195019L, 1871391091L},
+                    {3672091415L, 3528743235L, 69195019L}};
+
+    private static final long[][] A2P76 = {
+                    {1511326704L, 3759209742L, 1610795712L},
+                    {4292754251L, 1511326704L, 3889917532L},
+                    {3859662829L, 4292754251L, 3708466080L}};
+
+    private static final long[][] A1P127 = {
+                    {2427906178L, 3580155704L, 949770784L},
+                    {226153695L, 1230515664L, 3580155704L},
+                    {1988835001L, 986791581L, 1230515664L}};
+
+    private static final long[][] A2P127 = {
+                    {1464411153L, 277697599L, 1610723613L},
+                    {32183930L, 1464411153L, 1022607788L},
+                    {2824425944L, 32183930L, 2093834863L}};
+
+    @Override
+    @TruffleBoundary
+    public void init(int seedParam) {
+        int seed = seedParam;
+        for (int i = 0; i < getNSeed(); i++) {
+            seed = (69069 * seed + 1);
+            while (Integer.toUnsignedLong(seed) >= M2) {
+                seed = (69069 * seed + 1);
+            }
+            setISeedItem(i, seed);
+        }
+        fixupSeeds(true);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void fixupSeeds(boolean initial) {
+        // first set: not all zero, in [0, m1); second set: not all zero, in [0, m2)
+        if (!isValidSeedSet(0, M1) || !isValidSeedSet(3, M2)) {
+            init(RRNG.timeToSeed());
+        }
+    }
+
+    private boolean isValidSeedSet(int from, long modulus) {
+        boolean notAllZero = false;
+        for (int i = from; i < from + 3; i++) {
+            long value = Integer.toUnsignedLong(getISeedItem(i));
+            if (value != 0) {
+                notAllZero = true;
+            }
+            if (value >= modulus) {
+                return false;
+            }
+        }
+        return notAllZero;
+    }
+
+    @Override
+    public double genrandDouble() {
+        long s0 = Integer.toUnsignedLong(getISeedItem(0));
+        long s1 = Integer.toUnsignedLong(getISeedItem(1));
+        long s3 = Integer.toUnsignedLong(getISeedItem(3));
+        long s5 = Integer.toUnsignedLong(getISeedItem(5));
+
+        long p1 = A12 * s1 - A13N * s0;
+        p1 -= (p1 / M1) * M1;
+        if (p1 < 0) {
+            p1 += M1;
+        }
+        setISeedItem(0, getISeedItem(1));
+        setISeedItem(1, getISeedItem(2));
+        setISeedItem(2, (int) p1);
+
+        long p2 = A21 * s5 - A23N * s3;
+        p2 -= (p2 / M2) * M2;
+        if (p2 < 0) {
+            p2 += M2;
+        }
+        setISeedItem(3, getISeedItem(4));
+        setISeedItem(4, getISeedItem(5));
+        setISeedItem(5, (int) p2);
+
+        return ((p1 > p2) ? (p1 - p2) : (p1 - p2 + M1)) * NORMC;
+    }
+
+    /**
+     * Same as calling {@link #genrandDouble()} {@code len} times, but keeps the state in locals.
+     */
+    @Override
+    public void genrandDouble(double[] out, int off, int len) {
+        long s0 = Integer.toUnsignedLong(getISeedItem(0));
+        long s1 = Integer.toUnsignedLong(getISeedItem(1));
+        long s2 = Integer.toUnsignedLong(getISeedItem(2));
+        long s3 = Integer.toUnsignedLong(getISeedItem(3));
+        long s4 = Integer.toUnsignedLong(getISeedItem(4));
+        long s5 = Integer.toUnsignedLong(getISeedItem(5));
+        for (int i = off; i < off + len; i++) {
+            long p1 = A12 * s1 - A13N * s0;
+            p1 -= (p1 / M1) * M1;
+            if (p1 < 0) {
+                p1 += M1;
+            }
+            s0 = s1;
+            s1 = s2;
+            s2 = p1;
+
+            long p2 = A21 * s5 - A23N * s3;
+            p2 -= (p2 / M2) * M2;
+            if (p2 < 0) {
+                p2 += M2;
+            }
+            s3 = s4;
+            s4 = s5;
+            s5 = p2;
+
+            out[i] = ((p1 > p2) ? (p1 - p2) : (p1 - p2 + M1)) * NORMC;
+        }
+        setISeedItem(0, (int) s0);
+        setISeedItem(1, (int) s1);
+        setISeedItem(2, (int) s2);
+        setISeedItem(3, (int) s3);
+        setISeedItem(4, (int) s4);
+        setISeedItem(5, (int) s5);
+    }
+
+    @Override
+    public Kind getKind() {
+        return Kind.LECUYER_CMRG;
+    }
+
+    @Override
+    public int getNSeed() {
+        return 6;
+    }
+
+    /**
+     * Advances a {@code .Random.seed} of this generator to the start of the next stream, i.e., by
+     * 2^127 steps (cf. {@code nextStream} in rngstream.c). The kind in element 0 is kept.
+     */
+    public static int[] nextStream(int[] seed) {
+        return advance(seed, A1P127, A2P127);
+    }
+
+    /**
+     * Advances a {@code .Random.seed} of this generator to the start of the next sub-stream, i.e.,
+     * by 2^76 steps (cf. {@code nextSubStream} in rngstream.c). The kind in element 0 is kept.
+     */
+    public static int[] nextSubStream(int[] seed) {
+        return advance(seed, A1P76, A2P76);
+    }
+
+    private static int[] advance(int[] seed, long[][] a1, long[][] a2) {
+        int[] result = new int[7];
+        result[0] = seed[0];
+        for (int i = 0; i < 3; i++) {
+            result[i + 1] = (int) multiplyRow(a1[i], seed, 1, M1);
+            result[i + 4] = (int) multiplyRow(a2[i], seed, 4, M2);
+        }
+        return result;
+    }
+
+    private static long multiplyRow(long[] row, int[] seed, int offset, long modulus) {
+        // all factors are below 2^32, so the sum fits into an unsigned 64-bit value (Uint64 in C)
+        long tmp = 0;
+        for (int j = 0; j < 3; j++) {
+            tmp = Long.remainderUnsigned(tmp + row[j] * Integer.toUnsignedLong(seed[offset + j]), modulus);
+        }
+        return tmp;
+    }
+}
@@ -154,54 +154,77 @@ public final class MersenneTwister extends RNGInitAdapter {
     @Override
     public double genrandDouble() {
         if (bufferIndex == BUFFER_SIZE) {
-            int localDummy0 = getISeedItem(0);
-            int localMti = localDummy0;
-            // It appears that this never happens
-            // sgenrand(4357);
-            assert localMti != N + 1;
-            int pos = 0;
-            while (true) {
-                int loopCount = Math.min(BUFFER_SIZE - pos, N - localMti);
-                for (int i = 0; i < loopCount; i++) {
-                    int y = getMt(localMti + i);
-                    /* Tempering */
-                    y ^= (y >>> 11);
-                    y ^= (y << 7) & TEMPERING_MASK_B;
-                    y ^= (y << 15) & TEMPERING_MASK_C;
-                    y ^= (y >>> 18);
-                    buffer[pos + i] = ((y + Integer.MIN_VALUE) - (double) Integer.MIN_VALUE) * I2_32M1;
-                }
-                for (int i = 0; i < loopCount; i++) {
-                    buffer[pos + i] = fixup(buffer[pos + i]);
-                }
-                localMti += loopCount;
-                pos += loopCount;
-
-                if (pos == BUFFER_SIZE) {
-                    break;
-                }
-                /* generate N words at one time */
-                int kk;
-                for (kk = 0; kk < N - M; kk++) {
-                    int y2y = (getMt(kk) & UPPERMASK) | (getMt(kk + 1) & LOWERMASK);
-                    setMt(kk, getMt(kk + M) ^ (y2y >>> 1) ^ mag01(y2y & 0x1));
-                }
-                for (; kk < N - 1; kk++) {
-                    int y2y = (getMt(kk) & UPPERMASK) | (getMt(kk + 1) & LOWERMASK);
-                    setMt(kk, getMt(kk + (M - N)) ^ (y2y >>> 1) ^ mag01(y2y & 0x1));
-                }
-                int y2y = (getMt(N - 1) & UPPERMASK) | (getMt(0) & LOWERMASK);
-                setMt(N - 1, getMt(M - 1) ^ (y2y >>> 1) ^ mag01(y2y & 0x1));
-
-                localMti = 0;
-            }
-            localDummy0 = localMti;
-            setISeedItem(0, localDummy0);
-            bufferIndex = 0;
+            fillBuffer();
         }
         return buffer[bufferIndex++];
     }
 
+    /**
+     * Copies the values from 'buffer' block-wise, refilling it as needed, which yields the same
+     * numbers as calling {@link #genrandDouble()} {@code len} times.
+     */
+    @Override
+    public void genrandDouble(double[] out, int off, int len) {
+        int pos = off;
+        int end = off + len;
+        while (pos < end) {
+            if (bufferIndex == BUFFER_SIZE) {
+                fillBuffer();
+            }
+            int count = Math.min(end - pos, BUFFER_SIZE - bufferIndex);
+            System.arraycopy(buffer, bufferIndex, out, pos, count);
+            bufferIndex += count;
+            pos += count;
+        }
+    }
+
+    private void fillBuffer() {
+        int localDummy0 = getISeedItem(0);
+        int localMti = localDummy0;
+        // It appears that this never happens
+        // sgenrand(4357);
+        assert localMti != N + 1;
+        int pos = 0;
+        while (true) {
+            int loopCount = Math.min(BUFFER_SIZE - pos, N - localMti);
+            for (int i = 0; i < loopCount; i++) {
+                int y = getMt(localMti + i);
+                /* Tempering */
+                y ^= (y >>> 11);
+                y ^= (y << 7) & TEMPERING_MASK_B;
+                y ^= (y << 15) & TEMPERING_MASK_C;
+                y ^= (y >>> 18);
+                buffer[pos + i] = ((y + Integer.MIN_VALUE) - (double) Integer.MIN_VALUE) * I2_32M1;
+            }
+            for (int i = 0; i < loopCount; i++) {
+                buffer[pos + i] = fixup(buffer[pos + i]);
+            }
+            localMti += loopCount;
+            pos += loopCount;
+
+            if (pos == BUFFER_SIZE) {
+                break;
+            }
+            /* generate N words at one time */
+            int kk;
+            for (kk = 0; kk < N - M; kk++) {
+                int y2y = (getMt(kk) & UPPERMASK) | (getMt(kk + 1) & LOWERMASK);
+                setMt(kk, getMt(kk + M) ^ (y2y >>> 1) ^ mag01(y2y & 0x1));
+            }
+            for (; kk < N - 1; kk++) {
+                int y2y = (getMt(kk) & UPPERMASK) | (getMt(kk + 1) & LOWERMASK);
+                setMt(kk, getMt(kk + (M - N)) ^ (y2y >>> 1) ^ mag01(y2y & 0x1));
+            }
+            int y2y = (getMt(N - 1) & UPPERMASK) | (getMt(0) & LOWERMASK);
+            setMt(N - 1, getMt(M - 1) ^ (y2y >>> 1) ^ mag01(y2y & 0x1));
+
+            localMti = 0;
+        }
+        localDummy0 = localMti;
+        setISeedItem(0, localDummy0);
+        bufferIndex = 0;
+    }
+
     private static int mag01(int v) {
         return (v & 1) != 0 ? MATRIXA : 0;
     }
@@ -37,4 +37,11 @@ public class TestBuiltin_RNGkind extends TestBase {
         // Note: GnuR also prints warning about NAs
         assertEval(Output.IgnoreErrorMessage, ".Internal(RNGkind(NULL, 'abc'))");
     }
+
+    @Test
+    public void testLEcuyerCMRG() {
+        assertEval("{ RNGkind('L\\'Ecuyer-CMRG'); set.seed(42); runif(5) }");
+        assertEval("{ RNGkind('L\\'Ecuyer-CMRG'); set.seed(42); x <- .Random.seed; list(x, parallel::nextRNGStream(x), parallel::nextRNGSubStream(x)) }");
+        assertEval("{ RNGkind('L\\'Ecuyer-CMRG'); set.seed(1); x <- runif(1000, 1, 3); set.seed(1); y <- vapply(1:1000, function(i) runif(1, 1, 3), 1); identical(x, y) }");
+    }
 }
@@ -68,4 +68,13 @@ public class TestBuiltin_eval extends TestBase {
     public void testReturnInEvalExpr() {
         assertEval("f1 <- function(x) { eval(quote(if(x>2){return()}else 1)); 10 };f1(5);f1(0)");
     }
+
+    @Test
+    public void testRepeatedEval() {
+        assertEval("{ e <- quote(x * 2); f <- function(x) eval(e); sapply(1:5, f) }");
+        assertEval("{ e <- quote(x + y); r <- 0; for (i in 1:100) r <- r + eval(e, list(x = i, y = 1)); r }");
+        assertEval("{ e <- quote(a); envs <- lapply(1:20, function(i) { env <- new.env(); assign('a', i, env); env }); sapply(envs, function(env) eval(e, env)) }");
+        assertEval("{ e <- quote(x); f <- function(x) eval(e); g <- function(y) { x <- y * 10; eval(e) }; c(f(1), g(2), f(3), g(4)) }");
+        assertEval("{ e <- quote(x <- x + 1); env <- new.env(); env$x <- 0; r <- numeric(); for (i in 1:20) { eval(e, env); r <- c(r, eval(e, list(x = i))) }; list(env$x, r) }");
+    }
 }
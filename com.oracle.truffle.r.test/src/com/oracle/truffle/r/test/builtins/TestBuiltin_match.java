@@ -207,4 +207,17 @@ public class TestBuiltin_match extends TestBase {
         assertEval("{ match(c(7, 42), NULL, 1L) }");
         assertEval("{ match(NULL, NULL) }");
     }
+
+    @Test
+    public void testMatchRepeatedTable() {
+        // repeated lookups in the same (shared) table reuse its hash index
+        assertEval("{ t <- c(5:104, NA, 1:10); f <- function(x) match(x, t); c(f(3L), f(NA), f(200L), f(c(104L, 1L, 5L))) }");
+        assertEval("{ t <- c(as.double(100:1), NaN, NA, 3); f <- function(x) match(x, t); c(f(3), f(NaN), f(NA), f(0.5)) }");
+        assertEval("{ t <- paste0('v', c(1:80, 5)); f <- function(x) x %in% t; c(f('v5'), f('v81'), f(c('v1', 'w1'))) }");
+        assertEval("{ t <- c(1:80, 5L, 7L); f <- function(x) match(7L, x); r <- f(t); t[1] <- 7L; c(r, f(t)) }");
+        assertEval("{ t <- c(1:80, 5L, 7L, 80L); g <- function(x) list(unique(x), duplicated(x), duplicated(x, fromLast=TRUE), anyDuplicated(x), anyDuplicated(x, fromLast=TRUE)); g(t); t[2] <- 1L; g(t) }");
+        // indexed (shared) and non-indexed vectors compare 0/-0 and NA/NaN the same way
+        assertEval("{ x <- c(as.double(1:70), NA, NaN, NA, NaN, 0, -0); g <- function(x) list(unique(x), which(duplicated(x)), anyDuplicated(x), match(c(-0, NA, NaN), x)); r1 <- g(x); y <- x; r2 <- g(x); list(r1, identical(r1, r2)) }");
+        assertEval("{ x <- c(NA, NaN, 0, -0, NA, NaN, 1); list(unique(x), duplicated(x), anyDuplicated(x)) }");
+    }
 }
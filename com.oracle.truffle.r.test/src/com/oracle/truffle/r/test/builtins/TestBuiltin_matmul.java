@@ -34,4 +34,16 @@ public class TestBuiltin_matmul extends TestBase {
         assertEval("m1 <- matrix(1:6,3,2,dimnames=list(c('a','b','c'),c('c1','c2')));m2 <- matrix(c(3,4),2,1,dimnames=list(c('a2','b2'),c('col'))); m1 %*% m2; ");
         assertEval("vec <- c(1,2); names(vec) <- c('a','b'); mat <- matrix(c(8,3),1,2,dimnames=list('row',c('c1','c2'))); vec %*% mat; ");
     }
+
+    @Test
+    public void testMatmulLarge() {
+        // large enough to be computed in parallel, the values keep all sums exact
+        assertEval("m <- matrix(as.double(1:(300*200) %% 7), 300, 200); n <- matrix(as.double(1:(200*250) %% 5), 200, 250); r <- m %*% n; dim(r); sum(r); r[c(1, 77, 300), c(1, 128, 250)]");
+        assertEval("m <- matrix(as.double(1:(300*200) %% 7), 300, 200); m[5, 3] <- NA; r <- m %*% t(m); sum(is.na(r)); r[c(1, 5), c(1, 2)]");
+        assertEval("m <- matrix(as.double(1:(300*200) %% 7), 300, 200); r <- crossprod(m); isSymmetric(r); sum(r)");
+        assertEval("m <- matrix(complex(real=1:(300*200) %% 7, imaginary=1:(300*200) %% 3), 300, 200); r <- m %*% t(m); sum(r); r[c(1, 300), c(2, 299)]");
+        // complex NA is sticky in both parts, also above the parallel threshold
+        assertEval("m <- matrix(complex(real=1:(300*200) %% 7, imaginary=1:(300*200) %% 3), 300, 200); m[5, 3] <- NA; r <- m %*% t(m); sum(is.na(r)); r[c(1, 5), c(1, 5)]");
+        assertEval("m <- matrix(complex(real=1:(300*200) %% 7, imaginary=1:(300*200) %% 3), 300, 200); n <- t(m); n[3, 7] <- complex(real=NA, imaginary=1); r <- m %*% n; sum(is.na(r)); r[c(1, 2), c(6, 7)]");
+    }
 }
@@ -37,4 +37,17 @@ public class TestBuiltin_newenv extends TestBase {
         assertEval(Output.ContainsReferences, "parent.env(new.env())");
         assertEval(Output.ContainsReferences, "e <- new.env(); e; parent.env(new.env(TRUE, e))");
     }
+
+    @Test
+    public void testHashedEnv() {
+        assertEval("e <- new.env(hash=TRUE); for (i in 1:1000) assign(paste0('k', i), i, envir=e); c(length(ls(e)), get('k500', envir=e), exists('k1001', envir=e, inherits=FALSE))");
+        assertEval("e <- new.env(); e$a <- 1; e[['b']] <- 2; assign('c', 3, envir=e); rm('b', envir=e); c(ls(e), mget(c('a', 'c'), envir=e))");
+        assertEval("e <- new.env(); for (i in 1:200) e[[as.character(i)]] <- i; for (i in seq(1, 200, 2)) rm(list=as.character(i), envir=e); sum(unlist(mget(ls(e), envir=e)))");
+        assertEval("e <- new.env(); e$x <- 1; e$y <- 2; evalq(x + y, e)");
+        assertEval("e <- new.env(); e$x <- 10; f <- function() x; environment(f) <- e; e$x <- 20; f()");
+        assertEval("e <- new.env(); e$x <- 1; e2 <- new.env(parent=e); e$y <- 2; local(x + y, e2)");
+        assertEval("e <- new.env(); e$x <- 1; lockBinding('x', e); tryCatch(e$x <- 2, error=function(c) 'locked'); e$x");
+        assertEval("e <- new.env(); e$x <- 1; lockEnvironment(e); tryCatch(assign('y', 2, envir=e), error=function(c) 'locked')");
+        assertEval("e <- new.env(); e$x <- 1; makeActiveBinding('y', function() 42, e); c(e$x, e$y)");
+    }
 }
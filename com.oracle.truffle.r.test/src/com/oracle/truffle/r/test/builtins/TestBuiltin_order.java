@@ -165,4 +165,24 @@ public class TestBuiltin_order extends TestBase {
 
         assertEval("order(c(1,2,0), decreasing=NA)");
     }
+
+    @Test
+    public void testOrderLarge() {
+        // inputs above the radix sort threshold, with many ties
+        assertEval("{ x <- (1:1000 * 7919) %% 101 - 50; x[c(3, 500)] <- NA; o <- order(x); head(o, 20); tail(o, 5) }");
+        // expected permutations built without order() on the large input: each distinct value
+        // (sorted by sort()) contributes its indices in increasing order, i.e. ties stay stable
+        assertEval("{ x <- (1:1000 * 7919) %% 101 - 50; x[c(3, 500)] <- NA; byValue <- function(v) unlist(lapply(v, function(u) which(x == u))); " +
+                        "c(identical(order(x), c(byValue(sort(unique(x))), which(is.na(x)))), identical(order(x, decreasing=TRUE), c(byValue(sort(unique(x), decreasing=TRUE)), which(is.na(x)))), " +
+                        "identical(order(x, decreasing=TRUE, na.last=FALSE), c(which(is.na(x)), byValue(sort(unique(x), decreasing=TRUE))))) }");
+        assertEval("{ x <- (1:1000 * 7919) %% 7; y <- ((1:1000 * 31) %% 11) / 2; z <- paste0('s', 1:1000 %% 3); k <- unique(data.frame(x, y, z, stringsAsFactors=FALSE)); " +
+                        "byKey <- function(ko) unlist(lapply(ko, function(i) which(x == k$x[i] & y == k$y[i] & z == k$z[i]))); " +
+                        "c(nrow(k) < 256, identical(order(x, y, z), byKey(order(k$x, k$y, k$z))), identical(order(x, y, z, decreasing=TRUE), byKey(order(k$x, k$y, k$z, decreasing=TRUE))), " +
+                        "identical(order(z, y, x, decreasing=TRUE), byKey(order(k$z, k$y, k$x, decreasing=TRUE)))) }");
+        assertEval("{ x <- (1:1000 * 7919) %% 101 - 50; x[c(3, 500)] <- NA; head(order(x, decreasing=TRUE, na.last=FALSE), 20) }");
+        assertEval("{ x <- ((1:1000 * 7919) %% 101 - 50) / 4; x[c(3, 500)] <- NA; x[7] <- -0; head(order(x), 20); head(order(x, decreasing=TRUE), 20); head(order(x, na.last=NA), 20) }");
+        assertEval("{ x <- (1:1000 * 7919) %% 101 > 50; head(order(x), 20); head(order(factor(x)), 20) }");
+        assertEval("{ x <- paste0('s', (1:1000 * 7919) %% 101); head(order(x), 20); head(order(x, decreasing=TRUE), 20) }");
+        assertEval("{ x <- (1:1000 * 7919) %% 7; y <- ((1:1000 * 31) %% 11) / 2; y[c(5, 50)] <- NA; z <- paste0('s', 1:1000 %% 3); head(order(x, y, z), 20); head(order(x, y, z, decreasing=TRUE), 20); head(order(z, x, y, na.last=FALSE), 20) }");
+    }
 }
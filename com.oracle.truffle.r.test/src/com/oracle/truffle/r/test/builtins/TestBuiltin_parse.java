@@ -62,6 +62,13 @@ public class TestBuiltin_parse extends TestBase {
         assertEval(".Internal(parse(stdin(), c(1,2), c('expr1', 'expr2'), '?', '<weird-text', 'unknown'))");
     }
 
+    @Test
+    public void testRepeatedSource() {
+        assertEval("{ f <- tempfile(); writeLines(c('x <- list(1L, 2.5, NA, NA_integer_, NA_real_, NA_character_, \"a\", 1i, TRUE, NULL, Inf)', 'g <- function(a, b=2, ...) a[b, ]'), f); " +
+                        "r <- lapply(1:2, function(i) { source(f, local=TRUE); list(x, g(matrix(1:4, 2)), deparse(g)) }); unlink(f); c(identical(r[[1]], r[[2]]), is.na(r[[2]][[1]][[6]])) }");
+        assertEval("{ f <- tempfile(); writeLines('h <- function(x) if (x > 1) \"big\" else \"small\"', f); for (i in 1:2) source(f); unlink(f); c(h(1), h(2)) }");
+    }
+
     @Test
     public void testSrcfile() {
         assertEval("parse(text='', srcfile=srcfile(system.file('testfile')))");
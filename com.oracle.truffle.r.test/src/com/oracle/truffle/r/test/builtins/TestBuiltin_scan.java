@@ -69,6 +69,19 @@ public class TestBuiltin_scan extends TestBase {
 
     }
 
+    @Test
+    public void testScanFields() {
+        assertEval("{ con<-textConnection(c(\"1,2,\", \"4,,6\")); scan(con, what=list(0, 0, 0), sep=\",\") }");
+        assertEval("{ con<-textConnection(c(\"1 2 # comment\", \"# only comment\", \"3 4\")); scan(con, comment.char=\"#\") }");
+        assertEval("{ con<-textConnection(c(\"a,\\\"multi\", \"line\\\"\", \"b,c\")); scan(con, what=list(\"\", \"\"), sep=\",\") }");
+        assertEval("{ con<-textConnection(c(\"a,\\\"say \\\"\\\"hi\\\"\\\"\\\"\")); scan(con, what=list(\"\", \"\"), sep=\",\") }");
+        assertEval("{ con<-textConnection(c(\"1 2\", \"3 4\", \"5 6\")); x <- scan(con, nmax=2, quiet=TRUE); list(x, readLines(con)) }");
+        assertEval("con <- textConnection(\"x,y\\n1,'a # b'\\n# comment\\n2,c\"); read.csv(con, quote=\"'\", comment.char=\"#\")");
+        assertEval("{ con<-textConnection(c(\"\\ta\\t\", \"b\\t c \\t\")); scan(con, what=list(\"\", \"\", \"\"), sep=\"\\t\") }");
+        assertEval("{ con<-textConnection(c(\"\\ta\\t\", \"b\\t c \\t\")); scan(con, what=list(\"\", \"\", \"\"), sep=\"\\t\", strip.white=TRUE) }");
+        assertEval("{ con<-textConnection(c(\" 1, 2 \", \"3 ,4\")); scan(con, what=list(0L, 0L), sep=\",\") }");
+    }
+
     @Test
     public void testReadCsv() {
         String testData = "n1,n2\nv1,\"v5, v5\"\n";
@@ -67,6 +67,13 @@ public class TestBuiltin_strptime extends TestBase {
         assertEval("argv <- list(c('1937/01/01', '1916/01/01', '1913/01/01', '1927/01/01', '1947/01/01', '1913/01/01', '1917/01/01', '1923/01/01', '1921/01/01', '1926/01/01', '1920/01/01', '1915/01/01', '1914/01/01', '1914/01/01', '1914/01/01', '1919/01/01', '1948/01/01', '1911/01/01', '1909/01/01', '1913/01/01', '1925/01/01', '1926/01/01', '1910/01/01', '1917/01/01', '1936/01/01', '1938/01/01', '1960/01/01', '1915/01/01', '1919/01/01', '1924/01/01', '1914/01/01', '1905/01/01', '1921/01/01', '1929/01/01', '1926/01/01', '1921/01/01', '1908/01/01', '1928/01/01', '1919/01/01', '1921/01/01', '1925/01/01', '1934/01/01', '1927/01/01', '1928/01/01', '1934/01/01', '1922/01/01', '1923/01/01', '1915/01/01', '1934/01/01', '1925/01/01', '1922/01/01', '1930/01/01', '1924/01/01', '1923/01/01', '1919/01/01', '1932/01/01', '1930/01/01', '1923/01/01', '1930/01/01', '1922/01/01', '1919/01/01', '1932/01/01', '1939/01/01', '1923/01/01', '1920/01/01', '1919/01/01', '1952/01/01', '1927/01/01', '1924/01/01', '1919/01/01', '1925/01/01', '1945/01/01', '1916/01/01', '1943/01/01', '1920/01/01', '1920/01/01', '1931/01/01', '1924/01/01', '1919/01/01', '1926/01/01', '1920/01/01', '1952/01/01', '1919/01/01', '1930/01/01', '1925/01/01', '1924/01/01', '1926/01/01', '1918/01/01', '1922/01/01', '1921/01/01', '1925/01/01', '1928/01/01', '1925/01/01', '1929/01/01', '1933/01/01', '1947/01/01', '1950/01/01', '1945/01/01', '1924/01/01', '1939/01/01', '1924/01/01', '1933/01/01', '1928/01/01'), '%Y/%m/%d', ''); .Internal(strptime(argv[[1]], argv[[2]], argv[[3]]))");
     }
 
+    @Test
+    public void testISODateTime() {
+        assertEval("{ x <- as.POSIXct(c('2017-03-05 10:11:12', '2017-3-5 1:2:3', '1969-12-31 23:59:59', '2000-02-29 00:00:00', NA), tz='UTC', format='%Y-%m-%d %H:%M:%S'); c(as.numeric(x), format(x, '%Y-%m-%d %H:%M:%S')) }");
+        assertEval("{ x <- as.POSIXct(c('2017-03-05', '1900-01-01', '2017-03-05 10:11:12'), tz='UTC', format='%F'); c(as.numeric(x), format(x, '%F %T')) }");
+        assertEval("{ x <- strptime(c('2017-03-05T10:11', '2017-03-05 10:11'), '%Y-%m-%dT%H:%M', tz='UTC'); c(x$year, x$mon, x$mday, x$hour, x$min, x$sec) }");
+    }
+
     @Test
     public void testArgsCasts() {
         assertEval("{ .Internal(strptime('1970-01-01 0:3:22', '%H:%M:%S', 'UTC')); }");
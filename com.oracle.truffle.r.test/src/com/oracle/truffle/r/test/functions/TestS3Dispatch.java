@@ -144,6 +144,21 @@ public class TestS3Dispatch extends TestRBase {
         assertEval("{ assign('[[.myclass', function(a,b) 42, envir=.__S3MethodsTable__.); x<-1; class(x)<-'myclass'; res <- x[[99]]; rm('[[.myclass', envir=.__S3MethodsTable__.); res; }");
     }
 
+    @Test
+    public void testMegamorphicDispatch() {
+        assertEval("{ g <- function(x) UseMethod('g'); g.default <- function(x) 'default'; for (cl in c('a','b','c','d','e')) assign(paste0('g.', cl), eval(bquote(function(x) .(cl)))); " +
+                        "objs <- lapply(c('a','b','c','d','e','f'), function(cl) structure(1, class=cl)); for (i in 1:3) print(sapply(objs, g)) }");
+        assertEval("{ g <- function(x) UseMethod('g'); g.default <- function(x) 'default'; objs <- lapply(c('a','b','c','d','e'), function(cl) structure(1, class=cl)); res <- sapply(objs, g); " +
+                        "g.c <- function(x) 'new c'; res <- c(res, sapply(objs, g)); rm(g.c); c(res, sapply(objs, g)) }");
+        assertEval("{ g <- function(x) UseMethod('g'); g.default <- function(x) 'default'; objs <- lapply(c('a','b','c','d','e'), function(cl) structure(1, class=c(cl, 'base'))); res <- sapply(objs, g); " +
+                        "e <- new.env(); assign('g.base', function(x) 'attached', envir=e); attach(e, name='s3cache'); res <- c(res, sapply(objs, g)); detach('s3cache'); c(res, sapply(objs, g)) }");
+        assertEval("{ g <- function(x) UseMethod('g'); g.default <- function(x) 'default'; objs <- lapply(c('a','b','c','d','e'), function(cl) structure(1, class=cl)); " +
+                        "f <- function() { r <- character(); for (o in objs) r <- c(r, g(o)); g.c <- function(x) 'c1'; for (o in objs) r <- c(r, g(o)); rm(g.c); for (o in objs) r <- c(r, g(o)); " +
+                        "g.c <- function(x) 'c2'; for (o in objs) r <- c(r, g(o)); r }; f() }");
+        assertEval("{ g <- function(x) UseMethod('g'); g.default <- function(x) 'default'; objs <- lapply(c('a','b','c','d','e'), function(cl) structure(1, class=cl)); " +
+                        "g.c <- function(x) 'c1'; res <- sapply(objs, g); rm(g.c); res <- c(res, sapply(objs, g)); g.c <- function(x) 'c2'; c(res, sapply(objs, g)) }");
+    }
+
     @Override
     public String getTestDir() {
         return "S3";
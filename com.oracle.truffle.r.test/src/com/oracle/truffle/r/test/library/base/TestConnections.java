@@ -182,6 +182,13 @@ public class TestConnections extends TestRBase {
         assertEval("{ zz <- rawConnection(as.raw(c(65, 66, 67, 0, 97, 98, 99))); readChar(zz, 6) }");
     }
 
+    @Test
+    public void testCompressedFiles() {
+        assertEval("{ fn <- tempfile(); zz <- bzfile(fn, 'w'); writeLines(as.character(1:10000), zz); close(zz); zz <- bzfile(fn, 'a'); writeLines('appended', zz); close(zz); res <- readLines(bzfile(fn)); unlink(fn); c(length(res), res[c(1, 10000, 10001)]) }");
+        assertEval("{ fn <- tempfile(); zz <- xzfile(fn, 'w'); writeLines(as.character(1:10000), zz); close(zz); res <- readLines(xzfile(fn)); unlink(fn); c(length(res), res[c(1, 10000)]) }");
+        assertEval("{ fn <- tempfile(); zz <- bzfile(fn, 'wb'); writeBin(1:1000, zz); close(zz); zz <- file(fn, 'rb'); res <- readBin(zz, integer(), 2000); close(zz); unlink(fn); sum(res) }");
+    }
+
     @Test
     public void testEncoding() {
         // use inexisting charset
@@ -208,6 +215,15 @@ public class TestConnections extends TestRBase {
         assertEval(Output.MayIgnoreWarningContext, TestBase.template(
                         "{ zz <- file('',\"w+b\", blocking=%0); writeBin(as.raw(%1), zz, useBytes=T); seek(zz, 0); res <- readLines(zz, 2, warn=%2, skipNul=%3); close(zz); res }",
                         LVAL, arr(lineWithNul, twoLinesOneNul, lineWithNulIncomp, twoLinesOneNulIncomp), LVAL, LVAL));
+
+        // mixed line terminators, the byte after a lone '\r' must not be lost
+        assertEval("{ zz <- file('', 'w+b'); writeBin(charToRaw('a\\rb\\r\\nc\\n\\rd'), zz); seek(zz, 0); res <- c(readLines(zz, 1), readLines(zz, 1), readLines(zz)); close(zz); res }");
+        // lines longer than the connection buffer
+        assertEval("{ zz <- file('', 'w+'); writeLines(c(strrep('x', 40000), 'y', strrep('z', 20000)), zz); seek(zz, 0); res <- nchar(readLines(zz)); close(zz); res }");
+        // non-ASCII lines
+        assertEval("{ zz <- file('', 'w+', encoding = 'UTF-8'); writeLines(c('abc', 'äöü', 'x'), zz); seek(zz, 0); res <- readLines(zz); close(zz); res }");
+        // readLines followed by readBin continues after the consumed line terminator
+        assertEval("{ zz <- file('', 'w+b'); writeBin(charToRaw('one\\ntwo\\r\\nthree'), zz); seek(zz, 0); res <- readLines(zz, 2); bin <- readBin(zz, raw(), 10); close(zz); list(res, rawToChar(bin)) }");
     }
 
     @Test
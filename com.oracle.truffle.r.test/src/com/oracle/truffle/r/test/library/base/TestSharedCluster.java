@@ -35,4 +35,20 @@ public class TestSharedCluster extends TestBase {
                         "library(parallel); fun <- function(data) { cl <- makeCluster(%0, ifelse(exists('engine', where=R.version),'SHARED','PSOCK')); parLapply(cl, data, function(x) x+1); stopCluster(cl) }; fun(1:100)",
                         "123456789".split("")));
     }
+
+    @Test
+    public void testMclapply() {
+        assertEval("library(parallel); unlist(mclapply(1:20, function(x) x * 2, mc.cores = 2)); unlist(mclapply(1:20, function(x) x * 3, mc.cores = 2))");
+        assertEval("library(parallel); mclapply(c(a = 1, b = 2, c = 3), function(x) x + 1, mc.cores = 2)");
+        assertEval("library(parallel); r1 <- mclapply(1:7, function(x) x, mc.cores = 2); r2 <- mclapply(1:50, sqrt, mc.cores = 3); identical(r2, lapply(1:50, sqrt))");
+        assertEval("library(parallel); unlist(mclapply(1:5, function(x, y) x + y, y = 10, mc.cores = 2, mc.preschedule = FALSE))");
+        // with the worker pool enabled, a later shared cluster must still be possible
+        assertEval("library(parallel); options(fastr.mc.pool = TRUE); r1 <- mclapply(1:10, function(x) x * 2, mc.cores = 2); r2 <- mclapply(1:10, function(x) x * 2, mc.cores = 2); " +
+                        "cl <- makeCluster(2, ifelse(exists('engine', where=R.version),'SHARED','PSOCK')); r3 <- parLapply(cl, 1:10, function(x) x * 2); stopCluster(cl); " +
+                        "r4 <- mclapply(1:10, function(x) x * 2, mc.cores = 2); if (exists('mc.pool.stop', envir = asNamespace('parallel'))) parallel:::mc.pool.stop(); options(fastr.mc.pool = NULL); identical(r1, r2) && identical(r1, r3) && identical(r1, r4)");
+        // random numbers must not depend on which worker happens to pick up a chunk
+        assertEval(TestBase.template("library(parallel); RNGkind(\"L'Ecuyer-CMRG\"); f <- function(i) { Sys.sleep(runif(1, 0, 0.01)); runif(2) }; " +
+                        "set.seed(42); a <- mclapply(1:40, f, mc.cores = 3, mc.preschedule = %0); set.seed(42); b <- mclapply(1:40, f, mc.cores = 3, mc.preschedule = %0); RNGkind('default'); identical(a, b)",
+                        new String[]{"TRUE", "FALSE"}));
+    }
 }
@@ -12,6 +12,7 @@ package com.oracle.truffle.r.test.library.base;
 
 import org.junit.Test;
 
+import com.oracle.truffle.r.runtime.FastROptions;
 import com.oracle.truffle.r.test.ArithmeticWhiteList;
 import com.oracle.truffle.r.test.TestBase;
 
@@ -742,6 +743,15 @@ public class TestSimpleArithmetic extends TestBase {
         assertEval("{ x <- 3 ; f <- function(z) { if (z) { x <- 1 } ; x <- x - 1L ; x } ; f(FALSE) }");
     }
 
+    @Test
+    public void testLongVectors() {
+        // long enough to be split across threads
+        assertEval("{ x <- seq(0, 1, length.out=3000000); y <- x * 2 + 1; c(length(y), y[c(1, 1500001, 3000000)], sum(y == 2 * x + 1)) }");
+        assertEval("{ x <- seq(0, 1, length.out=3000000); x[c(10, 2000000)] <- NA; y <- x / 2 - x; c(sum(is.na(y)), y[c(1, 3000000)], anyNA(y[11:1999999])) }");
+        assertEval("{ x <- seq(-1, 1, length.out=3000000); y <- exp(x); z <- sqrt(abs(x)); c(y[c(1, 3000000)], z[c(1, 1500000)], sum(is.na(y)), sum(is.na(z))) }");
+        assertEval("{ x <- c(NA, seq(0, 1, length.out=3000000)); y <- -x; c(is.na(y[1]), y[3000001], anyNA(y[-1])) }");
+    }
+
     @Test
     public void testXor() {
         assertEval(" xor(TRUE, TRUE) ");
@@ -752,4 +762,27 @@ public class TestSimpleArithmetic extends TestBase {
         assertEval("{ xor(0:2, 2:4) }");
         assertEval("{ xor(0:2, 2:7) }");
     }
+
+    @Test
+    public void testDeferredArithmetic() {
+        // defer all double vector arithmetic, the output must be the same as with eager evaluation
+        int threshold = FastROptions.DeferredArithmeticThreshold.getNonNegativeIntValue();
+        FastROptions.setValue("DeferredArithmeticThreshold", 1);
+        try {
+            assertEval("{ a <- c(1, NA, 3, NaN, 5, Inf); b <- c(2, 3, NA, NA, 0, Inf); list(a * b + a / b - 1, b - a, NaN + NA, NA_real_ * c(NaN, 1)) }");
+            assertEval("{ a <- c(1.5, 2, 3); b <- a * 2 + 1; a[2] <- 10; list(a, b, b - a) }");
+            assertEval("{ a <- c(1.5, 2, 3); b <- a + 1; b[2] <- NA; c(b, sum(b), sum(b, na.rm=TRUE), max(b, na.rm=TRUE)) }");
+            assertEval("{ a <- c(x=1, y=2, z=3); list(a * 2 + c(1, 2, 3), c(1, 2, 3) - a) }");
+            assertEval("{ m <- matrix(c(1, 2, 3, 4), 2); m * 2 + 1 }");
+            assertEval("{ a <- c(1, 2, 3, 4); list(a + c(10, 20), a * 2 / c(1, 2, 4, 8)) }");
+            assertEval("{ a <- c(1, 2, 3); a + c(10, 20) }");
+            assertEval("{ x <- c(1.5, 2.5) * 2L; y <- c(1L, 2L) / 2; z <- 1:4 + 0.5; list(typeof(x), x, typeof(y), y, z * 2) }");
+            assertEval("{ x <- c(1, 2, 3) * 2; list(as.double(x), as.integer(x), as.character(x), is.double(x), length(x), identical(x, c(2, 4, 6))) }");
+            assertEval("{ x <- c(2, 4, 6) / 2; x[2] <- 5; names(x) <- c('a', 'b', 'c'); y <- x; attributes(y) <- NULL; list(x, y) }");
+            assertEval("{ x <- c(1, 2, 3) - 1; y <- x; y[1] <- 100; list(x, y, max(x), prod(y), mean(x + y)) }");
+            assertEval("{ x <- seq(0.5, 5, by=0.5) * 2 - 1; list(x, rev(x), x[x > 3], cumsum(x)) }");
+        } finally {
+            FastROptions.setValue("DeferredArithmeticThreshold", threshold);
+        }
+    }
 }
@@ -299,6 +299,27 @@ public class TestJavaInterop extends TestBase {
         assertEvalFastR("ja <- new.java.array('java.lang.String', 0L); .fastr.interop.fromArray(ja)", "list()");
     }
 
+    @Test
+    public void testFromPrimitiveArray() {
+        assertEvalFastR(CREATE_TRUFFLE_OBJECT + " v <- .fastr.interop.fromArray(to$fieldDoubleArray); sum(v)", "6.3");
+        assertEvalFastR(CREATE_TRUFFLE_OBJECT + " v <- .fastr.interop.fromArray(to$fieldIntegerArray); v * 2L", "c(2L, 4L, 6L)");
+        assertEvalFastR(CREATE_TRUFFLE_OBJECT + " v <- .fastr.interop.fromArray(to$fieldBooleanArray); which(v)", "c(1L, 3L)");
+        // modifications in R must not change the Java array
+        assertEvalFastR(CREATE_TRUFFLE_OBJECT + " v <- .fastr.interop.fromArray(to$fieldIntegerArray); v[2] <- 42L; c(v[2], to$fieldIntegerArray[2])", "c(42L, 2L)");
+        assertEvalFastR(CREATE_TRUFFLE_OBJECT + " v <- .fastr.interop.fromArray(to$fieldDoubleArray); names(v) <- c('a', 'b', 'c'); v", "c(a=1.1, b=2.1, c=3.1)");
+        assertEvalFastR(CREATE_TRUFFLE_OBJECT + " v <- .fastr.interop.fromArray(to$fieldDoubleArray); a <- as.java.array(v); c(java.class(a), a[3])", "c('[D', '3.1')");
+        // the wrappers must be accepted wherever plain vectors are
+        assertEvalFastR(CREATE_TRUFFLE_OBJECT + " v <- .fastr.interop.fromArray(to$fieldDoubleArray); c(v, 4.1)", "c(1.1, 2.1, 3.1, 4.1)");
+        assertEvalFastR(CREATE_TRUFFLE_OBJECT + " v <- .fastr.interop.fromArray(to$fieldDoubleArray); unserialize(serialize(v, NULL))", "c(1.1, 2.1, 3.1)");
+        assertEvalFastR(CREATE_TRUFFLE_OBJECT + " v <- .fastr.interop.fromArray(to$fieldIntegerArray); unserialize(serialize(v, NULL))", "c(1L, 2L, 3L)");
+        assertEvalFastR(CREATE_TRUFFLE_OBJECT + " v <- .fastr.interop.fromArray(to$fieldBooleanArray); unserialize(serialize(v, NULL))", "c(TRUE, FALSE, TRUE)");
+        assertEvalFastR(CREATE_TRUFFLE_OBJECT + " v <- .fastr.interop.fromArray(to$fieldDoubleArray); isS4(asS4(v))", "TRUE");
+        assertEvalFastR(CREATE_TRUFFLE_OBJECT + " v <- .fastr.interop.fromArray(to$fieldIntegerArray); isS4(asS4(v))", "TRUE");
+        // .Call round-trips through native code that reads the data with REAL and INTEGER
+        assertEvalFastR(CREATE_TRUFFLE_OBJECT + " v <- .fastr.interop.fromArray(to$fieldDoubleArray); hcl(v * 100)", "hcl(c(110, 210, 310))");
+        assertEvalFastR(CREATE_TRUFFLE_OBJECT + " v <- .fastr.interop.fromArray(to$fieldIntegerArray); rgb(v, v, v, maxColorValue = 255)", "rgb(1:3, 1:3, 1:3, maxColorValue = 255)");
+    }
+
     public void testAsVectorFromArray(String field, String type) {
         assertEvalFastR(CREATE_TRUFFLE_OBJECT + " v <- as.vector(to$" + field + "); is.vector(v)", "TRUE");
         assertEvalFastR(CREATE_TRUFFLE_OBJECT + " v <- as.vector(to$" + field + "); typeof(v)", getRValue(type));
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.fastr;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+// Checkstyle: stop line length check
+public class TestRegExpCache extends TestBase {
+
+    @Test
+    public void testCacheHits() {
+        assertEvalFastR("{ invisible(.fastr.regexp.cacheinfo(TRUE)); grepl('a+b', c('ab', 'xb')); grepl('a+b', 'aab'); .fastr.regexp.cacheinfo()[['hits']] >= 1 }", "TRUE");
+        assertEvalFastR("{ invisible(.fastr.regexp.cacheinfo(TRUE)); gsub('[[:space:]]+', '_', 'a  b'); sub('[[:space:]]+', '_', 'c d'); .fastr.regexp.cacheinfo()[['hits']] >= 1 }", "TRUE");
+        assertEvalFastR("{ invisible(.fastr.regexp.cacheinfo(TRUE)); regexpr('b+', 'abbc', perl=TRUE); gregexpr('b+', 'abbcb', perl=TRUE); .fastr.regexp.cacheinfo()[['hits']] >= 1 }", "TRUE");
+        assertEvalFastR("{ invisible(.fastr.regexp.cacheinfo(TRUE)); grepl('a', 'a', fixed=TRUE); .fastr.regexp.cacheinfo()[['size']] }", "0");
+    }
+
+    @Test
+    public void testCachedResults() {
+        assertEval("{ x <- c('ab', 'xb', NA, 'aab'); list(grepl('a+b', x), grepl('a+b', x), grepl('A+B', x, ignore.case=TRUE)) }");
+        assertEval("{ x <- c('a b', 'c  d'); list(gsub('[[:space:]]+', '_', x), gsub('[[:space:]]+', '_', x), strsplit(x, '[[:space:]]+'), strsplit(x, '[[:space:]]+', perl=TRUE)) }");
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.fastrGrid;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.library.fastrGrid.device.DrawingContext;
+import com.oracle.truffle.r.library.fastrGrid.device.GridColor;
+import com.oracle.truffle.r.library.fastrGrid.device.GridDevice.DeviceCloseException;
+import com.oracle.truffle.r.library.fastrGrid.device.SVGDevice;
+import com.oracle.truffle.r.test.TestBase;
+
+public class SVGDeviceTests extends TestBase {
+    private static final DrawingContext CTX = new DrawingContext() {
+        @Override
+        public byte[] getLineType() {
+            return GRID_LINE_SOLID;
+        }
+
+        @Override
+        public double getLineWidth() {
+            return 1;
+        }
+
+        @Override
+        public GridLineJoin getLineJoin() {
+            return GridLineJoin.ROUND;
+        }
+
+        @Override
+        public GridLineEnd getLineEnd() {
+            return GridLineEnd.ROUND;
+        }
+
+        @Override
+        public double getLineMitre() {
+            return 10;
+        }
+
+        @Override
+        public GridColor getColor() {
+            return new GridColor(0, 0, 0, GridColor.OPAQUE_ALPHA);
+        }
+
+        @Override
+        public double getFontSize() {
+            return 12;
+        }
+
+        @Override
+        public GridFontStyle getFontStyle() {
+            return GridFontStyle.PLAIN;
+        }
+
+        @Override
+        public String getFontFamily() {
+            return "";
+        }
+
+        @Override
+        public double getLineHeight() {
+            return 1.2;
+        }
+
+        @Override
+        public GridColor getFillColor() {
+            return GridColor.TRANSPARENT;
+        }
+    };
+
+    @Test
+    public void decimalsRoundLikeFormat() throws IOException, DeviceCloseException {
+        Path file = Files.createTempFile("svgtest", ".svg");
+        try {
+            // "%.3f" keeps the sign of small negative values and rounds halves away from zero
+            String svg = drawCircle(file, -0.0004, 0.0015);
+            assertTrue(svg, svg.contains("cx='-0.000'"));
+            assertTrue(svg, svg.contains("r='0.002'"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void contentsDoNotReplaceFile() throws IOException, DeviceCloseException {
+        Path file = Files.createTempFile("svgtest", ".svg");
+        Files.write(file, "original".getBytes(StandardCharsets.UTF_8));
+        try {
+            String svg = drawCircle(file, 1, 1);
+            assertTrue(svg, svg.contains("</svg>"));
+            assertEquals("original", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void closeSavesFile() throws IOException, DeviceCloseException {
+        Path file = Files.createTempFile("svgtest", ".svg");
+        try {
+            SVGDevice device = new SVGDevice(file.toString(), 7, 7);
+            device.openNewPage();
+            device.drawCircle(CTX, 1, 1, 1);
+            device.close();
+            String svg = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            assertTrue(svg, svg.contains("<circle") && svg.contains("</svg>"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static String drawCircle(Path file, double x, double radius) throws DeviceCloseException {
+        SVGDevice device = new SVGDevice(file.toString(), 7, 7);
+        device.openNewPage();
+        device.drawCircle(CTX, x, 7, radius);
+        return device.closeAndGetContents();
+    }
+}
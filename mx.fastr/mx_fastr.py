@@ -438,6 +438,23 @@ def rbdiag(args):
     vmArgs += ['com.oracle.truffle.r.nodes.test.RBuiltinDiagnostics']
     mx.run_java(vmArgs + args)
 
+def rbenchjmh(args):
+    '''Runs the JMH benchmarks of the com.oracle.truffle.r.benchmarks project
+
+    All arguments are passed to JMH, e.g. a regular expression selecting the benchmarks.
+    Unless the result format is given explicitly, the results are written in JSON format
+    into jmh-results.json in the current directory (or into the given result file).'''
+    vmArgs = mx.get_runtime_jvm_args('com.oracle.truffle.r.benchmarks')
+    def _has_option(*names):
+        # accepts both "-rf json" and "-rf=json" forms
+        return any(a in names or a.startswith(tuple(n + '=' for n in names)) for a in args)
+    if not _has_option('-rf', '--resultFormat'):
+        args = ['-rf', 'json'] + args
+        if not _has_option('-rff', '--result'):
+            args = ['-rff', 'jmh-results.json'] + args
+    vmArgs += ['org.openjdk.jmh.Main']
+    return mx.run_java(vmArgs + args)
+
 def _gnur_path():
     np = mx.project('com.oracle.truffle.r.native')
     return join(np.dir, 'gnur', r_version(), 'bin')
@@ -495,6 +512,7 @@ _commands = {
     'rutnoapps' : [ut_noapps, ['options']],
     'rbcheck' : [rbcheck, '--filter [gnur-only,fastr-only,both,both-diff]'],
     'rbdiag' : [rbdiag, '(builtin)* [-v] [-n] [-m] [--sweep | --sweep=lite | --sweep=total] [--mnonly] [--noSelfTest] [--matchLevel=same | --matchLevel=error] [--maxSweeps=N] [--outMaxLev=N]'],
+    'rbenchjmh' : [rbenchjmh, '[JMH options]'],
     'rrepl' : [rrepl, '[options]'],
     'rembed' : [rembed, '[options]'],
     'r-cp' : [r_classpath, '[options]'],
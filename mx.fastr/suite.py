@@ -199,6 +199,21 @@ suite = {
       "workingSets" : "FastR",
     },
 
+    "com.oracle.truffle.r.benchmarks" : {
+      "sourceDirs" : ["src"],
+      "dependencies" : [
+        "mx:JMH",
+        "com.oracle.truffle.r.engine",
+        "com.oracle.truffle.r.ffi.impl",
+      ],
+      "checkstyle" : "com.oracle.truffle.r.runtime",
+      "javaCompliance" : "1.8",
+      "annotationProcessors" : [
+          "mx:JMH",
+      ],
+      "workingSets" : "FastR,Test",
+    },
+
     "com.oracle.truffle.r.engine" : {
       "sourceDirs" : ["src"],
       "dependencies" : [